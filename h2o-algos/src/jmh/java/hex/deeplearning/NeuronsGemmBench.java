@@ -0,0 +1,73 @@
+package hex.deeplearning;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Forward propagation of a mini-batch through a 3x1024 MLP: one gemv per mini-batch row vs. blocked gemm.
+ */
+@Fork(1)
+@Threads(1)
+@State(Scope.Thread)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NeuronsGemmBench {
+
+  private static final int LAYERS = 3;
+  private static final int UNITS = 1024;
+
+  @Param({"1", "4", "16", "32"})
+  private int miniBatch;
+
+  private float[][] w;
+  private double[][] b;
+  private double[][][] a; // activations per layer (input + hidden), per mini-batch row
+
+  @Setup
+  public void setup() {
+    Random rng = new Random(0xDEE9);
+    w = new float[LAYERS][UNITS * UNITS];
+    b = new double[LAYERS][UNITS];
+    a = new double[LAYERS + 1][miniBatch][UNITS];
+    for (int l = 0; l < LAYERS; l++) {
+      for (int i = 0; i < w[l].length; i++)
+        w[l][i] = (rng.nextFloat() - 0.5f) / 32;
+      for (int i = 0; i < UNITS; i++)
+        b[l][i] = rng.nextDouble();
+    }
+    for (int mb = 0; mb < miniBatch; mb++)
+      for (int i = 0; i < UNITS; i++)
+        a[0][mb][i] = rng.nextDouble();
+  }
+
+  @Benchmark
+  public double fpropGemv() {
+    for (int l = 0; l < LAYERS; l++)
+      for (int mb = 0; mb < miniBatch; mb++)
+        Neurons.gemv_row_optimized(a[l + 1][mb], w[l], a[l][mb], b[l], null);
+    return a[LAYERS][0][0];
+  }
+
+  @Benchmark
+  public double fpropGemm() {
+    for (int l = 0; l < LAYERS; l++)
+      Neurons.gemm(a[l + 1], w[l], a[l], b[l], null, miniBatch);
+    return a[LAYERS][0][0];
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(NeuronsGemmBench.class.getSimpleName())
+        .build();
+
+    new Runner(opt).run();
+  }
+}
@@ -365,6 +365,31 @@ public class DataInfo extends Keyed<DataInfo> {
     return beta;
   }
 
+  /**
+   * Inverse of denormalizeBeta, express coefficients of the original (non-standardized) data in this DataInfo's
+   * standardized space.
+   */
+  public double[] normalizeBeta(double [] beta) {
+    int N = fullN()+1;
+    assert (beta.length % N) == 0:"beta len = " + beta.length + " expected multiple of" + N;
+    int nclasses = beta.length/N;
+    beta = MemoryManager.arrayCopyOf(beta,beta.length);
+    if (_predictor_transform == DataInfo.TransformType.STANDARDIZE) {
+      for(int c = 0; c < nclasses; ++c) {
+        int off = N*c;
+        double norm = 0.0;
+        final int numoff = numStart();
+        for (int i = numoff; i < N-1; i++) {
+          double b = beta[off + i];
+          norm += b * _normSub[i - numoff];
+          beta[off + i] = _normMul[i - numoff] == 0?0:b / _normMul[i - numoff];
+        }
+        beta[off + N - 1] += norm;
+      }
+    }
+    return beta;
+  }
+
   private int [] _fullCatOffsets;
   private int [][] _catMap;
 
@@ -0,0 +1,148 @@
+package hex.deeplearning;
+
+import hex.deeplearning.DeepLearningModel.DeepLearningParameters.AveragingPrecision;
+
+/**
+ * Lossy encoding of the per-node model updates exchanged during model averaging (see DeepLearningTask).
+ * An array x is sent as its delta d = x - s*ref against the shared model ref all nodes started the iteration from,
+ * where s is the number of the models summed up in x.
+ * Float16: 2 bytes per value (IEEE half precision, round to nearest, clamped to the largest finite half)
+ * Int8: 1 byte per value plus one float scale per block of BLOCK values (stochastic rounding, i.e., unbiased)
+ * Optionally, every node keeps the rounding error of what it sent last (see AveragingState) and adds it to its next delta.
+ */
+final class AveragingCodec {
+  static final int BLOCK = 256;
+
+  private AveragingCodec() {}
+
+  /**
+   * @return number of bytes the encoding of n values takes
+   */
+  static int encodedSize(AveragingPrecision p, int n) {
+    switch (p) {
+      case Float16: return 2 * n;
+      case Int8: return n + 4 * ((n + BLOCK - 1) / BLOCK);
+      default: throw new IllegalArgumentException("Unsupported precision: " + p);
+    }
+  }
+
+  /**
+   * Encode x - s*ref
+   * @param seed seed for the stochastic rounding (Int8 only)
+   */
+  static byte[] encode(AveragingPrecision p, float[] x, float[] ref, float s, long seed) {
+    return encode(p, x, ref, s, null, seed);
+  }
+
+  /**
+   * Encode x - s*ref + residual, with error feedback: the residual is added to the delta before encoding and is then
+   * replaced by what the encoding lost, so that the rounding errors of one iteration are sent along with the next one
+   * @param residual rounding error left over by the previous encoding (updated in place), or null
+   * @param seed seed for the stochastic rounding (Int8 only)
+   */
+  static byte[] encode(AveragingPrecision p, float[] x, float[] ref, float s, float[] residual, long seed) {
+    assert x.length == ref.length && (residual == null || residual.length == x.length);
+    final byte[] res = new byte[encodedSize(p, x.length)];
+    if (p == AveragingPrecision.Float16) {
+      for (int i = 0, j = 0; i < x.length; ++i, j += 2) {
+        final float d = residual == null ? x[i] - s * ref[i] : x[i] - s * ref[i] + residual[i];
+        short h = toHalf(d);
+        res[j] = (byte) h;
+        res[j + 1] = (byte) (h >>> 8);
+        if (residual != null) residual[i] = d - toFloat(h);
+      }
+      return res;
+    }
+    long rng = seed | 1; // xorshift state must not be 0
+    int j = 0;
+    for (int lo = 0; lo < x.length; lo += BLOCK) {
+      final int hi = Math.min(x.length, lo + BLOCK);
+      float max = 0;
+      for (int i = lo; i < hi; ++i)
+        max = Math.max(max, Math.abs(residual == null ? x[i] - s * ref[i] : x[i] - s * ref[i] + residual[i]));
+      final float scale = max / 127;
+      j = putFloat(res, j, scale);
+      for (int i = lo; i < hi; ++i) {
+        final float d = residual == null ? x[i] - s * ref[i] : x[i] - s * ref[i] + residual[i];
+        int q = 0;
+        if (scale > 0) {
+          float v = d / scale;
+          float lower = (float) Math.floor(v);
+          rng ^= rng << 13; rng ^= rng >>> 7; rng ^= rng << 17;
+          q = (int) lower + ((rng >>> 40) * 0x1.0p-24f < v - lower ? 1 : 0);
+          q = Math.max(-127, Math.min(127, q));
+        }
+        res[j++] = (byte) q;
+        if (residual != null) residual[i] = d - q * scale;
+      }
+    }
+    return res;
+  }
+
+  /**
+   * Decode into x = s*ref + delta
+   */
+  static void decode(AveragingPrecision p, byte[] enc, float[] x, float[] ref, float s) {
+    assert x.length == ref.length && enc.length == encodedSize(p, x.length);
+    if (p == AveragingPrecision.Float16) {
+      for (int i = 0, j = 0; i < x.length; ++i, j += 2)
+        x[i] = s * ref[i] + toFloat((short) ((enc[j] & 0xff) | (enc[j + 1] << 8)));
+      return;
+    }
+    int j = 0;
+    for (int lo = 0; lo < x.length; lo += BLOCK) {
+      final int hi = Math.min(x.length, lo + BLOCK);
+      final float scale = getFloat(enc, j);
+      j += 4;
+      for (int i = lo; i < hi; ++i)
+        x[i] = s * ref[i] + enc[j++] * scale;
+    }
+  }
+
+  private static int putFloat(byte[] buf, int off, float f) {
+    int bits = Float.floatToRawIntBits(f);
+    buf[off] = (byte) bits;
+    buf[off + 1] = (byte) (bits >>> 8);
+    buf[off + 2] = (byte) (bits >>> 16);
+    buf[off + 3] = (byte) (bits >>> 24);
+    return off + 4;
+  }
+
+  private static float getFloat(byte[] buf, int off) {
+    return Float.intBitsToFloat((buf[off] & 0xff) | (buf[off + 1] & 0xff) << 8 | (buf[off + 2] & 0xff) << 16 | (buf[off + 3] & 0xff) << 24);
+  }
+
+  /**
+   * float to IEEE 754 half precision bits, rounding to nearest; values too large for a half are clamped to +/-65504
+   */
+  static short toHalf(float f) {
+    final int bits = Float.floatToRawIntBits(f);
+    final int sign = (bits >>> 16) & 0x8000;
+    final int abs = bits & 0x7fffffff;
+    int val = abs + 0x1000; // rounded
+    if (abs >= 0x7f800000) // NaN or infinity
+      return (short) (sign | 0x7c00 | ((abs & 0x007fffff) != 0 ? 0x200 : 0));
+    if (val >= 0x47800000) // too large
+      return (short) (sign | 0x7bff);
+    if (val >= 0x38800000) // normal
+      return (short) (sign | ((val - 0x38000000) >>> 13));
+    if (val < 0x33000000) // too small, flush to zero
+      return (short) sign;
+    val = abs >>> 23; // subnormal
+    return (short) (sign | ((((abs & 0x7fffff) | 0x800000) + (0x800000 >>> (val - 102))) >>> (126 - val)));
+  }
+
+  /**
+   * IEEE 754 half precision bits to float (exact)
+   */
+  static float toFloat(short h) {
+    final int bits = h & 0xffff;
+    final int sign = (bits & 0x8000) << 16;
+    final int exp = (bits >>> 10) & 0x1f;
+    final int mant = bits & 0x3ff;
+    if (exp == 0x1f) return Float.intBitsToFloat(sign | 0x7f800000 | (mant << 13)); // NaN or infinity
+    if (exp != 0) return Float.intBitsToFloat(sign | ((exp + 112) << 23) | (mant << 13)); // normal
+    final float f = mant * 0x1.0p-24f; // subnormal or zero
+    return sign == 0 ? f : -f;
+  }
+}
@@ -0,0 +1,49 @@
+package hex.deeplearning;
+
+import water.Iced;
+
+/**
+ * Per-node state of reduced precision model averaging (see DeepLearningTask and AveragingCodec), kept for the whole
+ * training run in the DKV under a key homed on the node (see DeepLearningModelInfo.averagingStateKey()):
+ * the dense matrices of the shared model the current iteration started from (the reference the deltas are taken against),
+ * and the rounding error of what this node sent up the reduction tree last (error feedback).
+ * The arrays are allocated once and overwritten in every iteration.
+ */
+final class AveragingState extends Iced<AveragingState> {
+  float[][] _reference;
+  float[][] _residual;
+
+  /**
+   * Copy the dense matrices of the shared model into the reference
+   * (the residual is reset if the shapes changed, e.g., after a checkpoint restart with a different model)
+   */
+  void setReference(float[][] dense) {
+    if (!sameShape(_reference, dense)) {
+      _reference = new float[dense.length][];
+      for (int i = 0; i < dense.length; ++i)
+        _reference[i] = new float[dense[i].length];
+      _residual = null;
+    }
+    for (int i = 0; i < dense.length; ++i)
+      System.arraycopy(dense[i], 0, _reference[i], 0, dense[i].length);
+  }
+
+  /**
+   * @return residual of the same shape as the reference (all zeros at first)
+   */
+  float[][] residual() {
+    if (_residual == null) {
+      _residual = new float[_reference.length][];
+      for (int i = 0; i < _reference.length; ++i)
+        _residual[i] = new float[_reference[i].length];
+    }
+    return _residual;
+  }
+
+  private static boolean sameShape(float[][] a, float[][] b) {
+    if (a == null || a.length != b.length) return false;
+    for (int i = 0; i < a.length; ++i)
+      if (a[i].length != b[i].length) return false;
+    return true;
+  }
+}
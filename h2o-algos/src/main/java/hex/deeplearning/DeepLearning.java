@@ -433,6 +433,8 @@ public class DeepLearning extends ModelBuilder<DeepLearningModel,DeepLearningMod
         //main loop
         for(;;) {
           model.iterations++;
+          if (mp._epochs != 0 && DeepLearningTask.parameterServer(mp))
+            ParameterServer.start(model.model_info()); //stripes of the model this iteration starts from
           model.set_model_info(mp._epochs == 0 ? model.model_info() : H2O.CLOUD.size() > 1 && mp._replicate_training_data ? (mp._single_node_mode ?
                   new DeepLearningTask2(_job._key, train, model.model_info(), rowFraction(train, mp, model), model.iterations).doAll(Key.make(H2O.SELF)).model_info() : //replicated data + single node mode
                   new DeepLearningTask2(_job._key, train, model.model_info(), rowFraction(train, mp, model), model.iterations).doAllNodes(             ).model_info()): //replicated data + multi-node mode
@@ -491,6 +493,7 @@ public class DeepLearning extends ModelBuilder<DeepLearningModel,DeepLearningMod
         }
         if (model != null) {
           model.deleteElasticAverageModels();
+          model.deleteAveragingStates();
           model.unlock(_job);
           if (model.actual_best_model_key != null) {
             assert (model.actual_best_model_key != model._key);
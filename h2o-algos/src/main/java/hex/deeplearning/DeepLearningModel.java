@@ -941,6 +941,9 @@ public class DeepLearningModel extends Model<DeepLearningModel,DeepLearningModel
     if (actual_best_model_key!=null) DKV.remove(actual_best_model_key);
     DKV.remove(model_info().data_info()._key);
     deleteElasticAverageModels();
+    deleteAveragingStates();
+    if (model_info().get_params()._parameter_server)
+      ParameterServer.remove(model_info()._model_id);
     super.delete();
   }
 
@@ -953,6 +956,15 @@ public class DeepLearningModel extends Model<DeepLearningModel,DeepLearningModel
     }
   }
 
+  void deleteAveragingStates() {
+    DeepLearningParameters dlp = model_info().get_params();
+    if (dlp._averaging_precision != DeepLearningParameters.AveragingPrecision.Float32) {
+      for (H2ONode node : H2O.CLOUD._memary) {
+        DKV.remove(model_info().averagingStateKey(node));
+      }
+    }
+  }
+
   private String getHeader() {
     assert get_params()._autoencoder;
     StringBuilder sb = new StringBuilder();
@@ -1691,6 +1703,27 @@ public class DeepLearningModel extends Model<DeepLearningModel,DeepLearningModel
     public double _elastic_averaging_moving_rate = 0.9;
     public double _elastic_averaging_regularization = 1e-3;
 
+    /**
+     * Parameter server mode: the weights and biases are striped across the nodes, which push their updates to them
+     * asynchronously during the iteration instead of averaging their models at its end (Experimental)
+     */
+    public boolean _parameter_server = false;
+
+    /**
+     * Number of training samples a node processes between two pushes of its updates to the parameter server
+     */
+    public int _parameter_server_sync_samples = 1000;
+
+    /**
+     * Max. number of pushes a node can be ahead of the slowest node before it waits for it (bounded staleness)
+     */
+    public int _parameter_server_max_staleness = 4;
+
+    /**
+     * Precision of the per-node model updates sent over the network for model averaging (Experimental)
+     */
+    public AveragingPrecision _averaging_precision = AveragingPrecision.Float32;
+
     // stochastic gradient descent: mini-batch size = 1
     // batch gradient descent: mini-batch size = # training rows
     public int _mini_batch_size = 1;
@@ -1703,6 +1736,10 @@ public class DeepLearningModel extends Model<DeepLearningModel,DeepLearningModel
       Uniform, Stratified
     }
 
+    public enum AveragingPrecision {
+      Float32, Float16, Int8
+    }
+
     public enum InitialWeightDistribution {
       UniformAdaptive, Uniform, Normal
     }
@@ -1946,6 +1983,23 @@ public class DeepLearningModel extends Model<DeepLearningModel,DeepLearningModel
           dl.error("_elastic_averaging_moving_rate", "Elastic averaging moving rate must be between 0 and 1.");
         if (_elastic_averaging_regularization < 0)
           dl.error("_elastic_averaging_regularization", "Elastic averaging regularization strength must be >= 0.");
+        if (_parameter_server)
+          dl.error("_parameter_server", "Parameter server mode is not supported together with elastic averaging.");
+        if (_averaging_precision != AveragingPrecision.Float32)
+          dl.error("_averaging_precision", "Reduced averaging precision is not supported together with elastic averaging.");
+      }
+      if (!_parameter_server) {
+        dl.hide("_parameter_server_sync_samples", "Parameter server mode is required for this parameter.");
+        dl.hide("_parameter_server_max_staleness", "Parameter server mode is required for this parameter.");
+      } else {
+        if (_parameter_server_sync_samples < 1)
+          dl.error("_parameter_server_sync_samples", "Parameter server sync samples must be >= 1.");
+        if (_parameter_server_max_staleness < 0)
+          dl.error("_parameter_server_max_staleness", "Parameter server max. staleness must be >= 0.");
+        if (_averaging_precision != AveragingPrecision.Float32)
+          dl.error("_averaging_precision", "Reduced averaging precision is not supported in parameter server mode (there is no model averaging).");
+        if (_replicate_training_data && H2O.CLOUD.size() > 1)
+          dl.error("_replicate_training_data", "Parameter server mode requires replicate_training_data to be disabled.");
       }
       if (_autoencoder && _stopping_metric != ScoreKeeper.StoppingMetric.AUTO && _stopping_metric != ScoreKeeper.StoppingMetric.MSE) {
         dl.error("_stopping_metric", "Stopping metric must either be AUTO or MSE for autoencoder.");
@@ -1999,6 +2053,10 @@ public class DeepLearningModel extends Model<DeepLearningModel,DeepLearningModel
               "_elastic_averaging",
               "_elastic_averaging_moving_rate",
               "_elastic_averaging_regularization",
+              "_parameter_server",
+              "_parameter_server_sync_samples",
+              "_parameter_server_max_staleness",
+              "_averaging_precision",
               "_mini_batch_size",
               "_pretrained_autoencoder"
       };
@@ -10,6 +10,7 @@ import water.*;
 import water.fvec.Frame;
 import water.util.*;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Random;
 
@@ -137,6 +138,11 @@ final public class DeepLearningModelInfo extends Iced<DeepLearningModelInfo> {
   public synchronized void set_processed_local(long p) { processed_local = p; }
   public synchronized void add_processed_local(long p) { processed_local += p; }
   public synchronized long get_processed_total() { return processed_global + processed_local; }
+  private long averaging_bytes_raw;  // size of the per-node models sent for model averaging, at full precision
+  private long averaging_bytes_sent; // size actually sent (see averaging_precision)
+  public synchronized long get_averaging_bytes_raw() { return averaging_bytes_raw; }
+  public synchronized long get_averaging_bytes_sent() { return averaging_bytes_sent; }
+  public synchronized void add_averaging_bytes(long raw, long sent) { averaging_bytes_raw += raw; averaging_bytes_sent += sent; }
 
   // package local helpers
   int[] units; //number of neurons per layer, extracted from parameters and from datainfo
@@ -504,6 +510,43 @@ final public class DeepLearningModelInfo extends Iced<DeepLearningModelInfo> {
     add_processed_local(other.get_processed_local());
   }
 
+  /**
+   * Raw data of the dense matrices which make up the bulk of the model (weights and their momenta or AdaDelta helpers),
+   * always in the same order. Matrices received without their data (see withoutDenseMatrices()) get freshly allocated.
+   */
+  float[][] denseMatrices() {
+    ArrayList<float[]> res = new ArrayList<>();
+    for (Storage.DenseRowMatrix[] ms : new Storage.DenseRowMatrix[][]{dense_row_weights, dense_row_weights_momenta, dense_row_ada_dx_g}) {
+      if (ms == null) continue;
+      for (int i = 0; i < ms.length; ++i) {
+        if (ms[i] == null) continue;
+        if (ms[i].raw() == null) ms[i] = new Storage.DenseRowMatrix(ms[i].rows(), ms[i].cols());
+        res.add(ms[i].raw());
+      }
+    }
+    return res.toArray(new float[res.size()][]);
+  }
+
+  /**
+   * Shallow copy of this model info in which the dense matrices are replaced by data-less matrices of the same shape
+   * (used when the dense matrices are transferred separately, see DeepLearningTask)
+   */
+  DeepLearningModelInfo withoutDenseMatrices() {
+    DeepLearningModelInfo res = clone();
+    res.dense_row_weights = shapesOf(dense_row_weights);
+    res.dense_row_weights_momenta = shapesOf(dense_row_weights_momenta);
+    res.dense_row_ada_dx_g = shapesOf(dense_row_ada_dx_g);
+    return res;
+  }
+
+  private static Storage.DenseRowMatrix[] shapesOf(Storage.DenseRowMatrix[] ms) {
+    if (ms == null) return null;
+    Storage.DenseRowMatrix[] res = new Storage.DenseRowMatrix[ms.length];
+    for (int i = 0; i < ms.length; ++i)
+      if (ms[i] != null) res[i] = new Storage.DenseRowMatrix(null, ms[i].rows(), ms[i].cols());
+    return res;
+  }
+
   /**
    * Multiply all weights/biases by a real-valued number
    * @param N multiplication factor
@@ -771,6 +814,10 @@ final public class DeepLearningModelInfo extends Iced<DeepLearningModelInfo> {
     return Key.make(_model_id + ".node" + node.index(), (byte) 1 /*replica factor*/, (byte) 31 /*hidden user-key*/, true, node);
   }
 
+  public Key averagingStateKey(H2ONode node) {
+    return Key.make(_model_id + ".averaging.node" + node.index(), (byte) 1 /*replica factor*/, (byte) 31 /*hidden user-key*/, true, node);
+  }
+
   public Key elasticAverageModelInfoKey() {
     return Key.make(_model_id + ".elasticaverage", (byte) 1 /*replica factor*/, (byte) 31 /*hidden user-key*/, true, H2O.CLOUD._memary[0]);
   }
@@ -2,26 +2,40 @@ package hex.deeplearning;
 
 import hex.genmodel.utils.DistributionFamily;
 import hex.deeplearning.DeepLearningModel.DeepLearningParameters;
+import hex.deeplearning.DeepLearningModel.DeepLearningParameters.AveragingPrecision;
 import hex.DataInfo;
 import hex.FrameTask;
+import water.AutoBuffer;
 import water.DKV;
 import water.H2O;
 import water.IcedUtils;
 import water.Key;
 import water.util.Log;
+import water.util.PrettyPrint;
 import water.util.RandomUtils;
 
 import java.util.Arrays;
 import java.util.Random;
 
 public class DeepLearningTask extends FrameTask<DeepLearningTask> {
-  final private boolean _training;
+  private boolean _training;
   private DeepLearningModelInfo _localmodel; //per-node state (to be reduced)
   private DeepLearningModelInfo _sharedmodel; //input/output
   transient Neurons[] _neurons;
   transient Random _dropout_rng;
   int _chunk_node_count = 1;
 
+  // Reduced precision model averaging: the per-node models are sent as low-precision deltas against the shared model
+  // this iteration started from, which every node keeps a copy of, along with its rounding error (see AveragingState)
+  private transient AveragingState _averaging; // this node's state (held by the task, shared with its local clones)
+  private transient byte[][] _encoded; // encoded per-node model, re-sent as is if the RPC has to resend the result
+  long _raw_bytes;  // size of the per-node models sent up the reduction tree at full precision
+  long _wire_bytes; // size actually sent
+
+  // Parameter server mode: the weights and biases are exchanged with the parameter server during the iteration instead
+  // of being averaged at its end (see ParameterServer), only the rest of the per-node models goes up the reduction tree
+  private transient ParameterServer.Worker _ps; // this node's client (held by the task, shared with its local clones)
+
   /**
    * Accessor to the object containing the (final) state of the Deep Learning model
    * Should only be queried after calling this.doAll(Frame training)
@@ -47,6 +61,8 @@ public class DeepLearningTask extends FrameTask<DeepLearningTask> {
     assert(inputModel.get_processed_local() == 0);
     _training=true;
     _sharedmodel = inputModel;
+    if (reducedPrecisionAveraging(inputModel.get_params()))
+      _averaging = startAveraging(inputModel);
 //    if (model_info().get_params()._elastic_averaging)
 //      DKV.put(_sharedmodel.elasticAverageModelInfoKey(), _sharedmodel);
     _useFraction=fraction;
@@ -81,6 +97,8 @@ public class DeepLearningTask extends FrameTask<DeepLearningTask> {
       _sharedmodel = null;
     }
     _localmodel.set_processed_local(0);
+    if (parameterServer(_localmodel.get_params()))
+      _ps = new ParameterServer.Worker(_localmodel, _jobKey);
   }
 
   // Create local workspace (neurons) and link them to shared weights
@@ -122,8 +140,10 @@ public class DeepLearningTask extends FrameTask<DeepLearningTask> {
     } else {
       seed = _dropout_rng.nextLong(); // non-reproducible case - make a fast & good random number
     }
+    if (_ps != null) _ps.awaitSlowest();
     fpropMiniBatch(seed, _neurons, _localmodel, _localmodel.get_params()._elastic_averaging ? _sharedmodel : null, _training, responses, offsets, n);
     bpropMiniBatch(_neurons, n);
+    if (_ps != null) _ps.trained(n);
   }
 
   /**
@@ -161,7 +181,8 @@ public class DeepLearningTask extends FrameTask<DeepLearningTask> {
   }
 
   /**
-   * After all maps are done on a node, this is called to store the per-node model into DKV (for elastic averaging)
+   * After all maps are done on a node, this is called to store the per-node model into DKV (for elastic averaging),
+   * or to push what is left of the per-node updates to the parameter server.
    * Otherwise, do nothing.
    */
   @Override protected void closeLocal() {
@@ -169,6 +190,10 @@ public class DeepLearningTask extends FrameTask<DeepLearningTask> {
       // store local model, as it will be reduced in the following, and hence averaged with other models
       DKV.put(_localmodel.localModelInfoKey(H2O.SELF), _localmodel, _fs);
     }
+    if (_ps != null) {
+      _ps.close();
+      _ps = null;
+    }
     _sharedmodel = null; //avoid serialization overhead
   }
 
@@ -178,12 +203,23 @@ public class DeepLearningTask extends FrameTask<DeepLearningTask> {
    * @param other
    */
   @Override public void reduce(DeepLearningTask other){
+    _raw_bytes += other._raw_bytes;
+    _wire_bytes += other._wire_bytes;
     if (_localmodel != null && other._localmodel != null && other._localmodel.get_processed_local() > 0 //other DLTask was active (its model_info should be used for averaging)
         && other._localmodel != _localmodel) //other DLTask worked on a different model_info
     {
+      if (parameterServer(_localmodel.get_params())) {
+        // the weights and biases are on the parameter server, only count the samples (and keep this node's model,
+        // the other one comes without its weights)
+        if (_localmodel.get_processed_local() == 0)
+          _chunk_node_count = other._chunk_node_count;
+        else
+          _chunk_node_count += other._chunk_node_count;
+        _localmodel.add_processed_local(other._localmodel.get_processed_local());
+      }
       // avoid adding remote model info to unprocessed local data, still random
       // (this can happen if we have no chunks on the master node)
-      if (_localmodel.get_processed_local() == 0) {
+      else if (_localmodel.get_processed_local() == 0) {
         _localmodel = other._localmodel;
         _chunk_node_count = other._chunk_node_count;
       } else {
@@ -220,7 +256,9 @@ public class DeepLearningTask extends FrameTask<DeepLearningTask> {
       _localmodel.add_processed_global(_localmodel.get_processed_local()); //move local sample counts to global ones
       _localmodel.set_processed_local(0l);
       // model averaging
-      if (_chunk_node_count > 1)
+      if (parameterServer(dlp))
+        ParameterServer.finish(_localmodel); // the weights and biases trained by all nodes
+      else if (_chunk_node_count > 1)
         _localmodel.div(_chunk_node_count);
       if (_localmodel.get_params()._elastic_averaging)
         _sharedmodel = DeepLearningModelInfo.timeAverage(_localmodel);
@@ -231,9 +269,95 @@ public class DeepLearningTask extends FrameTask<DeepLearningTask> {
     }
     if (_sharedmodel == null)
       _sharedmodel = _localmodel;
+    if (reducedPrecisionAveraging(dlp)) {
+      _sharedmodel.add_averaging_bytes(_raw_bytes, _wire_bytes);
+      if (!dlp._quiet_mode)
+        Log.info("Model averaging sent " + PrettyPrint.bytes(_wire_bytes) + " over the network (" + PrettyPrint.bytes(_raw_bytes) + " at full precision).");
+    }
     _localmodel = null;
   }
 
+  /**
+   * Whether the per-node models are sent up the reduction tree at reduced precision
+   */
+  private static boolean reducedPrecisionAveraging(DeepLearningParameters dlp) {
+    return dlp._averaging_precision != AveragingPrecision.Float32 && !dlp._elastic_averaging && !dlp._parameter_server && !dlp._replicate_training_data && H2O.CLOUD.size() > 1;
+  }
+
+  /**
+   * Whether the nodes train against the parameter server instead of averaging their models (only without replicated
+   * training data, which is trained by DeepLearningTask2)
+   */
+  static boolean parameterServer(DeepLearningParameters dlp) {
+    return dlp._parameter_server && !dlp._elastic_averaging && (!dlp._replicate_training_data || H2O.CLOUD.size() == 1);
+  }
+
+  /**
+   * Remember the starting point of this iteration on this node, in the node's averaging state (no new arrays after the first iteration)
+   */
+  private static AveragingState startAveraging(DeepLearningModelInfo shared) {
+    final Key k = shared.averagingStateKey(H2O.SELF);
+    AveragingState state = DKV.getGet(k);
+    if (state == null) state = new AveragingState();
+    state.setReference(shared.denseMatrices());
+    DKV.put(k, state);
+    return state;
+  }
+
+  // Custom serialization: the per-node model going up the reduction tree is optionally sent at reduced precision
+  public final AutoBuffer write_impl(AutoBuffer ab) {
+    ab.putZ(_training).put4(_chunk_node_count).put(_sharedmodel);
+    if (_localmodel == null || _averaging == null) { // outgoing task, or full precision
+      final boolean withoutWeights = _localmodel != null && parameterServer(_localmodel.get_params());
+      ab.put1(AveragingPrecision.Float32.ordinal()).put(withoutWeights ? _localmodel.withoutDenseMatrices() : _localmodel);
+      return ab.put8(_raw_bytes).put8(_wire_bytes);
+    }
+    final AveragingPrecision p = _localmodel.get_params()._averaging_precision;
+    final float[][] dense = _localmodel.denseMatrices();
+    if (_encoded == null) {
+      final float s = _chunk_node_count;
+      final float[][] residual = _averaging.residual();
+      // a different stochastic rounding on every node and in every iteration
+      final long seed = _localmodel.get_params()._seed + 0x9E3779B97F4A7C15L * _localmodel.get_processed_global() + H2O.SELF.index();
+      _encoded = new byte[dense.length][];
+      for (int i = 0; i < dense.length; ++i)
+        _encoded[i] = AveragingCodec.encode(p, dense[i], _averaging._reference[i], s, residual[i], seed + 0x5EED * i);
+      DKV.put(_localmodel.averagingStateKey(H2O.SELF), _averaging); // keep the residual for the next iteration
+    }
+    ab.put1(p.ordinal()).put(_localmodel.withoutDenseMatrices()).put4(dense.length);
+    long raw = 0, wire = 0;
+    for (int i = 0; i < dense.length; ++i) {
+      ab.putA1(_encoded[i]);
+      raw += 4L * dense[i].length;
+      wire += _encoded[i].length;
+    }
+    return ab.put8(_raw_bytes + raw).put8(_wire_bytes + wire);
+  }
+
+  public final DeepLearningTask read_impl(AutoBuffer ab) {
+    _training = ab.getZ();
+    _chunk_node_count = ab.get4();
+    _sharedmodel = ab.get();
+    if (_sharedmodel != null && reducedPrecisionAveraging(_sharedmodel.get_params()))
+      _averaging = startAveraging(_sharedmodel); // incoming task, remember the starting point
+    final AveragingPrecision p = AveragingPrecision.values()[ab.get1()];
+    _localmodel = ab.get();
+    if (p != AveragingPrecision.Float32) {
+      // result of a child node, read into the task sent to it (a clone of this node's task)
+      if (_averaging == null)
+        throw new IllegalStateException("No reference model for reduced precision model averaging of " + _localmodel._model_id);
+      final float[][] dense = _localmodel.denseMatrices();
+      final float s = _chunk_node_count;
+      final int n = ab.get4();
+      assert n == dense.length;
+      for (int i = 0; i < n; ++i)
+        AveragingCodec.decode(p, ab.getA1(), dense[i], _averaging._reference[i], s);
+    }
+    _raw_bytes = ab.get8();
+    _wire_bytes = ab.get8();
+    return this;
+  }
+
   public static Neurons[] makeNeuronsForTraining(final DeepLearningModelInfo minfo) {
     return makeNeurons(minfo, true);
   }
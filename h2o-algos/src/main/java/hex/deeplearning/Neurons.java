@@ -91,6 +91,22 @@ public abstract class Neurons {
    */
   private boolean _shortcut = false;
 
+  /**
+   * Scratch space for the mini-batch gemm and bprop (re-used across calls instead of allocated per call)
+   */
+  private transient double[][] _gemmRes, _gemmX;
+  private transient double[] _grad;
+
+  /**
+   * Helper to get the gradient buffer for bprop (one value per mini-batch row)
+   * @param n actual mini-batch size
+   * @return buffer of length n (contents are undefined)
+   */
+  final double[] grad(int n) {
+    if (_grad == null || _grad.length != n) _grad = new double[n];
+    return _grad;
+  }
+
   public Storage.DenseVector _avg_a;
 
   /**
@@ -197,8 +213,8 @@ public abstract class Neurons {
     final int rows = _a[0].size();
     float m = _minfo.adaDelta() ? 0 : momentum();
     float r = _minfo.adaDelta() ? 0 : rate(_minfo.get_processed_total()) * (1f - m);
+    final double[] g = grad(n);
     for( int row = 0; row < rows; row++ ) {
-      double[] g = new double[n];
       for (int mb=0;mb<n;++mb)
         g[mb]=_e[mb].raw()[row];
       bprop(row, g, r, m, n);
@@ -241,26 +257,31 @@ public abstract class Neurons {
     double avg_grad2 = 0;
 
     final int idx = row * cols;
+    final float[] w_raw = _w.raw();
+    final float[] wm_raw = have_momenta ? _wm.raw() : null;
+    final float[] wEA_raw = _wEA != null ? _wEA.raw() : null;
+    final double elastic = params._elastic_averaging_regularization;
 
+    // The weight row (or the k channels of it for Maxout) stays hot across the mini-batch rows
     for( int mb = 0; mb < n; mb++ ) {
       if (_shortcut && partial_grad[mb] == 0f) return;
-      final boolean update_prev = _previous._e != null && _previous._e[mb] != null;
+      final double pg = partial_grad[mb];
+      final double[] prev_e = _previous._e != null && _previous._e[mb] != null ? _previous._e[mb].raw() : null;
+      final double[] prev_a = _previous._a[mb].raw();
+      // for Maxout, use the "winning" linear index into the matrix
+      final int winner = _k != 0 ? _maxIncoming[mb][row] : 0;
       for( int col = 0; col < cols; col++ ) {
-        int w = idx + col;
-
-        // for Maxout, return the "winning" linear index into the matrix
-        if (_k != 0) w = _k * w + _maxIncoming[mb][row];
+        final int w = _k != 0 ? _k * (idx + col) + winner : idx + col;
 
-        final double weight = _w.raw()[w];
-        if( update_prev ) _previous._e[mb].add(col, partial_grad[mb] * weight); // propagate the error dE/dnet to the previous layer, via connecting weights
-        final double previous_a = _previous._a[mb].get(col);
+        final double weight = w_raw[w];
+        if( prev_e != null ) prev_e[col] += pg * weight; // propagate the error dE/dnet to the previous layer, via connecting weights
+        final double previous_a = prev_a[col];
         if (fast_mode && previous_a == 0) continue;
 
         //this is the actual gradient dE/dw
-        double grad = partial_grad[mb] * previous_a + Math.signum(weight) * l1 + weight * l2;
-        if (_wEA !=null) {
-          grad += params._elastic_averaging_regularization * (_w.raw()[w] -_wEA.raw()[w]);
-//        Log.info("weight: my: " + _w.raw()[w] + ", consensus: " + _wEA.raw()[w] + ", delta: " + (_w.raw()[w] -_wEA.raw()[w]) + ", relative delta: " + (_w.raw()[w] -_wEA.raw()[w])/_w.raw()[w]);
+        double grad = pg * previous_a + Math.signum(weight) * l1 + weight * l2;
+        if (wEA_raw != null) {
+          grad += elastic * (w_raw[w] - wEA_raw[w]);
         }
 
         // store the gradient
@@ -271,23 +292,23 @@ public abstract class Neurons {
           final double grad2 = grad*grad;
           avg_grad2 += grad2;
           float brate = computeAdaDeltaRateForWeight(grad, w, _ada_dx_g, rho, eps);
-          _w.raw()[w] -= brate * grad;
+          w_raw[w] -= brate * grad;
         } else {
           if (!nesterov) {
             final double delta = -rate * grad;
-            _w.raw()[w] += delta;
+            w_raw[w] += delta;
             if( have_momenta ) {
-              _w.raw()[w] += momentum * _wm.raw()[w];
-              _wm.raw()[w] = (float)delta;
+              w_raw[w] += momentum * wm_raw[w];
+              wm_raw[w] = (float)delta;
             }
           } else {
             double tmp = -grad;
             if( have_momenta ) {
-              _wm.raw()[w] *= momentum;
-              _wm.raw()[w] += tmp;
-              tmp = _wm.raw()[w];
+              wm_raw[w] *= momentum;
+              wm_raw[w] += tmp;
+              tmp = wm_raw[w];
             }
-            _w.raw()[w] += rate * tmp;
+            w_raw[w] += rate * tmp;
           }
         }
       }
@@ -624,9 +645,7 @@ public abstract class Neurons {
   public static class Tanh extends Neurons {
     public Tanh(int units) { super(units); }
     @Override protected void fprop(long seed, boolean training, int n) {
-      // TODO: implement GEMM
-      for (int mb=0;mb<n;++mb)
-        gemv(_a[mb], _w, _previous._a[mb], _b, _dropout != null ? _dropout.bits() : null);
+      gemm(_dropout != null ? _dropout.bits() : null, n);
       final int rows = _a[0].size();
       for (int mb=0;mb<n;++mb)
         for( int row = 0; row < rows; row++ )
@@ -640,7 +659,7 @@ public abstract class Neurons {
       float m = _minfo.adaDelta() ? 0 : momentum();
       float r = _minfo.adaDelta() ? 0 : rate(_minfo.get_processed_total()) * (1f - m);
       final int rows = _a[0].size();
-      double[] g = new double[n];
+      final double[] g = grad(n);
       for (int row = 0; row < rows; row++) {
         for (int mb=0;mb<n;++mb)
           g[mb] = _e[mb].get(row) * (1 - _a[mb].get(row) * _a[mb].get(row));
@@ -683,38 +702,18 @@ public abstract class Neurons {
     @Override protected void fprop(long seed, boolean training, int n) {
       assert(_b.size() == _a[0].size() * _k);
       assert(_w.size() == _a[0].size() * _previous._a[0].size() * _k);
-      final int rows = _a[0].size();
-      double[] channel = new double[_k];
-      for( int row = 0; row < rows; row++ ) {
-        for (int mb=0;mb<n;++mb) {
-          _a[mb].set(row, 0);
-          if( !training || _dropout == null || _dropout.unit_active(row) ) {
-            final int cols = _previous._a[mb].size();
-            // For each neuron in the previous layer, there's k channels
-            // Each channel has its own weight and bias values
-            // The channel leading to the highest incoming value (W*x + b) is the "winner" and will activate this neuron
-            short maxK = 0;
-            for( short k = 0; k < _k; k++ ) {
-              channel[k] = 0;
-              for( int col = 0; col < cols; col++ ) {
-                channel[k] += _w.raw()[_k*(row * cols + col) + k] * _previous._a[mb].get(col);
-              }
-              channel[k] += _b.raw()[_k*row+k];
-              if (channel[k] > channel[maxK]) maxK=k;
-            }
-            _maxIncoming[mb][row] = maxK;
-            _a[mb].set(row, channel[maxK]);
-          }
-        }
-        compute_sparsity();
-      }
+      // For each neuron in the previous layer, there's k channels
+      // Each channel has its own weight and bias values
+      // The channel leading to the highest incoming value (W*x + b) is the "winner" and will activate this neuron
+      gemm(training && _dropout != null ? _dropout.bits() : null, n);
+      compute_sparsity();
     }
 
     @Override protected void bprop(int n) {
       assert(_index != params._hidden.length);
       float m = _minfo.adaDelta() ? 0 : momentum();
       float r = _minfo.adaDelta() ? 0 : rate(_minfo.get_processed_total()) * (1f - m);
-      double[] g = new double[n];
+      final double[] g = grad(n);
       final int rows = _a[0].size();
       for (int row = 0; row < rows; row++) {
         for (int mb=0;mb<n;++mb)
@@ -749,9 +748,7 @@ public abstract class Neurons {
   public static class Rectifier extends Neurons {
     public Rectifier(int units) { super(units); }
     @Override protected void fprop(long seed, boolean training, int n) {
-      // TODO: implement GEMM
-      for (int mb=0;mb<n;++mb)
-        gemv(_a[mb], _w, _previous._a[mb], _b, _dropout != null ? _dropout.bits() : null);
+      gemm(_dropout != null ? _dropout.bits() : null, n);
       final int rows = _a[0].size();
       for (int mb=0;mb<n;++mb) {
         for( int row = 0; row < rows; row++ ) {
@@ -767,7 +764,7 @@ public abstract class Neurons {
       float m = _minfo.adaDelta() ? 0 : momentum();
       float r = _minfo.adaDelta() ? 0 : rate(_minfo.get_processed_total()) * (1f - m);
       final int rows = _a[0].size();
-      double[] g = new double[n];
+      final double[] g = grad(n);
       for (int row = 0; row < rows; row++) {
         for (int mb=0;mb<n;++mb)
           //(d/dx)(max(0,x)) = 1 if x > 0, otherwise 0
@@ -799,8 +796,7 @@ public abstract class Neurons {
   public static class ExpRectifier extends Neurons {
     public ExpRectifier(int units) { super(units); }
     @Override protected void fprop(long seed, boolean training, int n) {
-      for (int mb=0;mb<n;++mb)
-        gemv(_a[mb], _w, _previous._a[mb], _b, _dropout != null ? _dropout.bits() : null);
+      gemm(_dropout != null ? _dropout.bits() : null, n);
       final int rows = _a[0].size();
       for( int row = 0; row < rows; row++ ) {
         for (int mb=0;mb<n;++mb) {
@@ -817,8 +813,8 @@ public abstract class Neurons {
       float m = _minfo.adaDelta() ? 0 : momentum();
       float r = _minfo.adaDelta() ? 0 : rate(_minfo.get_processed_total()) * (1f - m);
       final int rows = _a[0].size();
+      final double[] g = grad(n);
       for (int row = 0; row < rows; row++) {
-        double [] g = new double[n];
         for (int mb=0;mb<n;++mb) {
           double x = _a[mb].get(row);
           double val = x >= 0 ? 1 : Math.exp(x);
@@ -862,8 +858,7 @@ public abstract class Neurons {
   public static class Softmax extends Output {
     public Softmax(int units) { super(units); }
     protected void fprop(long seed, boolean training, int n) {
-      for (int mb=0;mb<n;++mb)
-        gemv(_a[mb], _w, _previous._a[mb], _b, null);
+      gemm(null, n);
       for (int mb=0;mb<n;++mb) {
         final double max = ArrayUtils.maxValue(_a[mb].raw());
         double scaling = 0;
@@ -919,8 +914,7 @@ public abstract class Neurons {
       super(1);
     }
     protected void fprop(long seed, boolean training, int n) {
-      for (int mb=0;mb<n;++mb)
-        gemv(_a[mb], _w, _previous._a[mb], _b, _dropout != null ? _dropout.bits() : null);
+      gemm(_dropout != null ? _dropout.bits() : null, n);
     }
 
     /**
@@ -1009,6 +1003,167 @@ public abstract class Neurons {
     gemv_row_optimized(res.raw(), a.raw(), x.raw(), y.raw(), row_bits);
   }
 
+  /**
+   * Mini-batch Mat-Mat Plus Add (with optional row dropout): res[mb] = a*x[mb]+y for mb in [0,n)
+   * Optimization: Each row of the weight matrix is loaded once per pair of mini-batch rows instead of once per
+   * mini-batch row, and each dot product keeps the 8 partial sums of gemv_row_optimized (same result, bit for bit)
+   * @param res pre-allocated results (will be overwritten), n vectors of length rows
+   * @param a matrix of size rows x cols
+   * @param x n vectors of length cols
+   * @param y vector of length rows
+   * @param row_bits if not null, check bits of this byte[] to determine whether a row is used or not
+   * @param n actual mini-batch size
+   */
+  static void gemm(final double[][] res, final float[] a, final double[][] x, final double[] y, final byte[] row_bits, final int n) {
+    if (n == 0) return;
+    final int cols = x[0].length;
+    final int rows = y.length;
+    final int extra=cols-cols%8;
+    final int multiple = (cols/8)*8-1;
+    int idx = 0;
+    for (int row = 0; row < rows; row++) {
+      if (row_bits != null && (row_bits[row / 8] & (1 << (row % 8))) == 0) {
+        for (int mb = 0; mb < n; mb++)
+          res[mb][row] = 0;
+      } else {
+        int mb = 0;
+        for (; mb + 1 < n; mb += 2) {
+          final double[] x0 = x[mb], x1 = x[mb + 1];
+          double psum0 = 0, psum1 = 0, psum2 = 0, psum3 = 0, psum4 = 0, psum5 = 0, psum6 = 0, psum7 = 0;
+          double qsum0 = 0, qsum1 = 0, qsum2 = 0, qsum3 = 0, qsum4 = 0, qsum5 = 0, qsum6 = 0, qsum7 = 0;
+          for (int col = 0; col < multiple; col += 8) {
+            final int off = idx + col;
+            final double w0 = a[off], w1 = a[off + 1], w2 = a[off + 2], w3 = a[off + 3];
+            final double w4 = a[off + 4], w5 = a[off + 5], w6 = a[off + 6], w7 = a[off + 7];
+            psum0 += w0 * x0[col    ]; qsum0 += w0 * x1[col    ];
+            psum1 += w1 * x0[col + 1]; qsum1 += w1 * x1[col + 1];
+            psum2 += w2 * x0[col + 2]; qsum2 += w2 * x1[col + 2];
+            psum3 += w3 * x0[col + 3]; qsum3 += w3 * x1[col + 3];
+            psum4 += w4 * x0[col + 4]; qsum4 += w4 * x1[col + 4];
+            psum5 += w5 * x0[col + 5]; qsum5 += w5 * x1[col + 5];
+            psum6 += w6 * x0[col + 6]; qsum6 += w6 * x1[col + 6];
+            psum7 += w7 * x0[col + 7]; qsum7 += w7 * x1[col + 7];
+          }
+          double r0 = 0, r1 = 0;
+          r0 += psum0 + psum1 + psum2 + psum3;
+          r1 += qsum0 + qsum1 + qsum2 + qsum3;
+          r0 += psum4 + psum5 + psum6 + psum7;
+          r1 += qsum4 + qsum5 + qsum6 + qsum7;
+          for (int col = extra; col < cols; col++) {
+            final double w = a[idx + col];
+            r0 += w * x0[col];
+            r1 += w * x1[col];
+          }
+          res[mb    ][row] = r0 + y[row];
+          res[mb + 1][row] = r1 + y[row];
+        }
+        if (mb < n) {
+          final double[] x0 = x[mb];
+          double psum0 = 0, psum1 = 0, psum2 = 0, psum3 = 0, psum4 = 0, psum5 = 0, psum6 = 0, psum7 = 0;
+          for (int col = 0; col < multiple; col += 8) {
+            final int off = idx + col;
+            psum0 += a[off    ] * x0[col    ];
+            psum1 += a[off + 1] * x0[col + 1];
+            psum2 += a[off + 2] * x0[col + 2];
+            psum3 += a[off + 3] * x0[col + 3];
+            psum4 += a[off + 4] * x0[col + 4];
+            psum5 += a[off + 5] * x0[col + 5];
+            psum6 += a[off + 6] * x0[col + 6];
+            psum7 += a[off + 7] * x0[col + 7];
+          }
+          double r0 = 0;
+          r0 += psum0 + psum1 + psum2 + psum3;
+          r0 += psum4 + psum5 + psum6 + psum7;
+          for (int col = extra; col < cols; col++)
+            r0 += a[idx + col] * x0[col];
+          res[mb][row] = r0 + y[row];
+        }
+      }
+      idx += cols;
+    }
+  }
+
+  /**
+   * Mini-batch Maxout with 2 channels (with optional row dropout): res[mb][row] = max_k (a_k*x[mb]+y_k)[row]
+   * The weights and biases of the channels are interleaved, i.e., a[2*(row*cols+col)+k] and y[2*row+k]
+   * Optimization: Each row of the weight matrix is loaded once per pair of mini-batch rows, both channels are
+   * accumulated in the same pass (each channel is summed in the same order as before, same result, bit for bit)
+   * @param res pre-allocated results (will be overwritten), n vectors of length rows
+   * @param maxIncoming winning channel per mini-batch row and row (only written for active rows)
+   * @param a matrix of size rows x cols x 2
+   * @param x n vectors of length cols
+   * @param y vector of length rows x 2
+   * @param row_bits if not null, check bits of this byte[] to determine whether a row is used or not
+   * @param n actual mini-batch size
+   */
+  static void gemmMaxout(final double[][] res, final int[][] maxIncoming, final float[] a, final double[][] x, final double[] y, final byte[] row_bits, final int n) {
+    if (n == 0) return;
+    final int cols = x[0].length;
+    final int rows = res[0].length;
+    assert(y.length == 2 * rows);
+    int idx = 0;
+    for (int row = 0; row < rows; row++) {
+      if (row_bits != null && (row_bits[row / 8] & (1 << (row % 8))) == 0) {
+        for (int mb = 0; mb < n; mb++)
+          res[mb][row] = 0;
+      } else {
+        final double b0 = y[2 * row], b1 = y[2 * row + 1];
+        int mb = 0;
+        for (; mb + 1 < n; mb += 2) {
+          final double[] x0 = x[mb], x1 = x[mb + 1];
+          double c00 = 0, c01 = 0, c10 = 0, c11 = 0;
+          for (int col = 0; col < cols; col++) {
+            final int off = idx + 2 * col;
+            final double w0 = a[off], w1 = a[off + 1];
+            c00 += w0 * x0[col]; c01 += w1 * x0[col];
+            c10 += w0 * x1[col]; c11 += w1 * x1[col];
+          }
+          c00 += b0; c01 += b1;
+          c10 += b0; c11 += b1;
+          maxIncoming[mb    ][row] = c01 > c00 ? 1 : 0;
+          maxIncoming[mb + 1][row] = c11 > c10 ? 1 : 0;
+          res[mb    ][row] = c01 > c00 ? c01 : c00;
+          res[mb + 1][row] = c11 > c10 ? c11 : c10;
+        }
+        if (mb < n) {
+          final double[] x0 = x[mb];
+          double c00 = 0, c01 = 0;
+          for (int col = 0; col < cols; col++) {
+            final int off = idx + 2 * col;
+            c00 += a[off] * x0[col];
+            c01 += a[off + 1] * x0[col];
+          }
+          c00 += b0; c01 += b1;
+          maxIncoming[mb][row] = c01 > c00 ? 1 : 0;
+          res[mb][row] = c01 > c00 ? c01 : c00;
+        }
+      }
+      idx += 2 * cols;
+    }
+  }
+
+  /**
+   * Helper to do the mini-batch gemm of this layer: _a[mb] = _w*_previous._a[mb] + _b
+   * (or the Maxout equivalent) for the first n mini-batch rows
+   * @param row_bits Bit mask for which rows to use
+   * @param n actual mini-batch size
+   */
+  final void gemm(byte[] row_bits, int n) {
+    if (_gemmRes == null || _gemmRes.length < n) {
+      _gemmRes = new double[_a.length][];
+      _gemmX = new double[_a.length][];
+    }
+    // refreshed every call (no allocation), the layer state may have been re-initialized
+    for (int mb = 0; mb < n; ++mb) {
+      _gemmRes[mb] = _a[mb].raw();
+      _gemmX[mb] = _previous._a[mb].raw();
+    }
+    if (_k != 0)
+      gemmMaxout(_gemmRes, _maxIncoming, _w.raw(), _gemmX, _b.raw(), row_bits, n);
+    else
+      gemm(_gemmRes, _w.raw(), _gemmX, _b.raw(), row_bits, n);
+  }
+
   static void gemv_naive(final Storage.DenseVector res, final Storage.DenseRowMatrix a, final Storage.DenseVector x, final Storage.DenseVector y, byte[] row_bits) {
     gemv_naive(res.raw(), a.raw(), x.raw(), y.raw(), row_bits);
   }
@@ -0,0 +1,429 @@
+package hex.deeplearning;
+
+import jsr166y.ForkJoinPool;
+import water.*;
+import water.nbhm.NonBlockingHashMap;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Parameter server mode of multi-node Deep Learning, instead of averaging the per-node models at the end of every
+ * iteration (see DeepLearningTask).
+ *
+ * The weights and biases are striped across the nodes: every node owns a contiguous slice of every layer (its Stripe),
+ * which the driver sends it before the iteration. During the iteration, every node trains its local model as usual
+ * (Hogwild! between its threads), and every parameter_server_sync_samples samples one of its threads pushes the sparse
+ * deltas of the local model since its last push to the owners of the stripes, over RPC to all owners at once, while the
+ * other threads keep training. The owners add the deltas to their stripe without any locking (Hogwild! between the
+ * nodes) and send back their current stripe, which replaces the part of the local model the node did not train since.
+ *
+ * A bounded-staleness clock replaces the synchronization of the model averaging: the clock of a node is its number of
+ * pushes, and a node which is more than parameter_server_max_staleness pushes ahead of the slowest node still training
+ * (a node which did not push yet is at clock 0) stops training until that node catches up. At the end of the iteration, the driver collects the stripes into the model.
+ */
+final class ParameterServer {
+  // Clock of a node which is done with the iteration
+  static final long DONE = Long.MAX_VALUE;
+
+  // Stripes owned by this node, by model
+  private static final NonBlockingHashMap<Key, Stripe> STRIPES = new NonBlockingHashMap<>();
+
+  private ParameterServer() {}
+
+  /**
+   * Start of the slice [lo(node), lo(node+1)) of an array of length len owned by a node
+   */
+  static int lo(int len, int node, int nodes) {
+    return (int) ((long) len * node / nodes);
+  }
+
+  /**
+   * Send every node its stripe of the model an iteration starts from (on the driver, before the iteration)
+   */
+  static void start(DeepLearningModelInfo minfo) {
+    final H2ONode[] nodes = H2O.CLOUD.members();
+    final float[][] w = weights(minfo);
+    final double[][] b = biases(minfo);
+    RPC<Init>[] rpcs = new RPC[nodes.length];
+    for (int n = 0; n < nodes.length; ++n) {
+      Init init = new Init(minfo._model_id, nodes.length);
+      init._w = new float[w.length][];
+      for (int t = 0; t < w.length; ++t)
+        init._w[t] = Arrays.copyOfRange(w[t], lo(w[t].length, n, nodes.length), lo(w[t].length, n + 1, nodes.length));
+      init._b = new double[b.length][];
+      for (int t = 0; t < b.length; ++t)
+        init._b[t] = Arrays.copyOfRange(b[t], lo(b[t].length, n, nodes.length), lo(b[t].length, n + 1, nodes.length));
+      rpcs[n] = new RPC<>(nodes[n], init).call();
+    }
+    for (int n = 0; n < nodes.length; ++n)
+      if (rpcs[n].get() == null)
+        throw new IllegalStateException("Lost " + nodes[n] + " while starting the parameter server of " + minfo._model_id);
+  }
+
+  /**
+   * Copy the stripes of all nodes into the weights and biases of the model and drop them (on the driver, after the iteration)
+   */
+  static void finish(DeepLearningModelInfo minfo) {
+    final H2ONode[] nodes = H2O.CLOUD.members();
+    final float[][] w = weights(minfo);
+    final double[][] b = biases(minfo);
+    RPC<Collect>[] rpcs = new RPC[nodes.length];
+    for (int n = 0; n < nodes.length; ++n)
+      rpcs[n] = new RPC<>(nodes[n], new Collect(minfo._model_id)).call();
+    for (int n = 0; n < nodes.length; ++n) {
+      Collect c = rpcs[n].get();
+      if (c == null)
+        throw new IllegalStateException("Lost " + nodes[n] + " while collecting the parameter server of " + minfo._model_id);
+      for (int t = 0; t < w.length; ++t)
+        System.arraycopy(c._w[t], 0, w[t], lo(w[t].length, n, nodes.length), c._w[t].length);
+      for (int t = 0; t < b.length; ++t)
+        System.arraycopy(c._b[t], 0, b[t], lo(b[t].length, n, nodes.length), c._b[t].length);
+    }
+  }
+
+  /**
+   * Drop the stripes of a model on all nodes (left over if training failed during an iteration)
+   */
+  static void remove(final Key model) {
+    new MRTask() {
+      @Override protected void setupLocal() { STRIPES.remove(model); }
+    }.doAllNodes();
+  }
+
+  /**
+   * Stripe of this node, or null
+   */
+  static Stripe stripe(Key model) {
+    return STRIPES.get(model);
+  }
+
+  private static float[][] weights(DeepLearningModelInfo minfo) {
+    float[][] res = new float[minfo.units.length - 1][];
+    for (int i = 0; i < res.length; ++i)
+      res[i] = minfo.get_weights(i).raw();
+    return res;
+  }
+
+  private static double[][] biases(DeepLearningModelInfo minfo) {
+    double[][] res = new double[minfo.units.length - 1][];
+    for (int i = 0; i < res.length; ++i)
+      res[i] = minfo.get_biases(i).raw();
+    return res;
+  }
+
+  /**
+   * Slices of the weights and biases of every layer owned by a node, and the clocks of all nodes as seen by it
+   */
+  static final class Stripe {
+    final float[][] _w;
+    final double[][] _b;
+    final AtomicLongArray _clocks;
+
+    Stripe(float[][] w, double[][] b, int nodes) {
+      _w = w;
+      _b = b;
+      _clocks = new AtomicLongArray(nodes); // all at clock 0
+    }
+
+    /**
+     * Clock of the slowest node still training (DONE if there is none)
+     */
+    long minClock() {
+      long min = DONE;
+      for (int i = 0; i < _clocks.length(); ++i)
+        min = Math.min(min, _clocks.get(i));
+      return min;
+    }
+
+    /**
+     * Set the clock of a node, and wake up the threads waiting for the slowest node
+     */
+    void advance(int node, long clock) {
+      _clocks.set(node, clock);
+      synchronized (this) { notifyAll(); }
+    }
+
+    /**
+     * Wait until the slowest node reaches a clock, or for at most a second.  Blocking a F/J thread: the pool
+     * compensates with another thread meanwhile.
+     */
+    void await(final long clock) {
+      try {
+        ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+          @Override public boolean isReleasable() { return minClock() >= clock; }
+          @Override public boolean block() throws InterruptedException {
+            synchronized (Stripe.this) {
+              if (!isReleasable()) Stripe.this.wait(1000);
+            }
+            return true;
+          }
+        });
+      } catch (InterruptedException ignore) { }
+    }
+  }
+
+  /**
+   * Install a stripe on its owner (replacing the one of the previous iteration)
+   */
+  static final class Init extends DTask<Init> {
+    final Key _model;
+    final int _nodes;
+    float[][] _w;
+    double[][] _b;
+
+    Init(Key model, int nodes) {
+      super(H2O.MIN_HI_PRIORITY);
+      _model = model;
+      _nodes = nodes;
+    }
+
+    @Override public void compute2() {
+      STRIPES.put(_model, new Stripe(_w, _b, _nodes));
+      _w = null; // not sent back
+      _b = null;
+      tryComplete();
+    }
+  }
+
+  /**
+   * Hand a stripe over to the driver and drop it
+   */
+  static final class Collect extends DTask<Collect> {
+    final Key _model;
+    float[][] _w;
+    double[][] _b;
+
+    Collect(Key model) {
+      super(H2O.MIN_HI_PRIORITY);
+      _model = model;
+    }
+
+    @Override public void compute2() {
+      Stripe s = STRIPES.remove(_model);
+      if (s == null)
+        throw new IllegalStateException("No parameter server stripe of " + _model + " on " + H2O.SELF);
+      _w = s._w;
+      _b = s._b;
+      tryComplete();
+    }
+  }
+
+  /**
+   * Push of the deltas of a node to the owner of a stripe, which sends back its current stripe.
+   * The deltas of every slice are sparse (indices and values), or dense (no indices) if that's smaller.
+   */
+  static final class Push extends DTask<Push> {
+    final Key _model;
+    final int _node;
+    final long _clock;
+    int[][] _widx;
+    float[][] _wval;
+    int[][] _bidx;
+    float[][] _bval;
+    // current stripe, sent back
+    float[][] _w;
+    double[][] _b;
+
+    Push(Key model, int node, long clock, int layers) {
+      super(H2O.MIN_HI_PRIORITY);
+      _model = model;
+      _node = node;
+      _clock = clock;
+      _widx = new int[layers][];
+      _wval = new float[layers][];
+      _bidx = new int[layers][];
+      _bval = new float[layers][];
+    }
+
+    @Override public void compute2() {
+      Stripe s = STRIPES.get(_model);
+      if (s == null)
+        throw new IllegalStateException("No parameter server stripe of " + _model + " on " + H2O.SELF);
+      for (int t = 0; t < s._w.length; ++t)
+        add(s._w[t], _widx[t], _wval[t]);
+      for (int t = 0; t < s._b.length; ++t)
+        add(s._b[t], _bidx[t], _bval[t]);
+      s.advance(_node, _clock);
+      _widx = _bidx = null;
+      _wval = _bval = null;
+      _w = new float[s._w.length][];
+      for (int t = 0; t < _w.length; ++t)
+        _w[t] = s._w[t].clone();
+      _b = new double[s._b.length][];
+      for (int t = 0; t < _b.length; ++t)
+        _b[t] = s._b[t].clone();
+      tryComplete();
+    }
+
+    // No locking, racing pushes of other nodes can lose an update (Hogwild!)
+    private static void add(float[] s, int[] idx, float[] val) {
+      if (idx == null)
+        for (int i = 0; i < val.length; ++i) s[i] += val[i];
+      else
+        for (int j = 0; j < idx.length; ++j) s[idx[j]] += val[j];
+    }
+
+    private static void add(double[] s, int[] idx, float[] val) {
+      if (idx == null)
+        for (int i = 0; i < val.length; ++i) s[i] += val[i];
+      else
+        for (int j = 0; j < idx.length; ++j) s[idx[j]] += val[j];
+    }
+  }
+
+  /**
+   * Parameter server client of a node for one iteration, shared by the threads training the node's local model.
+   * Keeps the values the local weights and biases had after the last push (the base), so that the deltas to push
+   * are what the node trained since.
+   */
+  static final class Worker {
+    private final Key _model;
+    private final Key<Job> _jobKey;
+    private final float[][] _w;
+    private final double[][] _b;
+    private final float[][] _wbase;
+    private final double[][] _bbase;
+    private final int _syncSamples;
+    private final int _maxStaleness;
+    private final AtomicLong _samples = new AtomicLong(); // trained since the last push
+    private final AtomicBoolean _pushing = new AtomicBoolean();
+    private volatile long _awaited;    // clock the slowest node must reach first, 0 unless too far ahead of it
+    private long _clock;                // only updated by the pushing thread
+
+    Worker(DeepLearningModelInfo minfo, Key<Job> jobKey) {
+      _model = minfo._model_id;
+      _jobKey = jobKey;
+      _w = weights(minfo);
+      _b = biases(minfo);
+      _wbase = new float[_w.length][];
+      for (int t = 0; t < _w.length; ++t)
+        _wbase[t] = _w[t].clone();
+      _bbase = new double[_b.length][];
+      for (int t = 0; t < _b.length; ++t)
+        _bbase[t] = _b[t].clone();
+      _syncSamples = minfo.get_params()._parameter_server_sync_samples;
+      _maxStaleness = minfo.get_params()._parameter_server_max_staleness;
+    }
+
+    /**
+     * Called by the training threads before every mini-batch: wait while the node is too far ahead
+     */
+    void awaitSlowest() {
+      long clock;
+      while ((clock = _awaited) > 0) stripe(_model).await(clock);
+    }
+
+    /**
+     * Called by the training threads after every mini-batch: push once enough samples were trained, unless another
+     * thread is pushing already
+     * @param n number of samples of the mini-batch
+     */
+    void trained(int n) {
+      if (_samples.addAndGet(n) < _syncSamples || !_pushing.compareAndSet(false, true))
+        return;
+      try {
+        _samples.set(0);
+        push(++_clock);
+        final Stripe s = stripe(_model);
+        while (s.minClock() < _clock - _maxStaleness) {
+          _awaited = _clock - _maxStaleness;
+          s.await(_awaited);
+          if (_jobKey != null && _jobKey.get() != null && _jobKey.get().stop_requested())
+            throw new Job.JobCancelledException();
+        }
+      } finally {
+        _awaited = 0;
+        _pushing.set(false);
+      }
+    }
+
+    /**
+     * Push what is left once the node is done with the iteration (no more threads training)
+     */
+    void close() {
+      push(DONE);
+    }
+
+    private void push(long clock) {
+      final H2ONode[] nodes = H2O.CLOUD.members();
+      final int self = H2O.SELF.index();
+      RPC<Push>[] rpcs = new RPC[nodes.length];
+      for (int n = 0; n < nodes.length; ++n) {
+        Push p = new Push(_model, self, clock, _w.length);
+        for (int t = 0; t < _w.length; ++t)
+          delta(_w[t], _wbase[t], lo(_w[t].length, n, nodes.length), lo(_w[t].length, n + 1, nodes.length), p._widx, p._wval, t);
+        for (int t = 0; t < _b.length; ++t)
+          delta(_b[t], _bbase[t], lo(_b[t].length, n, nodes.length), lo(_b[t].length, n + 1, nodes.length), p._bidx, p._bval, t);
+        rpcs[n] = new RPC<>(nodes[n], p).call();
+      }
+      for (int n = 0; n < nodes.length; ++n) {
+        Push p = rpcs[n].get();
+        if (p == null)
+          throw new IllegalStateException("Lost " + nodes[n] + " while pushing to the parameter server of " + _model);
+        for (int t = 0; t < _w.length; ++t)
+          pull(_w[t], _wbase[t], lo(_w[t].length, n, nodes.length), p._w[t]);
+        for (int t = 0; t < _b.length; ++t)
+          pull(_b[t], _bbase[t], lo(_b[t].length, n, nodes.length), p._b[t]);
+      }
+    }
+
+    // Delta of x[lo,hi) since the base, which moves by the pushed delta (float rounding is pushed next time)
+    private static void delta(float[] x, float[] base, int lo, int hi, int[][] idxs, float[][] vals, int t) {
+      final float[] d = new float[hi - lo];
+      int nnz = 0;
+      for (int i = lo; i < hi; ++i) {
+        final float v = x[i] - base[i]; // racy read, the other threads keep training
+        d[i - lo] = v;
+        base[i] += v;
+        if (v != 0) nnz++;
+      }
+      sparsify(d, nnz, idxs, vals, t);
+    }
+
+    private static void delta(double[] x, double[] base, int lo, int hi, int[][] idxs, float[][] vals, int t) {
+      final float[] d = new float[hi - lo];
+      int nnz = 0;
+      for (int i = lo; i < hi; ++i) {
+        final float v = (float) (x[i] - base[i]);
+        d[i - lo] = v;
+        base[i] += v;
+        if (v != 0) nnz++;
+      }
+      sparsify(d, nnz, idxs, vals, t);
+    }
+
+    private static void sparsify(float[] d, int nnz, int[][] idxs, float[][] vals, int t) {
+      if (2 * nnz >= d.length) { // dense is smaller
+        vals[t] = d;
+        return;
+      }
+      final int[] idx = new int[nnz];
+      final float[] val = new float[nnz];
+      for (int i = 0, j = 0; i < d.length; ++i) {
+        if (d[i] == 0) continue;
+        idx[j] = i;
+        val[j++] = d[i];
+      }
+      idxs[t] = idx;
+      vals[t] = val;
+    }
+
+    // The local values move by the updates of the other nodes, keeping what was trained since the push
+    private static void pull(float[] x, float[] base, int lo, float[] stripe) {
+      for (int i = 0; i < stripe.length; ++i) {
+        x[lo + i] += stripe[i] - base[lo + i];
+        base[lo + i] = stripe[i];
+      }
+    }
+
+    private static void pull(double[] x, double[] base, int lo, double[] stripe) {
+      for (int i = 0; i < stripe.length; ++i) {
+        x[lo + i] += stripe[i] - base[lo + i];
+        base[lo + i] = stripe[i];
+      }
+    }
+  }
+}
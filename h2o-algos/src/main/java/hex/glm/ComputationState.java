@@ -151,10 +151,12 @@ public final class ComputationState {
       int [] newCols = MemoryManager.malloc4(P);
       int j = 0;
       int[] oldActiveCols = _activeData._activeCols == null ? new int[]{P} : _activeData.activeCols();
+      // beta over all the predictors (first pass), non-zero coefficients of a warm start stay active
+      final boolean fullBeta = _activeData._activeCols == null && _beta != null && _beta.length == P + 1;
       for (int i = 0; i < P; ++i) {
         if(j < oldActiveCols.length && oldActiveCols[j] == i)
           j++;
-        else if (_ginfo._gradient[i] > rhs || -_ginfo._gradient[i] > rhs)
+        else if (_ginfo._gradient[i] > rhs || -_ginfo._gradient[i] > rhs || (fullBeta && _beta[i] != 0))
           newCols[newlySelected++] = i;
       }
       if(_parms._max_active_predictors != -1 && (oldActiveCols.length + newlySelected -1) > _parms._max_active_predictors){
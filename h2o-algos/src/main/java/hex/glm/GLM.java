@@ -75,6 +75,7 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
   private boolean _doInit = true;  // flag setting whether or not to run init
   private double [] _xval_test_deviances;
   private double [] _xval_test_sd;
+  private double [] _cvBetaStart; // warm start of the main model, average of the cv models' solutions
 
   /**
    * GLM implementation of N-fold cross-validation.
@@ -175,10 +176,30 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
       GLM g = (GLM) cvModelBuilders[i];
       g._model.unlock(_job);
     }
+    if(!_parms._lambda_search && _parms._family != Family.multinomial && _iceptAdjust == 0)
+      _cvBetaStart = cvBetaStart(cvModelBuilders);
     _doInit = false;
     _cv = false;
   }
 
+  /**
+   * Average the cv models' solutions and express the result in the main model's standardization.
+   * The cv models are fitted on (n-1)/n of the same data, so the main model started from their average typically
+   * needs only a couple of iterations instead of a full fit from the null model.
+   * @return warm start for the main model or null if any cv model does not share the main model's coefficients
+   */
+  private double [] cvBetaStart(ModelBuilder[] cvModelBuilders) {
+    double [] res = MemoryManager.malloc8d(_dinfo.fullN()+1);
+    for (int i = 0; i < cvModelBuilders.length; ++i) {
+      GLM g = (GLM) cvModelBuilders[i];
+      double [] beta = g._model == null?null:g._model._output._global_beta;
+      if(beta == null || beta.length != res.length || !Arrays.equals(_model._output._coefficient_names,g._model._output._coefficient_names))
+        return null;
+      ArrayUtils.add(res,beta);
+    }
+    return _dinfo.normalizeBeta(ArrayUtils.div(res,cvModelBuilders.length));
+  }
+
   protected void checkMemoryFootPrint(DataInfo activeData) {
     if (_parms._solver == Solver.IRLSM || _parms._solver == Solver.COORDINATE_DESCENT) {
       int p = activeData.fullN();
@@ -1084,6 +1105,11 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
         }
         _dinfo.addResponse(new String[]{"__glm_sumExp", "__glm_maxRow"}, vecs);
       }
+      if(_cvBetaStart != null) { // warm start from the cv models
+        Log.info(LogMsg("warm-starting from the average of the cross-validation models"));
+        _state.updateState(_cvBetaStart, new GLMGradientSolver(_job, _parms, _dinfo, 0, _state.activeBC()).getGradient(_cvBetaStart));
+        _cvBetaStart = null;
+      }
       double oldDevTrain = _nullDevTrain;
       double oldDevTest = _nullDevTest;
       double [] devHistoryTrain = new double[5];
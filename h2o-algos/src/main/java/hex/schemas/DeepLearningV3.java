@@ -99,7 +99,11 @@ public class DeepLearningV3 extends ModelBuilderSchema<DeepLearning,DeepLearning
         "categorical_encoding",
         "elastic_averaging",
         "elastic_averaging_moving_rate",
-        "elastic_averaging_regularization"
+        "elastic_averaging_regularization",
+        "averaging_precision",
+        "parameter_server",
+        "parameter_server_sync_samples",
+        "parameter_server_max_staleness"
     };
 
 
@@ -658,6 +662,23 @@ public class DeepLearningV3 extends ModelBuilderSchema<DeepLearning,DeepLearning
         help = "Elastic averaging regularization strength (only if elastic averaging is enabled).")
     public double elastic_averaging_regularization;
 
+    @API(level = API.Level.expert, direction = API.Direction.INOUT, gridable = true,
+        values = {"Float32", "Float16", "Int8"},
+        help = "Precision of the model updates sent between compute nodes for model averaging (lower precision reduces network traffic). #Experimental")
+    public DeepLearningParameters.AveragingPrecision averaging_precision;
+
+    @API(level = API.Level.expert, direction = API.Direction.INOUT, gridable = true,
+        help = "Parameter server mode: stripe the weights and biases across the nodes, which push their updates asynchronously instead of averaging their models after every iteration (requires replicate_training_data disabled). #Experimental")
+    public boolean parameter_server;
+
+    @API(level = API.Level.expert, direction = API.Direction.INOUT, gridable = true,
+        help = "Number of training samples a node processes between two pushes of its updates to the parameter server (only if parameter server mode is enabled).")
+    public int parameter_server_sync_samples;
+
+    @API(level = API.Level.expert, direction = API.Direction.INOUT, gridable = true,
+        help = "Max. number of pushes a node can be ahead of the slowest node before it waits for it (only if parameter server mode is enabled).")
+    public int parameter_server_max_staleness;
+
     @API(level = API.Level.expert, direction = API.Direction.INOUT,
         help = "Pretrained autoencoder model to initialize this model with.")
     public KeyV3.ModelKeyV3 pretrained_autoencoder;
@@ -14,6 +14,7 @@ public class Word2VecV3 extends ModelBuilderSchema<Word2Vec,Word2VecV3,Word2VecV
             "min_word_freq",
             "word_model",
             "norm_model",
+            "negative_samples",
             "vec_size",
             "window_size",
             "sent_sample_rate",
@@ -45,9 +46,15 @@ public class Word2VecV3 extends ModelBuilderSchema<Word2Vec,Word2VecV3,Word2VecV
     /**
      *
      */
-    @API(help="Use Hierarchical Softmax", values = {"HSM"})
+    @API(help="Use Hierarchical Softmax or Negative Sampling", values = {"HSM", "NegativeSampling"})
     public Word2Vec.NormModel norm_model;
 
+    /**
+     *
+     */
+    @API(help="Number of negative examples drawn per training example (used only with Negative Sampling)")
+    public int negative_samples;
+
     /**
      *
      */
@@ -0,0 +1,53 @@
+package hex.word2vec;
+
+/**
+ * Draws words for negative sampling from the unigram distribution raised to the power of 3/4 (Mikolov et al.).
+ * Uses Walker's alias method: a single random number gives a sample in constant time and the table only takes
+ * O(vocabulary size) memory (as opposed to the 1e8-entry table used by the original word2vec implementation).
+ */
+final class UnigramSampler {
+  private static final double POWER = 0.75;
+
+  private final float[] _prob; // probability of keeping the column
+  private final int[] _alias;  // word to use when the column is not kept
+
+  /**
+   * @param counts counts[id] is the number of occurrences of word `id` in the training corpus
+   */
+  UnigramSampler(long[] counts) {
+    final int n = counts.length;
+    assert n > 0;
+    double[] p = new double[n];
+    double sum = 0;
+    for (int i = 0; i < n; i++) sum += p[i] = Math.pow(counts[i], POWER);
+    int[] small = new int[n], large = new int[n];
+    int ns = 0, nl = 0;
+    for (int i = 0; i < n; i++) {
+      p[i] = p[i] * n / sum;
+      if (p[i] < 1) small[ns++] = i; else large[nl++] = i;
+    }
+    _prob = new float[n];
+    _alias = new int[n];
+    while (ns > 0 && nl > 0) {
+      int s = small[--ns], l = large[--nl];
+      _prob[s] = (float) p[s];
+      _alias[s] = l;
+      p[l] = (p[l] + p[s]) - 1;
+      if (p[l] < 1) small[ns++] = l; else large[nl++] = l;
+    }
+    // leftovers are (up to rounding errors) exactly 1
+    while (nl > 0) { int l = large[--nl]; _prob[l] = 1; _alias[l] = l; }
+    while (ns > 0) { int s = small[--ns]; _prob[s] = 1; _alias[s] = s; }
+  }
+
+  /**
+   * @param rnd uniformly distributed random bits
+   * @return word id
+   */
+  int sample(long rnd) {
+    final int col = (int) (((rnd >>> 32) * _prob.length) >>> 32);
+    final float u = (rnd & 0xFFFFFF) * 0x1.0p-24f;
+    return u < _prob[col] ? col : _alias[col];
+  }
+
+}
@@ -304,6 +304,7 @@ public class Word2VecModel extends Model<Word2VecModel, Word2VecParameters, Word
     public int _epochs = 5;
     public float _init_learning_rate = 0.025f;
     public float _sent_sample_rate = 1e-3f;
+    public int _negative_samples = 5; // number of negative examples per training example (NormModel.NegativeSampling only)
     public Key<Frame> _pre_trained;  // key of a frame that contains a pre-trained word2vec model
     boolean isPreTrained() { return _pre_trained != null; }
     Vec trainVec() { return train().vec(0); }
@@ -365,10 +366,9 @@ public class Word2VecModel extends Model<Word2VecModel, Word2VecParameters, Word
         countAry[idx] = wc.getValue()._val;
         vocab._data.put(wc.getKey(), idx++);
       }
-      HBWTree t = HBWTree.buildHuffmanBinaryWordTree(countAry);
-
       _vocabWordCount = vocabWordCount;
-      _treeKey = publish(t);
+      if (_parameters._norm_model == Word2Vec.NormModel.HSM)
+        _treeKey = publish(HBWTree.buildHuffmanBinaryWordTree(countAry));
       _vocabKey = publish(vocab);
       _wordCountsKey = publish(wordCounts);
 
@@ -396,10 +396,25 @@ public class Word2VecModel extends Model<Word2VecModel, Word2VecParameters, Word
   // wraps Vocabulary map into a Keyed object
   public static class Vocabulary extends Keyed<Vocabulary> {
     IcedHashMapGeneric<BufferedString, Integer> _data;
+    private transient volatile WordIdTable _table; // node-local, built on demand
     Vocabulary(IcedHashMapGeneric<BufferedString, Integer> data) {
       super(Key.<Vocabulary>make());
       _data = data;
     }
+    WordIdTable table() {
+      WordIdTable table = _table;
+      if (table == null) {
+        synchronized (this) {
+          if ((table = _table) == null) {
+            BufferedString[] words = new BufferedString[_data.size()];
+            for (Map.Entry<BufferedString, Integer> e : _data.entrySet())
+              words[e.getValue()] = e.getKey();
+            _table = table = new WordIdTable(words);
+          }
+        }
+      }
+      return table;
+    }
   }
 
   // wraps Word-Count map into a Keyed object
@@ -0,0 +1,85 @@
+package hex.word2vec;
+
+import water.parser.BufferedString;
+
+/**
+ * Read-only hash table mapping the words of a vocabulary to their ids.
+ * The words are stored back-to-back in a single byte array and the table uses open addressing (linear probing)
+ * over primitive arrays. Lookups work directly on the bytes of a string chunk (see Chunk#atStr) and don't allocate.
+ */
+final class WordIdTable {
+  private final byte[] _bytes;  // all words, back-to-back
+  private final int[] _starts;  // word `id` is stored in _bytes[_starts[id] .. _starts[id + 1])
+  private final int[] _hashes;  // hash of each word
+  private final int[] _slots;   // (id + 1) of the word occupying the slot, 0 == empty slot
+  private final int _mask;
+
+  /**
+   * @param words vocabulary, words[id] is the word with the given id; words have to be distinct
+   */
+  WordIdTable(BufferedString[] words) {
+    int totalLen = 0;
+    for (BufferedString w : words) totalLen += w.length();
+    int capacity = 2;
+    while (capacity < 2 * words.length) capacity <<= 1; // keep the load factor <= 0.5
+    _bytes = new byte[totalLen];
+    _starts = new int[words.length + 1];
+    _hashes = new int[words.length];
+    _slots = new int[capacity];
+    _mask = capacity - 1;
+    int pos = 0;
+    for (int id = 0; id < words.length; id++) {
+      BufferedString w = words[id];
+      System.arraycopy(w.getBuffer(), w.getOffset(), _bytes, pos, w.length());
+      _starts[id] = pos;
+      _hashes[id] = hash(_bytes, pos, w.length());
+      int slot = _hashes[id] & _mask;
+      while (_slots[slot] != 0) slot = (slot + 1) & _mask;
+      _slots[slot] = id + 1;
+      pos += w.length();
+    }
+    _starts[words.length] = pos;
+  }
+
+  int size() { return _hashes.length; }
+
+  /**
+   * @return id of the word or -1 if the word is not in the vocabulary
+   */
+  int get(BufferedString str) {
+    return get(str.getBuffer(), str.getOffset(), str.length());
+  }
+
+  int get(byte[] buf, int off, int len) {
+    final int h = hash(buf, off, len);
+    for (int slot = h & _mask; ; slot = (slot + 1) & _mask) {
+      final int id = _slots[slot] - 1;
+      if (id < 0)
+        return -1;
+      if (_hashes[id] == h && sameBytes(id, buf, off, len))
+        return id;
+    }
+  }
+
+  private boolean sameBytes(int id, byte[] buf, int off, int len) {
+    final int start = _starts[id];
+    if (_starts[id + 1] - start != len)
+      return false;
+    for (int i = 0; i < len; i++)
+      if (_bytes[start + i] != buf[off + i])
+        return false;
+    return true;
+  }
+
+  // FNV-1a followed by a finalizer to spread the low bits (the table is indexed by h & _mask)
+  private static int hash(byte[] buf, int off, int len) {
+    int h = 0x811c9dc5;
+    for (int i = off; i < off + len; i++)
+      h = (h ^ buf[i]) * 0x01000193;
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    return h;
+  }
+
+}
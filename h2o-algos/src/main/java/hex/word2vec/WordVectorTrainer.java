@@ -8,11 +8,10 @@ import water.fvec.Chunk;
 import water.parser.BufferedString;
 import hex.word2vec.Word2VecModel.*;
 import water.util.ArrayUtils;
-import water.util.IcedHashMap;
-import water.util.IcedHashMapGeneric;
 import water.util.IcedLong;
 
 import java.util.Iterator;
+import java.util.Map;
 
 public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
   private static final int MAX_SENTENCE_LEN = 1000;
@@ -26,6 +25,8 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
 
   // Params
   private final int _wordVecSize, _windowSize, _epochs;
+  private final Word2Vec.NormModel _normModel;
+  private final int _negativeSamples;
   private final float _initLearningRate;
   private final float _sentSampleRate;
   private final long _vocabWordCount;
@@ -45,8 +46,9 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
 
   // Node-Local (Shared)
   IcedLong _nodeProcessedWords; // mutable long, approximates the total number of words processed by this node
-  private transient IcedHashMapGeneric<BufferedString, Integer> _vocab;
-  private transient IcedHashMap<BufferedString, IcedLong> _wordCounts;
+  private transient WordIdTable _vocab;
+  private transient float[] _keepProbs; // sub-sampling: probability of keeping an occurrence of a word (indexed by word id)
+  private transient UnigramSampler _negSampler;
   private transient int[][] _HBWTCode;
   private transient int[][] _HBWTPoint;
 
@@ -66,6 +68,8 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
     _windowSize = input.getParams()._window_size;
     _sentSampleRate = input.getParams()._sent_sample_rate;
     _epochs = input.getParams()._epochs;
+    _normModel = input.getParams()._norm_model;
+    _negativeSamples = input.getParams()._negative_samples;
     _initLearningRate = input.getParams()._init_learning_rate;
 
     _vocabWordCount = input._vocabWordCount;
@@ -78,11 +82,23 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
 
   @Override
   protected void setupLocal() {
-    _vocab = ((Vocabulary) DKV.getGet(_vocabKey))._data;
-    _wordCounts = ((WordCounts) DKV.getGet(_wordCountsKey))._data;
-    HBWTree t = DKV.getGet(_treeKey);
-    _HBWTCode = t._code;
-    _HBWTPoint = t._point;
+    _vocab = ((Vocabulary) DKV.getGet(_vocabKey)).table();
+    long[] counts = new long[_vocab.size()];
+    for (Map.Entry<BufferedString, IcedLong> wc : ((WordCounts) DKV.getGet(_wordCountsKey))._data.entrySet()) {
+      int id = _vocab.get(wc.getKey());
+      if (id >= 0) counts[id] = wc.getValue()._val;
+    }
+    if (_sentSampleRate > 0) {
+      _keepProbs = new float[counts.length];
+      for (int i = 0; i < counts.length; i++)
+        _keepProbs[i] = (float) ((Math.sqrt(counts[i] / (_sentSampleRate * _vocabWordCount)) + 1) * (_sentSampleRate * _vocabWordCount) / counts[i]);
+    }
+    if (_normModel == Word2Vec.NormModel.HSM) {
+      HBWTree t = DKV.getGet(_treeKey);
+      _HBWTCode = t._code;
+      _HBWTPoint = t._point;
+    } else
+      _negSampler = new UnigramSampler(counts);
     _nodeProcessedWords = new IcedLong(0L);
   }
 
@@ -149,7 +165,10 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
     final int l1 = winWord * vecSize;
     for (int i = 0; i < vecSize; i++) neu1e[i] = 0;
 
-    hierarchicalSoftmaxSG(curWord, l1, neu1e);
+    if (_normModel == Word2Vec.NormModel.HSM)
+      hierarchicalSoftmaxSG(curWord, l1, neu1e);
+    else
+      negativeSamplingSG(curWord, l1, neu1e);
 
     // Learned weights input -> hidden
     for (int i = 0; i < vecSize; i++) _syn0[i + l1] += neu1e[i];
@@ -178,6 +197,38 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
     }
   }
 
+  // _syn1 holds one output vector per word of the vocabulary
+  private void negativeSamplingSG(final int targetWord, final int l1, float[] neu1e) {
+    final int vecSize = _wordVecSize;
+    final float alpha = _curLearningRate;
+
+    for (int d = 0; d <= _negativeSamples; d++) {
+      final int target, label;
+      if (d == 0) {
+        target = targetWord;
+        label = 1;
+      } else {
+        target = _negSampler.sample(cheapRandLong());
+        if (target == targetWord) continue;
+        label = 0;
+      }
+      int l2 = target * vecSize;
+
+      float f = 0;
+      // Propagate hidden -> output (calc sigmoid)
+      for (int j = 0; j < vecSize; j++) f += _syn0[j + l1] * _syn1[j + l2];
+
+      float gradient;
+      if (f > MAX_EXP) gradient = (label - 1) * alpha;
+      else if (f < -MAX_EXP) gradient = label * alpha;
+      else gradient = (label - _expTable[(int) ((f + MAX_EXP) * (EXP_TABLE_SIZE / MAX_EXP / 2))]) * alpha;
+      // Propagate errors output -> hidden
+      for (int j = 0; j < vecSize; j++) neu1e[j] += gradient * _syn1[j + l2];
+      // Learn weights hidden -> output
+      for (int j = 0; j < vecSize; j++) _syn1[j + l2] += gradient * _syn0[j + l1];
+    }
+  }
+
   /**
    * Calculates a new global learning rate for the next round
    * of map/reduce calls.
@@ -203,11 +254,15 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
     * @return int between 0-(max-1).
     */
   private int cheapRandInt(int max) {
+    int r = (int) cheapRandLong() % max;
+    return r > 0 ? r : -r;
+  }
+
+  private long cheapRandLong() {
     _seed ^= ( _seed << 21);
     _seed ^= ( _seed >>> 35);
     _seed ^= ( _seed << 4);
-    int r = (int) _seed % max;
-    return r > 0 ? r : -r;
+    return _seed;
   }
 
   private class ChunkSentenceIterator implements Iterator<int[]> {
@@ -233,14 +288,10 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
       _len = 0;
       BufferedString tmp = new BufferedString();
       for (; _pos < _chk._len && ! _chk.isNA(_pos) && _len < MAX_SENTENCE_LEN; _pos++) {
-        BufferedString str = _chk.atStr(tmp, _pos);
-        if (! _vocab.containsKey(str)) continue; // not in the vocab, skip
-        if (_sentSampleRate > 0) {  // sub-sampling while creating a sentence
-          long count = _wordCounts.get(str)._val;
-          float ran = (float) ((Math.sqrt(count / (_sentSampleRate * _vocabWordCount)) + 1) * (_sentSampleRate * _vocabWordCount) / count);
-          if (ran * 65536 < cheapRandInt(0xFFFF)) continue;
-        }
-        _sent[_len++] = _vocab.get(tmp);
+        int wordId = _vocab.get(_chk.atStr(tmp, _pos)); // tmp only points to the chunk's bytes, no copy is made
+        if (wordId < 0) continue; // not in the vocab, skip
+        if (_keepProbs != null && _keepProbs[wordId] * 65536 < cheapRandInt(0xFFFF)) continue; // sub-sampling while creating a sentence
+        _sent[_len++] = wordId;
       }
       _sent[_len] = -1;
       _pos++;
@@ -0,0 +1,70 @@
+package hex.deeplearning;
+
+import hex.deeplearning.DeepLearningModel.DeepLearningParameters.AveragingPrecision;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class AveragingCodecTest {
+
+  @Test
+  public void testHalfConversion() {
+    for (float f : new float[]{0f, -0f, 1f, -2.5f, 65504f, 0.5f, 1024f, 5.9604645E-8f})
+      assertEquals(f, AveragingCodec.toFloat(AveragingCodec.toHalf(f)), 0);
+    assertEquals(65504f, AveragingCodec.toFloat(AveragingCodec.toHalf(1e10f)), 0);
+    assertEquals(-65504f, AveragingCodec.toFloat(AveragingCodec.toHalf(-1e10f)), 0);
+    assertEquals(Float.POSITIVE_INFINITY, AveragingCodec.toFloat(AveragingCodec.toHalf(Float.POSITIVE_INFINITY)), 0);
+    assertEquals(0.1f, AveragingCodec.toFloat(AveragingCodec.toHalf(0.1f)), 1e-4);
+    assert Float.isNaN(AveragingCodec.toFloat(AveragingCodec.toHalf(Float.NaN)));
+  }
+
+  @Test
+  public void testRoundTrip() {
+    Random rng = new Random(0xC0DEC);
+    final int n = 1000;
+    final float s = 3;
+    float[] ref = new float[n];
+    float[] x = new float[n];
+    for (int i = 0; i < n; ++i) {
+      ref[i] = rng.nextFloat() - 0.5f;
+      x[i] = s * ref[i] + (rng.nextFloat() - 0.5f) * 1e-2f; // sum of 3 models, each moved a little
+    }
+    for (AveragingPrecision p : new AveragingPrecision[]{AveragingPrecision.Float16, AveragingPrecision.Int8}) {
+      byte[] enc = AveragingCodec.encode(p, x, ref, s, 42);
+      assertEquals(AveragingCodec.encodedSize(p, n), enc.length);
+      float[] y = new float[n];
+      AveragingCodec.decode(p, enc, y, ref, s);
+      for (int i = 0; i < n; ++i)
+        assertEquals(x[i], y[i], p == AveragingPrecision.Float16 ? 1e-5 : 1e-4);
+    }
+  }
+
+  @Test
+  public void testErrorFeedback() {
+    Random rng = new Random(0xFEED);
+    final int n = 1000;
+    final int iterations = 100;
+    float[] ref = new float[n];
+    float[] x = new float[n];
+    for (int i = 0; i < n; ++i)
+      x[i] = (rng.nextFloat() - 0.5f) * 1e-3f; // the same small update in every iteration
+    x[0] = 1; // a large update in the same block, so that the others are below the Int8 resolution
+    for (AveragingPrecision p : new AveragingPrecision[]{AveragingPrecision.Float16, AveragingPrecision.Int8}) {
+      float[] residual = new float[n];
+      double[] sum = new double[n];
+      float[] y = new float[n];
+      for (int it = 0; it < iterations; ++it) {
+        byte[] enc = AveragingCodec.encode(p, x, ref, 1, residual, 42 + it);
+        AveragingCodec.decode(p, enc, y, ref, 1);
+        for (int i = 0; i < n; ++i)
+          sum[i] += y[i];
+      }
+      // the rounding errors don't add up over the iterations, they are at most what is still held back in the residual
+      for (int i = 0; i < n; ++i)
+        assertEquals(iterations * (double) x[i], sum[i] + residual[i], 1e-4);
+    }
+  }
+
+}
@@ -2532,5 +2532,159 @@ public class DeepLearningTest extends TestUtil {
     }
   }
 
-}
+  @Test
+  public void testReducedPrecisionAveraging() {
+    Frame tfr = null;
+    DeepLearningModel[] models = new DeepLearningModel[DeepLearningParameters.AveragingPrecision.values().length];
+    try {
+      tfr = parse_test_file("./smalldata/logreg/prostate.csv");
+      tfr.remove("ID").remove();
+      tfr.replace(tfr.find("CAPSULE"), tfr.vec("CAPSULE").toCategoricalVec()).remove();
+      DKV.put(tfr);
+
+      DeepLearningParameters parms = new DeepLearningParameters();
+      parms._train = tfr._key;
+      parms._response_column = "CAPSULE";
+      parms._hidden = new int[]{20, 20};
+      parms._epochs = 20;
+      parms._seed = 0xC0DEC;
+      parms._replicate_training_data = false; //every node only has a piece of the data, the per-node models get averaged
+      parms._force_load_balance = true; //use multi-node
+      parms._train_samples_per_iteration = -1; //one epoch per iteration
+      for (DeepLearningParameters.AveragingPrecision p : DeepLearningParameters.AveragingPrecision.values()) {
+        DeepLearningParameters parms2 = (DeepLearningParameters) parms.clone();
+        parms2._averaging_precision = p;
+        models[p.ordinal()] = new DeepLearning(parms2).trainModel().get();
+      }
+
+      DeepLearningModel full = models[DeepLearningParameters.AveragingPrecision.Float32.ordinal()];
+      double fullLogloss = ((ModelMetricsBinomial) full._output._training_metrics).logloss();
+      assertEquals(0, full.model_info().get_averaging_bytes_sent());
+      for (DeepLearningParameters.AveragingPrecision p : new DeepLearningParameters.AveragingPrecision[]{DeepLearningParameters.AveragingPrecision.Float16, DeepLearningParameters.AveragingPrecision.Int8}) {
+        DeepLearningModelInfo minfo = models[p.ordinal()].model_info();
+        if (H2O.CLOUD.size() > 1) { // the per-node models went up the reduction tree at reduced precision
+          assertTrue(minfo.get_averaging_bytes_sent() > 0);
+          if (p == DeepLearningParameters.AveragingPrecision.Float16)
+            assertEquals(minfo.get_averaging_bytes_raw() / 2, minfo.get_averaging_bytes_sent());
+          else
+            assertTrue(minfo.get_averaging_bytes_sent() < minfo.get_averaging_bytes_raw() / 3);
+        } else
+          assertEquals(0, minfo.get_averaging_bytes_sent());
+        double logloss = ((ModelMetricsBinomial) models[p.ordinal()]._output._training_metrics).logloss();
+        Log.info("Averaging precision " + p + ": training logloss " + logloss + " (" + fullLogloss + " at full precision)");
+        assertTrue(p + " averaging is much worse than full precision averaging", logloss < 1.2 * fullLogloss + 0.02);
+      }
+
+      // there is no model averaging in parameter server mode
+      parms._parameter_server = true;
+      parms._averaging_precision = DeepLearningParameters.AveragingPrecision.Int8;
+      try {
+        new DeepLearning(parms).trainModel().get();
+        Assert.fail("Reduced averaging precision should be rejected in parameter server mode");
+      } catch (H2OModelBuilderIllegalArgumentException e) {
+        /*pass*/
+      }
+    } finally {
+      if (tfr != null) tfr.delete();
+      for (DeepLearningModel m : models)
+        if (m != null) m.delete();
+    }
+  }
 
+  @Test
+  public void testParameterServerPushAndCollect() {
+    Frame tfr = null;
+    DeepLearningModel dl = null;
+    try {
+      tfr = parse_test_file("./smalldata/iris/iris.csv");
+      DeepLearningParameters parms = new DeepLearningParameters();
+      parms._train = tfr._key;
+      parms._response_column = "C5";
+      parms._hidden = new int[]{4};
+      parms._epochs = 1;
+      dl = new DeepLearning(parms).trainModel().get();
+
+      DeepLearningModelInfo minfo = IcedUtils.deepCopy(dl.model_info());
+      float[] w = minfo.get_weights(0).raw();
+      double[] b = minfo.get_biases(1).raw();
+      final float w0 = w[0], wn = w[w.length - 1];
+      final double b0 = b[0];
+      ParameterServer.start(minfo);
+      ParameterServer.Worker worker = new ParameterServer.Worker(minfo, null);
+      // trained by this node: the first and the last weight live in the stripes of the first and the last node
+      w[0] += 1;
+      w[w.length - 1] -= 1;
+      b[0] += 0.5;
+      worker.close();
+      w[0] = w[w.length - 1] = 42; // trained after the last push, not on the parameter server
+      b[0] = 42;
+      ParameterServer.finish(minfo);
+      assertEquals(w0 + 1, w[0], 1e-6);
+      assertEquals(wn - 1, w[w.length - 1], 1e-6);
+      assertEquals(b0 + 0.5, b[0], 1e-6);
+      assertTrue(ParameterServer.stripe(minfo._model_id) == null); // dropped after the iteration
+    } finally {
+      if (tfr != null) tfr.delete();
+      if (dl != null) dl.delete();
+    }
+  }
+
+  @Test
+  public void testParameterServerStaleness() throws InterruptedException {
+    final ParameterServer.Stripe s = new ParameterServer.Stripe(new float[0][], new double[0][], 3);
+    assertEquals(0, s.minClock()); // nodes which did not push yet hold the others back
+    s.advance(0, 5);
+    s.advance(1, ParameterServer.DONE);
+    assertEquals(0, s.minClock());
+    Thread t = new Thread() {
+      @Override public void run() { s.advance(2, 3); }
+    };
+    t.start();
+    while (s.minClock() < 3) s.await(3); // woken up by the push of the slowest node
+    t.join();
+  }
+
+  @Test
+  public void testParameterServer() {
+    Frame tfr = null;
+    DeepLearningModel averaged = null;
+    DeepLearningModel ps = null;
+    try {
+      tfr = parse_test_file("./smalldata/logreg/prostate.csv");
+      tfr.remove("ID").remove();
+      tfr.replace(tfr.find("CAPSULE"), tfr.vec("CAPSULE").toCategoricalVec()).remove();
+      DKV.put(tfr);
+
+      DeepLearningParameters parms = new DeepLearningParameters();
+      parms._train = tfr._key;
+      parms._response_column = "CAPSULE";
+      parms._hidden = new int[]{20, 20};
+      parms._epochs = 20;
+      parms._seed = 0x5A3D;
+      parms._replicate_training_data = false; //every node only has a piece of the data
+      parms._force_load_balance = true; //use multi-node
+      parms._train_samples_per_iteration = -1; //one epoch per iteration
+      parms._stopping_rounds = 0; //both models see all epochs
+      averaged = new DeepLearning(parms).trainModel().get();
+
+      DeepLearningParameters parms2 = (DeepLearningParameters) parms.clone();
+      parms2._parameter_server = true;
+      parms2._parameter_server_sync_samples = 50; //several pushes per node and iteration
+      parms2._parameter_server_max_staleness = 1;
+      ps = new DeepLearning(parms2).trainModel().get();
+
+      assertEquals(averaged.model_info().get_processed_total(), ps.model_info().get_processed_total());
+      assertTrue(ParameterServer.stripe(ps._key) == null); // collected after every iteration
+      double ll0 = ((ModelMetricsBinomial) averaged._output._training_metrics).logloss();
+      double ll1 = ((ModelMetricsBinomial) ps._output._training_metrics).logloss();
+      Log.info("Training logloss on " + H2O.CLOUD.size() + " nodes: " + ll1 + " (parameter server) vs. " + ll0 + " (model averaging)");
+      assertTrue("parameter server mode did not converge", ll1 < 0.6); // 0.67 for the prior
+      assertTrue("parameter server mode is much worse than model averaging", ll1 < 1.2 * ll0 + 0.02);
+    } finally {
+      if (tfr != null) tfr.delete();
+      if (averaged != null) averaged.delete();
+      if (ps != null) ps.delete();
+    }
+  }
+
+}
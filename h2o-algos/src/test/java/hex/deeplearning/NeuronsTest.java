@@ -109,4 +109,74 @@ public class NeuronsTest extends water.TestUtil {
     System.out.println("optimized dense row * dense time: " + PrettyPrint.msecs(System.currentTimeMillis()-start, true));
   }
 
+  @Test
+  public void matrixMatTest() {
+    int rows = 37;
+    int cols = 53;
+    Random rng = new Random(0xBEEF);
+    float [] a = new float[rows*cols];
+    for (int i=0;i<a.length;++i) a[i] = rng.nextFloat() - 0.5f;
+    double [] y = new double[rows];
+    for (int row=0;row<rows;++row) y[row] = rng.nextDouble();
+    byte [] bits = new byte[(rows+7)/8];
+    rng.nextBytes(bits);
+    for (int n : new int[]{1, 3, 4, 7, 16}) {
+      double [][] x = new double[n][cols];
+      double [][] res = new double[n][rows];
+      for (int mb=0;mb<n;++mb)
+        for (int col=0;col<cols;++col)
+          x[mb][col] = rng.nextDouble();
+      for (byte[] b : new byte[][]{null, bits}) {
+        gemm(res, a, x, y, b, n);
+        for (int mb=0;mb<n;++mb) {
+          double [] expected = new double[rows];
+          gemv_naive(expected, a, x[mb], y, b);
+          Assert.assertArrayEquals(expected, res[mb], 1e-10);
+          gemv_row_optimized(expected, a, x[mb], y, b);
+          Assert.assertArrayEquals(expected, res[mb], 0);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void maxoutMatTest() {
+    int rows = 37;
+    int cols = 53;
+    Random rng = new Random(0xF00D);
+    float [] a = new float[2*rows*cols];
+    for (int i=0;i<a.length;++i) a[i] = rng.nextFloat() - 0.5f;
+    double [] y = new double[2*rows];
+    for (int i=0;i<y.length;++i) y[i] = rng.nextDouble() - 0.5;
+    byte [] bits = new byte[(rows+7)/8];
+    rng.nextBytes(bits);
+    for (int n : new int[]{1, 3, 4, 7, 16}) {
+      double [][] x = new double[n][cols];
+      double [][] res = new double[n][rows];
+      int [][] maxIncoming = new int[n][rows];
+      for (int mb=0;mb<n;++mb)
+        for (int col=0;col<cols;++col)
+          x[mb][col] = rng.nextDouble();
+      for (byte[] b : new byte[][]{null, bits}) {
+        gemmMaxout(res, maxIncoming, a, x, y, b, n);
+        for (int mb=0;mb<n;++mb) {
+          for (int row=0;row<rows;++row) {
+            if (b != null && (b[row / 8] & (1 << (row % 8))) == 0) {
+              Assert.assertEquals(0, res[mb][row], 0);
+              continue;
+            }
+            double [] channel = new double[2];
+            for (int k=0;k<2;++k) {
+              for (int col=0;col<cols;++col)
+                channel[k] += a[2*(row*cols+col)+k] * x[mb][col];
+              channel[k] += y[2*row+k];
+            }
+            int maxK = channel[1] > channel[0] ? 1 : 0;
+            Assert.assertEquals(maxK, maxIncoming[mb][row]);
+            Assert.assertEquals(channel[maxK], res[mb][row], 0);
+          }
+        }
+      }
+    }
+  }
 }
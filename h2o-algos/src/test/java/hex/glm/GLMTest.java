@@ -541,6 +541,77 @@ public class GLMTest  extends TestUtil {
     }
   }
 
+  // main model is warm-started from the cv models, make sure it still converges to the same solution
+  @Test
+  public void testCarsXvalWarmStart() {
+    Scope.enter();
+    Key parsed = Key.make("cars_parsed");
+    Frame fr = null;
+    GLMModel model = null;
+    try {
+      fr = parse_test_file(parsed, "smalldata/junit/cars.csv");
+      GLMParameters params = new GLMParameters(Family.poisson, Family.poisson.defaultLink, new double[]{0}, new double[]{0},0,0);
+      params._response_column = "power (hp)";
+      params._ignored_columns = new String[]{"name"};
+      params._train = parsed;
+      params._lambda = new double[]{0};
+      params._alpha = new double[]{0};
+      params._nfolds = 3;
+      params._missing_values_handling = MissingValuesHandling.Skip;
+      model = new GLM( params).trainModel().get();
+      HashMap<String, Double> coefs = model.coefficients();
+      String[] cfs1 = new String[]{"Intercept", "economy (mpg)", "cylinders", "displacement (cc)", "weight (lb)", "0-60 mph (s)", "year"};
+      double[] vls1 = new double[]{4.9504805, -0.0095859, -0.0063046, 0.0004392, 0.0001762, -0.0469810, 0.0002891};
+      for (int i = 0; i < cfs1.length; ++i)
+        assertEquals(vls1[i], coefs.get(cfs1[i]), 1e-4);
+    } finally {
+      if (fr != null) fr.delete();
+      if (model != null) {
+        model.deleteCrossValidationModels();
+        model.delete();
+      }
+      Scope.exit();
+    }
+  }
+
+  // warm start with an l1 penalty: the warm-started coefficients must survive the first strong rules pass
+  @Test
+  public void testCarsXvalWarmStartStrongRules() {
+    Scope.enter();
+    Key parsed = Key.make("cars_parsed");
+    Frame fr = null;
+    GLMModel cold = null, warm = null;
+    try {
+      fr = parse_test_file(parsed, "smalldata/junit/cars.csv");
+      GLMParameters params = new GLMParameters(Family.poisson, Family.poisson.defaultLink, new double[]{0}, new double[]{0},0,0);
+      params._response_column = "power (hp)";
+      params._ignored_columns = new String[]{"name"};
+      params._train = parsed;
+      params._lambda = new double[]{1e-3};
+      params._alpha = new double[]{0.5};
+      params._missing_values_handling = MissingValuesHandling.Skip;
+      cold = new GLM(params).trainModel().get();
+      params._nfolds = 3;
+      warm = new GLM(params).trainModel().get();
+      // same solution, in fewer iterations
+      HashMap<String, Double> coldCoefs = cold.coefficients();
+      HashMap<String, Double> warmCoefs = warm.coefficients();
+      for (String name : coldCoefs.keySet())
+        assertEquals(name, coldCoefs.get(name), warmCoefs.get(name), 1e-4);
+      int coldIter = cold._output.bestSubmodel().iteration;
+      int warmIter = warm._output.bestSubmodel().iteration;
+      assertTrue("warm start took " + warmIter + " iterations, cold start " + coldIter, warmIter < coldIter);
+    } finally {
+      if (fr != null) fr.delete();
+      if (cold != null) cold.delete();
+      if (warm != null) {
+        warm.deleteCrossValidationModels();
+        warm.delete();
+      }
+      Scope.exit();
+    }
+  }
+
   // Leask xval keys
 //  @Test public void testXval() {
 //    GLMModel model = null;
@@ -0,0 +1,27 @@
+package hex.word2vec;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class UnigramSamplerTest {
+
+  @Test
+  public void testUnigramSampler() {
+    long[] counts = {1, 16, 81, 0};
+    UnigramSampler s = new UnigramSampler(counts);
+    int[] hist = new int[counts.length];
+    long rnd = 0xDECAFL;
+    final int n = 100000;
+    for (int i = 0; i < n; i++) {
+      rnd ^= (rnd << 21); rnd ^= (rnd >>> 35); rnd ^= (rnd << 4);
+      hist[s.sample(rnd)]++;
+    }
+    // counts^0.75 = 1, 8, 27, 0
+    assertEquals(1 / 36.0, hist[0] / (double) n, 0.01);
+    assertEquals(8 / 36.0, hist[1] / (double) n, 0.01);
+    assertEquals(27 / 36.0, hist[2] / (double) n, 0.01);
+    assertEquals(0, hist[3]);
+  }
+
+}
@@ -67,6 +67,56 @@ public class Word2VecTest extends TestUtil {
     }
   }
 
+  @Test
+  public void testW2V_SG_NS_small() {
+    // Sentences of words of one of two clusters, which never share a window
+    String[][] clusters = {{"a", "b", "c"}, {"x", "y", "z"}};
+    Random r = new Random(42);
+    String[] words = new String[400 * 9];
+    for (int i = 0; i < words.length; i += 9) {
+      String[] cluster = clusters[(i / 9) % 2];
+      for (int j = 0; j < 8; j++)
+        words[i + j] = cluster[r.nextInt(cluster.length)];
+      words[i + 8] = null; // end of sentence
+    }
+    Scope.enter();
+    try {
+      Vec v = Scope.track(svec(words));
+      Frame fr = Scope.track(new Frame(Key.<Frame>make(), new String[]{"Words"}, new Vec[]{v}));
+      DKV.put(fr);
+
+      Word2VecModel.Word2VecParameters p = new Word2VecModel.Word2VecParameters();
+      p._train = fr._key;
+      p._min_word_freq = 5;
+      p._word_model = Word2Vec.WordModel.SkipGram;
+      p._norm_model = Word2Vec.NormModel.NegativeSampling;
+      p._negative_samples = 5;
+      p._vec_size = 10;
+      p._window_size = 5;
+      p._sent_sample_rate = 0; // every word is frequent in such a small vocabulary
+      p._init_learning_rate = 0.025f;
+      p._epochs = 10;
+
+      Word2VecModel w2vm = (Word2VecModel) Scope.track_generic(new Word2Vec(p).trainModel().get());
+
+      for (int c = 0; c < clusters.length; c++) {
+        for (String word : clusters[c]) {
+          float minSame = Float.MAX_VALUE, maxOther = -Float.MAX_VALUE;
+          for (int d = 0; d < clusters.length; d++)
+            for (String other : clusters[d]) {
+              if (other.equals(word)) continue;
+              float sim = cosine(w2vm.transform(word), w2vm.transform(other));
+              if (c == d) minSame = Math.min(minSame, sim);
+              else maxOther = Math.max(maxOther, sim);
+            }
+          assertTrue(word + ": " + minSame + " > " + maxOther, minSame > maxOther);
+        }
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+
   @Test
   public void testW2V_pretrained() {
     String[] words = new String[1000];
@@ -223,6 +273,16 @@ public class Word2VecTest extends TestUtil {
     }
   }
 
+  private static float cosine(float[] v1, float[] v2) {
+    double dot = 0, n1 = 0, n2 = 0;
+    for (int i = 0; i < v1.length; i++) {
+      dot += v1[i] * v2[i];
+      n1 += v1[i] * v1[i];
+      n2 += v2[i] * v2[i];
+    }
+    return (float) (dot / Math.sqrt(n1 * n2));
+  }
+
   private void logResults(Map<String, Float> hm) {
     List<Map.Entry<String, Float>> result = new ArrayList<>(hm.entrySet());
     Collections.sort(result, new Comparator<Map.Entry<String, Float>>() {
@@ -0,0 +1,27 @@
+package hex.word2vec;
+
+import org.junit.Test;
+import water.parser.BufferedString;
+
+import static org.junit.Assert.*;
+
+public class WordIdTableTest {
+
+  @Test
+  public void testGet() {
+    BufferedString[] words = new BufferedString[1000];
+    for (int i = 0; i < words.length; i++)
+      words[i] = new BufferedString("word" + i);
+    WordIdTable t = new WordIdTable(words);
+    assertEquals(words.length, t.size());
+    for (int i = 0; i < words.length; i++)
+      assertEquals(i, t.get(new BufferedString("word" + i)));
+    assertEquals(-1, t.get(new BufferedString("word")));
+    assertEquals(-1, t.get(new BufferedString("word1000")));
+    assertEquals(-1, t.get(new BufferedString("")));
+    // lookup in the middle of a larger buffer
+    byte[] buf = "xxword42yy".getBytes();
+    assertEquals(42, t.get(buf, 2, 6));
+  }
+
+}
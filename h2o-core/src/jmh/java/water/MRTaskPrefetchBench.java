@@ -0,0 +1,92 @@
+package water;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+import water.fvec.Chunk;
+import water.fvec.Vec;
+
+/**
+ * Maps reading rows of a misaligned Vec, without and with prefetching: the
+ * comparison to check before changing the default of MRTask.PREFETCH_WINDOW.
+ * A fresh source every run, nothing cached yet.
+ *
+ * Prefetching only fetches remote chunks: start the other nodes of the cloud
+ * first (same -name, e.g. java -jar h2o.jar -name prefetch-bench) and give
+ * the cloud size with -Dubench.cloudSize.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MRTaskPrefetchBench {
+
+  @Param({"0", "4", "16"})
+  private int window;
+
+  private Vec vec;
+  private Vec src;
+
+  @Setup
+  public void setup() {
+    H2O.main(new String[]{"-name", "prefetch-bench"});
+    H2O.waitForCloudSize(Integer.getInteger("ubench.cloudSize", 1), 60000);
+    final int w = window;
+    new MRTask() {
+      @Override public void setupLocal() { MRTask.PREFETCH_WINDOW = w; }
+    }.doAllNodes();
+    vec = Vec.makeCon(1.0, 1 << 20, 10, true); // 1024 rows per chunk
+  }
+
+  @Setup(Level.Invocation)
+  public void makeSource() {
+    src = Vec.makeCon(2.0, 1 << 20, 12, true); // Other VectorGroup, 4096 rows per chunk
+  }
+
+  @TearDown(Level.Invocation)
+  public void removeSource() {
+    src.remove();
+  }
+
+  @Benchmark
+  public double misalignedMaps() {
+    return new RowSumTask(src).prefetch(src).doAll(vec)._sum;
+  }
+
+  private static class RowSumTask extends MRTask<RowSumTask> {
+    final Vec _src;
+    double _sum;
+    RowSumTask(Vec src) { _src = src; }
+    @Override public void map(Chunk c) {
+      for( int i = 0; i < c._len; i++ ) _sum += _src.at(c.start() + i);
+    }
+    @Override public void reduce(RowSumTask t) { _sum += t._sum; }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(MRTaskPrefetchBench.class.getSimpleName())
+        .build();
+
+    new Runner(opt).run();
+  }
+}
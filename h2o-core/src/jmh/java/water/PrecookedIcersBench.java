@@ -0,0 +1,71 @@
+package water;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup cost of the serializers of the bootstrap classes: loading the Icers generated
+ * at build time vs. the Javassist path. Every measurement runs in a fresh JVM, an Icer
+ * is only created once per JVM. With sys.ai.h2o.weaver.precookedIcers=false the Weaver
+ * ignores the pre-generated class files on the classpath and generates all the Icers.
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PrecookedIcersBench {
+
+  @Benchmark
+  @Fork(10)
+  public int pregenerated() throws ClassNotFoundException {
+    return makeIcers();
+  }
+
+  @Benchmark
+  @Fork(value = 10, jvmArgsAppend = "-Dsys.ai.h2o.weaver.precookedIcers=false")
+  public int javassist() throws ClassNotFoundException {
+    return makeIcers();
+  }
+
+  private static int makeIcers() throws ClassNotFoundException {
+    int sum = 0;
+    for (int id = 1; id < TypeMap.BOOTSTRAP_CLASSES.length; id++) {
+      if (id == TypeMap.PRIM_B) continue;
+      Class clazz = Class.forName(TypeMap.BOOTSTRAP_CLASSES[id]);
+      if (!bootstrapParents(clazz)) continue; // needs type ids from a cloud
+      sum += TypeMap.getIcer(id, clazz).frozenType();
+    }
+    return sum;
+  }
+
+  // No cloud here: only classes whose Freezable parents have a type id at boot
+  private static boolean bootstrapParents(Class clazz) {
+    for (Class c = clazz; c != null && Freezable.class.isAssignableFrom(c); c = c.getSuperclass()) {
+      if (!Arrays.asList(TypeMap.BOOTSTRAP_CLASSES).contains(c.getName())) return false;
+    }
+    return true;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(PrecookedIcersBench.class.getSimpleName())
+        .build();
+
+    new Runner(opt).run();
+  }
+}
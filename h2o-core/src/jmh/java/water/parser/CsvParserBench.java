@@ -0,0 +1,123 @@
+package water.parser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import water.fvec.AppendableVec;
+import water.fvec.FileVec;
+import water.fvec.NewChunk;
+import water.fvec.Vec;
+import water.util.StringUtils;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CSV chunk parsing throughput: byte-at-a-time parser vs. the structural
+ * index tokenizer, on one 4MB chunk (not the first one of the file).  With
+ * compression of the parsed chunks, numbers are converted to doubles too.
+ */
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CsvParserBench {
+
+  @Param({"ints", "floats", "sensor", "mixed"})
+  private String data;
+  @Param({"false", "true"})
+  private boolean indexed;
+
+  private ParseSetup setup;
+  private byte[][] chunks;
+
+  @Benchmark
+  public long parseChunk() {
+    return parse().lineNum();
+  }
+
+  @Benchmark
+  public long parseAndCompressChunk() {
+    FVecParseWriter dout = parse();
+    long len = 0;
+    for( NewChunk nc : dout._nvs )
+      len += nc.compress().len();
+    return len;
+  }
+
+  private FVecParseWriter parse() {
+    IndexedCsvTokenizer.ENABLED = indexed;
+    final int ncols = setup._number_columns;
+    AppendableVec[] avs = new AppendableVec[ncols];
+    Categorical[] cats = new Categorical[ncols];
+    for( int i = 0; i < ncols; i++ ) {
+      avs[i] = new AppendableVec(Vec.newKey(), setup._column_types[i]);
+      cats[i] = new Categorical();
+    }
+    FVecParseWriter dout = new FVecParseWriter(null, 1, cats, setup._column_types.clone(), setup._chunk_size, avs);
+    new CsvParser(setup, null).parseChunk(1, new ParseReader() {
+      @Override public byte[] getChunkData(int cidx) { return cidx < chunks.length ? chunks[cidx] : null; }
+      @Override public int getChunkDataStart(int cidx) { return -1; }
+      @Override public void setChunkDataStart(int cidx, int offset) { }
+      @Override public long getGlobalByteOffset() { return 0; }
+    }, dout);
+    return dout;
+  }
+
+  @Setup
+  public void setup() {
+    final int ncols = 10;
+    byte[] ctypes = new byte[ncols];
+    Arrays.fill(ctypes, Vec.T_NUM);
+    if( data.equals("mixed") ) ctypes[2] = ctypes[5] = Vec.T_CAT;
+    setup = new ParseSetup(DefaultParserProviders.CSV_INFO, (byte) ',', false, ParseSetup.NO_HEADER, ncols,
+            null, ctypes, null, null, null, null, FileVec.DFLT_CHUNK_SIZE);
+    Random rnd = new Random(0xB0B);
+    chunks = new byte[3][];
+    for( int c = 0; c < chunks.length; c++ ) {
+      StringBuilder sb = new StringBuilder(FileVec.DFLT_CHUNK_SIZE + 1024);
+      while( sb.length() < FileVec.DFLT_CHUNK_SIZE ) {
+        for( int i = 0; i < ncols; i++ ) {
+          if( i > 0 ) sb.append(',');
+          if( ctypes[i] == Vec.T_CAT ) sb.append("level").append(rnd.nextInt(50));
+          else if( data.equals("ints") ) sb.append(rnd.nextInt(1000000));
+          else if( data.equals("sensor") ) sb.append(sensorReading(rnd, i));
+          else sb.append(rnd.nextGaussian() * 1000);
+        }
+        sb.append('\n');
+      }
+      chunks[c] = StringUtils.bytesOf(sb.toString());
+    }
+  }
+
+  // Readings as loggers write them: a handful of significant digits, some
+  // in scientific notation
+  private static String sensorReading(Random rnd, int col) {
+    double v = (rnd.nextDouble() - 0.5) * Math.pow(10, col - 4);
+    return col % 3 == 0 ? String.format(Locale.ROOT, "%.6e", v) : String.format(Locale.ROOT, "%.4f", v);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(CsvParserBench.class.getSimpleName())
+        .build();
+
+    new Runner(opt).run();
+  }
+}
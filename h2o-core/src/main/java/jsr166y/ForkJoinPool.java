@@ -2383,6 +2383,27 @@ public class ForkJoinPool extends AbstractExecutorService {
         return rc;
     }
 
+    /**
+     * Returns an estimate of the number of worker threads that are
+     * blocked waiting to join tasks or for other managed
+     * synchronization (not idle waiting for work). This method may
+     * overestimate the number of blocked threads.
+     *
+     * @return the number of blocked worker threads
+     */
+    public int getBlockedThreadCount() {
+        int bc = 0;
+        WorkQueue[] ws; WorkQueue w;
+        if ((ws = workQueues) != null) {
+            for (int i = 1; i < ws.length; i += 2) {
+                if ((w = ws[i]) != null && w.eventCount >= 0 &&
+                    w.owner != null && !w.isApparentlyUnblocked())
+                    ++bc;
+            }
+        }
+        return bc;
+    }
+
     /**
      * Returns an estimate of the number of threads that are currently
      * stealing or executing tasks. This method may overestimate the
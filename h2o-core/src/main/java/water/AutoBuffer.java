@@ -668,7 +668,7 @@ public final class AutoBuffer {
   private ByteBuffer putSp( int sz ) {
     assert !_read;
     if (sz > _bb.remaining()) {
-      if ((_h2o == null && _chan == null) || (_bb.hasArray() && _bb.capacity() < BBP_BIG._size))
+      if ((_h2o == null && _chan == null) || _held || (_bb.hasArray() && _bb.capacity() < BBP_BIG._size))
         expandByteBuffer(sz);
       else
         sendPartial();
@@ -680,6 +680,7 @@ public final class AutoBuffer {
   // Do something with partial results, because the ByteBuffer is full.
   // If we are doing I/O, ship the bytes we have now and flip the ByteBuffer.
   private ByteBuffer sendPartial() {
+    assert !_held : "Sending held back bytes";
     // Doing I/O with the full ByteBuffer - ship partial results
     _size += _bb.position();
     if( _chan == null )
@@ -711,13 +712,56 @@ public final class AutoBuffer {
     return _bb;
   }
 
+  // Outgoing bytes kept whole in a heap array (not sent as the buffer fills
+  // up), see holdBack() and release()
+  private boolean _held;
+  private int _heldMax;
+
+  /** Keep what is written from now on in a heap array instead of sending it,
+   *  so that it can be rewritten (e.g. compressed) before it goes out.
+   *  Only valid before anything was sent.  Past maxLen bytes written to a
+   *  Node, the bytes are released and go out as they are, see isHeld().
+   *  @return the position the held bytes start at */
+  int holdBack( int maxLen ) {
+    assert !_read && !_held && _chan == null && _firstPage;
+    if( !_bb.hasArray() ) {     // Direct UDP-sized first page
+      ByteBuffer bb = ByteBuffer.wrap(MemoryManager.malloc1(_bb.capacity())).order(ByteOrder.nativeOrder());
+      _bb.flip();
+      bb.put(_bb);
+      bbFree();
+      _bb = bb;
+    }
+    _held = true;
+    _heldMax = (int) Math.min((long) _bb.position() + maxLen, MAX_ARRAY_SIZE);
+    return _bb.position();
+  }
+
+  /** @return true if the bytes written since holdBack() are still held back */
+  boolean isHeld() { return _held; }
+
+  /** Stop holding back: the bytes written so far go out like any other.  A
+   *  big write is paged through the pooled buffers, like putA1(byte[]). */
+  void release() {
+    assert _held;
+    _held = false;
+    if( _h2o == null || _bb.position() < MTU ) return; // Sent as is, e.g. via UDP on close
+    final byte[] ary = _bb.array();
+    final int off = _bb.arrayOffset(), len = _bb.position();
+    _bb = BBP_BIG.make();
+    putA1(ary, off, off + len);
+  }
+
   // Called when the byte buffer doesn't have enough room
   // If buffer is array backed, and the needed room is small,
   // increase the size of the backing array,
   // otherwise dump into a large direct buffer
   private ByteBuffer expandByteBuffer(int sizeHint) {
     final long needed = (long) sizeHint - _bb.remaining() + _bb.capacity(); // Max needed is 2G
-    if ((_h2o==null && _chan == null) || (_bb.hasArray() && needed < MTU)) {
+    if (_held && _h2o != null && needed > _heldMax) { // Too big to hold back, goes out as is
+      release();
+      return sizeHint > _bb.remaining() ? sendPartial() : _bb;
+    }
+    if ((_h2o==null && _chan == null) || _held || (_bb.hasArray() && needed < MTU)) {
       if (needed > MAX_ARRAY_SIZE) {
         throw new IllegalArgumentException("Cannot allocate more than 2GB array: sizeHint="+sizeHint+", "
                 + "needed="+needed
@@ -1303,6 +1347,37 @@ public final class AutoBuffer {
     }
     return this;
   }
+
+  // Whether a byte[] of this size, found in a file, should rather be sent
+  // with putA1(FileChannel,long,int): large arrays written to another Node
+  // or to a channel, unless held back (they are copied into the heap then).
+  boolean transfersFrom( int len ) {
+    return !_read && !_held && (_h2o != null || _chan != null) && len >= BBP_BIG._size;
+  }
+
+  /** Put the len bytes of a file starting at pos, in the same format as
+   *  putA1(byte[]).  The bytes go from the file straight to the TCP socket
+   *  (or the channel) via FileChannel.transferTo, without being copied into
+   *  the heap or through the pooled buffers.  See transfersFrom(int). */
+  AutoBuffer putA1( FileChannel fc, long pos, int len ) {
+    assert transfersFrom(len);
+    putInt(len);
+    sendPartial();              // Ship what we have; opens the TCP socket as needed
+    try {
+      long ns = System.nanoTime();
+      long sofar = 0;
+      while( sofar < len ) {
+        long n = fc.transferTo(pos + sofar, len - sofar, (WritableByteChannel) _chan);
+        if( n <= 0 ) throw new EOFException("Transferring " + len + " bytes from file, got " + sofar + ", AB=" + this);
+        sofar += n;
+      }
+      _time_io_ns += (System.nanoTime()-ns);
+    } catch( IOException e ) {  // Retry & recovery at a higher level, see sendPartial
+      throw new AutoBufferException(e);
+    }
+    _size += len;
+    return this;
+  }
   AutoBuffer putA2( short[] ary ) {
     //_arys++;
     if( ary == null ) return putInt(-1);
@@ -0,0 +1,334 @@
+package water;
+
+import jsr166y.CountedCompleter;
+import water.fvec.Frame;
+import water.fvec.Vec;
+import water.nbhm.NonBlockingHashMap;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Node-local scheduling state of an MRTask run with {@link MRTask#mapReplicas()}
+ * or {@link MRTask#stealChunks()}.
+ *
+ * Every chunk is mapped exactly once: a chunk has to be claimed on its home
+ * node before it is mapped, either by the home node itself or (remotely, via
+ * {@link ClaimTask}) by another node.  A node starts claiming chunks of other
+ * nodes only when all of its own chunks are claimed.  It first claims chunks it
+ * holds replicas of (see {@link ChunkReplicas}); then, with a network budget
+ * (stealChunks), chunks it has to fetch from their home node.  A node gives
+ * away chunks to be fetched only while it has more unclaimed chunks left than
+ * it can start mapping at once, i.e. while it is behind.
+ *
+ * Chunks of other nodes are claimed with RPCs which are never waited for,
+ * and fetched (unless cached already) the same way: the chunk claimed is
+ * handed to a {@link Thief} once all of its Vecs are cached, in the completion
+ * of the last fetch, so the F/J worker threads mapping the chunks do not block
+ * on the network.  The bytes of a chunk to fetch are reserved in the budget
+ * before it is claimed, so concurrent claims never fetch more than the budget
+ * in total.
+ *
+ * This is node-local state, not sent with the MRTask: only the {@link Plan}
+ * is, and only by the MRTasks which claim chunks.
+ */
+final class ChunkClaims {
+  // Claims of the MRTasks currently running on this node
+  private static final NonBlockingHashMap<Key, ChunkClaims> CLAIMS = new NonBlockingHashMap<>();
+
+  /** What an MRTask run claiming chunks sends to the nodes: the key of the
+   *  run, and the network budget per node (0 to map only replicas). */
+  static final class Plan extends Iced<Plan> {
+    Key _key;
+    final long _budget;
+    Plan(long budget) { _budget = budget; }
+  }
+
+  private final Key _key;
+  private final Vec[] _vecs;
+  private final MRTask _proto;            // Fresh copy of the MRTask, mapping the chunks of other nodes
+  private final CountDownLatch _givenAway = new CountDownLatch(1); // Counted down when another node claims a chunk homed here
+  private final AtomicLongArray _claimed; // Bit per chunk homed on this node, set when claimed
+  private final AtomicInteger _unclaimed; // Number of chunks homed on this node and not claimed yet
+  private final int[] _local;             // Chunks homed on this node
+  private int _localEnd;                  // _local[_localEnd..] are all claimed
+  private final AtomicLong _budget;       // Bytes this node can still fetch to map chunks of other nodes
+  private volatile long _chunkBytes;      // Bytes reserved per claim of a chunk to fetch, the largest chunk seen
+
+  // Replicas held by this node: _replicas[node] are the chunks homed on the
+  // node cached here, only the first _ends[node] of them might still be unclaimed
+  private int[][] _replicas;
+  private int[] _ends;
+  private boolean[] _behind;              // Nodes which might still give away chunks to be fetched
+  private int _nextVictim;
+
+  private ChunkClaims(Key key, Vec[] vecs, long budget, MRTask proto) {
+    _key = key;
+    _vecs = vecs;
+    _proto = proto;
+    final Vec v0 = vecs[0];
+    final int nChunks = v0.nChunks();
+    int[] local = new int[nChunks];
+    int nlocal = 0;
+    for( int cidx = 0; cidx < nChunks; cidx++ )
+      if( v0.chunkKey(cidx).home() ) local[nlocal++] = cidx;
+    _local = Arrays.copyOf(local, nlocal);
+    _localEnd = nlocal;
+    _claimed = new AtomicLongArray((nChunks + 63) >> 6);
+    _unclaimed = new AtomicInteger(nlocal);
+    _budget = new AtomicLong(budget);
+    _chunkBytes = Math.max(1, nlocal > 0 ? bytes(_local[0]) : 0);
+  }
+
+  /**
+   * @param proto copy of the MRTask after its setupLocal, copied again for
+   *              every chunk of another node mapped here
+   */
+  static ChunkClaims register(Plan plan, Frame fr, MRTask proto) {
+    ChunkClaims claims = new ChunkClaims(plan._key, fr.vecs(), plan._budget, proto);
+    CLAIMS.put(plan._key, claims);
+    return claims;
+  }
+
+  static void unregister(Plan plan) { CLAIMS.remove(plan._key); }
+
+  MRTask proto() { return _proto; }
+
+  /**
+   * Wait until another node claimed a chunk homed on this node (for tests).
+   * @return false if none was claimed in time
+   */
+  boolean awaitGivenAway(long timeoutMs) throws InterruptedException {
+    return _givenAway.await(timeoutMs, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Claim a chunk homed on this node.
+   * @return true if the caller should map the chunk, false if it was claimed already
+   */
+  boolean claim(int cidx) {
+    final int idx = cidx >> 6;
+    final long bit = 1L << (cidx & 63);
+    while( true ) {
+      long old = _claimed.get(idx);
+      if( (old & bit) != 0 ) return false;
+      if( _claimed.compareAndSet(idx, old, old | bit) ) {
+        _unclaimed.decrementAndGet();
+        return true;
+      }
+    }
+  }
+
+  /** @return true when all the chunks homed on this node are claimed */
+  boolean localDone() { return _unclaimed.get() == 0; }
+
+  private boolean claimed(int cidx) { return (_claimed.get(cidx >> 6) & (1L << (cidx & 63))) != 0; }
+
+  // Size of the chunks with the given index, of all the vecs
+  private long bytes(int cidx) {
+    long bytes = 0;
+    for( Vec v : _vecs ) {
+      Value val = v == null ? null : Value.STORE_get(v.chunkKey(cidx));
+      if( val != null ) bytes += val._max;
+    }
+    return bytes;
+  }
+
+  // Claim any chunk homed on this node for another node which fetches it,
+  // unless this node is about to be done anyway.  The chunk must fit into the
+  // bytes the other node reserved (ct._maxBytes); ct._bytes is set to the
+  // size of the chunk, also when it is too large to be claimed.
+  private int claimForFetch( ClaimTask ct ) {
+    if( _unclaimed.get() <= H2O.NUMCPUS ) return -1;
+    while( true ) {
+      int cidx;
+      synchronized( this ) {
+        if( _localEnd == 0 ) return -1;
+        cidx = _local[_localEnd - 1]; // From the end, the local F/J threads tend to start on the left
+        if( !claimed(cidx) && (ct._bytes = bytes(cidx)) > ct._maxBytes ) return -1;
+        _localEnd--;
+      }
+      if( claim(cidx) ) return cidx;
+    }
+  }
+
+  // Take the given number of bytes from the budget, if there are enough left
+  private boolean reserve(long bytes) {
+    while( true ) {
+      long budget = _budget.get();
+      if( budget < bytes ) return false;
+      if( _budget.compareAndSet(budget, budget - bytes) ) return true;
+    }
+  }
+
+  /** Gets the chunks of other nodes claimed by {@link #steal} */
+  interface Thief {
+    /**
+     * Called on a F/J thread, may call {@link #steal} again.
+     * @param cidx claimed chunk, cached on this node; -1 if there is no chunk
+     *             left to claim
+     */
+    void stolen(int cidx);
+  }
+
+  /**
+   * Claim a chunk of another node, without blocking: one this node holds a
+   * replica of, or, within the network budget, one to fetch from its home
+   * node.  The chunk is handed to the thief once claimed and cached; the
+   * claims and fetches in flight keep cc from completing until then.
+   */
+  void steal(H2O.H2OCountedCompleter cc, Thief thief) {
+    stealReplica(0, cc, thief);
+  }
+
+  // Claim a chunk to fetch from the i-th next node which is behind (or from a
+  // later one), within the budget
+  private void stealRemote( int i, H2O.H2OCountedCompleter cc, Thief thief ) {
+    final H2ONode[] nodes = H2O.CLOUD._memary;
+    synchronized( this ) {
+      if( _behind == null ) {
+        _behind = new boolean[nodes.length];
+        Arrays.fill(_behind, true);
+        _behind[H2O.SELF.index()] = false;
+      }
+    }
+    for( ; i < nodes.length; i++ ) {
+      final int victim;
+      synchronized( this ) {
+        victim = (_nextVictim + i) % nodes.length;
+        if( !_behind[victim] ) continue;
+      }
+      final long reserved = _chunkBytes;
+      if( !reserve(reserved) ) break; // Budget used up
+      claimRemote(i, victim, reserved, cc, thief);
+      return;
+    }
+    thief.stolen(-1);
+  }
+
+  // Claim a chunk to fetch from the given node, with the given number of bytes
+  // reserved for it.  The reservation is settled once the claim is back: what
+  // the chunk does not need is given back to the budget.
+  private void claimRemote( final int i, final int victim, final long reserved, final H2O.H2OCountedCompleter cc, final Thief thief ) {
+    cc.addToPendingCount(1);    // Until the claim is handled
+    new RPC<>(H2O.CLOUD._memary[victim], new ClaimTask(_key, reserved)).addCompleter(new H2O.H2OCallback<ClaimTask>(cc) {
+      @Override public void callback(ClaimTask ct) {
+        if( ct._cidx != -1 ) {
+          _budget.addAndGet(reserved - ct._bytes);
+          synchronized( ChunkClaims.this ) { _nextVictim = victim + 1; }
+          fetch(ct._cidx, cc, thief);
+        } else {
+          _budget.addAndGet(reserved);
+          if( ct._bytes > reserved ) { // Too large for the reservation, retry with its size
+            synchronized( ChunkClaims.this ) { _chunkBytes = Math.max(_chunkBytes, ct._bytes); }
+            if( reserve(ct._bytes) ) claimRemote(i, victim, ct._bytes, cc, thief);
+            else thief.stolen(-1); // Budget used up
+          } else {
+            synchronized( ChunkClaims.this ) { _behind[victim] = false; }
+            stealRemote(i + 1, cc, thief);
+          }
+        }
+      }
+    }).call();
+  }
+
+  // Claim one of the replicas of the i-th next node (or of a later one),
+  // then, if there are none left, a chunk to fetch
+  private void stealReplica( int i, final H2O.H2OCountedCompleter cc, final Thief thief ) {
+    final H2ONode[] nodes = H2O.CLOUD._memary;
+    final int[][] replicas = replicas();
+    for( ; i < nodes.length; i++ ) {
+      final int victim;
+      final int[] cidxs;
+      synchronized( this ) {
+        victim = (_nextVictim + i) % nodes.length;
+        if( _ends[victim] == 0 ) continue;
+        cidxs = Arrays.copyOf(replicas[victim], _ends[victim]);
+      }
+      final int next = i + 1;
+      cc.addToPendingCount(1);  // Until the claim is handled
+      new RPC<>(nodes[victim], new ClaimTask(_key, cidxs)).addCompleter(new H2O.H2OCallback<ClaimTask>(cc) {
+        @Override public void callback(ClaimTask ct) {
+          final int pos = ct._pos;
+          synchronized( ChunkClaims.this ) {
+            _ends[victim] = Math.min(_ends[victim], Math.max(pos, 0)); // Everything from pos on is claimed
+            if( pos != -1 ) _nextVictim = victim + 1; // Spread the requests over the slow nodes
+          }
+          if( pos != -1 ) fetch(cidxs[pos], cc, thief); // Unless evicted, cached already
+          else stealReplica(next, cc, thief);
+        }
+      }).call();
+      return;
+    }
+    stealRemote(0, cc, thief);
+  }
+
+  // Fetch the chunks with the given index of all the vecs, all at once, then
+  // hand the index to the thief.  The fetches are RPC completions, no thread
+  // waits for them; chunks cached here already are not fetched again.
+  private void fetch( final int cidx, final H2O.H2OCountedCompleter cc, final Thief thief ) {
+    cc.addToPendingCount(1);    // Until the thief got the chunk
+    H2O.submitTask(new H2O.H2OCountedCompleter(cc) {
+      @Override public void compute2() {
+        for( Vec v : _vecs )
+          if( v != null ) DKV.prefetch(v.chunkKey(cidx), this);
+        tryComplete();
+      }
+      @Override public void onCompletion(CountedCompleter caller) { thief.stolen(cidx); }
+    });
+  }
+
+  // Find the replicas held by this node, once per MRTask
+  private synchronized int[][] replicas() {
+    if( _replicas != null ) return _replicas;
+    final H2ONode[] nodes = H2O.CLOUD._memary;
+    final Vec v0 = _vecs[0];
+    int[][] replicas = new int[nodes.length][16];
+    int[] ends = new int[nodes.length];
+    for( int cidx = 0; cidx < v0.nChunks(); cidx++ ) {
+      H2ONode home = v0.chunkKey(cidx).home_node();
+      if( home == H2O.SELF || !ChunkReplicas.isCached(_vecs, cidx) ) continue;
+      int node = home.index();
+      if( ends[node] == replicas[node].length )
+        replicas[node] = Arrays.copyOf(replicas[node], ends[node] << 1);
+      replicas[node][ends[node]++] = cidx;
+    }
+    _ends = ends;
+    return _replicas = replicas;
+  }
+
+  // Claim a chunk on its home node.  With a list of chunks (replicas held by
+  // the caller), they are tried from the end of the list and _pos is the
+  // position of the claimed chunk.  Without a list, any chunk of at most
+  // _maxBytes is claimed for the caller to fetch and _bytes is its size.
+  // _cidx is the claimed chunk, -1 if none (or if the MRTask is not running on
+  // the home node); if none because the next chunk is too large, _bytes is
+  // its size.
+  private static class ClaimTask extends DTask<ClaimTask> {
+    private final Key _key;
+    private int[] _cidxs;
+    private final long _maxBytes;
+    int _pos = -1, _cidx = -1;
+    long _bytes;
+    ClaimTask(Key key, int[] cidxs) { super(H2O.GET_KEY_PRIORITY); _key = key; _cidxs = cidxs; _maxBytes = 0; }
+    ClaimTask(Key key, long maxBytes) { super(H2O.GET_KEY_PRIORITY); _key = key; _maxBytes = maxBytes; }
+    @Override public void compute2() {
+      ChunkClaims claims = CLAIMS.get(_key);
+      if( claims != null ) {
+        if( _cidxs != null ) {
+          for( int pos = _cidxs.length - 1; pos >= 0; pos-- )
+            if( claims.claim(_cidxs[pos]) ) { _pos = pos; _cidx = _cidxs[pos]; break; }
+        } else
+          _cidx = claims.claimForFetch(this);
+        if( _cidx != -1 ) claims._givenAway.countDown();
+      }
+      _cidxs = null;            // Do not send the chunk indices back
+      tryComplete();
+    }
+  }
+
+}
@@ -0,0 +1,108 @@
+package water;
+
+import jsr166y.CountedCompleter;
+import water.fvec.Frame;
+import water.fvec.Vec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Node-local prefetching of the remote chunks an MRTask reads while mapping
+ * the chunks of its Frame homed on this node.
+ *
+ * These are the chunks of Vecs which are not in the VectorGroup of the Frame
+ * (so their chunks are homed elsewhere), covering the rows of the local
+ * chunks: Vecs of the Frame itself, and Vecs the map reads rows of (declared
+ * with {@link MRTask#prefetch(Vec...)}, e.g. the source of a rebalance).
+ * Without prefetching, each map blocks on its fetches one key at a time.
+ *
+ * The local chunks are walked in order, fetching all the remote chunks needed
+ * by one local chunk at once, and moving on to the next local chunk not taken
+ * yet once they are all cached.  This keeps a window of fetches in flight,
+ * ahead of the maps; a map which gets to a chunk being fetched waits for the
+ * same fetch (see {@link TaskGetKey}).  No thread waits for the fetches: the
+ * next local chunk is taken in the completion of the last fetch.  The fetched
+ * chunks are regular DKV cache entries.
+ */
+final class ChunkPrefetcher {
+  private final Vec _v0;             // Layout of the Frame, chunks to map
+  private final Vec[] _vecs;         // Vecs with remote chunks to fetch
+  private final int[] _cidxs;        // Chunks of the Frame mapped on this node
+  private final AtomicInteger _next = new AtomicInteger(); // Position in _cidxs of the next chunk to fetch for
+  private final byte _priority;
+  private volatile boolean _stopped;
+
+  private ChunkPrefetcher(Vec v0, Vec[] vecs, int[] cidxs, byte priority) { _v0 = v0; _vecs = vecs; _cidxs = cidxs; _priority = priority; }
+
+  /**
+   * Start fetching the remote chunks needed to map the given frame.
+   * @param vecs additional Vecs the map reads rows of, or null
+   * @param runLocal true if all the chunks are mapped on this node
+   * @param window number of local chunks to fetch for at the same time
+   * @param priority priority of the fetching tasks (of the MRTask)
+   * @return the running prefetcher, or null if there is nothing to fetch
+   */
+  static ChunkPrefetcher start(Frame fr, Vec[] vecs, boolean runLocal, int window, byte priority) {
+    if( H2O.CLOUD.size() == 1 ) return null; // Everything is local
+    final Vec v0 = fr.anyVec();
+    ArrayList<Vec> remote = new ArrayList<>();
+    for( Vec v : fr.vecs() )
+      if( v != null && (runLocal || !Vec.VectorGroup.sameGroup(v0, v)) ) remote.add(v);
+    if( vecs != null )
+      for( Vec v : vecs )
+        if( v != null && v.length() > 0 ) remote.add(v);
+    if( remote.isEmpty() ) return null;
+    final int nChunks = v0.nChunks();
+    int[] cidxs = new int[nChunks];
+    int n = 0;
+    for( int cidx = 0; cidx < nChunks; cidx++ )
+      if( runLocal || v0.chunkKey(cidx).home() ) cidxs[n++] = cidx;
+    if( n == 0 ) return null;
+    final ChunkPrefetcher pf = new ChunkPrefetcher(v0, remote.toArray(new Vec[remote.size()]), Arrays.copyOf(cidxs, n), priority);
+    for( int i = 0; i < Math.min(window, n); i++ )
+      pf.next();
+    return pf;
+  }
+
+  /** Stop fetching (the MRTask is done, or failed). */
+  void stop() { _stopped = true; }
+
+  // Start fetching for the next local chunk not taken yet, if any
+  private void next() {
+    int pos;
+    if( !_stopped && (pos = _next.getAndIncrement()) < _cidxs.length )
+      H2O.submitTask(new Fetch(_cidxs[pos]));
+  }
+
+  // The remote chunks covering the rows of the given local chunk
+  private ArrayList<Key> keys(int cidx) {
+    final long[] espc = _v0.espc();
+    final long start = espc[cidx], end = espc[cidx + 1];
+    ArrayList<Key> keys = new ArrayList<>();
+    if( start == end ) return keys;
+    for( Vec v : _vecs ) {
+      if( start >= v.length() ) continue;
+      final int hi = v.elem2ChunkIdx(Math.min(end, v.length()) - 1);
+      for( int c = v.elem2ChunkIdx(start); c <= hi; c++ ) {
+        Key k = v.chunkKey(c);
+        if( !k.home() ) keys.add(k);
+      }
+    }
+    return keys;
+  }
+
+  // One slot of the fetch window: fetches the remote chunks needed by one
+  // local chunk, all at once, then moves the slot on to the next local chunk
+  private class Fetch extends H2O.H2OCountedCompleter<Fetch> {
+    private final int _cidx;
+    Fetch(int cidx) { super(_priority); _cidx = cidx; }
+    @Override public void compute2() {
+      for( Key k : keys(_cidx) ) DKV.prefetch(k, this);
+      tryComplete();
+    }
+    @Override public void onCompletion(CountedCompleter caller) { next(); }
+  }
+
+}
@@ -0,0 +1,70 @@
+package water;
+
+import water.fvec.Frame;
+import water.fvec.Vec;
+
+import java.util.ArrayList;
+
+/**
+ * Read-only replicas of the chunks of a Frame.
+ *
+ * The chunks homed on node h are copied into the DKV cache of the next k-1
+ * nodes of the cloud (h+1, ..., h+k-1).  The copies are regular DKV cache
+ * entries: the home node tracks them and invalidates them if a chunk changes,
+ * and the Cleaner may drop them under memory pressure.  Replication therefore
+ * only pays off for frames that are not modified and are scanned many times,
+ * e.g. training data during a grid search.
+ *
+ * MRTasks which opt in with {@link MRTask#mapReplicas()} let nodes that are
+ * done with their own chunks map the replicas they hold of chunks that other
+ * (slower) nodes did not get to yet.
+ */
+public final class ChunkReplicas {
+
+  private ChunkReplicas() {}
+
+  /**
+   * Copy the chunks of the given frame to k-1 nodes next to their home node.
+   * @param fr frame to replicate
+   * @param k replication factor, including the home node (k == 1 does nothing)
+   */
+  public static void replicate(Frame fr, int k) {
+    if( k < 1 ) throw new IllegalArgumentException("Replication factor has to be positive, got " + k);
+    if( k == 1 || H2O.CLOUD.size() == 1 || fr.numCols() == 0 ) return;
+    new ReplicateTask(fr.vecs(), Math.min(k, H2O.CLOUD.size())).doAllNodes();
+  }
+
+  /**
+   * @return true if all the chunks (of the given vecs) with the given index are in the local DKV store
+   */
+  static boolean isCached(Vec[] vecs, int cidx) {
+    for( Vec v : vecs ) {
+      if( v == null ) continue;
+      Value val = Value.STORE_get(v.chunkKey(cidx));
+      if( val == null || (val.rawMem() == null && val.rawPOJO() == null) ) return false;
+    }
+    return true;
+  }
+
+  private static class ReplicateTask extends MRTask<ReplicateTask> {
+    private final Vec[] _vecs;
+    private final int _k;
+    ReplicateTask(Vec[] vecs, int k) { _vecs = vecs; _k = k; }
+    @Override protected void setupLocal() {
+      final int self = H2O.SELF.index();
+      if( self < 0 ) return; // Client
+      final int n = H2O.CLOUD.size();
+      final Vec v0 = _vecs[0];
+      ArrayList<Key> keys = new ArrayList<>();
+      for( int cidx = 0; cidx < v0.nChunks(); cidx++ ) {
+        int dist = self - v0.chunkKey(cidx).home_node().index();
+        if( dist < 0 ) dist += n;
+        if( dist == 0 || dist >= _k ) continue;
+        for( Vec v : _vecs ) keys.add(v.chunkKey(cidx));
+      }
+      for( Key key : keys ) DKV.prefetch(key); // Issue all the fetches...
+      for( Key key : keys ) DKV.get(key);      // ...then wait for them
+    }
+  }
+
+}
@@ -156,10 +156,12 @@ public abstract class DKV {
   // Stall until all existing writes have completed.
   // Used to order successive writes.
   static void write_barrier() {
-    for( H2ONode h2o : H2O.CLOUD._memary )
+    for( H2ONode h2o : H2O.CLOUD._memary ) {
+      TaskPutKeys.flush(h2o);   // Send the queued puts, then wait for them below
       for( RPC rpc : h2o.tasks() )
-        if( rpc._dt instanceof TaskPutKey || rpc._dt instanceof Atomic )
+        if( rpc._dt instanceof TaskPutKey || rpc._dt instanceof TaskPutKeys || rpc._dt instanceof Atomic )
           rpc.get();
+    }
   }
 
   static public <T extends Iced> T getGet(String key) { return key == null ? null : (T)getGet(Key.make(key)); }
@@ -177,6 +179,24 @@ public abstract class DKV {
   static public Value get    ( Key key ) { return get(key,true ); }
   /** Prefetch and cache the Value for Key <em>key</em>.  Non-blocking. */
   static public void prefetch( Key key ) {        get(key,false); }
+  /** Prefetch and cache the Value for Key <em>key</em>, then complete
+   *  <em>cc</em>.  Non-blocking: adds a pending count to cc until the Value is
+   *  cached, nothing if it is cached already (or local), so callers can start
+   *  any number of fetches and call cc.tryComplete() after starting them.  A
+   *  cancelled fetch (e.g. the home node left) completes cc as well, a failed
+   *  one completes it exceptionally. */
+  static public void prefetch( Key key, H2O.H2OCountedCompleter cc ) {
+    Value val = Value.STORE_get(key);
+    if( val != null && (val.rawMem() != null || val.rawPOJO() != null || val.isPersisted()) )
+      return;                   // Cached
+    H2O cloud = H2O.CLOUD;
+    H2ONode home = cloud._memary[key.home(cloud)];
+    if( home == H2O.SELF || home.pendingPutKey(key) != null )
+      return;                   // Nothing to fetch, see get()
+    cc.addToPendingCount(1);
+    if( !TaskGetKey.start(home,key).addCompleterIfPending(cc) )
+      cc.tryComplete();         // Fetched already
+  }
   /** Return the {@link Value} mapped to Key formed by <em>key_name</em>, or
    *  null if no mapping.  Blocks till data available, always caches.
    *  @return The {@link Value} mapped to Key formed by <em>key_name</em>, or
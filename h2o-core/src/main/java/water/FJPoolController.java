@@ -0,0 +1,112 @@
+package water;
+
+import water.util.Log;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static water.H2O.OptArgs.SYSTEM_PROP_PREFIX;
+
+/**
+ * Metrics and adaptive sizing of the per-priority F/J pools.
+ *
+ * Each pool caps its number of threads (see H2O.FJWThrFact).  Threads blocked
+ * in a ManagedBlocker (e.g. waiting for an MRTask, an RPC or a Value) are
+ * replaced by new ones only up to the cap; a pool whose threads are all pinned
+ * that way stops executing its queued tasks, and nested jobs at the same
+ * priority starve each other.
+ *
+ * When enabled with the system property sys.ai.h2o.fj.adaptive=true, this
+ * thread samples the pools every sys.ai.h2o.fj.adaptiveIntervalMs (100ms) and
+ * raises the cap of a pool by its parallelism when it has queued work, blocked
+ * threads, fewer running threads than its parallelism and no room to add
+ * threads (at most sys.ai.h2o.fj.maxThreads threads).  The cap goes back down
+ * step by step once the pool had no queued work and no blocked threads for 5
+ * seconds; the extra threads retire when they are idle.
+ */
+public final class FJPoolController extends Thread {
+  private static final boolean ADAPTIVE = Boolean.getBoolean(SYSTEM_PROP_PREFIX + "fj.adaptive");
+  private static final int MAX_THREADS = Integer.getInteger(SYSTEM_PROP_PREFIX + "fj.maxThreads", 16 * H2O.NUMCPUS);
+  private static final long INTERVAL_MS = Long.getLong(SYSTEM_PROP_PREFIX + "fj.adaptiveIntervalMs", 100);
+  static final long SHRINK_AFTER_MS = 5000;
+
+  // Per priority: number of times the thread cap was raised / lowered
+  private static final AtomicLongArray GROWN = new AtomicLongArray(H2O.MAX_PRIORITY + 1);
+  private static final AtomicLongArray SHRUNK = new AtomicLongArray(H2O.MAX_PRIORITY + 1);
+
+  private final long[] _quietSince = new long[H2O.MAX_PRIORITY + 1]; // Pool without queued or blocked work since
+
+  FJPoolController() {
+    super("FJPoolController");
+    setDaemon(true);
+  }
+
+  static void startIfEnabled() {
+    if( ADAPTIVE ) new FJPoolController().start();
+  }
+
+  @Override public void run() {
+    Log.info("Adaptive F/J pool sizing enabled, at most " + MAX_THREADS + " threads per pool");
+    while( true ) {
+      final long now = System.currentTimeMillis();
+      for( int p = 0; p <= H2O.MAX_PRIORITY; p++ ) {
+        H2O.PrioritizedForkJoinPool pool = H2O.getWrkPool(p);
+        if( pool != null ) adjust(pool, now);
+      }
+      try { Thread.sleep(INTERVAL_MS); } catch( InterruptedException ignore ) { }
+    }
+  }
+
+  void adjust(H2O.PrioritizedForkJoinPool pool, long now) {
+    final H2O.FJWThrFact fact = pool._fact;
+    final int p = pool._priority;
+    final int running = pool.getRunningThreadCount();
+    final int blocked = pool.getBlockedThreadCount();
+    final long queued = pool.getQueuedSubmissionCount() + pool.getQueuedTaskCount();
+    if( queued > 0 && blocked > 0 && running < pool.getParallelism() &&
+        pool.getPoolSize() >= fact._cap && fact._cap < MAX_THREADS ) {
+      fact._cap = Math.min(MAX_THREADS, fact._cap + pool.getParallelism());
+      GROWN.incrementAndGet(p);
+      _quietSince[p] = 0;
+      pool.submit(new Kick((byte)p)); // A submission lets the pool add a thread
+      Log.debug("F/J pool " + p + ": " + blocked + " blocked threads, " + queued + " queued tasks, cap raised to " + fact._cap);
+    } else if( queued == 0 && blocked == 0 ) {
+      if( _quietSince[p] == 0 ) _quietSince[p] = now;
+      if( fact._cap > fact._baseCap && now - _quietSince[p] >= SHRINK_AFTER_MS ) {
+        fact._cap = Math.max(fact._baseCap, fact._cap - pool.getParallelism());
+        SHRUNK.incrementAndGet(p);
+        _quietSince[p] = now;   // Next step down after another quiet period
+      }
+    } else {
+      _quietSince[p] = 0;
+    }
+  }
+
+  /**
+   * Snapshot of the local F/J pools, one row per existing pool: priority,
+   * parallelism, thread cap, pool size, active threads, running threads,
+   * blocked threads, queued submissions, queued tasks, steals, times the
+   * cap was raised, times the cap was lowered.
+   */
+  public static long[][] stats() {
+    ArrayList<long[]> rows = new ArrayList<>();
+    for( int p = 0; p <= H2O.MAX_PRIORITY; p++ ) {
+      H2O.PrioritizedForkJoinPool pool = H2O.getWrkPool(p);
+      if( pool == null ) continue;
+      rows.add(new long[]{
+              p, pool.getParallelism(), pool._fact._cap, pool.getPoolSize(), pool.getActiveThreadCount(),
+              pool.getRunningThreadCount(), pool.getBlockedThreadCount(),
+              pool.getQueuedSubmissionCount(), pool.getQueuedTaskCount(), pool.getStealCount(),
+              GROWN.get(p), SHRUNK.get(p)
+      });
+    }
+    return rows.toArray(new long[rows.size()][]);
+  }
+
+  // Empty task, its submission wakes up or adds a worker
+  private static class Kick extends H2O.H2OCountedCompleter<Kick> {
+    Kick(byte priority) { super(priority); }
+    @Override public void compute2() { tryComplete(); }
+  }
+
+}
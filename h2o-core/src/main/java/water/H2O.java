@@ -1115,25 +1115,30 @@ final public class H2O {
       setName("FJ-"+_priority+"-"+getPoolIndex());
     }
   }
-  // Factory for F/J threads, with cap's that vary with priority.
+  // Factory for F/J threads, with cap's that vary with priority.  The cap
+  // can be raised above (and lowered back to) the base cap by the
+  // FJPoolController.
   static class FJWThrFact implements ForkJoinPool.ForkJoinWorkerThreadFactory {
-    private final int _cap;
-    FJWThrFact( int cap ) { _cap = cap; }
+    final int _baseCap;
+    volatile int _cap;
+    FJWThrFact( int cap ) { _baseCap = _cap = cap==-1 ? 4 * NUMCPUS : cap; }
     @Override public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
-      int cap = _cap==-1 ? 4 * NUMCPUS : _cap;
-      return pool.getPoolSize() <= cap ? new FJWThr(pool) : null;
+      return pool.getPoolSize() <= _cap ? new FJWThr(pool) : null;
     }
   }
 
   // A standard FJ Pool, with an expected priority level.
-  private static class PrioritizedForkJoinPool extends ForkJoinPool {
+  static class PrioritizedForkJoinPool extends ForkJoinPool {
     final int _priority;
-    private PrioritizedForkJoinPool(int p, int cap) {
+    final FJWThrFact _fact;
+    PrioritizedForkJoinPool(int p, int cap) { this(p, new FJWThrFact(cap)); }
+    private PrioritizedForkJoinPool(int p, FJWThrFact fact) {
       super((ARGS.nthreads <= 0) ? NUMCPUS : ARGS.nthreads,
-            new FJWThrFact(cap),
+            fact,
             null,
             p>=MIN_HI_PRIORITY /* low priority FJQs should use the default FJ settings to use LIFO order of thread private queues. */);
       _priority = p;
+      _fact = fact;
     }
     private H2OCountedCompleter poll2() { return (H2OCountedCompleter)pollSubmission(); }
   }
@@ -1152,6 +1157,7 @@ final public class H2O {
   // Easy peeks at the FJ queues
   static int getWrkQueueSize  (int i) { return FJPS[i]==null ? -1 : FJPS[i].getQueuedSubmissionCount();}
   static int getWrkThrPoolSize(int i) { return FJPS[i]==null ? -1 : FJPS[i].getPoolSize();             }
+  static PrioritizedForkJoinPool getWrkPool(int i) { return FJPS[i]; }
 
   // For testing purposes (verifying API work exceeds grunt model-build work)
   // capture the class of any submitted job lower than this priority;
@@ -1535,6 +1541,10 @@ final public class H2O {
     // an initial histogram state.
     Cleaner.THE_CLEANER.start();
 
+    // Start the F/J pools controller, which adapts the thread caps of the
+    // pools with threads pinned by blocking work (if enabled).
+    FJPoolController.startIfEnabled();
+
     // Start the TCPReceiverThread, to listen for TCP requests from other Cloud
     // Nodes. There should be only 1 of these, and it never shuts down.
     new TCPReceiverThread(NetworkInit._tcpSocket).start();
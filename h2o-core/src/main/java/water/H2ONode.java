@@ -449,11 +449,13 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
   void taskPut(int tnum, RPC rpc ) { 
     _tasks.put(tnum,rpc); 
     if( rpc._dt instanceof TaskPutKey ) _tasksPutKey.put(tnum,(TaskPutKey)rpc._dt);
+    else if( rpc._dt instanceof TaskPutKeys ) _tasksPutKeys.put(tnum,(TaskPutKeys)rpc._dt);
   }
   RPC taskGet(int tnum) { return _tasks.get(tnum); }
   void taskRemove(int tnum) { 
     _tasks.remove(tnum); 
     _tasksPutKey.remove(tnum);
+    _tasksPutKeys.remove(tnum);
   }
   Collection<RPC> tasks() { return _tasks.values(); }
   int taskSize() { return _tasks.size(); }
@@ -463,13 +465,23 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
   // the tasks() queue, each needing to scan the tasks queue for pending
   // PutKeys to the same Key.  Legal to always 
   private final NonBlockingHashMapLong<TaskPutKey> _tasksPutKey = new NonBlockingHashMapLong<>();
+  private final NonBlockingHashMapLong<TaskPutKeys> _tasksPutKeys = new NonBlockingHashMapLong<>();
   TaskPutKey pendingPutKey( Key k ) {
-    for( TaskPutKey tpk : _tasksPutKey.values() )
-      if( k.equals(tpk._key) )
+    TaskPutKey tpk = TaskPutKeys.queued(this,k); // Not sent yet, so the latest
+    if( tpk != null ) return tpk;
+    for( TaskPutKey x : _tasksPutKey.values() )
+      if( k.equals(x._key) )
+        return x;
+    for( TaskPutKeys tpks : _tasksPutKeys.values() )
+      if( (tpk = tpks.pending(k)) != null )
         return tpk;
     return null;
   }
 
+  // Small puts to this Node waiting to be sent in one batch (see TaskPutKeys).
+  // Guarded by the Node's lock.
+  transient volatile RPC<TaskPutKeys> _putBatch;
+
   // The next unique task# sent *TO* the 'this' Node.
   private final AtomicInteger _created_task_ids = new AtomicInteger(1);
   int nextTaskNum() { return _created_task_ids.getAndIncrement(); }
@@ -549,6 +561,7 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
       assert rpc._computed : "Still not done #"+task+" "+dt.getClass()+" from "+rpc._client;
       dt.onAckAck();            // One-time call on stop-tracking
     }
+    rpc._zip = null;            // No more resends of the (compressed) answer
     // Roll-up as many done RPCs as we can, into the _removed_task_ids list
     while( true ) {
       int t = _removed_task_ids.get();   // Last already-removed ID
@@ -95,6 +95,7 @@ public class HeartBeatThread extends Thread {
         hb._fjqueue[i] = (short)H2O.getWrkQueueSize(i);
       }
       hb._tcps_active= (char)H2ONode.TCPS.get();
+      hb._wire_compression = WireCompression.enabled();
 
       // get the usable and total disk storage for the partition where the
       // persistent KV pairs are stored
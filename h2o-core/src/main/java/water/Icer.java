@@ -27,4 +27,14 @@ public abstract class Icer<T extends Freezable> {
   // That end in the TypeMap ID for "H2OCountedCompleter" class - which is "3".
 
   protected void compute1(water.H2O.H2OCountedCompleter h2cc ) { h2cc.compute1(); }
+
+  // Field offsets for Unsafe access are looked up when the generated Icer is
+  // initialized (not baked into the code), so Icers can be generated at build time.
+  protected static long fieldOffset(Class clz, String name) {
+    try {
+      return _unsafe.objectFieldOffset(clz.getDeclaredField(name));
+    } catch( NoSuchFieldException e ) {
+      throw new RuntimeException(e);
+    }
+  }
 }
@@ -70,20 +70,25 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   *
   *    internal "top-level" fields
   *    ---------------------------
-  *     - RPC<T> _nleft, _nrite: "child" node/JVMs that are doing work
+  *     - RPC<T>[] _nrpcs      : "child" node/JVMs that are doing work (FANOUT of them, 2 by default)
   *     - boolean _topLocal    : "root" MRTask on a local machine
   *     - boolean _topGlobal   : "root" MRTask on the "root" node
   *     - T _left, _rite       : "child" MRTasks on a local machine
   *     - T _res               : "result" MRTask (everything reduced into here)
   *     - int _nlo,_nhi        : range of nodes to do remote work on (divide-conquer; see Diagram 2)
   *     - Futures _fs          : _topLocal task blocks on _fs for _left and _rite to complete
+  *     - ChunkClaims _claims  : with mapReplicas() or stealChunks(), node-local claims on the chunks
+  *                              homed here; leaves claim their chunk before mapping it, and then
+  *                              claim and fetch chunks of other nodes (see ChunkClaims)
+  *     - ChunkPrefetcher _prefetcher : node-local fetching of the remote chunks the maps read
+  *                              (Vecs of other VectorGroups), ahead of the maps
   *
   *       Diagram 1: N is for Node; T is for Task
   *       -------------------------------------
   *              3 node cloud              Inside one of the 'N' nodes:
   *                   N1                               T  _topLocal**
   *                 /   \                            /  \
-  *         N2 (_nleft)  N3 (_nrite)         T (_left)   T (_rite)
+  *         N2 (_nrpcs[0])  N3 (_nrpcs[1])    T (_left)   T (_rite)
   *
   *                  **: T is also _topGlobal if N==N1
   *
@@ -101,9 +106,9 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   *                ==>       setupLocal0 on N1
   *                            - topLocal=true
   *                            - _fs = new Futures()
-  *                            - nmid = (_nlo + _nhi) >> 1 => split the range of nodes (divide-conquer)
-  *                            - _nleft = remote_compute(_nlo,nmid) => chooses a node in range and does new RPC().call()
-  *                            - _nrite = remote_compute(nmid,_nhi)    serializing MRTask and call dinvoke on remote.
+  *                            - split the range of nodes into FANOUT sub-ranges (divide-conquer)
+  *                            - _nrpcs = remote_compute(...) => chooses the first node in each sub-range and does new RPC().call()
+  *                                                              serializing MRTask and call dinvoke on remote.
   *                           /                                 \
   *                         /                                     \
   *                       /                                         \
@@ -149,8 +154,33 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
    *  style, can not be passed via K/V store).*/
   protected AppendableVec[] _appendables;
 
-  /** Internal field to track the left &amp; right remote nodes/JVMs to work on */
-  transient protected RPC<T> _nleft, _nrite;
+  /** Internal field to track the remote child nodes/JVMs to work on */
+  transient protected RPC<T>[] _nrpcs;
+
+  /** Number of remote children each node sends work to.  Every child gets a
+   *  contiguous range of the nodes of the cloud, in their usual order (sorted
+   *  by address, so the JVMs of one host are next to each other).  The split
+   *  points are moved to the nearest boundary between hosts, if there's one
+   *  close by, so that the JVMs of a host end up in the same subtree and
+   *  reduce locally before their result crosses the network (see split).
+   *  A larger fan-out means fewer sequential hops on large clouds, at the
+   *  cost of more results to reduce per node.  */
+  static final int FANOUT = Math.max(2, Integer.getInteger(H2O.OptArgs.SYSTEM_PROP_PREFIX + "mrtask.fanout", 2));
+
+  /** Default of {@link #pipelinedReduce(boolean)}, off unless
+   *  sys.ai.h2o.mrtask.pipelinedReduce is set. */
+  static final boolean PIPELINED_REDUCE = Boolean.parseBoolean(System.getProperty(H2O.OptArgs.SYSTEM_PROP_PREFIX + "mrtask.pipelinedReduce", "false"));
+
+  /** Reduce results of the remote children as they arrive (see RemoteReducer)
+   *  instead of after all local work is done.  Set on the top-level task and
+   *  shipped with it, so all the nodes of a run reduce the same way. */
+  protected boolean _pipelined_reduce = PIPELINED_REDUCE;
+
+  /** Pipelined reduction of remote results: _rres[lo] is the reduction of the
+   *  results of children lo until _rend[lo] (exclusive), not yet merged with
+   *  its neighbors; _rstart[hi-1] is the lo of such a segment ending at hi. */
+  transient T[] _rres;
+  transient int[] _rend, _rstart;
 
   /** Internal field to track if this is a top-level local call */
   transient protected boolean _topLocal; // Top-level local call, returning results over the wire
@@ -179,12 +209,84 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   /** If true, run entirely local - which will pull all the data locally. */
   protected boolean _run_local;
 
+  /** If set, nodes done with their own chunks map the replicas they hold of
+   *  chunks not mapped yet by other nodes (see {@link #mapReplicas()}), and
+   *  fetch and map chunks of slower nodes within a network budget (see
+   *  {@link #stealChunks()}).  Null, i.e. nothing sent, for other tasks. */
+  private ChunkClaims.Plan _claiming;
+
+  /** Default network budget per node of {@link #stealChunks()}, in bytes. */
+  static final long STEAL_BUDGET = Long.getLong(H2O.OptArgs.SYSTEM_PROP_PREFIX + "mrtask.stealBudget", 64L << 20);
+
+  /** Vecs not aligned with the input Frame which map() reads rows of (see
+   *  {@link #prefetch(Vec...)}). */
+  protected Vec[] _prefetch_vecs;
+
+  /** Number of local chunks the remote chunks are fetched for at the same
+   *  time, ahead of the maps; 0 (the default) disables the prefetching.  Opt
+   *  in with sys.ai.h2o.mrtask.prefetchWindow, e.g. 4; see
+   *  MRTaskPrefetchBench (jmh) for a comparison.  Not final for
+   *  tests, set it on all the nodes. */
+  static int PREFETCH_WINDOW = Integer.getInteger(H2O.OptArgs.SYSTEM_PROP_PREFIX + "mrtask.prefetchWindow", 0);
+
+  /** Fetches the remote chunks needed by the local maps, if any */
+  transient private ChunkPrefetcher _prefetcher;
+
+  /** Claims on the chunks homed on this node, shared by all local instances */
+  transient private ChunkClaims _claims;
+
   public String profString() { return _profile != null ? _profile.toString() : "Profiling turned off"; }
   MRProfile _profile;
 
   /** Used to invoke profiling.  Call as: <code>new MRTask().profile().doAll();*/
   public T profile() { _profile = new MRProfile(this); return (T)this; }
 
+  /** Let nodes which are done with their own chunks map chunks of other nodes,
+   *  if they hold replicas of them (see {@link ChunkReplicas#replicate}).  A
+   *  chunk is still mapped exactly once, but not necessarily on its home node,
+   *  and results are reduced in no particular chunk order.  Only for tasks
+   *  which do not modify the input Frame, have no outputs and whose reduce
+   *  is commutative, which they declare by overriding {@link
+   *  #commutativeReduce()}.  Ignored for tasks with outputs.  Call as:
+   *  <code>new MRTask().mapReplicas().doAll(fr);</code>
+   *  @throws IllegalArgumentException if the reduce is not declared commutative */
+  public T mapReplicas() {
+    if( !commutativeReduce() )
+      throw new IllegalArgumentException(getClass().getName() + " does not declare a commutative reduce, which is required to map replicas");
+    if( _claiming == null ) _claiming = new ChunkClaims.Plan(0);
+    return self();
+  }
+
+  /** Whether the results do not depend on the order the chunks are reduced
+   *  in, as required by {@link #mapReplicas()}.  False unless overridden. */
+  protected boolean commutativeReduce() { return false; }
+
+  /** Like {@link #mapReplicas()}, and in addition let nodes which are done
+   *  with their own chunks fetch and map chunks of nodes which are behind
+   *  (straggler mitigation for long running tasks).  Each node fetches at
+   *  most sys.ai.h2o.mrtask.stealBudget bytes (64MB by default).  Same
+   *  restrictions as for {@link #mapReplicas()} apply. */
+  public T stealChunks() { return stealChunks(STEAL_BUDGET); }
+
+  /** @param budget number of bytes each node may fetch from other nodes */
+  public T stealChunks(long budget) { mapReplicas(); _claiming = new ChunkClaims.Plan(budget); return self(); }
+
+  /** Declare Vecs which map() reads rows of, but which are not aligned with
+   *  the input Frame (other VectorGroup or chunk layout), e.g. the source of
+   *  a rebalance.  With prefetching enabled (see {@link #PREFETCH_WINDOW}),
+   *  each node fetches the chunks of these Vecs covering the rows of its
+   *  chunks asynchronously, ahead of the maps, instead of the maps blocking
+   *  on the fetches one chunk at a time.  Vecs of the input Frame from
+   *  another VectorGroup are prefetched without being declared.
+   *  Call as: <code>new MRTask().prefetch(src).doAll(fr);</code> */
+  public T prefetch(Vec... vecs) { _prefetch_vecs = vecs; return self(); }
+
+  /** Reduce the results of remote nodes as they arrive, while the local maps
+   *  are still running, instead of after them.  The results are reduced in
+   *  the same order either way.  Call as:
+   *  <code>new MRTask().pipelinedReduce(true).doAll(fr);</code> */
+  public T pipelinedReduce(boolean pipelined) { _pipelined_reduce = pipelined; return self(); }
+
   /** Get the resulting Frame from this invoked MRTask.  <b>This Frame is not
    *  in the DKV.</b> AppendableVec instances are closed into Vec instances,
    *  which then appear in the DKV.
@@ -304,7 +406,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
 
   // Profiling support.  Time for each subpart of a single M/R task, plus any
   // nested MRTasks.  All numbers are CTM stamps or millisecond times.
-  private static class MRProfile extends Iced {
+  static class MRProfile extends Iced {
     String _clz;
     public MRProfile(MRTask mrt) {
       _clz = mrt.getClass().toString();
@@ -321,9 +423,29 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     long _time1st, _done1st;
     int _size_rez0, _size_rez1; // i/o size in bytes during reduce
     MRProfile _last;
+    // Time spent in map calls (and chunk closing) and number of chunks mapped
+    // by this subtree, own chunks and chunks homed elsewhere (replicas or stolen)
+    long _mapMs;
+    int _nchunks, _nreplicas;
+    // The same, per node; a node adds itself after its local work is done
+    String[] _nodes;
+    long[] _nodeMapMs;
+    int[] _nodeChunks, _nodeReplicas;
     long sumTime() { return _onCdone - (_localstart==0 ? _mapstart : _localstart); }
+    void addNode( String node, long mapMs, int nchunks, int nreplicas ) {
+      int n = _nodes == null ? 0 : _nodes.length;
+      _nodes        = _nodes        == null ? new String[1] : Arrays.copyOf(_nodes,        n+1);
+      _nodeMapMs    = _nodeMapMs    == null ? new long  [1] : Arrays.copyOf(_nodeMapMs,    n+1);
+      _nodeChunks   = _nodeChunks   == null ? new int   [1] : Arrays.copyOf(_nodeChunks,   n+1);
+      _nodeReplicas = _nodeReplicas == null ? new int   [1] : Arrays.copyOf(_nodeReplicas, n+1);
+      _nodes[n] = node; _nodeMapMs[n] = mapMs; _nodeChunks[n] = nchunks; _nodeReplicas[n] = nreplicas;
+    }
     void gather( MRProfile p, int size_rez ) {
       p._clz=null;
+      _mapMs += p._mapMs; _nchunks += p._nchunks; _nreplicas += p._nreplicas;
+      if( p._nodes != null )
+        for( int i = 0; i < p._nodes.length; i++ )
+          addNode(p._nodes[i], p._nodeMapMs[i], p._nodeChunks[i], p._nodeReplicas[i]);
       if( _last == null ) { _last=p; _time1st = p.sumTime(); _done1st = p._onCdone; }
       else {
         MRProfile first = _last._onCdone <= p._onCdone ? _last : p;
@@ -364,6 +486,11 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
         sb.append("ms, size "  ).append(PrettyPrint.bytes(_size_rez0)).append("+").append(PrettyPrint.bytes(_size_rez1));
       }
       sb.append(")\n");
+      if( d==0 && _nodes != null )
+        for( int i = 0; i < _nodes.length; i++ ) {
+          sb.append("Node ").append(_nodes[i]).append(": map ").append(_nodeMapMs[i]).append("ms, ");
+          sb.append(_nodeChunks[i]).append(" chunks + ").append(_nodeReplicas[i]).append(" of other nodes\n");
+        }
       return sb;
     }
   }
@@ -453,6 +580,10 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     _fr = fr;                   // Record vectors to work on
     _nlo = selfidx(); _nhi = (short)H2O.CLOUD.size(); // Do Whole Cloud
     _run_local = run_local;     // Run locally by copying data, or run globally?
+    if( _claiming != null && !run_local && types == null && H2O.CLOUD.size() > 1 )
+      _claiming._key = Key.make(); // Schedule chunks by claiming them
+    else
+      _claiming = null;
     setupLocal0();              // Local setup
     H2O.submitTask(this);       // Begin normal execution on a FJ thread
     return self();
@@ -522,17 +653,14 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     int selfidx = selfidx();
     int nlo = subShift(selfidx);
     assert nlo < _nhi;
-    final int nmid = (nlo+_nhi)>>>1; // Mid-point
 
     // Run remote IF:
     // - Not forced to run local (no remote jobs allowed) AND
     // - - There's remote work, or Client mode (always remote work)
     if( (!_run_local) && ((nlo+1 < _nhi) || H2O.ARGS.client) ) {
       if(_profile!=null) _profile._rpcLstart = System.currentTimeMillis();
-      _nleft = remote_compute(H2O.ARGS.client ? nlo : nlo+1,nmid);
-      if(_profile!=null) _profile._rpcRstart = System.currentTimeMillis();
-      _nrite = remote_compute( nmid,_nhi);
-      if(_profile!=null) _profile._rpcRdone  = System.currentTimeMillis();
+      _nrpcs = remote_compute(H2O.ARGS.client ? nlo : nlo+1,nlo,_nhi);
+      if(_profile!=null) _profile._rpcRstart = _profile._rpcRdone = System.currentTimeMillis();
     } else {
       if(_profile!=null)
         _profile._rpcLstart = _profile._rpcRstart = _profile._rpcRdone = System.currentTimeMillis();
@@ -542,23 +670,52 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
       _lo = 0;  _hi = _fr.numCols()==0 ? 0 : _fr.anyVec().nChunks(); // Do All Chunks
       // get the Vecs from the K/V store, to avoid racing fetches from the map calls
       _fr.vecs();
+      if( PREFETCH_WINDOW > 0 && !H2O.ARGS.client && _hi > 0 )
+        _prefetcher = ChunkPrefetcher.start(_fr, _prefetch_vecs, _run_local, PREFETCH_WINDOW, priority());
     } else if( _keys != null ) {    // Else doing a set of Keys
       _lo = 0;  _hi = _keys.length; // Do All Keys
     }
     // Setup any user's shared local structures for both normal cluster nodes
     // and any client; want this for possible reduction ONTO client
     setupLocal();
+    // Claims shared by the local leaves, with one copy of the set up task to
+    // map the chunks of other nodes with
+    if( _claiming != null && _fr != null && !H2O.ARGS.client && _hi > 0 )
+      _claims = ChunkClaims.register(_claiming, _fr, copyAndInit());
     if(_profile!=null) _profile._localdone = System.currentTimeMillis();
   }
 
-  // Make an RPC call to some node in the middle of the given range.  Add a
-  // pending completion to self, so that we complete when the RPC completes.
-  private RPC<T> remote_compute( int nlo, int nhi ) {
-    if( nlo < nhi ) {  // have remote work
-      int node = addShift(nlo);
+  // Split the range of nodes [nlo,nhi) into FANOUT sub-ranges and make an RPC
+  // call to the first node of each (skipping the nodes before start, i.e.
+  // self).  With FANOUT == 2 and one JVM per host this is the binary split at
+  // the mid-point.  Add a pending completion to self per RPC, so that we
+  // complete when all the RPCs complete.
+  private RPC<T>[] remote_compute( int start, int nlo, int nhi ) {
+    boolean[] hostBoundary = new boolean[nhi-nlo];
+    for( int b = nlo+1; b < nhi; b++ )
+      hostBoundary[b-nlo] = !sameHost(H2O.CLOUD._memary[addShift(b-1)], H2O.CLOUD._memary[addShift(b)]);
+    int[] cuts = split(nlo, nhi, FANOUT, hostBoundary);
+    int[] los = new int[FANOUT], his = new int[FANOUT];
+    int n = 0;
+    for( int i = 0; i < FANOUT; i++ ) {
+      int lo = Math.max(start, cuts[i]);
+      int hi = cuts[i+1];
+      if( lo < hi ) { los[n] = lo; his[n] = hi; n++; } // have remote work
+    }
+    RPC<T>[] rpcs = new RPC[n];
+    T[] mrts = (T[])new MRTask[n];
+    for( int i = 0; i < n; i++ ) {
+      mrts[i] = copyAndInit();
+      mrts[i]._nhi = (short) his[i];
+    }
+    if( _pipelined_reduce ) {   // Set up before any RPC can come back
+      _rres = (T[])new MRTask[n];
+      _rend = new int[n];
+      _rstart = new int[n];
+    }
+    for( int i = 0; i < n; i++ ) {
+      int node = addShift(los[i]);
       assert node != H2O.SELF.index(); // Not the same as selfidx() if this is a client
-      T mrt = copyAndInit();
-      mrt._nhi = (short) nhi;
       addToPendingCount(1); // Not complete until the RPC returns
       // Set self up as needing completion by this RPC: when the ACK comes back
       // we'll get a wakeup.
@@ -568,10 +725,84 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
       //   back the result. i.e., last-map calls RPCCall.onCompletion.
       // - when launched on the local (right here, in this next line of code)
       //   the completed RPC calls our self completion.  i.e. the completed RPC
-      //   calls MRTask.onCompletion
-      return new RPC<>(H2O.CLOUD._memary[node], mrt).addCompleter(this).call();
+      //   calls MRTask.onCompletion (via RemoteReducer if pipelined)
+      RPC<T> rpc = new RPC<>(H2O.CLOUD._memary[node], mrts[i]);
+      rpcs[i] = rpc.addCompleter(_pipelined_reduce ? new RemoteReducer(i, mrts[i]) : this).call();
     }
-    return null; // nlo >= nhi => no remote work
+    return rpcs;
+  }
+
+  /** Split points of the range of nodes [nlo,nhi) into fanout contiguous
+   *  sub-ranges: sub-range i is [cuts[i],cuts[i+1]), some may be empty.
+   *  Starts from the even split, and moves every inner split point to the
+   *  nearest host boundary (hostBoundary[b-nlo] is true if nodes b-1 and b
+   *  are on different hosts) at most a half sub-range away.  Without host
+   *  boundaries close by, e.g. with one JVM per host, this is the even split. */
+  static int[] split( int nlo, int nhi, int fanout, boolean[] hostBoundary ) {
+    int[] cuts = new int[fanout+1];
+    cuts[0] = nlo;
+    cuts[fanout] = nhi;
+    int slack = (nhi-nlo)/(2*fanout);
+    for( int i = 1; i < fanout; i++ ) {
+      int p = nlo + (int)((long)i*(nhi-nlo)/fanout);
+      int cut = p;
+      for( int d = 0; d <= slack; d++ ) {
+        if( p-d > cuts[i-1] && p-d < nhi && hostBoundary[p-d-nlo] ) { cut = p-d; break; }
+        if( p+d > cuts[i-1] && p+d < nhi && hostBoundary[p+d-nlo] ) { cut = p+d; break; }
+      }
+      cuts[i] = Math.max(cut, cuts[i-1]);
+    }
+    return cuts;
+  }
+
+  private static boolean sameHost( H2ONode a, H2ONode b ) {
+    return a._key._ipHigh == b._key._ipHigh && a._key._ipLow == b._key._ipLow;
+  }
+
+  // Completer of a remote child's RPC: reduces the child's result (read into
+  // the very MRTask instance sent out) as soon as it arrives, while the local
+  // work and the other children are still running.
+  private final class RemoteReducer extends H2O.H2OCountedCompleter<RemoteReducer> {
+    private final int _idx;
+    private final T _mrt;
+    RemoteReducer(int idx, T mrt) { super(MRTask.this, MRTask.this.priority()); _idx = idx; _mrt = mrt; }
+    @Override public void compute2() { throw H2O.fail(); } // Only ever completed by the RPC
+    @Override public void onCompletion(CountedCompleter caller) { reduceRemote(_idx, _mrt); }
+  }
+
+  // Merge the result of child idx with the already reduced results of its
+  // neighbors.  Only adjacent segments are merged, left into right, so the
+  // reduction order is the same as reducing the children one by one from the
+  // left; the user's reduce is never called concurrently on the same object.
+  private void reduceRemote( int idx, T mrt ) {
+    T res = mrt._nhi != -1 ? mrt : null; // Any results at all?
+    int lo = idx, hi = idx+1;
+    while( true ) {
+      T left = null, rite = null;
+      int llo = -1, rhi = -1;
+      synchronized( _rend ) {
+        if( hi < _rend.length && _rend[hi] != 0 ) { // Right neighbor done
+          rhi = _rend[hi]; rite = _rres[hi];
+          _rend[hi] = 0; _rres[hi] = null; _rstart[rhi-1] = 0;
+        }
+        if( lo > 0 && _rstart[lo-1] != 0 ) {        // Left neighbor done
+          llo = _rstart[lo-1]-1; left = _rres[llo];
+          _rend[llo] = 0; _rres[llo] = null; _rstart[lo-1] = 0;
+        }
+        if( rhi == -1 && llo == -1 ) { // Nothing to merge with, park the segment
+          _rres[lo] = res; _rend[lo] = hi; _rstart[hi-1] = lo+1;
+          return;
+        }
+      }
+      if( rhi != -1 ) { res = merge(res, rite); hi = rhi; }
+      if( llo != -1 ) { res = merge(left, res); lo = llo; }
+    }
+  }
+
+  private static <T extends MRTask<T>> T merge( T left, T rite ) {
+    if( left == null ) return rite;
+    if( rite != null ) left.reduce4(rite);
+    return left;
   }
 
   /** Called from FJ threads to do local work.  The first called Task (which is
@@ -606,69 +837,105 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
       Vec v0 = _fr.anyVec();
       if( _run_local || v0.chunkKey(_lo).home() ) { // And chunk is homed here?
         assert(_run_local || !H2O.ARGS.client) : "Client node should not process any keys in MRTask!";
-
-        // Make decompression chunk headers for these chunks
-        Vec vecs[] = _fr.vecs();
-        Chunk bvs[] = new Chunk[vecs.length];
-        NewChunk [] appendableChunks = null;
-        for( int i=0; i<vecs.length; i++ )
-          if( vecs[i] != null ) {
-            assert _run_local || vecs[i].chunkKey(_lo).home()
-              : "Chunk="+_lo+" v0="+v0+", k="+v0.chunkKey(_lo)+"   v["+i+"]="+vecs[i]+", k="+vecs[i].chunkKey(_lo);
-            bvs[i] = vecs[i].chunkForChunkIdx(_lo);
-          }
-
-        if(_output_types != null) {
-          final VectorGroup vg = vecs[0].group();
-          _appendables = new AppendableVec[_output_types.length];
-          appendableChunks = new NewChunk[_output_types.length];
-          for(int i = 0; i < _appendables.length; ++i) {
-            _appendables[i] = new AppendableVec(vg.vecKey(_vid+i),_output_types[i]);
-            appendableChunks[i] = _appendables[i].chunkForChunkIdx(_lo);
-          }
-        }
-        // Call all the various map() calls that apply
-        if(_profile!=null)
-          _profile._userstart = System.currentTimeMillis();
-
-        int num_fr_vecs = _fr.vecs().length;
-        int num_outputs = _output_types == null? 0 : _output_types.length;
-        if (num_outputs == 0) {
-          if (num_fr_vecs == 1) map(bvs[0]);
-          else if (num_fr_vecs == 2) map(bvs[0], bvs[1]);
-          else if (num_fr_vecs == 3) map(bvs[0], bvs[1], bvs[2]);
-          map(bvs);
+        if( _claims == null || _claims.claim(_lo) ) { // And not mapped by another node?
+          mapChunk(_lo, false);
+          _res = self();        // Save results since called map() at least once!
         }
-        else if (num_outputs == 1) {  // convenience versions for cases with single output.
-          assert appendableChunks != null;
-          if (num_fr_vecs == 1) map(bvs[0], appendableChunks[0]);
-          else if (num_fr_vecs == 2) map(bvs[0], bvs[1], appendableChunks[0]);
-          // else if (fr_vecs_length == 3) map(bvs[0], bvs[1], bvs[2], appendableChunks[0]);
-          map(bvs, appendableChunks[0]);
-        }
-        else if (num_outputs == 2) {  // convenience versions for cases with 2 outputs (e.g split).
-          assert appendableChunks != null;
-          if (num_fr_vecs == 1) map(bvs[0], appendableChunks[0], appendableChunks[1]);
-          // else if (fr_vecs_length == 2) map(bvs[0], bvs[1], appendableChunks[0], appendableChunks[1]);
-          // else if (fr_vecs_length == 3) map(bvs[0], bvs[1], bvs[2], appendableChunks[0], appendableChunks[1]);
-          map(bvs, appendableChunks[0], appendableChunks[1]);
-        }
-        if (num_outputs >= 0)
-          map(bvs, appendableChunks);
-
-        _res = self();          // Save results since called map() at least once!
-        // Further D/K/V put any new vec results.
-        if(_profile!=null)
-          _profile._closestart = System.currentTimeMillis();
-        for( Chunk bv : bvs )  bv.close(_lo,_fs);
-        if( _output_types != null) for(NewChunk nch:appendableChunks)nch.close(_lo, _fs);
       }
+      if( _claims != null && _claims.localDone() ) // Nothing left to do locally?
+        mapClaimed();
     }
     if(_profile!=null)
       _profile._mapdone = System.currentTimeMillis();
     tryComplete();
   }
 
+  // Map the chunk with the given index; replica is true for chunks homed on
+  // another node, mapped here from their cached (or fetched) copies.
+  void mapChunk( int cidx, boolean replica ) {
+    // Make decompression chunk headers for these chunks
+    Vec vecs[] = _fr.vecs();
+    Chunk bvs[] = new Chunk[vecs.length];
+    NewChunk [] appendableChunks = null;
+    for( int i=0; i<vecs.length; i++ )
+      if( vecs[i] != null ) {
+        assert _run_local || replica || vecs[i].chunkKey(cidx).home()
+          : "Chunk="+cidx+" v["+i+"]="+vecs[i]+", k="+vecs[i].chunkKey(cidx);
+        bvs[i] = vecs[i].chunkForChunkIdx(cidx);
+      }
+
+    if(_output_types != null) {
+      final VectorGroup vg = vecs[0].group();
+      _appendables = new AppendableVec[_output_types.length];
+      appendableChunks = new NewChunk[_output_types.length];
+      for(int i = 0; i < _appendables.length; ++i) {
+        _appendables[i] = new AppendableVec(vg.vecKey(_vid+i),_output_types[i]);
+        appendableChunks[i] = _appendables[i].chunkForChunkIdx(cidx);
+      }
+    }
+    // Call all the various map() calls that apply
+    if(_profile!=null)
+      _profile._userstart = System.currentTimeMillis();
+
+    int num_fr_vecs = _fr.vecs().length;
+    int num_outputs = _output_types == null? 0 : _output_types.length;
+    if (num_outputs == 0) {
+      if (num_fr_vecs == 1) map(bvs[0]);
+      else if (num_fr_vecs == 2) map(bvs[0], bvs[1]);
+      else if (num_fr_vecs == 3) map(bvs[0], bvs[1], bvs[2]);
+      map(bvs);
+    }
+    else if (num_outputs == 1) {  // convenience versions for cases with single output.
+      assert appendableChunks != null;
+      if (num_fr_vecs == 1) map(bvs[0], appendableChunks[0]);
+      else if (num_fr_vecs == 2) map(bvs[0], bvs[1], appendableChunks[0]);
+      // else if (fr_vecs_length == 3) map(bvs[0], bvs[1], bvs[2], appendableChunks[0]);
+      map(bvs, appendableChunks[0]);
+    }
+    else if (num_outputs == 2) {  // convenience versions for cases with 2 outputs (e.g split).
+      assert appendableChunks != null;
+      if (num_fr_vecs == 1) map(bvs[0], appendableChunks[0], appendableChunks[1]);
+      // else if (fr_vecs_length == 2) map(bvs[0], bvs[1], appendableChunks[0], appendableChunks[1]);
+      // else if (fr_vecs_length == 3) map(bvs[0], bvs[1], bvs[2], appendableChunks[0], appendableChunks[1]);
+      map(bvs, appendableChunks[0], appendableChunks[1]);
+    }
+    if (num_outputs >= 0)
+      map(bvs, appendableChunks);
+    // Further D/K/V put any new vec results.
+    if(_profile!=null)
+      _profile._closestart = System.currentTimeMillis();
+    for( Chunk bv : bvs )  bv.close(cidx,_fs);
+    if( _output_types != null) for(NewChunk nch:appendableChunks)nch.close(cidx, _fs);
+    if(_profile!=null) {        // Per-node map statistics, see MRProfile.addNode
+      _profile._mapMs += System.currentTimeMillis() - _profile._userstart;
+      if( replica ) _profile._nreplicas++; else _profile._nchunks++;
+    }
+  }
+
+  // Map chunks of other nodes (replicas held by this node, or fetched within
+  // the network budget), until there are none left.  The chunks are claimed
+  // and fetched one after the other, asynchronously: the claimed chunk, once
+  // cached, is mapped by a fresh copy of the node's set up task and reduced
+  // into the results of this leaf, then the next chunk is claimed.  The
+  // pending claim or fetch keeps this leaf from completing, no F/J thread
+  // waits for it.
+  private void mapClaimed() {
+    final T proto = (T)_claims.proto();
+    _claims.steal(this, new ChunkClaims.Thief() {
+      @Override public void stolen(int cidx) {
+        if( cidx == -1 || isCompletedAbnormally() ) return;
+        T mrt = proto.copyAndInit();
+        mrt._lo = cidx; mrt._hi = cidx+1;
+        mrt._profile = _profile;  // Record the map time in this leaf's profile
+        mrt.mapChunk(cidx, true);
+        mrt._profile = null;
+        if( _res == null ) _res = mrt;
+        else _res.reduce4(mrt);
+        _claims.steal(MRTask.this, this);
+      }
+    });
+  }
+
   /** OnCompletion - reduce the left and right into self.  Called internal by
    *  F/J.  Not expected to be user-called. */
   @Override public final void onCompletion( CountedCompleter caller ) {
@@ -705,10 +972,23 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   // Block for other queued pending tasks.
   // Copy any final results into 'this', such that a return of 'this' has the results.
   private void postLocal0() {
+    if( _claims != null ) ChunkClaims.unregister(_claiming); // All local chunks claimed & mapped
+    if( _prefetcher != null ) _prefetcher.stop(); // All local chunks mapped
+    if( _profile != null )      // Local map statistics, before gathering the remote ones
+      _profile.addNode(H2O.SELF.toString(), _profile._mapMs, _profile._nchunks, _profile._nreplicas);
     closeLocal();               // User's node-local cleanup
     if(_profile!=null) _profile._closeLocalDone = System.currentTimeMillis();
-    reduce3(_nleft);            // Reduce global results from neighbors.
-    reduce3(_nrite);
+    if( _nrpcs != null ) {      // Reduce global results from neighbors.
+      if( _rres != null ) {     // Already reduced as they arrived
+        if( _profile!=null )
+          for( RPC<T> rpc : _nrpcs ) _profile.gather(rpc.get()._profile, rpc.size_rez());
+        T rres = _rres.length == 0 ? null : _rres[0];
+        assert _rres.length == 0 || _rend[0] == _rres.length : "Remote results not reduced";
+        _res = _res == null ? rres : merge(_res, rres);
+        _rres = null;
+      } else
+        for( RPC<T> rpc : _nrpcs ) reduce3(rpc);
+    }
     if(_profile!=null) _profile._remoteBlkDone = System.currentTimeMillis();
     _fs.blockForPending();      // Block any pending user tasks
     if(_profile!=null) _profile._localBlkDone = System.currentTimeMillis();
@@ -776,18 +1056,25 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
 
     // Since blocking can throw (generally the same exception, again and again)
     // catch & ignore, keeping only the first one we already got.
-    RPC<T> nl = _nleft; if( nl != null ) try { nl.get(); } catch( Throwable ignore ) { } _nleft = null;
-    RPC<T> nr = _nrite; if( nr != null ) try { nr.get(); } catch( Throwable ignore ) { } _nrite = null;
+    RPC<T>[] rpcs = _nrpcs;
+    if( rpcs != null ) for( RPC<T> rpc : rpcs ) try { rpc.get(); } catch( Throwable ignore ) { }
+    _nrpcs = null;
+    if( _topLocal && _claims != null ) ChunkClaims.unregister(_claiming);
+    if( _topLocal && _prefetcher != null ) _prefetcher.stop();
     return true;
   }
 
+  /** Node-local claims of a run with {@link #mapReplicas()}, null otherwise */
+  ChunkClaims claims() { return _claims; }
+
   // Make copy, setting final-field completer and clearing out a bunch of fields
-  private T copyAndInit() {
+  T copyAndInit() {
     T x = clone();
     x._topGlobal = false;
     x.setCompleter(this); // Set completer, what used to be a final field
     x._topLocal = false;  // Not a top job
-    x._nleft = x._nrite = null;
+    x._nrpcs = null;
+    x._rres = null; x._rend = x._rstart = null;
     x. _left = x. _rite = null;
     x._fs = _fs;
     if( _profile!=null )  x._profile = new MRProfile(this);
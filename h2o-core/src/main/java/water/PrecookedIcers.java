@@ -0,0 +1,107 @@
+package water;
+
+import javassist.ClassPool;
+import javassist.CtClass;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static water.H2O.OptArgs.SYSTEM_PROP_PREFIX;
+
+/**
+ * {@link Icer}s generated at build time.
+ *
+ * The generated Icers do not embed the type id of their class (assigned by
+ * the leader at runtime): they look it up with {@link TypeMap#onIce(String)}
+ * when they are initialized.  So the Icers of all the Freezable classes of a
+ * module can be generated by the build (see task generatePrecookedIcers in
+ * h2o-core/build.gradle) and packaged next to the classes.  At runtime the
+ * {@link Weaver} finds them as any other pre-cooked Icer instead of generating
+ * them with Javassist, which saves the startup time spent on the first
+ * heartbeats, Paxos and the first REST calls, and the first use of every
+ * other class.  Icers of classes loaded dynamically are still generated by
+ * the {@link Weaver}.
+ *
+ * Set the system property sys.ai.h2o.weaver.precookedIcers to false to ignore
+ * the pre-generated Icers: the {@link Weaver} then generates them as well.
+ */
+public final class PrecookedIcers {
+  static final boolean ENABLED = Boolean.parseBoolean(System.getProperty(SYSTEM_PROP_PREFIX + "weaver.precookedIcers", "true"));
+
+  private PrecookedIcers() {}
+
+  /**
+   * Generates the Icers of all the Freezable classes found in the given
+   * class directories, and of their Freezable parents.
+   * @param args output directory (root of the class files tree), followed by
+   *             the class directories to scan
+   */
+  public static void main(String[] args) throws Exception {
+    if( args.length < 2 ) {
+      System.err.println("Usage: PrecookedIcers <output directory> <classes directory>...");
+      System.exit(1);
+    }
+    final File outputDir = new File(args[0]);
+    final Map<Class, CtClass> icers = new LinkedHashMap<>();
+    final ClassPool pool = Weaver.precookedPool();
+    int skipped = 0;
+    for( int i = 1; i < args.length; i++ ) {
+      for( String className : classNames(new File(args[i])) ) {
+        final Class clazz;
+        try {
+          clazz = Class.forName(className, false, PrecookedIcers.class.getClassLoader());
+        } catch( ClassNotFoundException | LinkageError e ) {
+          continue; // e.g. optional dependencies missing from the build classpath
+        }
+        if( !isFreezable(clazz) ) continue;
+        try {
+          Weaver.genPrecookedIcer(pool, clazz, icers);
+        } catch( Exception e ) {
+          System.out.println("Skipping " + className + ": " + e);
+          skipped++;
+        }
+      }
+    }
+    for( CtClass icer_cc : icers.values() )
+      write(outputDir, icer_cc.getName(), icer_cc.toBytecode());
+    System.out.println("Generated " + icers.size() + " Icers into " + outputDir + ", skipped " + skipped);
+  }
+
+  static boolean isFreezable(Class clazz) {
+    return Freezable.class.isAssignableFrom(clazz) && !clazz.isInterface() &&
+        !clazz.getName().startsWith("scala.runtime.AbstractFunction");
+  }
+
+  // Names of the classes under a class files tree
+  private static Iterable<String> classNames(File root) {
+    final List<String> names = new ArrayList<>();
+    classNames(root, "", names);
+    return names;
+  }
+
+  private static void classNames(File dir, String pkg, List<String> names) {
+    final File[] files = dir.listFiles();
+    if( files == null ) return;
+    for( File f : files ) {
+      if( f.isDirectory() ) classNames(f, pkg + f.getName() + ".", names);
+      else if( f.getName().endsWith(".class") && !f.getName().endsWith("$Icer.class") )
+        names.add(pkg + f.getName().substring(0, f.getName().length() - ".class".length()));
+    }
+  }
+
+  private static void write(File outputDir, String className, byte[] bytes) throws IOException {
+    final File f = new File(outputDir, className.replace('.', File.separatorChar) + ".class");
+    if( !f.getParentFile().isDirectory() && !f.getParentFile().mkdirs() )
+      throw new IOException("Cannot create directory " + f.getParentFile());
+    try( OutputStream os = new FileOutputStream(f) ) {
+      os.write(bytes);
+    }
+  }
+
+}
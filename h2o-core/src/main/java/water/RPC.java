@@ -74,6 +74,8 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
   // A list of CountedCompleters we will call tryComplete on when the RPC
   // finally completes.  Frequently null/zero.
   ArrayList<H2OCountedCompleter> _fjtasks;
+  // The ones added by addCompleterIfPending, which are completed on cancel too
+  ArrayList<H2OCountedCompleter> _fetchers;
 
   // We only send non-failing TCP info once; also if we used TCP it was large
   // so duplications are expensive.  However, we DO need to keep resending some
@@ -82,6 +84,9 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
   // Not volatile because read & written under lock.
   boolean _sentTcp;
 
+  // Compressed DTask (see WireCompression), kept for re-sends
+  WireCompression.Zipped _zip;
+
   // To help with asserts, record the size of the sent DTask - if we resend
   // if should remain the same size.
   int _size;
@@ -92,8 +97,10 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
   static final byte SERVER_TCP_SEND = 11;
   static final byte CLIENT_UDP_SEND = 12;
   static final byte CLIENT_TCP_SEND = 13;
+  static final byte SERVER_ZIP_SEND = 14; // Compressed payload, see WireCompression
+  static final byte CLIENT_ZIP_SEND = 15;
   static final private String[] COOKIES = new String[] {
-    "SERVER_UDP","SERVER_TCP","CLIENT_UDP","CLIENT_TCP" };
+    "SERVER_UDP","SERVER_TCP","CLIENT_UDP","CLIENT_TCP","SERVER_ZIP","CLIENT_ZIP" };
 
 
   final static int MAX_TIMEOUT = 60000; // 5 sec max timeout cap on exponential decay of retries
@@ -197,12 +204,15 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
           AutoBuffer ab = new AutoBuffer(_target,_dt.priority());
           try {
             final boolean t;
-            ab.putTask(UDP.udp.exec, _tasknum).put1(CLIENT_UDP_SEND);
-            ab.put(_dt);
+            ab.putTask(UDP.udp.exec, _tasknum);
+            if( _zip != null ) WireCompression.write(ab, CLIENT_ZIP_SEND, _zip); // Compressed already
+            else if( WireCompression.enabledFor(_target) ) _zip = WireCompression.write(ab, CLIENT_UDP_SEND, CLIENT_ZIP_SEND, _dt, true);
+            else ab.put1(CLIENT_UDP_SEND).put(_dt);
             t = ab.hasTCP();
             assert sz_check(ab) : "Resend of " + _dt.getClass() + " changes size from " + _size + " to " + ab.size() + " for task#" + _tasknum;
             ab.close();        // Then close; send final byte
             _sentTcp = t;  // Set after close (and any other possible fail)
+            if( t ) _zip = null; // Never re-sent
             break;             // Break out of retry loop
           } catch( AutoBuffer.AutoBufferException e ) {
             Log.info("IOException during RPC call: " + e._ioe.getMessage() + ",  AB=" + ab + ", for task#" + _tasknum + ", waiting and retrying...");
@@ -286,6 +296,7 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
         _target.taskRemove(_tasknum);
         _target = null;         // Flag as canceled
 //        UDPTimeOutThread.PENDING.remove(this);
+        if( !_done ) completeFetchers(); // No answer will complete them
       }
       notifyAll();              // notify in any case
     }
@@ -319,6 +330,8 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
     // To help with asserts, record the size of the sent DTask - if we resend
     // if should remain the same size.  Also used for profiling.
     int _size;
+    // Compressed answer (see WireCompression), kept for re-sends of the ack
+    volatile WireCompression.Zipped _zip;
     RPCCall(DTask dt, H2ONode client, int tsknum) {
       super(dt.priority());
       _dt = dt;
@@ -377,11 +390,11 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
           // priority.
 
           UDP.udp udp = dt.priority()==H2O.FETCH_ACK_PRIORITY ? UDP.udp.fetchack : UDP.udp.ack;
-          ab = new AutoBuffer(_client,udp._prior).putTask(udp,_tsknum).put1(SERVER_UDP_SEND);
-          assert ab.position() == 1+2+4+1;
-          dt.write(ab);         // Write the DTask - could be very large write
+          ab = new AutoBuffer(_client,udp._prior).putTask(udp,_tsknum);
+          writeAnswer(ab, dt);  // Write the DTask - could be very large write
           dt._repliedTcp = ab.hasTCP(); // Resends do not need to repeat TCP result
           ab.close();                   // Then close; send final byte
+          if( dt._repliedTcp ) _zip = null; // Resends do not need the compressed result either
           _computedAndReplied = true;   // After the final handshake, set computed+replied bit
           break;                        // Break out of retry loop
         } catch( AutoBuffer.AutoBufferException e ) {
@@ -410,6 +423,22 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
       _retry += (_retry < MAX_TIMEOUT ) ? _retry : MAX_TIMEOUT;
     }
 
+    // Write the flag and the answer, compressed if the client accepts compressed payloads
+    private void writeAnswer(AutoBuffer ab, DTask dt) {
+      WireCompression.Zipped zip = _zip;
+      if( zip != null ) {       // Re-send, compressed already
+        WireCompression.write(ab, SERVER_ZIP_SEND, zip);
+        return;
+      }
+      if( WireCompression.enabledFor(_client) ) {
+        _zip = WireCompression.write(ab, SERVER_UDP_SEND, SERVER_ZIP_SEND, dt, false);
+        return;
+      }
+      ab.put1(SERVER_UDP_SEND);
+      assert ab.position() == 1+2+4+1;
+      dt.write(ab);
+    }
+
     // Re-send strictly the ack, because we're missing an AckAck
     final void resend_ack() {
       assert _computedAndReplied : "Found RPCCall not computed "+_tsknum;
@@ -419,11 +448,7 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
       AutoBuffer rab = new AutoBuffer(_client,dt.priority()).putTask(udp,_tsknum);
       boolean wasTCP = dt._repliedTcp;
       if( wasTCP )  rab.put1(RPC.SERVER_TCP_SEND) ; // Original reply sent via TCP
-      else {
-        rab.put1(RPC.SERVER_UDP_SEND); // Original reply sent via UDP
-        assert rab.position() == 1+2+4+1;
-        dt.write(rab);
-      }
+      else writeAnswer(rab, dt); // Original reply sent via UDP
       assert sz_check(rab) : "Resend of " + _dt.getClass() + " changes size from "+_size+" to "+rab.size();
       assert dt._repliedTcp==wasTCP;
       rab.close();
@@ -465,7 +490,7 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
     long lo = ab.get8(0), hi = ab._size >= 16 ? ab.get8(8) : 0;
     final int task = ab.getTask();
     final int flag = ab.getFlag();
-    assert flag==CLIENT_UDP_SEND || flag==CLIENT_TCP_SEND; // Client-side send
+    assert flag==CLIENT_UDP_SEND || flag==CLIENT_TCP_SEND || flag==CLIENT_ZIP_SEND; // Client-side send
     // Atomically record an instance of this task, one-time-only replacing a
     // null with an RPCCall, a placeholder while we work on a proper response -
     // and it serves to let us discard dup UDP requests.
@@ -482,7 +507,8 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
       try {
         // Read the DTask Right Now.  If we are the TCPReceiver thread, then we
         // are reading in that thread... and thus TCP reads are single-threaded.
-        rpc = new RPCCall(ab.get(water.DTask.class),ab._h2o,task);
+        AutoBuffer dtab = flag == CLIENT_ZIP_SEND ? WireCompression.read(ab) : ab;
+        rpc = new RPCCall(dtab.get(water.DTask.class),ab._h2o,task);
       } catch( AutoBuffer.AutoBufferException e ) {
         // Here we assume it's a TCP fail on read - and ignore the remote_exec
         // request.  The caller will send it again.  NOTE: this case is
@@ -585,7 +611,7 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
     } else {
       int flag = ab.getFlag();       // Must read flag also, to advance ab
       if (flag == SERVER_TCP_SEND) return ackack(ab, _tasknum); // Ignore UDP packet for a TCP reply
-      assert flag == SERVER_UDP_SEND:"flag = " + flag;
+      assert flag == SERVER_UDP_SEND || flag == SERVER_ZIP_SEND:"flag = " + flag;
       synchronized (this) {             // Install the answer under lock
         if (_done) {
           if(!ab.hasTCP())
@@ -593,7 +619,7 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
           ab.drainClose();
         } else {
 //          UDPTimeOutThread.PENDING.remove(_tasknum);
-          _dt.read(ab);             // Read the answer (under lock?)
+          _dt.read(flag == SERVER_ZIP_SEND ? WireCompression.read(ab) : ab); // Read the answer (under lock?)
           _size_rez = ab.size();    // Record received size
           ab.close();               // Also finish the read (under lock?  even if canceled, since need to drain TCP)
           if (!isCancelled())       // Can be canceled already (locally by MRTask while recieving remote answer)
@@ -636,6 +662,26 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
     return this;
   }
 
+  // Add a completer to a call which may be done already (e.g. a fetch started
+  // by somebody else): false if done or cancelled, then the task would never
+  // be completed.  The task is completed normally if the call gets cancelled
+  // (e.g. the target left the cloud), so that nobody waits on a lost fetch.
+  synchronized boolean addCompleterIfPending( H2OCountedCompleter task ) {
+    if( _done || isCancelled() ) return false;
+    addCompleter(task);
+    if( _fetchers == null ) _fetchers = new ArrayList<>(2);
+    _fetchers.add(task);
+    return true;
+  }
+
+  private void completeFetchers() {
+    if( _fetchers == null ) return;
+    for( final H2OCountedCompleter task : _fetchers )
+      H2O.submitTask(new H2OCountedCompleter(task.priority()) {
+        @Override public void compute2() { task.tryComplete(); }
+      });
+  }
+
   // Assertion check that size is not changing between resends,
   // i.e., resends sent identical data.
   private boolean sz_check(AutoBuffer ab) {
@@ -5,13 +5,20 @@ import java.net.InetAddress;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.channels.ByteChannel;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import water.network.SocketChannelFactory;
 import water.util.Log;
 import water.util.SB;
 
+import static water.H2O.OptArgs.SYSTEM_PROP_PREFIX;
+
 /**
  * The Thread that looks for TCP Cloud requests.
  *
@@ -102,7 +109,10 @@ public class TCPReceiverThread extends Thread {
         switch( chanType ) {
         case TCP_SMALL:
           H2ONode h2o = H2ONode.intern(inetAddress, port);
-          new UDP_TCP_ReaderThread(h2o, wrappedSocket).start();
+          if( UDP_TCP_SelectorThread.enabled() && wrappedSocket instanceof SocketChannel ) // SSL channels are not selectable
+            UDP_TCP_SelectorThread.register(h2o, (SocketChannel) wrappedSocket);
+          else
+            new UDP_TCP_ReaderThread(h2o, wrappedSocket).start();
           break;
         case TCP_BIG:
           new TCPReaderThread(wrappedSocket, new AutoBuffer(wrappedSocket, inetAddress), inetAddress).start();
@@ -252,4 +262,116 @@ public class TCPReceiverThread extends Thread {
     }
   }
 
+  /** Reads small messages from the (plain) tcp channels of all peers using a
+   *  small, fixed pool of selector threads instead of one UDP_TCP_ReaderThread
+   *  per peer.  The message format is the same: MSG_SZ(2B) MSG BODY(MSG_SZ*B)
+   *  EOM MARKER (1B - 0xef).  Each ready channel is read at most one buffer
+   *  per select round, so a busy peer cannot starve the others; a peer that
+   *  sends faster than we can read fills its buffer and is held back by TCP
+   *  flow control.  The number of threads is set by the system property
+   *  sys.ai.h2o.network.tcp.selector.threads, 0 reverts to a thread per peer. */
+  static class UDP_TCP_SelectorThread extends Thread {
+    private static final int N_THREADS = Integer.getInteger(SYSTEM_PROP_PREFIX + "network.tcp.selector.threads",
+            Math.min(4, Math.max(1, Runtime.getRuntime().availableProcessors() / 8)));
+    private static UDP_TCP_SelectorThread[] THREADS;
+    private static int NEXT;
+
+    static boolean enabled() { return N_THREADS > 0; }
+
+    /** Hand the channel over to one of the selector threads (round-robin). */
+    static synchronized void register(H2ONode h2o, SocketChannel chan) throws IOException {
+      if( THREADS == null ) {
+        UDP_TCP_SelectorThread[] threads = new UDP_TCP_SelectorThread[N_THREADS];
+        for( int i = 0; i < threads.length; i++ ) {
+          threads[i] = new UDP_TCP_SelectorThread(i);
+          threads[i].start();
+        }
+        THREADS = threads;
+      }
+      chan.configureBlocking(false);
+      UDP_TCP_SelectorThread t = THREADS[NEXT++ % THREADS.length];
+      t._pending.add(new Connection(h2o, chan));
+      t._selector.wakeup();
+    }
+
+    private final Selector _selector;
+    private final ConcurrentLinkedQueue<Connection> _pending = new ConcurrentLinkedQueue<>();
+
+    private UDP_TCP_SelectorThread(int id) throws IOException {
+      super("UDP-TCP-SELECT-" + id);
+      setDaemon(true);
+      setPriority(MAX_PRIORITY-1);
+      _selector = Selector.open();
+    }
+
+    @Override public void run() {
+      //noinspection InfiniteLoopStatement
+      while (true) {
+        try {
+          _selector.select();
+          Connection c;
+          while( (c = _pending.poll()) != null ) {
+            try {
+              c._chan.register(_selector, SelectionKey.OP_READ, c);
+            } catch( ClosedChannelException e ) { // Closed before we got to it
+              c.close();
+            }
+          }
+          Iterator<SelectionKey> it = _selector.selectedKeys().iterator();
+          while( it.hasNext() ) {
+            SelectionKey key = it.next();
+            it.remove();
+            read(key);
+          }
+        } catch( Throwable t ) { // Selector is broken, nothing much we can do except for logging
+          Log.err("Error in " + getName(), t);
+          try { Thread.sleep(100); } catch( InterruptedException e ) {/*ignored*/}
+        }
+      }
+    }
+
+    private static void read(SelectionKey key) {
+      Connection c = (Connection) key.attachment();
+      boolean idle = true;
+      try {
+        int res = c._chan.read(c._bb);
+        if( res < 0 ) throw new IOException("Channel closed by " + c._h2o);
+        c._h2o._last_heard_from = System.currentTimeMillis();
+        idle = false;
+        c._bb.flip();
+        while( c._bb.remaining() >= 2 ) {
+          int sz = c._bb.getChar(c._bb.position()); // 2 bytes of next-message-size
+          if( c._bb.remaining() < 2 + sz + 1 ) break; // Partial message, wait for more bytes
+          assert sz < AutoBuffer.BBP_SML._size : "Incoming message is too big, should've been sent by TCP-BIG, got " + sz + " bytes";
+          c._bb.getChar();
+          byte[] ary = MemoryManager.malloc1(Math.max(16,sz));
+          int sentinel = c._bb.get(ary,0,sz).get(); // extract the message bytes, then the sentinel byte
+          if( (0xFF & sentinel) != 0xef )
+            throw new IOException("Missing expected sentinel (0xef) at the end of the message from " + c._h2o + ", likely out of sync, size = " + sz);
+          // package the raw bytes into an array and pass it on to FJQ for further processing
+          UDPReceiverThread.basic_packet_handling(new AutoBuffer(c._h2o, ary, 0, sz));
+        }
+        c._bb.compact();
+        idle = c._bb.position() == 0;
+      } catch( Throwable t ) {
+        // OK to have remote suicide while idle; happens during normal shutdown
+        if( !idle || !(t instanceof IOException) )
+          Log.err(t);
+        key.cancel();
+        c.close();
+      }
+    }
+
+    private static class Connection {
+      final H2ONode _h2o;
+      final SocketChannel _chan;
+      final ByteBuffer _bb = AutoBuffer.BBP_BIG.make(); // Returned to the pool on close
+      Connection(H2ONode h2o, SocketChannel chan) { _h2o = h2o; _chan = chan; }
+      void close() {
+        AutoBuffer.BBP_BIG.free(_bb);
+        try { _chan.close(); } catch( IOException e ) {/*ignore error on close*/}
+      }
+    }
+  }
+
 }
@@ -12,7 +12,9 @@ public class TaskPutKey extends DTask<TaskPutKey> {
   transient Key _xkey;
 
   static void put( H2ONode h2o, Key key, Value val, Futures fs, boolean dontCache) {
-    fs.add(RPC.call(h2o,new TaskPutKey(key,val,dontCache)));
+    TaskPutKey tpk = new TaskPutKey(key,val,dontCache);
+    if( TaskPutKeys.batch(h2o,tpk,fs) ) return; // Small put, sent later with others
+    fs.add(RPC.call(h2o,tpk));
   }
 
   protected TaskPutKey( Key key, Value val ) { this(key,val,false);}
@@ -20,6 +22,15 @@ public class TaskPutKey extends DTask<TaskPutKey> {
   protected TaskPutKey( Key key ) { super(H2O.INVALIDATE_PRIORITY); _xkey = _key = key; _xval = _val = null; _dontCache = false;}
 
   @Override public void dinvoke( H2ONode sender ) {
+    Futures fs = new Futures();
+    apply(sender,fs);
+    fs.blockForPending();
+    tryComplete();
+  }
+
+  // Do the put (or the remote invalidate), adding the invalidates of remote
+  // caches to fs.  Also used for each put of a TaskPutKeys batch.
+  void apply( H2ONode sender, Futures fs ) {
     assert _key.home() || _val==null; // Only PUT to home for keys, or remote invalidation from home
     Paxos.lockCloud(_key);
     // Initialize Value for having a single known replica (the sender)
@@ -29,20 +40,19 @@ public class TaskPutKey extends DTask<TaskPutKey> {
     Value old = H2O.STORE.get(_key); // Raw-get: do not lazy-manifest if overwriting
     while( H2O.putIfMatch(_key,_val,old) != old )
       old = H2O.STORE.get(_key);  // Repeat until we update something.
-    // Invalidate remote caches.  Block, so that all invalidates are done
-    // before we return to the remote caller.  This is conservative, but
+    // Invalidate remote caches.  The caller blocks, so that all invalidates
+    // are done before we return to the remote caller.  This is conservative, but
     // otherwise we have to send the invalidate-completion message to the
     // remote caller; i.e. the caller would have to handle a 2-step Put
     // completion ("I started your Put request" and "I completed your Put
     // request").
     if( _key.home() ) {
-      if( old != null ) old.lockAndInvalidate(sender,_val,new Futures()).blockForPending();
+      if( old != null ) old.lockAndInvalidate(sender,_val,fs);
       else _val.lowerActiveGetCount(null);  // Remove initial read-lock, accounting for pending inv counts
     }
     // No return result
     _key = null;
     _val = null;
-    tryComplete();
   }
   @Override public void compute2() { throw H2O.fail(); }
 
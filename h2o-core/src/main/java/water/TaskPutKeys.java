@@ -0,0 +1,138 @@
+package water;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static water.H2O.OptArgs.SYSTEM_PROP_PREFIX;
+
+/**
+ * Push a batch of keys to their (common) home node in one RPC.
+ *
+ * Storms of small remote puts (Frame and Vec headers, Job progress updates,
+ * ...) otherwise cost a {@link TaskPutKey} RPC each, with its own ACK/ACKACK
+ * round trip.  When enabled, puts of Values up to
+ * sys.ai.h2o.dkv.batch.maxBytes are queued per home node instead.  The first
+ * put into an empty queue schedules a flush; everything queued by the time
+ * the flush runs (or as soon as sys.ai.h2o.dkv.batch.maxKeys puts are queued)
+ * is sent as one TaskPutKeys and acknowledged at once.  Puts are applied on
+ * the home node in the order they were queued.
+ *
+ * Queued and in-flight batched puts are visible to {@link DKV#get} (see
+ * {@link H2ONode#pendingPutKey}) and waited for by {@link DKV#write_barrier},
+ * like single puts.  Batching is disabled by default (maxBytes -1).
+ */
+public class TaskPutKeys extends DTask<TaskPutKeys> {
+  static int MAX_BYTES = Integer.getInteger(SYSTEM_PROP_PREFIX + "dkv.batch.maxBytes", -1);
+  private static final int MAX_KEYS = Integer.getInteger(SYSTEM_PROP_PREFIX + "dkv.batch.maxKeys", 256);
+
+  // Local node statistics
+  private static final AtomicLong BATCH_CNT = new AtomicLong();
+  private static final AtomicLong BATCHED_KEYS = new AtomicLong();
+
+  TaskPutKey[] _puts;
+  transient TaskPutKey[] _xputs;            // The puts, kept after the (empty) answer is read
+  private transient ArrayList<TaskPutKey> _queue; // Puts of a batch which was not sent yet
+
+  TaskPutKeys( TaskPutKey[] puts ) { super(H2O.PUT_KEY_PRIORITY); _xputs = _puts = puts; }
+  private TaskPutKeys() { this(null); _queue = new ArrayList<>(); }
+
+  public static boolean enabled() { return MAX_BYTES >= 0; }
+
+  /**
+   * Queue a put to be sent to the home node with other puts.
+   * @return false if the put is not batched and has to be sent by the caller
+   */
+  static boolean batch( H2ONode h2o, TaskPutKey tpk, Futures fs ) {
+    if( !enabled() ) return false;
+    if( tpk._xval != null && tpk._xval._max > MAX_BYTES ) {
+      flush(h2o);               // Do not hold back puts queued before this one
+      return false;
+    }
+    final RPC<TaskPutKeys> rpc;
+    final boolean first, full;
+    synchronized( h2o ) {
+      first = h2o._putBatch == null;
+      if( first ) h2o._putBatch = new RPC<>(h2o, new TaskPutKeys(), 1.0f); // Task# set when sent
+      rpc = h2o._putBatch;
+      rpc._dt._queue.add(tpk);
+      full = rpc._dt._queue.size() >= MAX_KEYS;
+    }
+    fs.add(rpc);
+    if( full ) flush(h2o);      // Do not wait for the scheduled flush
+    else if( first ) H2O.submitTask(new Flush(h2o));
+    return true;
+  }
+
+  /** Send the puts queued for the given node now. */
+  static void flush( H2ONode h2o ) {
+    if( h2o._putBatch == null ) return;
+    final RPC<TaskPutKeys> rpc;
+    synchronized( h2o ) {
+      rpc = h2o._putBatch;
+      if( rpc == null ) return;
+      h2o._putBatch = null;
+      TaskPutKeys tpks = rpc._dt;
+      tpks._xputs = tpks._puts = tpks._queue.toArray(new TaskPutKey[tpks._queue.size()]);
+      tpks._queue = null;
+      // Register the batch before releasing the lock, so pendingPutKey and
+      // write_barrier always find the puts: queued or in-flight
+      h2o.taskPut(rpc.setTaskNum()._tasknum, rpc);
+    }
+    BATCH_CNT.incrementAndGet();
+    BATCHED_KEYS.addAndGet(rpc._dt._puts.length);
+    rpc.call();
+  }
+
+  /** @return the last queued (not sent yet) put of the given key to the given node, or null */
+  static TaskPutKey queued( H2ONode h2o, Key k ) {
+    if( h2o._putBatch == null ) return null;
+    synchronized( h2o ) {
+      if( h2o._putBatch == null ) return null;
+      ArrayList<TaskPutKey> queue = h2o._putBatch._dt._queue;
+      for( int i = queue.size() - 1; i >= 0; i-- )
+        if( k.equals(queue.get(i)._xkey) )
+          return queue.get(i);
+      return null;
+    }
+  }
+
+  /** @return the last put of the given key in this batch, or null */
+  TaskPutKey pending( Key k ) {
+    if( _xputs == null ) return null;
+    for( int i = _xputs.length - 1; i >= 0; i-- )
+      if( k.equals(_xputs[i]._xkey) )
+        return _xputs[i];
+    return null;
+  }
+
+  @Override public void dinvoke( H2ONode sender ) {
+    Futures fs = new Futures();
+    for( TaskPutKey tpk : _puts )
+      tpk.apply(sender,fs);
+    fs.blockForPending();       // All invalidates done before the single ACK
+    _puts = null;               // No return result
+    tryComplete();
+  }
+  @Override public void compute2() { throw H2O.fail(); }
+
+  // Received the ACK of all the puts
+  @Override public void onAck() {
+    for( TaskPutKey tpk : _xputs )
+      tpk.onAck();
+  }
+
+  /** Snapshot of the local statistics: batches sent, puts sent in batches. */
+  public static long[] stats() {
+    return new long[]{ BATCH_CNT.get(), BATCHED_KEYS.get() };
+  }
+
+  // Sends the batch of the target node, giving concurrent puts the time to join it
+  private static class Flush extends H2O.H2OCountedCompleter<Flush> {
+    private final H2ONode _h2o;
+    Flush( H2ONode h2o ) { super(H2O.PUT_KEY_PRIORITY); _h2o = h2o; }
+    @Override public void compute2() {
+      flush(_h2o);
+      tryComplete();
+    }
+  }
+}
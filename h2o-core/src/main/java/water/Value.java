@@ -1,11 +1,16 @@
 package water;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import jsr166y.ForkJoinPool;
 import water.fvec.Frame;
 import water.fvec.Vec;
+import water.persist.Persist;
+import water.persist.PersistFS;
 import water.util.Log;
 import water.util.StringUtils;
 
@@ -359,7 +364,22 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
   // and the normal serializer then might ship over a null instead of the
   // intended byte[].  Also, the value is NOT on the deserialize'd machines disk
   public final AutoBuffer write_impl( AutoBuffer ab ) {
-    return ab.put1(_persist).put2(_type).putA1(memOrLoad());
+    ab.put1(_persist).put2(_type);
+    // A large Value spilled to ice goes from its file straight to the other
+    // Node, without being loaded back into the heap just to be sent
+    if( _mem == null && _pojo == null && isPersisted() && backend() == ICE && ab.transfersFrom(_max) ) {
+      Persist ice = H2O.getPM().getIce();
+      File f = ice instanceof PersistFS ? ((PersistFS)ice).getFile(this) : null;
+      if( f != null && f.length() >= _max ) {
+        FileInputStream s = null;
+        try { s = new FileInputStream(f); } catch( FileNotFoundException ignore ) { } // Racey delete, load below
+        if( s != null ) {
+          try { return ab.putA1(s.getChannel(), 0, _max); }
+          finally { try { s.close(); } catch( IOException ignore ) { } }
+        }
+      }
+    }
+    return ab.putA1(memOrLoad());
   }
   // Custom serializer: set _max from _mem length; set replicas & timestamp.
   public final Value read_impl(AutoBuffer bb) {
@@ -96,8 +96,45 @@ public class Weaver {
     throw new RuntimeException(e2);
   }
 
+  /**
+   * Generate the Icers of the given class and of its Freezable parents
+   * without loading them, for {@link PrecookedIcers#main}.  Needs no cloud:
+   * the generated Icers look up their type id when they are initialized.
+   * The Icers are made in a child pool of their own, the Icers already
+   * generated by this JVM are left alone.
+   * @param pool child-first pool made by {@link #precookedPool()}
+   * @param icers Icers generated so far, the new ones are added
+   * @return the Icer of the given class
+   */
+  static CtClass genPrecookedIcer( ClassPool pool, Class clazz, Map<Class,CtClass> icers ) throws CannotCompileException, NotFoundException, NoSuchFieldException {
+    CtClass icer_cc = icers.get(clazz);
+    if( icer_cc != null ) return icer_cc;
+    Class super_clazz = clazz.getSuperclass();
+    boolean freezable_super = super_clazz != null && Freezable.class.isAssignableFrom(super_clazz);
+    CtClass super_icer_cc = freezable_super ? genPrecookedIcer(pool, super_clazz, icers) : pool.get(Icer.class.getName());
+    int lvl = freezableDepth(clazz);
+    icer_cc = genIcerClass(pool, pool.get(clazz.getName()), clazz, implClazzName(clazz.getName()), lvl, freezable_super ? lvl-1 : -1, super_icer_cc, true);
+    icers.put(clazz, icer_cc);
+    return icer_cc;
+  }
+
+  static ClassPool precookedPool() {
+    ClassPool pool = new ClassPool(_pool);
+    pool.childFirstLookup = true; // Resolve the generated Icers before the ones of this JVM
+    return pool;
+  }
+
+  // Depth of a class in its Freezable hierarchy.  Names the write/read
+  // methods of its Icer: unique along the hierarchy, and unlike the type id
+  // known without a cloud, so Icers can be generated at build time.
+  static int freezableDepth( Class clazz ) {
+    int lvl = 0;
+    for( Class c = clazz; c != null && Freezable.class.isAssignableFrom(c); c = c.getSuperclass() ) lvl++;
+    return lvl;
+  }
+
   // The name conversion from a Iced subclass to an Icer subclass.
-  private static String implClazzName( String name ) {
+  static String implClazzName( String name ) {
     return name + "$Icer";
   }
 
@@ -199,27 +236,31 @@ public class Weaver {
 
     assert !iced_name.startsWith("scala.runtime.AbstractFunction");
 
-    // Now look for a pre-cooked Icer.  No locking, 'cause we're just looking
-    String icer_name = implClazzName(iced_name);
-    CtClass icer_cc = _pool.getOrNull(icer_name); // Full Name Lookup of Icer
-    if( icer_cc != null ) {
-      synchronized( iced_clazz ) {
-        if( !icer_cc.isFrozen() )   icer_cc.toClass(iced_clazz.getClassLoader()); // Load class (but does not link & init)
-        return Class.forName(icer_name,true,iced_clazz.getClassLoader()); // Found a pre-cooked Icer implementation
-      }
-    }
-
     // Serialize parent.  No locking; occasionally we'll "onIce" from the
-    // remote leader more than once.
+    // remote leader more than once.  Done first also for pre-cooked Icers,
+    // which look up the type ids of their class and parents when initialized.
     Class super_clazz = iced_clazz.getSuperclass();
     Class super_icer_clazz;
-    int super_id;
+    int lvl = freezableDepth(iced_clazz), super_lvl;
     if(Freezable.class.isAssignableFrom(super_clazz)) {
-      super_id = TypeMap.onIce(super_clazz.getName());
-      super_icer_clazz = javassistLoadClass(super_id, super_clazz);
+      super_icer_clazz = javassistLoadClass(TypeMap.onIce(super_clazz.getName()), super_clazz);
+      super_lvl = lvl-1;
     } else {
       super_icer_clazz = Icer.class;
-      super_id = -1;
+      super_lvl = -1;
+    }
+
+    // Now look for a pre-cooked Icer, e.g. the Icers generated at build time.
+    // Not for classes loaded at runtime, a pre-cooked Icer would be out of
+    // date.  No locking, 'cause we're just looking
+    String icer_name = implClazzName(iced_name);
+    boolean precooked = PrecookedIcers.ENABLED && !CLASSPATHS.containsKey(iced_name);
+    CtClass icer_cc = lookupIcer(icer_name, precooked); // Full Name Lookup of Icer
+    if( icer_cc != null ) {
+      synchronized( iced_clazz ) {
+        if( !icer_cc.isFrozen() )   icer_cc.toClass(iced_clazz.getClassLoader()); // Load class (but does not link & init)
+        return Class.forName(icer_name,true,iced_clazz.getClassLoader()); // Found a pre-cooked Icer implementation
+      }
     }
 
     CtClass super_icer_cc = _pool.get(super_icer_clazz.getName());
@@ -230,25 +271,33 @@ public class Weaver {
     // class, but also to allow parallel class-gens of unrelated Iced).
     //noinspection SynchronizationOnLocalVariableOrMethodParameter
     synchronized( iced_clazz ) {
-      icer_cc = _pool.getOrNull(icer_name); // Retry under lock
+      icer_cc = lookupIcer(icer_name, precooked); // Retry under lock
       if( icer_cc != null ) return Class.forName(icer_name); // Found a pre-cooked Icer implementation
-      icer_cc = genIcerClass(id,iced_cc,iced_clazz,icer_name,super_id,super_icer_cc,super_has_jfields);
+      icer_cc = genIcerClass(_pool,iced_cc,iced_clazz,icer_name,lvl,super_lvl,super_icer_cc,super_has_jfields);
       icer_cc.toClass(iced_clazz.getClassLoader());               // Load class (but does not link & init)
       return Class.forName(icer_name,true, iced_clazz.getClassLoader()); // Initialize class now, before subclasses
     }
   }
 
+  // An Icer known to the pool: generated by us, or found on the classpath.
+  // Icers found on the classpath are not loaded yet (not frozen), they are
+  // ignored if not wanted.
+  private static CtClass lookupIcer( String icer_name, boolean precooked ) {
+    CtClass icer_cc = _pool.getOrNull(icer_name);
+    return icer_cc == null || precooked || icer_cc.isFrozen() ? icer_cc : null;
+  }
+
   // Generate the Icer class
-  private static CtClass genIcerClass(int id, CtClass iced_cc, Class iced_clazz, String icer_name, int super_id, CtClass super_icer, boolean super_has_jfields ) throws CannotCompileException, NotFoundException, NoSuchFieldException {
+  private static CtClass genIcerClass(ClassPool pool, CtClass iced_cc, Class iced_clazz, String icer_name, int lvl, int super_lvl, CtClass super_icer, boolean super_has_jfields ) throws CannotCompileException, NotFoundException, NoSuchFieldException {
     // Generate the Icer class
     String iced_name = iced_cc.getName();
-    CtClass icer_cc = _pool.makeClass(icer_name);
+    CtClass icer_cc = pool.makeClass(icer_name);
     icer_cc.setSuperclass(super_icer);
     icer_cc.setModifiers(javassist.Modifier.PUBLIC);
 
     // Overall debug printing?
     if (false) {
-      System.out.println("Iced class " + icer_cc.getName() + " is number: " + id);
+      System.out.println("Iced class " + icer_cc.getName() + " is at level: " + lvl);
     }
 
     // Detailed debug printing?
@@ -282,21 +331,21 @@ public class Weaver {
     // The write call
     String debug =
     make_body(icer_cc, iced_cc, iced_clazz, "write", null, null,
-              "  protected final water.AutoBuffer write"+id+"(water.AutoBuffer ab, "+iced_name+" ice) {\n",
-              super_id == -1?"":"    write"+super_id+"(ab,ice);\n",
-              "    ab.put%z(ice.%s);\n"  ,  "    ab.put%z((%C)_unsafe.get%u(ice,%dL)); // %s\n",
-              "    ab.put%z(ice.%s);\n"  ,  "    ab.put%z((%C)_unsafe.get%u(ice,%dL)); // %s\n",
-              "    ab.put%z(ice.%s);\n"  ,  "    ab.put%z((%C)_unsafe.get%u(ice,%dL)); // %s\n",
+              "  protected final water.AutoBuffer write"+lvl+"(water.AutoBuffer ab, "+iced_name+" ice) {\n",
+              super_lvl == -1?"":"    write"+super_lvl+"(ab,ice);\n",
+              "    ab.put%z(ice.%s);\n"  ,  "    ab.put%z((%C)_unsafe.get%u(ice,%d)); // %s\n",
+              "    ab.put%z(ice.%s);\n"  ,  "    ab.put%z((%C)_unsafe.get%u(ice,%d)); // %s\n",
+              "    ab.put%z(ice.%s);\n"  ,  "    ab.put%z((%C)_unsafe.get%u(ice,%d)); // %s\n",
               "    return ab;\n" +
               "  }");
     if( debug_print ) System.out.println(debug);
     String debugJ=
     make_body(icer_cc, iced_cc, iced_clazz, "writeJSON", "(supers?ab.put1(','):ab).", "    ab.put1(',').",
-              "  protected final water.AutoBuffer writeJSON"+id+"(water.AutoBuffer ab, "+iced_name+" ice) {\n",
-              super_id == -1?"":"    writeJSON"+super_id+"(ab,ice);\n",
-              "putJSON%z(\"%s\",ice.%s);\n"  ,  "putJSON%z(\"%s\",(%C)_unsafe.get%u(ice,%dL)); // %s\n",
-              "putJSON%z(\"%s\",ice.%s);\n"  ,  "putJSON%z(\"%s\",(%C)_unsafe.get%u(ice,%dL)); // %s\n",
-              "putJSON%z(\"%s\",ice.%s);\n"  ,  "putJSON%z(\"%s\",(%C)_unsafe.get%u(ice,%dL)); // %s\n"  ,
+              "  protected final water.AutoBuffer writeJSON"+lvl+"(water.AutoBuffer ab, "+iced_name+" ice) {\n",
+              super_lvl == -1?"":"    writeJSON"+super_lvl+"(ab,ice);\n",
+              "putJSON%z(\"%s\",ice.%s);\n"  ,  "putJSON%z(\"%s\",(%C)_unsafe.get%u(ice,%d)); // %s\n",
+              "putJSON%z(\"%s\",ice.%s);\n"  ,  "putJSON%z(\"%s\",(%C)_unsafe.get%u(ice,%d)); // %s\n",
+              "putJSON%z(\"%s\",ice.%s);\n"  ,  "putJSON%z(\"%s\",(%C)_unsafe.get%u(ice,%d)); // %s\n"  ,
               "    return ab;\n" +
               "  }");
     if( debug_print ) System.out.println(debugJ);
@@ -304,12 +353,12 @@ public class Weaver {
     // The generic override method.  Called virtually at the start of a
     // serialization call.  Only calls thru to the named static method.
     String wbody = "  protected water.AutoBuffer write(water.AutoBuffer ab, water.Freezable ice) {\n"+
-      "    return write"+id+"(ab,("+iced_name+")ice);\n"+
+      "    return write"+lvl+"(ab,("+iced_name+")ice);\n"+
       "  }";
     if( debug_print ) System.out.println(wbody);
     addMethod(wbody,icer_cc);
     String wbodyJ= "  protected water.AutoBuffer writeJSON(water.AutoBuffer ab, water.Freezable ice) {\n"+
-      "    return writeJSON"+id+"(ab.put1('{'),("+iced_name+")ice).put1('}');\n"+
+      "    return writeJSON"+lvl+"(ab.put1('{'),("+iced_name+")ice).put1('}');\n"+
       "  }";
     if( debug_print ) System.out.println(wbodyJ);
     addMethod(wbodyJ,icer_cc);
@@ -318,21 +367,21 @@ public class Weaver {
     // The read call
     String rbody_impl =
     make_body(icer_cc, iced_cc, iced_clazz, "read", null, null,
-              "  protected final "+iced_name+" read"+id+"(water.AutoBuffer ab, "+iced_name+" ice) {\n",
-              super_id == -1?"":"    read"+super_id+"(ab,ice);\n",
-              "    ice.%s = ab.get%z();\n",            "    _unsafe.put%u(ice,%dL,ab.get%z());  //%s\n",
-              "    ice.%s = (%C)ab.get%z(%s);\n",    "    _unsafe.put%u(ice,%dL,ab.get%z(%s));\n",
-              "    ice.%s = (%C)ab.get%z(%c.class);\n","    _unsafe.put%u(ice,%dL,(%C)ab.get%z(%c.class));  //%s\n",
+              "  protected final "+iced_name+" read"+lvl+"(water.AutoBuffer ab, "+iced_name+" ice) {\n",
+              super_lvl == -1?"":"    read"+super_lvl+"(ab,ice);\n",
+              "    ice.%s = ab.get%z();\n",            "    _unsafe.put%u(ice,%d,ab.get%z());  //%s\n",
+              "    ice.%s = (%C)ab.get%z(%s);\n",    "    _unsafe.put%u(ice,%d,ab.get%z(%s));\n",
+              "    ice.%s = (%C)ab.get%z(%c.class);\n","    _unsafe.put%u(ice,%d,(%C)ab.get%z(%c.class));  //%s\n",
               "    return ice;\n" +
               "  }");
     if( debug_print ) System.out.println(rbody_impl);
     String rbodyJ_impl =
     make_body(icer_cc, iced_cc, iced_clazz, "readJSON", null, null,
-              "  protected final "+iced_name+" readJSON"+id+"(water.AutoBuffer ab, "+iced_name+" ice) {\n",
-              super_id == -1?"":"    readJSON"+super_id+"(ab,ice);\n",
-              "    ice.%s = ab.get%z();\n",            "    _unsafe.put%u(ice,%dL,ab.get%z());  //%s\n",
-              "    ice.%s = (%C)ab.get%z(%s);\n",    "    _unsafe.put%u(ice,%dL,ab.get%z(%s));\n",
-              "    ice.%s = (%C)ab.get%z(%c.class);\n","    _unsafe.put%u(ice,%dL,(%C)ab.get%z(%c.class));  //%s\n",
+              "  protected final "+iced_name+" readJSON"+lvl+"(water.AutoBuffer ab, "+iced_name+" ice) {\n",
+              super_lvl == -1?"":"    readJSON"+super_lvl+"(ab,ice);\n",
+              "    ice.%s = ab.get%z();\n",            "    _unsafe.put%u(ice,%d,ab.get%z());  //%s\n",
+              "    ice.%s = (%C)ab.get%z(%s);\n",    "    _unsafe.put%u(ice,%d,ab.get%z(%s));\n",
+              "    ice.%s = (%C)ab.get%z(%c.class);\n","    _unsafe.put%u(ice,%d,(%C)ab.get%z(%c.class));  //%s\n",
               "    return ice;\n" +
               "  }");
     if( debug_print )
@@ -341,12 +390,12 @@ public class Weaver {
     // The generic override method.  Called virtually at the start of a
     // serialization call.  Only calls thru to the named static method.
     String rbody = "  protected water.Freezable read(water.AutoBuffer ab, water.Freezable ice) {\n"+
-      "    return read"+id+"(ab,("+iced_name+")ice);\n"+
+      "    return read"+lvl+"(ab,("+iced_name+")ice);\n"+
       "  }";
     if( debug_print ) System.out.println(rbody);
     addMethod(rbody,icer_cc);
     String rbodyJ= "  protected water.Freezable readJSON(water.AutoBuffer ab, water.Freezable ice) {\n"+
-      "    return readJSON"+id+"(ab,("+iced_name+")ice);\n"+
+      "    return readJSON"+lvl+"(ab,("+iced_name+")ice);\n"+
       "  }";
     if( debug_print ) System.out.println(rbodyJ);
     addMethod(rbodyJ,icer_cc);
@@ -355,7 +404,10 @@ public class Weaver {
     if( debug_print ) System.out.println(cnbody);
     addMethod(cnbody,icer_cc);
 
-    String ftbody = "  protected int frozenType() { return "+id+"; }";
+    // The type id is assigned by the cloud: looked up when the Icer is
+    // initialized, after the Weaver (or the leader) installed it.
+    icer_cc.addField(CtField.make("  private static final int _frozenType = water.TypeMap.onIce(\""+iced_name+"\");\n",icer_cc));
+    String ftbody = "  protected int frozenType() { return _frozenType; }";
     if( debug_print ) System.out.println(ftbody);
     addMethod(ftbody,icer_cc);
 
@@ -372,9 +424,9 @@ public class Weaver {
                   "    super.copyOver(fdst,fsrc);\n"+
                   "    "+iced_name+" dst = ("+iced_name+")fdst;\n"+
                   "    "+iced_name+" src = ("+iced_name+")fsrc;\n",
-                  "    dst.%s = src.%s;\n","    _unsafe.put%u(dst,%dL,_unsafe.get%u(src,%dL));  //%s\n",
-                  "    dst.%s = src.%s;\n","    _unsafe.put%u(dst,%dL,_unsafe.get%u(src,%dL));  //%s\n",
-                  "    dst.%s = src.%s;\n","    _unsafe.put%u(dst,%dL,_unsafe.get%u(src,%dL));  //%s\n",
+                  "    dst.%s = src.%s;\n","    _unsafe.put%u(dst,%d,_unsafe.get%u(src,%d));  //%s\n",
+                  "    dst.%s = src.%s;\n","    _unsafe.put%u(dst,%d,_unsafe.get%u(src,%d));  //%s\n",
+                  "    dst.%s = src.%s;\n","    _unsafe.put%u(dst,%d,_unsafe.get%u(src,%d));  //%s\n",
                   "  }");
       if( debug_print ) System.out.println(cpbody_impl);
     }
@@ -475,7 +527,11 @@ public class Weaver {
       // access, only private is a problem.
       boolean can_access = !javassist.Modifier.isPrivate(mods);
       if( (impl.equals("read") || impl.equals("copyOver")) && javassist.Modifier.isFinal(mods) ) can_access = false;
-      long off = _unsafe.objectFieldOffset(iced_clazz.getDeclaredField(ctf.getName()));
+      String off = "_off"+ctf.getName(); // Static field holding the offset, only for Unsafe
+      if( !can_access && !hasField(icer_cc, off) ) {
+        CtField ctfo = CtField.make("  private static final long "+off+" = fieldOffset("+iced_cc.getName()+".class,\""+ctf.getName()+"\");\n",icer_cc);
+        icer_cc.addField(ctfo);
+      }
       int ftype = ftype(iced_cc, ctf.getSignature() ); // Field type encoding
       if( ftype%20 == 9 || ftype%20 == 11 ) {          // Iced/Objects
         sb.append(can_access ?  iced :  iced_unsafe);
@@ -491,7 +547,7 @@ public class Weaver {
       subsub(sb, "%s", ctf.getName());             // %s ==> field name
       subsub(sb, "%c", dollarsub(base.getName())); // %c ==> base class name
       subsub(sb, "%C", dollarsub(ctft.getName())); // %C ==> full class name
-      subsub(sb, "%d", ""+off);                    // %d ==> field offset, only for Unsafe
+      subsub(sb, "%d", off);                       // %d ==> field offset, only for Unsafe
       subsub(sb, "%u", utype(ctf.getSignature())); // %u ==> unsafe type name
 
     }
@@ -502,6 +558,12 @@ public class Weaver {
     return body;
   }
 
+  private static boolean hasField( CtClass cc, String name ) {
+    for( CtField ctf : cc.getDeclaredFields() )
+      if( ctf.getName().equals(name) ) return true;
+    return false;
+  }
+
   // Add a gen'd method.  Politely print if there's an error during generation.
   private static void addMethod( String body, CtClass icer_cc ) throws CannotCompileException {
     try {
@@ -0,0 +1,146 @@
+package water;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import static water.H2O.OptArgs.SYSTEM_PROP_PREFIX;
+
+/**
+ * Opt-in compression of large RPC payloads: DTasks shipped to remote nodes and
+ * the results they send back (e.g. big MRTask reduce results).
+ *
+ * Enabled by setting the system property sys.ai.h2o.network.compression.threshold
+ * to the size (in bytes) of the smallest serialized payload worth compressing.
+ * A node only compresses payloads sent to peers which advertise in their
+ * HeartBeat that they have compression enabled as well.  Payloads which don't
+ * shrink are sent as is.
+ *
+ * Wire format (following the RPC flag byte): raw size (4B), compressed bytes (putA1).
+ * The payload is serialized straight into the outgoing AutoBuffer and only compressed
+ * once it turns out to be past the threshold; senders keep the compressed bytes for
+ * re-sends.  Payloads larger than MAX_RAW_LEN are not compressed: they would need
+ * as much heap, twice, and go out as they are serialized.
+ */
+public final class WireCompression {
+  static int THRESHOLD = Integer.getInteger(SYSTEM_PROP_PREFIX + "network.compression.threshold", -1);
+  /** Largest payload compressed, held in the heap until serialized */
+  static int MAX_RAW_LEN = 1 << 30;
+
+  // Local node statistics
+  private static final AtomicLong COMPRESSED_CNT = new AtomicLong();
+  private static final AtomicLong RAW_BYTES = new AtomicLong();
+  private static final AtomicLong WIRE_BYTES = new AtomicLong();
+  private static final AtomicLong COMPRESS_NS = new AtomicLong();
+  private static final AtomicLong DECOMPRESSED_CNT = new AtomicLong();
+  private static final AtomicLong DECOMPRESS_NS = new AtomicLong();
+
+  private WireCompression() {}
+
+  public static boolean enabled() { return THRESHOLD >= 0; }
+
+  static boolean enabledFor(H2ONode target) {
+    HeartBeat hb = target._heartbeat;
+    return enabled() && hb != null && hb._wire_compression;
+  }
+
+  /** Compressed payload, kept by the sender to re-send it as is */
+  static final class Zipped {
+    final int _rawLen;
+    final byte[] _zip;
+    Zipped(int rawLen, byte[] zip) { _rawLen = rawLen; _zip = zip; }
+  }
+
+  /**
+   * Write the flag and the payload straight into the outgoing AutoBuffer, held back (in the heap) until the payload
+   * is serialized.  A payload past the threshold is then replaced by its compressed bytes and zipFlag, unless it
+   * doesn't shrink.  Payloads below the threshold go out as they were written, without any copy, and payloads over
+   * MAX_RAW_LEN are sent on as they are serialized.
+   * @return the compressed payload (see write(AutoBuffer, byte, Zipped) to re-send it), or null if written as is
+   */
+  static Zipped write(AutoBuffer ab, byte flag, byte zipFlag, Freezable f, boolean withType) {
+    final int start = ab.put1(flag).holdBack(MAX_RAW_LEN);
+    if( withType ) ab.put(f);
+    else f.write(ab);
+    if( !ab.isHeld() ) return null; // Too big, already (partly) sent as is
+    final Zipped zip = compress(ab._bb.array(), ab._bb.arrayOffset() + start, ab.position() - start);
+    if( zip != null ) write(ab.position(start - 1), zipFlag, zip); // Over the raw bytes
+    ab.release();
+    return zip;
+  }
+
+  /** Write the flag and the compressed payload (raw size first). */
+  static AutoBuffer write(AutoBuffer ab, byte zipFlag, Zipped zip) {
+    return ab.put1(zipFlag).putInt(zip._rawLen).putA1(zip._zip);
+  }
+
+  /**
+   * Compress a serialized payload.
+   * @return compressed payload, or null if the payload is too small or doesn't compress
+   */
+  static Zipped compress(byte[] raw, int off, int rawLen) {
+    if( rawLen < THRESHOLD ) return null;
+    final long ns = System.nanoTime();
+    final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      deflater.setInput(raw, off, rawLen);
+      deflater.finish();
+      byte[] buf = new byte[rawLen]; // No point in keeping anything larger than the raw payload
+      int len = 0;
+      while( !deflater.finished() ) {
+        if( len == buf.length ) return null;
+        len += deflater.deflate(buf, len, buf.length - len);
+      }
+      COMPRESSED_CNT.incrementAndGet();
+      RAW_BYTES.addAndGet(rawLen);
+      WIRE_BYTES.addAndGet(len);
+      return new Zipped(rawLen, Arrays.copyOf(buf, len));
+    } finally {
+      deflater.end();
+      COMPRESS_NS.addAndGet(System.nanoTime() - ns);
+    }
+  }
+
+  /**
+   * Read a compressed payload.
+   * @return AutoBuffer over the decompressed bytes, ready to deserialize the payload from
+   */
+  static AutoBuffer read(AutoBuffer ab) {
+    final int rawLen = ab.getInt();
+    final byte[] compressed = ab.getA1();
+    final long ns = System.nanoTime();
+    final Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(compressed);
+      byte[] raw = MemoryManager.malloc1(rawLen);
+      int len = 0;
+      while( len < rawLen && !inflater.finished() ) {
+        int n = inflater.inflate(raw, len, rawLen - len);
+        if( n == 0 && (inflater.needsInput() || inflater.needsDictionary()) ) break;
+        len += n;
+      }
+      if( len != rawLen )
+        throw new AutoBuffer.AutoBufferException(new IOException("Compressed payload from " + ab._h2o + " is truncated, expected " + rawLen + " bytes, got " + len));
+      DECOMPRESSED_CNT.incrementAndGet();
+      return new AutoBuffer(ab._h2o, raw, 0, rawLen);
+    } catch( DataFormatException e ) {
+      throw new AutoBuffer.AutoBufferException(new IOException("Corrupted compressed payload from " + ab._h2o, e));
+    } finally {
+      inflater.end();
+      DECOMPRESS_NS.addAndGet(System.nanoTime() - ns);
+    }
+  }
+
+  /** Snapshot of the local statistics: compressed payloads count, raw bytes, wire bytes,
+   *  compression time (ms), decompressed payloads count, decompression time (ms). */
+  public static long[] stats() {
+    return new long[]{
+            COMPRESSED_CNT.get(), RAW_BYTES.get(), WIRE_BYTES.get(), COMPRESS_NS.get() / 1000000,
+            DECOMPRESSED_CNT.get(), DECOMPRESS_NS.get() / 1000000
+    };
+  }
+
+}
@@ -3,6 +3,8 @@ package water.api;
 import water.DKV;
 import water.JettyHTTPD;
 import water.fvec.Frame;
+import water.util.FrameUtils;
+import water.util.FrameWriterProvider;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
@@ -30,9 +32,17 @@ public class DatasetServlet extends HttpServlet {
         use_hex = true;
       }
 
+      // csv, or a binary format provided by a module
+      String format = request.getParameter("format");
+      FrameWriterProvider writer = null;
+      if (format != null && !format.equalsIgnoreCase(FrameUtils.CSV_FORMAT)) {
+        writer = FrameUtils.frameWriter(format);
+        if (writer == null)
+          throw new IllegalArgumentException("Unsupported format: " + format);
+        writer.validate(request.getParameter("compression"));
+      }
+
       Frame dataset = DKV.getGet(f_name);
-      // TODO: Find a way to determing the hex_string parameter. It should not always be false
-      InputStream is = dataset.toCSV(true, use_hex);
       response.setContentType("application/octet-stream");
       // Clean up the file name
       int x = f_name.length() - 1;
@@ -41,14 +51,21 @@ public class DatasetServlet extends HttpServlet {
         if (!Character.isLetterOrDigit(f_name.charAt(x)) && f_name.charAt(x) != '_')
           if (f_name.charAt(x) == '.' && !dot) dot = true;
           else break;
-      String suggested_fname = f_name.substring(x + 1).replace(".hex", ".csv");
-      if (!suggested_fname.endsWith(".csv"))
-        suggested_fname = suggested_fname + ".csv";
+      String ext = "." + (writer != null ? writer.format() : FrameUtils.CSV_FORMAT);
+      String suggested_fname = f_name.substring(x + 1).replace(".hex", ext);
+      if (!suggested_fname.endsWith(ext))
+        suggested_fname = suggested_fname + ext;
       f_name = suggested_fname;
       response.addHeader("Content-Disposition", "attachment; filename=" + f_name);
       JettyHTTPD.setResponseStatus(response, HttpServletResponse.SC_OK);
       OutputStream os = response.getOutputStream();
-      water.util.FileUtils.copyStream(is, os, 2048);
+      if (writer != null) {
+        writer.write(dataset, 0, dataset.anyVec().nChunks(), os, request.getParameter("compression"), null);
+      } else {
+        // TODO: Find a way to determing the hex_string parameter. It should not always be false
+        InputStream is = dataset.toCSV(true, use_hex);
+        water.util.FileUtils.copyStream(is, os, 2048);
+      }
     } catch (Exception e) {
       JettyHTTPD.sendErrorResponse(response, e, uri);
     } finally {
@@ -320,6 +320,10 @@ public class RegisterV3Api extends AbstractRegister {
             "GET /3/WaterMeterCpuTicks/{nodeidx}", WaterMeterCpuTicksHandler.class, "fetch",
             "Return a CPU usage snapshot of all cores of all nodes in the H2O cluster.");
 
+    context.registerEndpoint("waterMeterFJ",
+            "GET /3/WaterMeterFJ/{nodeidx}", WaterMeterFJHandler.class, "fetch",
+            "Return a snapshot of the F/J thread pools (queue depth, steals, active and blocked threads per priority) of a node in the H2O cluster.");
+
     context.registerEndpoint("waterMeterIoForNode",
             "GET /3/WaterMeterIo/{nodeidx}", WaterMeterIoHandler.class, "fetch",
             "Return IO usage snapshot of all nodes in the H2O cluster.");
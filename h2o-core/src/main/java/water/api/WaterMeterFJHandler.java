@@ -0,0 +1,13 @@
+package water.api;
+
+import water.api.schemas3.WaterMeterFJV3;
+import water.util.WaterMeterFJ;
+
+public class WaterMeterFJHandler extends Handler {
+  @SuppressWarnings("unused") // called through reflection by RequestServer
+  public WaterMeterFJV3 fetch(int version, WaterMeterFJV3 s) {
+    WaterMeterFJ impl = s.createAndFillImpl();
+    impl.doIt();
+    return s.fillFromImpl(impl);
+  }
+}
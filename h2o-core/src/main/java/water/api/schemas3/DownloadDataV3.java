@@ -13,6 +13,12 @@ public class DownloadDataV3 extends RequestSchemaV3<Iced, DownloadDataV3> {
   @API(help="Emit double values in a machine readable lossless format with Double.toHexString().")
   public boolean hex_string;
 
+  @API(help="Format of the download: csv, or a binary format such as parquet")
+  public String format = "csv";
+
+  @API(help="Compression of a binary format, eg. none, snappy or gzip for parquet")
+  public String compression;
+
   // Output
   @API(help="CSV Stream", direction=API.Direction.OUTPUT)
   public String csv;
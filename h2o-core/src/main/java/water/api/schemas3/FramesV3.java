@@ -37,6 +37,12 @@ public class FramesV3 extends RequestSchemaV3<Frames, FramesV3> {
   @API(help="Number of part files to use (1=single file,-1=automatic)",json=false)
   public int num_parts = 1;
 
+  @API(help="Format of the exported file(s): csv, or a binary format such as parquet",json=false)
+  public String format = "csv";
+
+  @API(help="Compression of the exported binary file(s), eg. none, snappy or gzip for parquet",json=false)
+  public String compression;
+
   @API(help="Job for export file",direction=API.Direction.OUTPUT)
   public JobV3 job;
 
@@ -28,4 +28,7 @@ public class ImportSQLTableV99 extends RequestSchemaV3<Iced,ImportSQLTableV99> {
   @API(help = "optimize")
   public boolean optimize = true;
 
+  @API(help = "numeric or date column to read ranges of in parallel, defaults to the primary key")
+  public String partition_column = "";
+
 }
@@ -12,9 +12,12 @@ public class NetworkBenchV3 extends RequestSchemaV3<NetworkBench, NetworkBenchV3
   @Override
   public NetworkBenchV3 fillFromImpl(NetworkBench impl) {
     if(impl._results != null) {
-      results = new TwoDimTableV3[impl._results.length];
-      for(int i = 0; i < results.length; ++i)
+      int nlat = impl._latency == null ? 0 : impl._latency.length;
+      results = new TwoDimTableV3[impl._results.length + nlat];
+      for(int i = 0; i < impl._results.length; ++i)
         results[i] = (TwoDimTableV3)new TwoDimTableV3().fillFromImpl(impl._results[i].to2dTable());
+      for(int i = 0; i < nlat; ++i) // latency tables follow the bandwidth tables
+        results[impl._results.length + i] = (TwoDimTableV3)new TwoDimTableV3().fillFromImpl(impl._latency[i]);
     }
     return this;
   }
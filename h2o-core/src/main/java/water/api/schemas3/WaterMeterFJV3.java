@@ -0,0 +1,26 @@
+package water.api.schemas3;
+
+import water.api.API;
+import water.util.PojoUtils;
+import water.util.WaterMeterFJ;
+
+public class WaterMeterFJV3 extends RequestSchemaV3<WaterMeterFJ, WaterMeterFJV3> {
+  @API(help="Index of node to query the F/J pools of (0-based)", required = true, direction = API.Direction.INPUT)
+  public int nodeidx;
+
+  @API(help="array of F/J pool statistics, one per priority level with a pool", direction = API.Direction.OUTPUT)
+  public WaterMeterFJ.FJPoolStatsEntry pools[];
+
+  // Version&Schema-specific filling into the implementation object
+  public WaterMeterFJ createImpl() {
+    WaterMeterFJ obj = new WaterMeterFJ();
+    PojoUtils.copyProperties(obj, this, PojoUtils.FieldNaming.CONSISTENT);
+    return obj;
+  }
+
+  // Version&Schema-specific filling from the implementation object
+  public WaterMeterFJV3 fillFromImpl(WaterMeterFJ i) {
+    PojoUtils.copyProperties(this, i, PojoUtils.FieldNaming.CONSISTENT);
+    return this;
+  }
+}
@@ -1430,6 +1430,30 @@ public class Frame extends Lockable<Frame> {
   }
 
   public static Job export(Frame fr, String path, String frameName, boolean overwrite, int nParts) {
+    return export(fr, path, frameName, overwrite, nParts, FrameUtils.CSV_FORMAT, null);
+  }
+
+  /**
+   * Export the frame as CSV, or in a binary format provided by a module (eg. "parquet").
+   * Multi-part exports are written in parallel, each node writing the parts starting in its chunks.
+   * @param compression compression codec of a binary format, null for the default of the format
+   */
+  public static Job export(Frame fr, String path, String frameName, boolean overwrite, int nParts,
+                           String format, String compression) {
+    if (format == null || format.isEmpty()) format = FrameUtils.CSV_FORMAT;
+    if (FrameUtils.CSV_FORMAT.equalsIgnoreCase(format)) {
+      if (compression != null && !compression.isEmpty() && !compression.equalsIgnoreCase("none"))
+        throw new H2OIllegalArgumentException("compression", "exportFrame", "CSV exports are not compressed");
+    } else {
+      FrameWriterProvider writer = FrameUtils.frameWriter(format);
+      if (writer == null)
+        throw new H2OIllegalArgumentException("format", "exportFrame", "Unsupported export format: " + format);
+      try {
+        writer.validate(compression);
+      } catch (IllegalArgumentException e) {
+        throw new H2OIllegalArgumentException("compression", "exportFrame", e.getMessage());
+      }
+    }
     boolean forceSingle = nParts == 1;
     // Validate input
     if (forceSingle) {
@@ -1446,7 +1470,8 @@ public class Frame extends Lockable<Frame> {
       }
     }
     Job job =  new Job<>(fr._key, "water.fvec.Frame", "Export dataset");
-    FrameUtils.ExportTaskDriver t = new FrameUtils.ExportTaskDriver(fr, path, frameName, overwrite, job, nParts);
+    FrameUtils.ExportTaskDriver t = new FrameUtils.ExportTaskDriver(fr, path, frameName, overwrite, job, nParts,
+            format, compression);
     return job.start(t, fr.anyVec().nChunks());
   }
 
@@ -867,6 +867,34 @@ public class NewChunk extends Chunk {
   }
   public void close(Futures fs) { close(_cidx,fs); }
 
+  // Record the length of a completed NewVector in its AppendableVec now, for
+  // a chunk which is only closed after the AppendableVec (e.g. the parse
+  // keeps categorical chunks until their ids are the global ones).
+  public void closeLength() {
+    if(_vec instanceof AppendableVec)
+      ((AppendableVec)_vec).closeChunk(_cidx,_len);
+  }
+
+  /**
+   * Renumber the categorical ids of a chunk not compressed yet, e.g. from the
+   * node-local ids of a parse to the indexes of the levels in the global domain.
+   * @param map new id of every id, negative if none
+   * @return row (in the chunk) of the first id without a new one, or -1
+   */
+  public int mapCategoricals(int[] map) {
+    if( isString() || isUUID() ) return -1;
+    for( int i = 0; i < _sparseLen; i++ ) {
+      if( isNA2(i) ) continue;
+      final long old = _ds != null ? (long)_ds[i] : _ms.get(i);
+      if( old < 0 || old >= map.length || map[(int)old] < 0 )
+        return _id == null ? i : _id[i];
+      if( _ds != null ) _ds[i] = map[(int)old];
+      else _ms.set(i, map[(int)old]);
+    }
+    _naCnt = -1;                // Rollups are stale
+    return -1;
+  }
+
   private void switch_to_doubles(){
     assert _ds == null;
     double [] ds = MemoryManager.malloc8d(_sparseLen);
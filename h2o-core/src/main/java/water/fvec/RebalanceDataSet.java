@@ -81,7 +81,7 @@ public class RebalanceDataSet extends H2O.H2OCountedCompleter {
     final Vec[] srcVecs = _in.vecs();
     _out = new Frame(_okey,_in.names(), new Vec(_vg.addVec(),rowLayout).makeCons(srcVecs.length,0L,_in.domains(),_in.types()));
     _out.delete_and_lock(_jobKey);
-    new RebalanceTask(this,srcVecs).dfork(_out);
+    new RebalanceTask(this,srcVecs).prefetch(srcVecs).dfork(_out);
   }
 
   @Override public void onCompletion(CountedCompleter caller) {
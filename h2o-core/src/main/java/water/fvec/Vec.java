@@ -1505,7 +1505,7 @@ public class Vec extends Keyed<Vec> {
     public Key<Vec> addVec() { return addVecs(1)[0]; }
 
     // -------------------------------------------------
-    static boolean sameGroup(Vec v1, Vec v2) {
+    public static boolean sameGroup(Vec v1, Vec v2) {
       byte[] bits1 = v1._key._kb;
       byte[] bits2 = v2._key._kb;
       if( bits1.length != bits2.length )
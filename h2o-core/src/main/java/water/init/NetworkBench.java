@@ -6,6 +6,7 @@ import water.H2O.H2OCountedCompleter;
 import water.util.Log;
 import water.util.TwoDimTable;
 
+import java.util.Arrays;
 import java.util.Random;
 
 /**
@@ -55,7 +56,27 @@ public class NetworkBench extends Iced {
     }
   }
 
+  public static int PING_CNT = 10000;
+
   public NetworkBenchResults [] _results;
+  public TwoDimTable [] _latency;
+
+  private static TwoDimTable latencyTable(String stat, long [][] nanos) {
+    String [] headers = new String[H2O.CLOUD.size()];
+    String [] colTypes = new String[H2O.CLOUD.size()];
+    String [] colFormats = new String[H2O.CLOUD.size()];
+    for(int i = 0; i < H2O.CLOUD.size(); ++i) {
+      headers[i] = H2O.CLOUD._memary[i].toString();
+      colTypes[i] = "double";
+      colFormats[i] = "%2f";
+    }
+    TwoDimTable td = new TwoDimTable("Network Bench, ping-pong latency (" + stat + "), sz = 1B, cnt = " + PING_CNT,
+        "Round-trip time in microseconds of small messages sent one at a time, from row to column node", headers.clone(), headers, colTypes, colFormats, "");
+    for(int i = 0; i < nanos.length; ++i)
+      for(int j = 0; j < nanos.length; ++j)
+        td.set(i, j, 0.01 * ((int) (nanos[i][j] / 10.0)));
+    return td;
+  }
   public NetworkBench doTest(){
     long t1 = System.currentTimeMillis();
     H2O.submitTask(new H2OCountedCompleter() {
@@ -82,6 +103,13 @@ public class NetworkBench extends Iced {
       System.out.println(r.to2dTable());
       System.out.println();
     }
+    Log.info("Network Bench, running ping-pong latency test, message count = " + PING_CNT);
+    TestLatency lat = new TestLatency(PING_CNT).doAllNodes();
+    _latency = new TwoDimTable[]{latencyTable("median", lat._median), latencyTable("99th percentile", lat._p99)};
+    for(TwoDimTable t:_latency) {
+      System.out.println(t);
+      System.out.println();
+    }
     Log.info("Newtork test done in " + ((System.currentTimeMillis()-t1)*0.001) + "s");
     return this;
   }
@@ -143,6 +171,75 @@ public class NetworkBench extends Iced {
     }
   }
 
+  /**
+   * Round-trip latency of small messages: every node pings every other node msgCnt times, sending the next message only
+   * after the answer to the previous one came back (so there's no batching or queueing, unlike in TestAll2All).
+   */
+  private static class TestLatency extends MRTask<TestLatency> {
+    final int _msgCnt; // in
+    long [][] _median; // out, nanoseconds
+    long [][] _p99;    // out, nanoseconds
+
+    public TestLatency(int msgCnt) { _msgCnt = msgCnt; }
+
+    private class Pinger extends H2OCountedCompleter<Pinger> {
+      final int _node;
+      final long [] _rtts = new long[_msgCnt];
+      int _cnt;
+      long _t0;
+
+      Pinger(H2OCountedCompleter cmp, int node) { super(cmp); _node = node; }
+
+      @Override
+      public void compute2() {
+        ping();
+        tryComplete();
+      }
+
+      private void ping() {
+        addToPendingCount(1);
+        _t0 = System.nanoTime();
+        new RPC<>(H2O.CLOUD._memary[_node], new TestAll2All.SendRandomBytesTsk(1)).addCompleter(new H2O.H2OCallback(this) {
+          @Override
+          public void callback(H2OCountedCompleter h2OCountedCompleter) {
+            _rtts[_cnt++] = System.nanoTime() - _t0;
+            if (_cnt < _rtts.length) ping();
+          }
+        }).call();
+      }
+
+      @Override
+      public void onCompletion(CountedCompleter caller) {
+        Arrays.sort(_rtts);
+        final int myId = H2O.SELF.index();
+        _median[myId][_node] = _rtts[_rtts.length / 2];
+        _p99[myId][_node] = _rtts[(int) (_rtts.length * 0.99)];
+      }
+    }
+
+    @Override
+    public void setupLocal() {
+      _median = new long[H2O.CLOUD.size()][];
+      _p99 = new long[H2O.CLOUD.size()][];
+      final int myId = H2O.SELF.index();
+      _median[myId] = new long[H2O.CLOUD.size()];
+      _p99[myId] = new long[H2O.CLOUD.size()];
+      addToPendingCount(H2O.CLOUD.size()-1);
+      for (int i = 0; i < H2O.CLOUD.size(); ++i)
+        if (i != myId)
+          H2O.submitTask(new Pinger(this, i));
+    }
+
+    @Override public void reduce(TestLatency tst) {
+      for(int i = 0; i < _median.length; ++i)
+        if(_median[i] == null) {
+          _median[i] = tst._median[i];
+          _p99[i] = tst._p99[i];
+        } else
+          assert tst._median[i] == null;
+    }
+  }
+
   private static class TestMRTasks extends DTask<TestMRTasks> {
     final int _msgSz;  // in
     final int _msgCnt; // in
@@ -2,22 +2,34 @@ package water.jdbc;
 
 import water.*;
 import water.fvec.*;
-import water.parser.BufferedString;
 import water.parser.ParseDataset;
 import water.util.Log;
 
-import java.math.BigDecimal;
 import java.sql.*;
+import java.util.Arrays;
 import java.util.concurrent.ArrayBlockingQueue;
 
+import static water.H2O.OptArgs.SYSTEM_PROP_PREFIX;
 import static water.fvec.Vec.makeCon;
 
 public class SQLManager {
   
   final static String TEMP_TABLE_NAME = "table_for_h2o_import";
   //upper bound on number of connections to database
-  final static int MAX_CONNECTIONS = 100;
-  
+  final static int MAX_CONNECTIONS = Integer.getInteger(SYSTEM_PROP_PREFIX + "sql.connections.max", 100);
+  //rows fetched at a time when reading a range of keys
+  final static int FETCH_SIZE = 10000;
+  //times ranges of keys with too many rows are split again
+  final static int MAX_SPLIT_ROUNDS = 3;
+  //ranges of keys counted by a query, one bound parameter each
+  final static int MAX_COUNT_RANGES = 1000;
+
+  public static Job<Frame> importSqlTable(final String connection_url, String table, final String select_query,
+                                          final String username, final String password, final String columns,
+                                          boolean optimize) {
+    return importSqlTable(connection_url, table, select_query, username, password, columns, optimize, null);
+  }
+
   /**
    * @param connection_url (Input) 
    * @param table (Input)
@@ -26,10 +38,13 @@ public class SQLManager {
    * @param password (Input)
    * @param columns (Input)
    * @param optimize (Input)                
+   * @param partition_column (Input) numeric or date column whose ranges of values are read in parallel,
+   *                         the primary key of the table if null or empty. Without one, chunks of rows
+   *                         are read by offset.
    */
   public static Job<Frame> importSqlTable(final String connection_url, String table, final String select_query,
                                           final String username, final String password, final String columns,
-                                          boolean optimize) {
+                                          boolean optimize, String partition_column) {
     
     
     Connection conn = null;
@@ -51,6 +66,8 @@ public class SQLManager {
     long numRow = 0;
     final String[] columnNames;
     final byte[] columnH2OTypes;
+    final int[] columnSqlTypes;
+    KeyRanges keyRanges = null;
     try {
       conn = DriverManager.getConnection(connection_url, username, password);
       stmt = conn.createStatement();
@@ -84,12 +101,13 @@ public class SQLManager {
 
       columnNames = new String[numCol];
       columnH2OTypes = new byte[numCol];
+      columnSqlTypes = new int[numCol];
 
       rs.next();
       for (int i = 0; i < numCol; i++) {
         columnNames[i] = rsmd.getColumnName(i + 1);
         //must iterate through sql types instead of getObject bc object could be null
-        switch (rsmd.getColumnType(i + 1)) {
+        switch (columnSqlTypes[i] = rsmd.getColumnType(i + 1)) {
           case Types.NUMERIC:
           case Types.REAL:
           case Types.DOUBLE:
@@ -130,6 +148,22 @@ public class SQLManager {
             columnH2OTypes[i] = Vec.T_BAD;
         }
       }
+      rs.close();
+
+      //find the range of values of the key column to partition the rows on
+      if (partition_column == null || partition_column.isEmpty())
+        partition_column = primaryKey(conn, table);
+      if (partition_column != null) {
+        rs = stmt.executeQuery("SELECT MIN(" + partition_column + "), MAX(" + partition_column + "), COUNT(" +
+                partition_column + ") FROM " + table);
+        rs.next();
+        keyRanges = KeyRanges.make(rs, partition_column);
+        if (keyRanges != null)
+          keyRanges._nulls = rs.getLong(3) < numRow;
+        else
+          Log.warn("Cannot partition the rows of " + table + " on the values of " + partition_column + 
+                  ", reading them by offset");
+      }
 
     } catch (SQLException ex) {
       throw new RuntimeException("SQLException: " + ex.getMessage() + "\nFailed to connect and read from SQL database with connection_url: " + connection_url);
@@ -164,15 +198,26 @@ public class SQLManager {
             (long)((float)(catcols+intcols)*numRow*4 //4 bytes for categoricals and integers
                     +(float)bincols          *numRow*1*binary_ones_fraction //sparse uses a fraction of one byte (or even less)
                     +(float)(realcols+timecols+stringcols) *numRow*8); //8 bytes for real and time (long) values
-    final Vec _v;
+    Vec v;
     if (optimize) {
-      _v = makeCon(totSize, numRow);
+      v = makeCon(totSize, numRow);
     } else {
       double rows_per_chunk = FileVec.calcOptimalChunkSize(totSize, numCol, numCol * 4,
               Runtime.getRuntime().availableProcessors(), H2O.getCloudSize(), false, false);
-      _v = makeCon(0, numRow, (int) Math.ceil(Math.log1p(rows_per_chunk)), false);
+      v = makeCon(0, numRow, (int) Math.ceil(Math.log1p(rows_per_chunk)), false);
     }
-    Log.info("Number of chunks: " + _v.nChunks());
+    //as many ranges of keys as there would be chunks of rows, then no chunk with much more rows
+    //than the others where the keys are skewed
+    final int nChunks = v.nChunks();
+    final long maxRows = 2 * Math.max(1, (numRow + nChunks - 1) / nChunks);
+    if (keyRanges != null) {
+      v.remove();
+      keyRanges.split(nChunks);
+    } else
+      Log.info("Number of chunks: " + nChunks);
+    final Vec _v = keyRanges != null ? null : v;
+    final KeyRanges finalKeyRanges = keyRanges;
+    final String finalPartitionColumn = partition_column;
     //create frame
     final Key destination_key = Key.make(table + "_sql_to_hex");
     final Job<Frame> j = new Job(destination_key, Frame.class.getName(), "Import SQL Table");
@@ -181,32 +226,327 @@ public class SQLManager {
     H2O.H2OCountedCompleter work = new H2O.H2OCountedCompleter() {
       @Override
       public void compute2() {
+        Vec v = _v;
+        if (finalKeyRanges != null) {
+          balanceKeyRanges(connection_url, username, password, finalTable, finalPartitionColumn, finalKeyRanges, maxRows);
+          v = makeCon(0, finalKeyRanges.nranges(), 0, false);
+          Log.info("Reading " + finalKeyRanges.nranges() + " ranges of values of " + finalPartitionColumn);
+        }
+        //ranges of a single frequent value, or of the null keys, are read into one chunk each and
+        //the frame is rebalanced afterwards: pages of such a range have no deterministic order
+        boolean rebalance = finalKeyRanges != null && !finalKeyRanges.fits(maxRows);
         Frame fr = new SqlTableToH2OFrame(connection_url, finalTable, needFetchClause, username, password, columns, 
-                numCol, _v.nChunks(), j).doAll(columnH2OTypes, _v)
-                .outputFrame(destination_key, columnNames, null);
+                numCol, v.nChunks(), j, columnSqlTypes, finalKeyRanges).doAll(columnH2OTypes, v)
+                .outputFrame(rebalance ? Key.<Frame>make() : destination_key, columnNames, null);
+        v.remove();
+        if (rebalance) {
+          Log.info("Rebalancing the rows read from " + finalTable + " into " + nChunks + " chunks");
+          Frame read = fr;
+          RebalanceDataSet rb = new RebalanceDataSet(read, destination_key, nChunks);
+          H2O.submitTask(rb);
+          fr = rb.getResult();
+          read.delete();
+        }
         DKV.put(fr);
-        _v.remove();
         ParseDataset.logParseResults(fr);
         if (finalTable.equals(SQLManager.TEMP_TABLE_NAME)) 
           dropTempTable(connection_url, username, password);
         tryComplete();
       }
     };
-    j.start(work, _v.nChunks());
+    j.start(work, numRow);
     
     return j;
   }
 
+  /**
+   * @return the column of the single column primary key of the table, null if there is none
+   */
+  private static String primaryKey(Connection conn, String table) {
+    try {
+      DatabaseMetaData md = conn.getMetaData();
+      //databases store unquoted names in upper or lower case
+      for (String name : new String[]{table, table.toUpperCase(), table.toLowerCase()}) {
+        ResultSet rs = md.getPrimaryKeys(null, null, name);
+        try {
+          String column = null;
+          int n = 0;
+          while (rs.next()) {
+            column = rs.getString("COLUMN_NAME");
+            n++;
+          }
+          if (n > 0) return n == 1 ? column : null;
+        } finally {
+          rs.close();
+        }
+      }
+    } catch (SQLException ex) {
+      Log.debug("Cannot get the primary key of " + table + ": " + ex.getMessage());
+    }
+    return null;
+  }
+
+  // Count the rows of the ranges of keys, and split again the ranges with too many rows
+  private static void balanceKeyRanges(String connection_url, String username, String password, String table,
+                                       String partition_column, KeyRanges keyRanges, long maxRows) {
+    Connection conn = null;
+    try {
+      conn = DriverManager.getConnection(connection_url, username, password);
+      keyRanges.balance(conn, table, maxRows);
+    } catch (SQLException ex) {
+      throw new RuntimeException("SQLException: " + ex.getMessage() + "\nFailed to count the rows of the ranges of " +
+              partition_column + " in " + table);
+    } finally {
+      if (conn != null) {
+        try {
+          conn.close();
+        } catch (SQLException sqlEx) {} // ignore
+      }
+    }
+  }
+
+  /**
+   * Ranges of values of a numeric or date column, partitioning the rows of a table.
+   * Each range is read with its own query: the database seeks to the range (given an index
+   * on the column) instead of scanning and discarding the rows before an offset. Rows with a
+   * null key are read as a range of their own, after the others.
+   *
+   * Equal ranges of values do not hold equal numbers of rows when the keys are skewed. Ranges
+   * with too many rows are split again by value. The ones which cannot be split (e.g. a single
+   * frequent value, or the null keys) are read into one chunk each, and the frame is rebalanced:
+   * pages of their rows would need a deterministic order, i.e. a unique column to sort on.
+   */
+  static class KeyRanges extends Iced {
+    final String _column;
+    final int _sqlType;
+    long[] _bounds;    // Integer keys, and dates in ms
+    double[] _dbounds; // Other numeric keys
+    boolean _nulls;    // Some rows have a null key
+    long[] _rows;      // Rows of each range, once counted
+
+    KeyRanges(String column, int sqlType) {
+      _column = column;
+      _sqlType = sqlType;
+    }
+
+    /**
+     * @param rs minimum and maximum of the column
+     * @return the range from minimum to maximum, null if the column has no values or is neither numeric nor a date
+     */
+    static KeyRanges make(ResultSet rs, String column) throws SQLException {
+      KeyRanges kr = new KeyRanges(column, rs.getMetaData().getColumnType(1));
+      switch (kr._sqlType) {
+        case Types.TINYINT:
+        case Types.SMALLINT:
+        case Types.INTEGER:
+        case Types.BIGINT:
+          kr._bounds = new long[]{rs.getLong(1), rs.getLong(2)};
+          break;
+        case Types.NUMERIC:
+        case Types.DECIMAL:
+        case Types.REAL:
+        case Types.FLOAT:
+        case Types.DOUBLE:
+          kr._dbounds = new double[]{rs.getDouble(1), rs.getDouble(2)};
+          break;
+        case Types.DATE:
+          Date dmin = rs.getDate(1), dmax = rs.getDate(2);
+          if (dmin != null) kr._bounds = new long[]{dmin.getTime(), dmax.getTime()};
+          return dmin != null ? kr : null;
+        case Types.TIMESTAMP:
+          Timestamp tmin = rs.getTimestamp(1), tmax = rs.getTimestamp(2);
+          if (tmin != null) kr._bounds = new long[]{tmin.getTime(), tmax.getTime()};
+          return tmin != null ? kr : null;
+        default:
+          return null;
+      }
+      return rs.wasNull() ? null : kr; //no values
+    }
+
+    /** Split the range from minimum to maximum in (at most) n ranges of the same width */
+    void split(int n) {
+      if (_dbounds != null) {
+        double min = _dbounds[0], max = _dbounds[_dbounds.length - 1];
+        double[] bounds = new double[n + 1];
+        int nb = 0;
+        for (int i = 0; i <= n; i++) {
+          double b = i == n ? max : min + (max - min) * i / n;
+          if (nb == 0 || b > bounds[nb - 1]) bounds[nb++] = b;
+        }
+        _dbounds = nb > 1 ? Arrays.copyOf(bounds, nb) : new double[]{min, max};
+      } else {
+        long min = _bounds[0], max = _bounds[_bounds.length - 1];
+        long[] bounds = new long[n + 1];
+        int nb = 0;
+        for (int i = 0; i <= n; i++) {
+          long b = i == n ? max : min + (long) ((max - (double) min) * i / n);
+          if (nb == 0 || b > bounds[nb - 1]) bounds[nb++] = b;
+        }
+        _bounds = nb > 1 ? Arrays.copyOf(bounds, nb) : new long[]{min, max};
+      }
+      _rows = null;
+    }
+
+    /**
+     * Count the rows of each range and split again the ranges with more than maxRows rows.
+     * Each round of counting scans the table once per MAX_COUNT_RANGES ranges.
+     */
+    void balance(Connection conn, String table, long maxRows) throws SQLException {
+      count(conn, table, MAX_COUNT_RANGES);
+      for (int round = 0; round < MAX_SPLIT_ROUNDS && splitLarge(maxRows); round++)
+        count(conn, table, MAX_COUNT_RANGES);
+    }
+
+    /** @return true if no range has more than maxRows rows, once counted */
+    boolean fits(long maxRows) {
+      if (_rows == null) return true;
+      for (long rows : _rows)
+        if (rows > maxRows) return false;
+      return true;
+    }
+
+    // Count the rows of the ranges, grouped by the index of their range, in batches of at most
+    // maxRanges ranges per query: each bound is a parameter of the query, and the databases limit
+    // their number (e.g. 2100 on SQL Server)
+    void count(Connection conn, String table, int maxRanges) throws SQLException {
+      int n = nvalues();
+      _rows = new long[nranges()];
+      for (int lo = 0; lo < n; lo += maxRanges)
+        count(conn, table, lo, Math.min(lo + maxRanges, n));
+    }
+
+    // Count the rows of the ranges lo to hi (excluded), and the null keys with the first batch
+    private void count(Connection conn, String table, int lo, int hi) throws SQLException {
+      int n = nvalues();
+      StringBuilder cases = new StringBuilder();
+      if (lo == 0) cases.append(" WHEN ").append(_column).append(" IS NULL THEN ").append(n);
+      for (int r = lo; r < hi - 1; r++)
+        cases.append(" WHEN ").append(_column).append(" < ? THEN ").append(r);
+      String where = "";
+      if (lo > 0) where = " WHERE " + _column + " >= ?" + (hi < n ? " AND " + _column + " < ?" : "");
+      else if (hi < n) where = " WHERE " + _column + " IS NULL OR " + _column + " < ?";
+      String sql = "SELECT r, COUNT(1) FROM (SELECT " +
+              (cases.length() > 0 ? "CASE" + cases + " ELSE " + (hi - 1) + " END" : String.valueOf(hi - 1)) +
+              " r FROM " + table + where + ") h2o_ranges GROUP BY r";
+      try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        int p = 1;
+        for (int r = lo; r < hi - 1; r++)
+          bind(stmt, p++, r + 1);
+        if (lo > 0) bind(stmt, p++, lo);
+        if (hi < n) bind(stmt, p, hi);
+        try (ResultSet rs = stmt.executeQuery()) {
+          while (rs.next()) {
+            int r = rs.getInt(1);
+            if (r < _rows.length) _rows[r] = rs.getLong(2);
+          }
+        }
+      }
+    }
+
+    // Split the ranges of values with more than maxRows rows in ranges of the same width,
+    // the new ranges are not counted yet
+    // @return false if no range could be split
+    private boolean splitLarge(long maxRows) {
+      int nv = nvalues(), total = 0;
+      int[] k = new int[nv];
+      for (int r = 0; r < nv; r++)
+        total += k[r] = (int) Math.max(1, (_rows[r] + maxRows - 1) / maxRows);
+      double[] dbounds = _dbounds != null ? new double[total + 1] : null;
+      long[] bounds = _bounds != null ? new long[total + 1] : null;
+      long[] rows = new long[total + (_nulls ? 1 : 0)];
+      int nb = 0;
+      for (int r = 0; r < nv; r++) {
+        int nb0 = nb;
+        if (dbounds != null) {
+          double lo = _dbounds[r], hi = _dbounds[r + 1];
+          dbounds[nb++] = lo;
+          for (int i = 1; i < k[r]; i++) {
+            double b = lo + (hi - lo) * i / k[r];
+            if (b > dbounds[nb - 1] && b < hi) dbounds[nb++] = b;
+          }
+        } else {
+          long lo = _bounds[r], hi = _bounds[r + 1];
+          bounds[nb++] = lo;
+          for (int i = 1; i < k[r]; i++) {
+            long b = lo + (long) ((hi - (double) lo) * i / k[r]);
+            if (b > bounds[nb - 1] && b < hi) bounds[nb++] = b;
+          }
+        }
+        if (nb - nb0 > 1) Arrays.fill(rows, nb0, nb, -1);
+        else rows[nb0] = _rows[r];
+      }
+      if (nb == nv) return false; // Single values, or too narrow to split
+      if (dbounds != null) {
+        dbounds[nb] = _dbounds[nv];
+        _dbounds = Arrays.copyOf(dbounds, nb + 1);
+      } else {
+        bounds[nb] = _bounds[nv];
+        _bounds = Arrays.copyOf(bounds, nb + 1);
+      }
+      if (_nulls) rows[nb] = _rows[nv];
+      _rows = Arrays.copyOf(rows, nb + (_nulls ? 1 : 0));
+      return true;
+    }
+
+    /** @return number of ranges of values, without the range of null keys */
+    int nvalues() { return (_dbounds != null ? _dbounds.length : _bounds.length) - 1; }
+
+    /** @return number of ranges, with the range of null keys */
+    int nranges() { return nvalues() + (_nulls ? 1 : 0); }
+
+    /** @return condition on the rows of range r, its values are set by {@link #bind} */
+    String where(int r) {
+      int n = nvalues();
+      if (r == n) return " WHERE " + _column + " IS NULL";
+      if (n == 1) return _nulls ? " WHERE " + _column + " IS NOT NULL" : "";
+      if (r == 0) return " WHERE " + _column + " < ?";
+      if (r == n - 1) return " WHERE " + _column + " >= ?";
+      return " WHERE " + _column + " >= ? AND " + _column + " < ?";
+    }
+
+    /** Set the values of the condition on the rows of range r, see {@link #where} */
+    void bind(PreparedStatement stmt, int r) throws SQLException {
+      int n = nvalues(), p = 1;
+      if (n == 1 || r == n) return;
+      if (r > 0) bind(stmt, p++, r);
+      if (r < n - 1) bind(stmt, p, r + 1);
+    }
+
+    private void bind(PreparedStatement stmt, int p, int b) throws SQLException {
+      switch (_sqlType) {
+        case Types.DATE:
+          stmt.setDate(p, new Date(_bounds[b]));
+          break;
+        case Types.TIMESTAMP:
+          stmt.setTimestamp(p, new Timestamp(_bounds[b]));
+          break;
+        default:
+          if (_dbounds != null) stmt.setDouble(p, _dbounds[b]);
+          else stmt.setLong(p, _bounds[b]);
+      }
+    }
+  }
+
+  /** @return clause selecting len rows from offset */
+  static String page(long offset, long len, boolean needFetchClause) {
+    if (needFetchClause)
+      return " OFFSET " + offset + " ROWS FETCH NEXT " + len + " ROWS ONLY";
+    else
+      return " LIMIT " + len + " OFFSET " + offset;
+  }
+
   private static class SqlTableToH2OFrame extends MRTask<SqlTableToH2OFrame> {
     final String _url, _table, _user, _password, _columns;
     final int _numCol, _nChunks;
     final boolean _needFetchClause;
     final Job _job;
+    final int[] _sqlTypes;
+    final KeyRanges _keyRanges;
 
     transient ArrayBlockingQueue<Connection> sqlConn;
 
     public SqlTableToH2OFrame(String url, String table, boolean needFetchClause, String user, String password, 
-                              String columns, int numCol, int nChunks, Job job) {
+                              String columns, int numCol, int nChunks, Job job, int[] sqlTypes, KeyRanges keyRanges) {
       _url = url;
       _table = table;
       _needFetchClause = needFetchClause;
@@ -216,13 +556,15 @@ public class SQLManager {
       _numCol = numCol;
       _nChunks = nChunks;
       _job = job;
+      _sqlTypes = sqlTypes;
+      _keyRanges = keyRanges;
 
     }
 
     @Override
     protected void setupLocal() {
       int conPerNode = (int) Math.min(Math.ceil((double) _nChunks / H2O.getCloudSize()), Runtime.getRuntime().availableProcessors());
-      conPerNode = Math.min(conPerNode, SQLManager.MAX_CONNECTIONS / H2O.getCloudSize()); 
+      conPerNode = Math.max(1, Math.min(conPerNode, SQLManager.MAX_CONNECTIONS / H2O.getCloudSize()));
       Log.info("Database connections per node: " + conPerNode);
       sqlConn = new ArrayBlockingQueue<>(conPerNode);
       try {
@@ -238,69 +580,26 @@ public class SQLManager {
     @Override
     public void map(Chunk[] cs, NewChunk[] ncs) {
       if (isCancelled() || _job != null && _job.stop_requested()) return;
-      //fetch data from sql table with limit and offset
+      //fetch data from sql table, a range of keys or a page of rows
       Connection conn = null;
-      Statement stmt = null;
+      PreparedStatement stmt = null;
       ResultSet rs = null;
       Chunk c0 = cs[0];
       String sqlText = "SELECT " + _columns + " FROM " + _table;
-      if (_needFetchClause)
-        sqlText += " OFFSET " + c0.start() + " ROWS FETCH NEXT " + c0._len + " ROWS ONLY";
+      if (_keyRanges != null)
+        sqlText += _keyRanges.where(c0.cidx());
       else
-        sqlText += " LIMIT " + c0._len + " OFFSET " + c0.start();
+        sqlText += page(c0.start(), c0._len, _needFetchClause);
       try {
         conn = sqlConn.take();
-        stmt = conn.createStatement();
+        stmt = conn.prepareStatement(sqlText);
+        if (_keyRanges != null) _keyRanges.bind(stmt, c0.cidx());
         //set fetch size for best performance
-        stmt.setFetchSize(c0._len);
-        rs = stmt.executeQuery(sqlText);
+        stmt.setFetchSize(_keyRanges != null ? FETCH_SIZE : c0._len);
+        rs = stmt.executeQuery();
         while (rs.next()) {
-          for (int i = 0; i < _numCol; i++) {
-            Object res = rs.getObject(i + 1);
-            if (res == null) ncs[i].addNA();
-            else {
-              switch (res.getClass().getSimpleName()) {
-                case "Double":
-                  ncs[i].addNum((double) res);
-                  break;
-                case "Integer":
-                  ncs[i].addNum((long) (int) res, 0);
-                  break;
-                case "Long":
-                  ncs[i].addNum((long) res, 0);
-                  break;
-                case "Float":
-                  ncs[i].addNum((double) (float) res);
-                  break;
-                case "Short":
-                  ncs[i].addNum((long) (short) res, 0);
-                  break;
-                case "Byte":
-                  ncs[i].addNum((long) (byte) res, 0);
-                  break;
-                case "BigDecimal":
-                  ncs[i].addNum(((BigDecimal) res).doubleValue());
-                  break;
-                case "Boolean":
-                  ncs[i].addNum(((boolean) res ? 1 : 0), 0);
-                  break;
-                case "String":
-                  ncs[i].addStr(new BufferedString((String) res));
-                  break;
-                case "Date":
-                  ncs[i].addNum(((Date) res).getTime(), 0);
-                  break;
-                case "Time":
-                  ncs[i].addNum(((Time) res).getTime(), 0);
-                  break;
-                case "Timestamp":
-                  ncs[i].addNum(((Timestamp) res).getTime(), 0);
-                  break;
-                default:
-                  ncs[i].addNA();
-              }
-            }
-          }
+          for (int i = 0; i < _numCol; i++)
+            addValue(rs, i, ncs[i]);
         }
       } catch (SQLException ex) {
         throw new RuntimeException("SQLException: " + ex.getMessage() + "\nFailed to read SQL data");
@@ -331,7 +630,70 @@ public class SQLManager {
         sqlConn.add(conn);
 
       }
-      if (_job != null) _job.update(1);
+      if (_job != null) _job.update(ncs[0]._len); // Rows read
+    }
+
+    // Decode column i of the current row straight into the chunk, by its sql type
+    private void addValue(ResultSet rs, int i, NewChunk nc) throws SQLException {
+      switch (_sqlTypes[i]) {
+        case Types.NUMERIC:
+        case Types.REAL:
+        case Types.DOUBLE:
+        case Types.FLOAT:
+        case Types.DECIMAL: {
+          double d = rs.getDouble(i + 1);
+          if (rs.wasNull()) nc.addNA();
+          else nc.addNum(d);
+          break;
+        }
+        case Types.INTEGER:
+        case Types.TINYINT:
+        case Types.SMALLINT:
+        case Types.BIGINT: {
+          long l = rs.getLong(i + 1);
+          if (rs.wasNull()) nc.addNA();
+          else nc.addNum(l, 0);
+          break;
+        }
+        case Types.BIT:
+        case Types.BOOLEAN: {
+          boolean b = rs.getBoolean(i + 1);
+          if (rs.wasNull()) nc.addNA();
+          else nc.addNum(b ? 1 : 0, 0);
+          break;
+        }
+        case Types.VARCHAR:
+        case Types.NVARCHAR:
+        case Types.CHAR:
+        case Types.NCHAR:
+        case Types.LONGVARCHAR:
+        case Types.LONGNVARCHAR: {
+          String str = rs.getString(i + 1);
+          if (str == null) nc.addNA();
+          else nc.addStr(str);
+          break;
+        }
+        case Types.DATE: {
+          Date d = rs.getDate(i + 1);
+          if (d == null) nc.addNA();
+          else nc.addNum(d.getTime(), 0);
+          break;
+        }
+        case Types.TIME: {
+          Time t = rs.getTime(i + 1);
+          if (t == null) nc.addNA();
+          else nc.addNum(t.getTime(), 0);
+          break;
+        }
+        case Types.TIMESTAMP: {
+          Timestamp t = rs.getTimestamp(i + 1);
+          if (t == null) nc.addNA();
+          else nc.addNum(t.getTime(), 0);
+          break;
+        }
+        default:
+          nc.addNA();
+      }
     }
 
     @Override
@@ -0,0 +1,193 @@
+package water.parser;
+
+import water.DKV;
+import water.Futures;
+import water.Key;
+import water.MRTask;
+import water.Value;
+import water.fvec.ByteVec;
+import water.fvec.C1NChunk;
+import water.fvec.Chunk;
+import water.fvec.Vec;
+import water.util.ArrayUtils;
+import water.util.Log;
+
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static water.parser.ZipUtil.*;
+
+/**
+ * Decompress a BGZF file (see {@link ZipUtil#isBgzf}) into a ByteVec of plain
+ * bytes, in parallel on the nodes holding the compressed chunks.
+ *
+ * Every compressed chunk is mapped on its home node: the BGZF blocks starting
+ * in the chunk (the last one usually ends in the next chunk) are inflated into
+ * the chunk of the same index of the result, so the decompressed chunks are
+ * homed where their compressed chunks are.  The first block of a chunk is
+ * found by scanning for a block header followed by another block header (or
+ * by the end of the file).
+ *
+ * A stray match of the header in compressed data, or a file which is not BGZF
+ * after all, shows up as blocks which do not follow each other from one chunk
+ * to the next, or as blocks failing to inflate; {@link #decompress} returns
+ * null then and the caller parses the file as a stream.
+ */
+final class BgzfDecompressTask extends MRTask<BgzfDecompressTask> {
+  private final Key _outKey;
+  private final int _nchunks;
+  // Per compressed chunk; these arrays are shared by the maps on a node
+  private long[] _sizes;        // Decompressed bytes
+  private long[] _starts;       // Offset of the first block starting in the chunk, or end of the chunk if none
+  private long[] _ends;         // End of the last block starting in the chunk, 0 if none
+  private boolean _malformed;   // Some block failed to inflate, or a chunk inflates to more than 2GB
+
+  private BgzfDecompressTask(Key outKey, int nchunks) { _outKey = outKey; _nchunks = nchunks; }
+
+  /**
+   * @return the decompressed bytes, chunked like the compressed file, or null
+   * if the file cannot be split on BGZF blocks
+   */
+  static ByteVec decompress(ByteVec vec) {
+    final Key<Vec> key = Vec.newKey();
+    final int nchunks = vec.nChunks();
+    BgzfDecompressTask t = new BgzfDecompressTask(key, nchunks).doAll(vec);
+    final int n = t.outputChunks(vec.length());
+    Futures fs = new Futures();
+    if( n == -1 ) {
+      for( int cidx = 0; cidx < nchunks; cidx++ )
+        DKV.remove(Vec.chunkKey(key, cidx), fs);
+      fs.blockForPending();
+      Log.info("File " + vec._key + " is not split on BGZF blocks, parsing it as a gzip stream");
+      return null;
+    }
+    for( int cidx = n; cidx < nchunks; cidx++ ) // Empty trailing chunks (e.g. EOF block)
+      DKV.remove(Vec.chunkKey(key, cidx), fs);
+    long[] espc = new long[n + 1];
+    for( int cidx = 0; cidx < n; cidx++ )
+      espc[cidx + 1] = espc[cidx] + t._sizes[cidx];
+    ByteVec res = new ByteVec(key, Vec.ESPC.rowLayout(key, espc));
+    DKV.put(key, res, fs);
+    fs.blockForPending();
+    return res;
+  }
+
+  // Number of chunks of the result, or -1 if the blocks found do not cover
+  // the whole file one after the other, or a chunk in the middle is empty
+  private int outputChunks(long length) {
+    if( _malformed ) return -1;
+    long pos = 0;
+    int n = 0;
+    for( int cidx = 0; cidx < _sizes.length; cidx++ ) {
+      if( _ends[cidx] == 0 ) {  // No block starts here, the previous one spans the chunk
+        if( pos < _starts[cidx] ) return -1;
+      } else {
+        if( _starts[cidx] != pos ) return -1;
+        pos = _ends[cidx];
+      }
+      if( _sizes[cidx] > 0 ) {
+        if( n < cidx ) return -1;
+        n = cidx + 1;
+      }
+    }
+    return pos == length ? n : -1;
+  }
+
+  @Override public void setupLocal() {
+    _sizes = new long[_nchunks];
+    _starts = new long[_nchunks];
+    _ends = new long[_nchunks];
+  }
+
+  @Override public void map(Chunk in) {
+    final int cidx = in.cidx();
+    final byte[] mem = in.getBytes();
+    // This chunk and enough of the following ones to hold the end of the last
+    // block starting here and the header of the block after it
+    byte[] buf = mem;
+    int end = mem.length;
+    final int more = BGZF_MAX_BLOCK + BGZF_HEADER_LEN;
+    final Vec vec = in.vec();
+    for( int c = cidx + 1; c < vec.nChunks() && end < mem.length + more; c++ ) {
+      byte[] next = vec.chunkForChunkIdx(c).getBytes();
+      int len = Math.min(next.length, mem.length + more - end);
+      if( buf == mem ) buf = Arrays.copyOf(mem, mem.length + more);
+      System.arraycopy(next, 0, buf, end, len);
+      end += len;
+    }
+    final boolean eof = in.start() + end == vec.length();
+
+    // First block of this chunk
+    int first = 0;
+    if( cidx > 0 ) {
+      while( first < mem.length && !isBlock(buf, first, end, eof) ) first++;
+      if( first == mem.length ) { // A block from a previous chunk spans this one
+        _starts[cidx] = in.start() + mem.length;
+        return;
+      }
+    }
+    // Blocks starting in this chunk, and their decompressed size
+    int pos = first;
+    long size = 0;
+    while( pos < mem.length ) {
+      int bsize = bgzfBlockSize(buf, pos, end);
+      if( bsize < BGZF_HEADER_LEN + BGZF_TRAILER_LEN || pos + bsize > end ) { _malformed = true; return; }
+      int isize = get4LE(buf, pos + bsize - 4);
+      if( isize < 0 || isize > BGZF_MAX_BLOCK ) { _malformed = true; return; }
+      size += isize;
+      pos += bsize;
+    }
+    _starts[cidx] = in.start() + first;
+    _ends[cidx] = in.start() + pos;
+    if( size == 0 ) return;
+    if( size > Integer.MAX_VALUE - 8 ) { _malformed = true; return; }
+    // Inflate them
+    final byte[] out = new byte[(int)size];
+    Inflater inflater = new Inflater(true);
+    CRC32 crc = new CRC32();
+    try {
+      int off = 0;
+      for( pos = first; pos < mem.length; ) {
+        final int bsize = bgzfBlockSize(buf, pos, end);
+        final int isize = get4LE(buf, pos + bsize - 4);
+        if( isize > 0 ) {
+          inflater.reset();
+          inflater.setInput(buf, pos + BGZF_HEADER_LEN, bsize - BGZF_HEADER_LEN - BGZF_TRAILER_LEN);
+          if( inflater.inflate(out, off, isize) != isize || !inflater.finished() ) { _malformed = true; return; }
+          crc.reset();
+          crc.update(out, off, isize);
+          if( (int)crc.getValue() != get4LE(buf, pos + bsize - 8) ) { _malformed = true; return; }
+        }
+        off += isize;
+        pos += bsize;
+      }
+    } catch( DataFormatException dfe ) {
+      _malformed = true;
+      return;
+    } finally {
+      inflater.end();
+    }
+    _sizes[cidx] = size;
+    Key ck = Vec.chunkKey(_outKey, cidx); // Same chunk index, same home node
+    DKV.put(ck, new Value(ck, new C1NChunk(out)), _fs);
+  }
+
+  // A block header at pos, followed by the header of the next block or by the
+  // end of the file
+  private static boolean isBlock(byte[] buf, int pos, int end, boolean eof) {
+    int bsize = bgzfBlockSize(buf, pos, end);
+    if( bsize < BGZF_HEADER_LEN + BGZF_TRAILER_LEN ) return false;
+    return (eof && pos + bsize == end) || bgzfBlockSize(buf, pos + bsize, end) > 0;
+  }
+
+  @Override public void reduce(BgzfDecompressTask t) {
+    if( _sizes != t._sizes ) {
+      ArrayUtils.add(_sizes, t._sizes);
+      ArrayUtils.add(_starts, t._starts);
+      ArrayUtils.add(_ends, t._ends);
+    }
+    _malformed |= t._malformed;
+  }
+}
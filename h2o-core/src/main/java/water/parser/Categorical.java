@@ -1,22 +1,36 @@
 package water.parser;
 
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 import water.Iced;
-import water.util.IcedHashMap;
+import water.MemoryManager;
+import water.fvec.NewChunk;
 import water.util.Log;
 import water.util.PrettyPrint;
+import water.util.StringUtils;
+
+import static water.util.ArrayUtils.encodeAsInt;
 
 /** Class for tracking categorical (factor) columns.
  *
- *  Basically a wrapper around non blocking hash map.
+ *  A string dictionary: the bytes of all the levels are kept back to back in
+ *  one arena, with their hashes, and an open addressing table of level ids.
+ *  Levels get ids 1, 2, ... in order of first appearance.
  *  In the first pass, we just collect set of unique strings per column
  *  (if there are less than MAX_CATEGORICAL_COUNT unique elements).
- *  
- *  After pass1, the keys are sorted and indexed alphabetically.
- *  In the second pass, map is used only for lookup and never updated.
- *  
+ *
+ *  After pass1, the levels are sorted and the local ids mapped to the indexes
+ *  of the levels in the global domain.  The parsed chunks wait here, not
+ *  compressed yet, until then: they are renumbered once and compressed with
+ *  the global ids, instead of being rewritten after the parse.
+ *
  *  Categorical objects are shared among threads on the local nodes!
+ *  Lookups are lock-free; new levels are added under the lock, and a full
+ *  dictionary is replaced by a bigger copy rather than grown in place, so
+ *  readers always see a consistent one.
  *
  * @author tomasnykodym
  *
@@ -24,93 +38,268 @@ import water.util.PrettyPrint;
 public final class Categorical extends Iced {
 
   public static final int MAX_CATEGORICAL_COUNT = 10000000;
-  transient AtomicInteger _id = new AtomicInteger();
-  int _maxId = -1;
-  volatile IcedHashMap<BufferedString, Integer> _map;
+  private static final int MAX_ARENA = Integer.MAX_VALUE - 8;
+  private transient volatile Dict _dict = new Dict(16, 8, 128);
+  private transient volatile int _size;  // Number of levels, also the largest id
+  private transient int _used;           // Bytes used in the arena
+  private transient int[] _sortedIds;
   boolean maxDomainExceeded = false;
+  // Parsed chunks numbered with the local ids, see hold()
+  private transient final Queue<NewChunk> _chunks;
+
+  Categorical() { this(false); }
 
-  Categorical() { _map = new IcedHashMap<>(); }
+  /** @param holdChunks keep the parsed chunks until the ids are global, see hold() */
+  Categorical(boolean holdChunks) { _chunks = holdChunks ? new ConcurrentLinkedQueue<NewChunk>() : null; }
+
+  /**
+   * Keep a parsed chunk of this column, not compressed yet, until the local
+   * ids are mapped to the global ones (see heldChunk()).
+   * @return false if the chunk is not kept, and should be closed as is
+   */
+  boolean hold(NewChunk nc) {
+    if( _chunks == null ) return false;
+    nc.closeLength();           // The Vec is closed before the chunk
+    _chunks.add(nc);
+    return true;
+  }
+
+  /** @return a chunk kept by hold(), no longer kept, or null if none is left */
+  NewChunk heldChunk() { return _chunks == null ? null : _chunks.poll(); }
 
   /** Add key to this map (treated as hash set in this case). */
   int addKey(BufferedString str) {
-    // _map is shared and be cast to null (if categorical is killed) -> grab local copy
-    IcedHashMap<BufferedString, Integer> m = _map;
-    if( m == null ) return Integer.MAX_VALUE;     // Nuked already
-    Integer res = m.get(str);
-    if( res != null ) return res; // Recorded already
-    assert str.length() < 65535; // Length limit so 65535 can be used as a sentinel
-    int newVal = _id.incrementAndGet();
-    res = m.putIfAbsent(new BufferedString(str), newVal);
-    if( res != null ) return res;
-    if( m.size() > MAX_CATEGORICAL_COUNT) maxDomainExceeded = true;
-    return newVal;
+    final int hash = hash(str);
+    final int id = _dict.find(str, hash);
+    return id != 0 ? id : insert(str, hash);
+  }
+
+  private synchronized int insert(BufferedString str, int hash) {
+    int id = _dict.find(str, hash);
+    if( id != 0 ) return id;    // Added by another thread meanwhile
+    final int len = str.length();
+    assert len < 65535; // Length limit so 65535 can be used as a sentinel
+    id = _size + 1;
+    final Dict d = reserve(id, len);
+    System.arraycopy(str.getBuffer(), str.getOffset(), d._arena, _used, len);
+    d._starts[id] = _used;
+    d._ends[id] = _used += len;
+    d._hashes[id] = hash;
+    d.publish(id);
+    _size = id;
+    _sortedIds = null;
+    if( id > MAX_CATEGORICAL_COUNT ) maxDomainExceeded = true;
+    return id;
+  }
+
+  // Dictionary with room for level id, and len more bytes
+  private Dict reserve(int id, int len) {
+    final Dict d = _dict;
+    if( id < d._starts.length && _used + len <= d._arena.length && 2 * id <= d._mask ) return d;
+    if( (long) _used + len > MAX_ARENA )
+      throw new ParseDataset.H2OParseException("Categorical levels of a column exceed " + PrettyPrint.bytes(MAX_ARENA) +
+          ".  Consider reparsing this column as a string.");
+    int nslots = d._mask + 1;
+    while( 2 * id > nslots - 1 ) nslots <<= 1;
+    int nids = d._starts.length;
+    while( id >= nids ) nids <<= 1;
+    long nbytes = d._arena.length;
+    while( _used + len > nbytes ) nbytes <<= 1;
+    return _dict = d.copy(nslots, nids, (int) Math.min(nbytes, MAX_ARENA), _size, _used);
   }
-  final boolean containsKey(BufferedString key){ return _map.containsKey(key); }
+
+  final boolean containsKey(BufferedString key){ return getTokenId(key) != -1; }
   @Override public String toString() {
-    return "{"+_map+" }";
+    final Dict d = _dict;
+    final StringBuilder sb = new StringBuilder("{");
+    final BufferedString bs = new BufferedString();
+    for( int id = 1; id <= _size; id++ )
+      sb.append(id > 1 ? ", " : "").append(level(d, id, bs)).append('=').append(id);
+    return sb.append(" }").toString();
+  }
+
+  /** @return id of the level, or -1 if not in the map */
+  int getTokenId( BufferedString str ) {
+    final int id = _dict.find(str, hash(str));
+    return id == 0 ? -1 : id;
   }
 
-  int getTokenId( BufferedString str ) { return _map.get(str); }
-  
-  int maxId() { return _maxId == -1 ? _id.get() : _maxId; }
-  int size() { return _map.size(); }
+  int maxId() { return _size; }
+  int size() { return _size; }
   boolean isMapFull() { return maxDomainExceeded; }
 
-  BufferedString[] getColumnDomain() {
-    return  _map.keySet().toArray(new BufferedString[_map.size()]);
+  /** Point bs at the bytes of level id */
+  BufferedString level(int id, BufferedString bs) { return level(_dict, id, bs); }
+
+  private static BufferedString level(Dict d, int id, BufferedString bs) {
+    return bs.set(d._arena, d._starts[id], d._ends[id] - d._starts[id]);
+  }
+
+  /** @return ids of the levels, in the (unsigned byte) order of the levels */
+  synchronized int[] sortedIds() {
+    if( _sortedIds == null ) {
+      final int[] ids = new int[_size];
+      for( int i = 0; i < ids.length; i++ ) ids[i] = i + 1;
+      sort(_dict, ids, new int[ids.length], 0, ids.length);
+      _sortedIds = ids;
+    }
+    return _sortedIds;
+  }
+
+  // Merge sort of ids[lo,hi) by level
+  private static void sort(Dict d, int[] ids, int[] tmp, int lo, int hi) {
+    if( hi - lo < 16 ) {
+      for( int i = lo + 1; i < hi; i++ )
+        for( int j = i; j > lo && d.compare(ids[j - 1], ids[j]) > 0; j-- ) {
+          int t = ids[j]; ids[j] = ids[j - 1]; ids[j - 1] = t;
+        }
+      return;
+    }
+    final int mid = (lo + hi) >>> 1;
+    sort(d, ids, tmp, lo, mid);
+    sort(d, ids, tmp, mid, hi);
+    if( d.compare(ids[mid - 1], ids[mid]) <= 0 ) return;
+    System.arraycopy(ids, lo, tmp, lo, hi - lo);
+    for( int i = lo, j = mid, k = lo; k < hi; k++ )
+      ids[k] = j == hi || (i < mid && d.compare(tmp[i], tmp[j]) <= 0) ? tmp[i++] : tmp[j++];
+  }
+
+  /**
+   * Map the local ids to the indexes of the levels in the global domain, by
+   * a merge of the sorted local levels with the sorted domain.
+   * @param packedDomain global domain, as packed by {@link PackedDomains}
+   * @return map from local id to global index, -1 for levels not in the domain
+   */
+  int[] toGlobalIds(byte[] packedDomain) {
+    final int[] ids = sortedIds();
+    final Dict d = _dict;
+    final int[] map = MemoryManager.malloc4(_size + 1);
+    Arrays.fill(map, -1);
+    final int n = PackedDomains.sizeOf(packedDomain);
+    int g = 0, pos = 4;
+    for( int id : ids ) {
+      while( g < n ) {
+        final int len = encodeAsInt(packedDomain, pos);
+        final int c = compare(packedDomain, pos + 4, pos + 4 + len, d._arena, d._starts[id], d._ends[id]);
+        if( c >= 0 ) {
+          if( c == 0 ) map[id] = g; // Equal levels (after UTF-8 conversion) share the index
+          break;
+        }
+        pos += 4 + len;
+        g++;
+      }
+    }
+    return map;
   }
 
   /**
    * Converts domain values represented as BufferedStrings to UTF-8 encoding {@see BufferedString.toString()}.
    * If the source value is not actually in UTF-8, the characters will be represented in hexadecimal notation.
+   * Must not run concurrently with lookups, levels are updated in place.
    * @param col user-facing index of the column to which the categoricals belong (only for logging/debugging)
    */
-  void convertToUTF8(int col) {
+  synchronized void convertToUTF8(int col) {
     int hexConvLeft = 10;
-    BufferedString[] bStrs = _map.keySet().toArray(new BufferedString[_map.size()]);
     StringBuilder hexSB = new StringBuilder();
-    for (int i = 0; i < bStrs.length; i++) {
-      String s = bStrs[i].toString(); // converts to String using UTF-8 encoding
-      if (bStrs[i].equalsAsciiString(s))
+    BufferedString bs = new BufferedString();
+    boolean changed = false;
+    for (int id = 1; id <= _size; id++) {
+      String s = level(_dict, id, bs).toString(); // converts to String using UTF-8 encoding
+      if (bs.equalsAsciiString(s))
         continue; // quick check for the typical case without new object allocation & map modification
-      if (s.contains("\uFFFD")) { // converted string contains Unicode replacement character => sanitize the (whole) string
-        s = bStrs[i].toSanitizedString();
-        if (hexConvLeft-- > 0) hexSB.append(s).append(", ");
-        if (hexConvLeft == 0) hexSB.append("...");
-      }
-      int val = _map.get(bStrs[i]);
-      _map.remove(bStrs[i]);
-      bStrs[i] = new BufferedString(s);
-      _map.put(bStrs[i], val);
+      if (!s.contains("\uFFFD"))
+        continue; // valid UTF-8, encodes back to the same bytes
+      // converted string contains Unicode replacement character => sanitize the (whole) string
+      s = bs.toSanitizedString();
+      if (hexConvLeft-- > 0) hexSB.append(s).append(", ");
+      if (hexConvLeft == 0) hexSB.append("...");
+      byte[] bytes = StringUtils.bytesOf(s);
+      Dict d = reserve(_size, bytes.length);
+      System.arraycopy(bytes, 0, d._arena, _used, bytes.length);
+      d._starts[id] = _used;
+      d._ends[id] = _used += bytes.length;
+      d._hashes[id] = hash(level(d, id, bs));
+      changed = true;
+    }
+    if (changed) { // Hashes changed, rebuild the table
+      final Dict d = _dict;
+      _dict = d.copy(d._mask + 1, d._starts.length, d._arena.length, _size, _used);
+      _sortedIds = null;
     }
     if (hexSB.length() > 0) Log.info("Found categoricals with non-UTF-8 characters or NULL character in the " +
         PrettyPrint.withOrdinalIndicator(col) + " column. Converting unrecognized characters into hex:  " + hexSB.toString());
   }
 
-  // Since this is a *concurrent* hashtable, writing it whilst its being
-  // updated is tricky.  If the table is NOT being updated, then all is written
-  // as expected.  If the table IS being updated we only promise to write the
-  // Keys that existed at the time the table write began.  If elements are
-  // being deleted, they may be written anyways.  If the Values are changing, a
-  // random Value is written.
-//  public AutoBuffer write_impl( AutoBuffer ab ) {
-//    if( _map == null ) return ab.put1(1); // Killed map marker
-//    ab.put1(0);                           // Not killed
-//    ab.put4(maxId());
-//    for( BufferedString key : _map.keySet() )
-//      ab.put2((char)key.length()).putA1(key.getBuffer(),key.length()).put4(_map.get(key));
-//    return ab.put2((char)65535); // End of map marker
-//  }
-//
-//  public Categorical read_impl( AutoBuffer ab ) {
-//    assert _map == null || _map.size()==0;
-//    _map = null;
-//    if( ab.get1() == 1 ) return this; // Killed?
-//    _maxId = ab.get4();
-//    _map = new NonBlockingHashMap<>();
-//    int len;
-//    while( (len = ab.get2()) != 65535 ) // Read until end-of-map marker
-//      _map.put(new BufferedString(ab.getA1(len)),ab.get4());
-//    return this;
-//  }
+  private static int hash(BufferedString str) {
+    final byte[] buf = str.getBuffer();
+    int h = 0;
+    for( int i = str.getOffset(), end = i + str.length(); i < end; i++ )
+      h = 31 * h + buf[i];
+    return h;
+  }
+
+  // Unsigned byte order of a[as,ae) and b[bs,be), shorter first on a tie
+  static int compare(byte[] a, int as, int ae, byte[] b, int bs, int be) {
+    final int len = Math.min(ae - as, be - bs);
+    for( int i = 0; i < len; i++ ) {
+      final int x = (0xFF & a[as + i]) - (0xFF & b[bs + i]);
+      if( x != 0 ) return x;
+    }
+    return (ae - as) - (be - bs);
+  }
+
+  // The levels and the hash table of their ids (0 marks an empty slot).  Only
+  // levels past those of the table are written after it is published, and a
+  // level's slot is set only once its bytes and hash are in.
+  private static final class Dict {
+    final AtomicIntegerArray _slots;
+    final int _mask;
+    final byte[] _arena;
+    final int[] _starts, _ends, _hashes; // By id
+
+    Dict(int nslots, int nids, int nbytes) {
+      _slots = new AtomicIntegerArray(nslots);
+      _mask = nslots - 1;
+      _arena = MemoryManager.malloc1(nbytes);
+      _starts = MemoryManager.malloc4(nids);
+      _ends = MemoryManager.malloc4(nids);
+      _hashes = MemoryManager.malloc4(nids);
+    }
+
+    private static int spread(int h) {
+      h *= 0x9E3779B9;
+      return h ^ (h >>> 16);
+    }
+
+    /** @return id of the level, 0 if not found */
+    int find(BufferedString str, int hash) {
+      final byte[] buf = str.getBuffer();
+      final int off = str.getOffset(), len = str.length();
+      for( int s = spread(hash) & _mask; ; s = (s + 1) & _mask ) {
+        final int id = _slots.get(s);
+        if( id == 0 ) return 0;
+        if( _hashes[id] == hash && Categorical.compare(_arena, _starts[id], _ends[id], buf, off, off + len) == 0 ) return id;
+      }
+    }
+
+    void publish(int id) {
+      int s = spread(_hashes[id]) & _mask;
+      while( _slots.get(s) != 0 ) s = (s + 1) & _mask;
+      _slots.lazySet(s, id);
+    }
+
+    int compare(int id1, int id2) {
+      return Categorical.compare(_arena, _starts[id1], _ends[id1], _arena, _starts[id2], _ends[id2]);
+    }
+
+    Dict copy(int nslots, int nids, int nbytes, int size, int used) {
+      final Dict d = new Dict(nslots, nids, nbytes);
+      System.arraycopy(_arena, 0, d._arena, 0, used);
+      System.arraycopy(_starts, 0, d._starts, 0, size + 1);
+      System.arraycopy(_ends, 0, d._ends, 0, size + 1);
+      System.arraycopy(_hashes, 0, d._hashes, 0, size + 1);
+      for( int id = 1; id <= size; id++ ) d.publish(id);
+      return d;
+    }
+  }
 }
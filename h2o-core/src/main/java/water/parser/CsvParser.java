@@ -21,8 +21,26 @@ class CsvParser extends Parser {
   CsvParser( ParseSetup ps, Key jobKey ) { super(ps, jobKey); }
 
   // Parse this one Chunk (in parallel with other Chunks)
+  @Override public ParseWriter parseChunk(final int cidx, final ParseReader din, final ParseWriter dout) {
+    if( IndexedCsvTokenizer.ENABLED && cidx > 0 && dout instanceof FVecParseWriter &&
+        din.getChunkDataStart(cidx) < 0 && IndexedCsvTokenizer.supports(_setup) ) {
+      byte[] bits = din.getChunkData(cidx);
+      if( bits == null ) return dout;
+      final int offset = IndexedCsvTokenizer.parse(_setup, bits, (FVecParseWriter) dout);
+      if( offset >= 0 ) // Continue from there, byte at a time
+        return parseChunkBytes(cidx, new ParseReader() {
+          @Override public byte[] getChunkData(int cidx) { return din.getChunkData(cidx); }
+          @Override public int getChunkDataStart(int i) { return i == cidx ? offset : din.getChunkDataStart(i); }
+          @Override public void setChunkDataStart(int cidx, int offset) { din.setChunkDataStart(cidx, offset); }
+          @Override public long getGlobalByteOffset() { return din.getGlobalByteOffset(); }
+        }, dout);
+    }
+    return parseChunkBytes(cidx, din, dout);
+  }
+
+  // Parse a Chunk byte at a time
   @SuppressWarnings("fallthrough")
-  @Override public ParseWriter parseChunk(int cidx, final ParseReader din, final ParseWriter dout) {
+  private ParseWriter parseChunkBytes(int cidx, final ParseReader din, final ParseWriter dout) {
     BufferedString str = new BufferedString();
     byte[] bits = din.getChunkData(cidx);
     if( bits == null ) return dout;
@@ -68,7 +68,9 @@ public class FVecParseWriter extends Iced implements StreamParseWriter {
   @Override public FVecParseWriter close(Futures fs){
     if( _nvs == null ) return this; // Might call close twice
     for(int i=0; i < _nvs.length; i++) {
-      _nvs[i].close(_cidx, fs);
+      // Categorical chunks are compressed once their ids are the global ones
+      if( _categoricals == null || _vecs[i].get_type() != Vec.T_CAT || !_categoricals[i].hold(_nvs[i]) )
+        _nvs[i].close(_cidx, fs);
       _nvs[i] = null; // free immediately, don't wait for all columns to close
     }
     _nvs = null;  // Free for GC
@@ -86,6 +88,11 @@ public class FVecParseWriter extends Iced implements StreamParseWriter {
     }
     _col = -1;
   }
+  // Count lines which were added column by column, all columns filled
+  public void addLines(int nlines) {
+    _nLines += nlines;
+    _col = -1;
+  }
   @Override public void addNumCol(int colIdx, long number, int exp) {
     if( colIdx < _nCols ) {
       _nvs[_col = colIdx].addNum(number, exp);
@@ -120,7 +127,7 @@ public class FVecParseWriter extends Iced implements StreamParseWriter {
         if( l == Long.MIN_VALUE ) addInvalidCol(colIdx);
         else {
           addNumCol(colIdx, l, 0);               // Record time in msec
-          _nvs[_col]._timCnt++; // Count histo of time parse patterns
+          _nvs[colIdx]._timCnt++; // Count histo of time parse patterns
         }
       } else if( _ctypes[colIdx] == Vec.T_UUID ) { // UUID column?  Only allow UUID parses
         UUID uuid = ParseUUID.attemptUUIDParse(str);
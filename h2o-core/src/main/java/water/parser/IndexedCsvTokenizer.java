@@ -0,0 +1,259 @@
+package water.parser;
+
+import water.util.UnsafeUtils;
+
+import java.nio.ByteOrder;
+
+import static water.H2O.OptArgs.SYSTEM_PROP_PREFIX;
+
+/**
+ * Two-phase tokenizer for the plain lines of a CSV chunk, used by
+ * {@link CsvParser} when enabled with sys.ai.h2o.parse.csv.indexed=true.
+ *
+ * The first phase builds a structural index of the chunk: a bitmap of the
+ * positions of separators, line ends and quotes, computed 8 bytes at a time
+ * on longs.  The second phase walks the set bits to cut lines into fields and
+ * converts the fields a block of lines at a time, column by column, into the
+ * {@link FVecParseWriter}.
+ *
+ * Only lines without quotes, with CR only just before LF, and with at most
+ * as many fields as there are columns are tokenized this way.  Numbers are
+ * converted exactly like the byte-at-a-time parser does it; tokens on which it
+ * has special cases (currency, numbers overflowing a long, lone signs, ...)
+ * end the fast path too.  The byte-at-a-time parser takes over at the first
+ * such line, and always parses the last line of the chunk (which ends in the
+ * next chunk).  The first chunk of a file (comments, header) is left to it.
+ */
+final class IndexedCsvTokenizer {
+  static boolean ENABLED = Boolean.getBoolean(SYSTEM_PROP_PREFIX + "parse.csv.indexed");
+
+  private static final boolean LITTLE_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
+  private static final long ONES = 0x0101010101010101L;
+  private static final long LOW7 = 0x7F7F7F7F7F7F7F7FL;
+  private static final long GATHER = 0x0102040810204080L;
+  private static final int BLOCK_FIELDS = 1 << 16; // Fields converted per block of lines
+
+  // Kinds of fields
+  private static final byte NA = 0, NUM = 1, STR = 2, BAD = 3;
+
+  private IndexedCsvTokenizer() {}
+
+  /** @return true if the tokenizer can handle files of the given setup */
+  static boolean supports(ParseSetup setup) {
+    final byte sep = setup._separator;
+    return setup._parse_type.equals(DefaultParserProviders.CSV_INFO) && setup._number_columns > 0 &&
+           sep != Parser.CHAR_SPACE && sep != Parser.CHAR_LF && sep != Parser.CHAR_CR &&
+           sep != Parser.CHAR_DOUBLE_QUOTE && sep != Parser.CHAR_SINGLE_QUOTE;
+  }
+
+  /**
+   * Bitmap of the separators, line ends and quotes: bit i of word w is set if
+   * bits[64*w+i] is one of them.
+   */
+  static long[] structuralIndex(byte[] bits, byte sep, boolean singleQuotes) {
+    final int len = bits.length;
+    final long[] idx = new long[(len + 63) >> 6];
+    final long pSep = ONES * (sep & 0xFF), pLF = ONES * Parser.CHAR_LF, pCR = ONES * Parser.CHAR_CR;
+    final long pDQ = ONES * Parser.CHAR_DOUBLE_QUOTE, pSQ = ONES * Parser.CHAR_SINGLE_QUOTE;
+    int i = 0;
+    for( ; i + 8 <= len; i += 8 ) {
+      long w = UnsafeUtils.get8(bits, i);
+      if( !LITTLE_ENDIAN ) w = Long.reverseBytes(w);
+      long t = zeroBytes(w ^ pSep) | zeroBytes(w ^ pLF) | zeroBytes(w ^ pCR) | zeroBytes(w ^ pDQ);
+      if( singleQuotes ) t |= zeroBytes(w ^ pSQ);
+      if( t != 0 ) idx[i >> 6] |= (((t >>> 7) * GATHER) >>> 56) << (i & 63);
+    }
+    for( ; i < len; i++ ) {
+      final byte b = bits[i];
+      if( b == sep || b == Parser.CHAR_LF || b == Parser.CHAR_CR || b == Parser.CHAR_DOUBLE_QUOTE ||
+          (singleQuotes && b == Parser.CHAR_SINGLE_QUOTE) )
+        idx[i >> 6] |= 1L << (i & 63);
+    }
+    return idx;
+  }
+
+  // High bit set in every zero byte of w, and only there
+  private static long zeroBytes(long w) {
+    return ~(((w & LOW7) + LOW7) | w | LOW7);
+  }
+
+  // Position of the first set bit at or after from, or len if none
+  private static int next(long[] idx, int from, int len) {
+    int w = from >> 6;
+    if( w >= idx.length ) return len;
+    long m = idx[w] & (-1L << (from & 63));
+    while( m == 0 ) {
+      if( ++w == idx.length ) return len;
+      m = idx[w];
+    }
+    return (w << 6) + Long.numberOfTrailingZeros(m);
+  }
+
+  /**
+   * Parse the lines of a chunk other than the first one of the file, but the
+   * first (partial) line and the last one.
+   * @return offset of the line the byte-at-a-time parser has to continue
+   * with, or -1 if it has to parse the whole chunk
+   */
+  static int parse(ParseSetup setup, byte[] bits, FVecParseWriter dout) {
+    final int len = bits.length;
+    final byte sep = setup._separator;
+    final int ncols = setup._number_columns;
+    final long[] idx = structuralIndex(bits, sep, setup._single_quotes);
+    // Skip the partial first line, like the byte-at-a-time parser
+    int pos = 0;
+    while( true ) {
+      pos = next(idx, pos, len);
+      if( pos == len ) return -1;
+      final byte b = bits[pos];
+      if( b == Parser.CHAR_LF ) { pos++; break; }
+      if( b == Parser.CHAR_CR ) {
+        if( pos + 1 < len && bits[pos + 1] == Parser.CHAR_LF ) { pos += 2; break; }
+        return -1;
+      }
+      pos++;
+    }
+
+    final int block = Math.max(2, Math.min(4096, BLOCK_FIELDS / ncols));
+    final int[] lineStarts = new int[block];
+    final int[] starts = new int[block * ncols];  // First byte of each field, past leading blanks
+    final int[] ends = new int[block * ncols];
+    final byte[] kinds = new byte[block * ncols];
+    final long[] nums = new long[block * ncols];
+    final int[] exps = new int[block * ncols];
+    final long[] num = new long[1];
+    final int[] exp = new int[1];
+    while( true ) {
+      // Cut a block of lines into fields
+      int nlines = 0;
+      boolean done = false;     // Reached a line to leave to the byte-at-a-time parser
+      while( nlines < block ) {
+        final int lineStart = pos;
+        final int base = nlines * ncols;
+        int field = 0, fieldStart = pos, lineEnd = -1;
+        boolean bad = false;
+        while( lineEnd == -1 ) {
+          final int s = next(idx, pos, len);
+          if( s == len ) { bad = true; break; } // The last line, ends in the next chunk
+          final byte b = bits[s];
+          if( b == sep ) {
+            pos = s + 1;
+          } else if( b == Parser.CHAR_LF ) {
+            lineEnd = pos = s + 1;
+          } else if( b == Parser.CHAR_CR && s + 1 < len && bits[s + 1] == Parser.CHAR_LF ) {
+            lineEnd = pos = s + 2;
+          } else { bad = true; break; } // Quote, or CR alone
+          if( lineEnd != -1 && field == 0 && s == fieldStart ) break; // Empty line
+          if( field == ncols ) { bad = true; break; } // More fields than columns
+          final int k = base + field++;
+          kinds[k] = classify(bits, fieldStart, s, sep, num, exp, starts, k);
+          ends[k] = s;
+          nums[k] = num[0];
+          exps[k] = exp[0];
+          if( kinds[k] == BAD ) { bad = true; break; }
+          fieldStart = pos;
+        }
+        if( bad ) {
+          pos = lineStart;
+          done = true;
+          break;
+        }
+        if( field == 0 ) continue; // Empty lines make no row
+        for( ; field < ncols; field++ ) kinds[base + field] = NA;
+        lineStarts[nlines++] = lineStart;
+      }
+      // The byte-at-a-time parser takes over at the first token of a line:
+      // at the end of the chunk, or before a line starting with a CR (an
+      // empty line, or an old Mac line end), it takes the previous line too.
+      // The last line of a block is held back for that, and cut again with
+      // the next block.
+      if( !done || pos == len || bits[pos] == Parser.CHAR_CR ) {
+        if( nlines == 0 ) return -1; // Nothing converted yet
+        pos = lineStarts[--nlines];
+      }
+      if( nlines > 0 ) emit(setup, bits, dout, ncols, nlines, kinds, starts, ends, nums, exps);
+      if( done ) return pos;
+    }
+  }
+
+  // Convert the fields column by column; a row is complete once all the
+  // columns are done
+  private static void emit(ParseSetup setup, byte[] bits, FVecParseWriter dout, int ncols, int nlines,
+                           byte[] kinds, int[] starts, int[] ends, long[] nums, int[] exps) {
+    final BufferedString str = new BufferedString();
+    for( int col = 0; col < ncols; col++ ) {
+      for( int line = 0, k = col; line < nlines; line++, k += ncols ) {
+        final byte kind = kinds[k];
+        if( kind == NA ) {
+          dout.addInvalidCol(col);
+        } else if( kind == NUM && !dout.isString(col) ) {
+          dout.addNumCol(col, nums[k], exps[k]);
+        } else {
+          final int start = starts[k], end = ends[k];
+          str.set(bits, start, end - start);
+          if( setup.isNA(col, str) ) {
+            dout.addInvalidCol(col);
+          } else {
+            dout.addStrCol(col, str);
+            for( int i = start; i < end; i++ )
+              if( bits[i] < 0 ) { dout.setIsAllASCII(col, false); break; }
+          }
+        }
+      }
+    }
+    dout.addLines(nlines);
+  }
+
+  // Kind of the field bits[from,to), with the number (mantissa, exponent) the
+  // byte-at-a-time parser would make of it.  BAD if it would handle it in a
+  // special way.
+  private static byte classify(byte[] bits, int from, int to, byte sep, long[] num, int[] exp, int[] starts, int k) {
+    int i = from;
+    while( i < to && (bits[i] == Parser.CHAR_SPACE || (bits[i] == Parser.CHAR_TAB && sep != Parser.CHAR_TAB)) ) i++;
+    starts[k] = i;
+    if( i == to ) return NA;
+    byte c = bits[i];
+    if( c == '$' ) return BAD;
+    if( !isDigit(c) && c != '-' && c != '+' && c != '.' ) return STR;
+    // Mantissa
+    final boolean neg = c == '-';
+    if( c == '-' || c == '+' ) i++;
+    long number = 0;
+    int digits = 0, fraction = 0;
+    for( ; i < to && isDigit(c = bits[i]); i++, digits++ ) {
+      if( number >= Parser.LARGEST_DIGIT_NUMBER ) return BAD;
+      number = number * 10 + (c - '0');
+    }
+    if( i < to && bits[i] == '.' ) {
+      for( i++; i < to && isDigit(c = bits[i]); i++, digits++, fraction++ ) {
+        if( number >= Parser.LARGEST_DIGIT_NUMBER ) return BAD;
+        number = number * 10 + (c - '0');
+      }
+    }
+    if( digits == 0 ) return BAD;
+    // Exponent
+    int e = 0;
+    if( i < to && (bits[i] == 'e' || bits[i] == 'E') ) {
+      int sgn = 1;
+      for( i++; i < to && (bits[i] == '-' || bits[i] == '+'); i++ )
+        if( bits[i] == '-' ) sgn = -sgn;
+      if( i == to || !isDigit(bits[i]) ) return STR;
+      for( int edigits = 0; i < to && isDigit(c = bits[i]); i++ ) {
+        if( ++edigits > 9 ) return BAD;
+        e = e * 10 + (c - '0');
+      }
+      e *= sgn;
+    }
+    // Percent signs and blanks may follow, anything else makes it a string
+    for( ; i < to; i++ ) {
+      c = bits[i];
+      if( c == '%' ) e -= 2;
+      else if( c != Parser.CHAR_SPACE && c != Parser.CHAR_TAB ) return STR;
+    }
+    num[0] = neg ? -number : number;
+    exp[0] = e - fraction;
+    return NUM;
+  }
+
+  private static boolean isDigit(byte c) { return c >= '0' && c <= '9'; }
+}
@@ -41,6 +41,31 @@ public class PackedDomains {
     return data;
   }
 
+  /** Pack the levels of a categorical, sorted, each distinct level once */
+  static byte[] pack(Categorical cat) {
+    final int[] ids = cat.sortedIds();
+    final BufferedString bs = new BufferedString(), prev = new BufferedString();
+    int n = 0, len = 0;
+    for (int i = 0; i < ids.length; i++) {
+      cat.level(ids[i], bs);
+      if (i > 0 && bs.equals(cat.level(ids[i - 1], prev))) continue;
+      n++;
+      len += bs.length();
+    }
+    byte[] data = MemoryManager.malloc1(len + (n + 1) * 4);
+    decodeAsInt(n, data, 0);
+    int pos = 4;
+    for (int i = 0; i < ids.length; i++) {
+      cat.level(ids[i], bs);
+      if (i > 0 && bs.equals(cat.level(ids[i - 1], prev))) continue;
+      decodeAsInt(bs.length(), data, pos);
+      pos += 4;
+      System.arraycopy(bs.getBuffer(), bs.getOffset(), data, pos, bs.length());
+      pos += bs.length();
+    }
+    return data;
+  }
+
   static int calcMergedSize(byte[] as, byte[] bs) {
     int shared = 0;
     int pA = 4;
@@ -6,7 +6,6 @@ import jsr166y.RecursiveAction;
 import water.*;
 import water.H2O.H2OCountedCompleter;
 import water.exceptions.H2OIllegalArgumentException;
-import water.exceptions.H2OIllegalValueException;
 import water.fvec.*;
 import water.fvec.Vec.VectorGroup;
 import water.nbhm.NonBlockingHashMap;
@@ -21,6 +20,7 @@ import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
+import static water.H2O.OptArgs.SYSTEM_PROP_PREFIX;
 import static water.parser.DefaultParserProviders.*;
 
 public final class ParseDataset {
@@ -223,10 +223,6 @@ public final class ParseDataset {
     }
   }
 
-  private static class CategoricalUpdateMap extends Iced {
-    final int [][] map;
-    public CategoricalUpdateMap(int[][] map){this.map = map;}
-  }
   // --------------------------------------------------------------------------
   // Top-level parser driver
   private static ParseDataset parseAllKeys(ParseDataset pds, Key[] fkeys, ParseSetup setup, boolean deleteOnDone) {
@@ -242,7 +238,7 @@ public final class ParseDataset {
     job.update(0, "Ingesting files.");
     VectorGroup vg = getByteVec(fkeys[0]).group();
     MultiFileParseTask mfpt = pds._mfpt = new MultiFileParseTask(vg,setup,job._key,fkeys,deleteOnDone);
-    mfpt.doAll(fkeys);
+    mfpt.doAll(mfpt.groupKeys());
     Log.trace("Done ingesting files.");
     if( job.stop_requested() ) return pds;
 
@@ -260,10 +256,12 @@ public final class ParseDataset {
     final int[] ecols = Arrays.copyOf(ecols2, n);
     // If we have any, go gather unified categorical domains
     if( n > 0 ) {
+      byte[][] packedDomains = null;
       if (!setup.getParseType().isDomainProvided) { // Domains are not provided via setup we need to collect them
         job.update(0, "Collecting categorical domains across nodes.");
         {
           GatherCategoricalDomainsTask gcdt = new GatherCategoricalDomainsTask(mfpt._cKey, ecols).doAllNodes();
+          packedDomains = gcdt._packedDomains;
           //Test domains for excessive length.
           List<String> offendingColNames = new ArrayList<>();
           for (int i = 0; i < ecols.length; i++) {
@@ -289,24 +287,19 @@ public final class ParseDataset {
       fr.update(job);
       Log.trace("Done compressing data.");
       if (!setup.getParseType().isDomainProvided) {
-        // Update categoricals to the globally agreed numbering
-        Vec[] evecs = new Vec[ecols.length];
-        for( int i = 0; i < evecs.length; ++i ) evecs[i] = fr.vecs()[ecols[i]];
+        // Compress the categorical chunks, held by the parsing nodes, in the globally agreed numbering
         job.update(0, "Unifying categorical domains across nodes.");
         {
-          // new CreateParse2GlobalCategoricalMaps(mfpt._cKey).doAll(evecs);
           // Using Dtask since it starts and returns faster than an MRTask
           CreateParse2GlobalCategoricalMaps[] fcdt = new CreateParse2GlobalCategoricalMaps[H2O.CLOUD.size()];
           RPC[] rpcs = new RPC[H2O.CLOUD.size()];
           for (int i = 0; i < fcdt.length; i++){
             H2ONode[] nodes = H2O.CLOUD.members();
-            fcdt[i] = new CreateParse2GlobalCategoricalMaps(mfpt._cKey, fr._key, ecols);
+            fcdt[i] = new CreateParse2GlobalCategoricalMaps(mfpt._cKey, ecols, packedDomains);
             rpcs[i] = new RPC<>(nodes[i], fcdt[i]).call();
           }
           for (RPC rpc : rpcs)
             rpc.get();
-
-          new UpdateCategoricalChunksTask(mfpt._cKey, mfpt._chunk2ParseNodeMap).doAll(evecs);
           MultiFileParseTask._categoricals.remove(mfpt._cKey);
         }
         Log.trace("Done unifying categoricals across nodes.");
@@ -329,16 +322,20 @@ public final class ParseDataset {
     ParseWriter.ParseErr [] errs = ArrayUtils.append(setup.errs(),mfpt._errors);
     if(errs.length > 0) {
       // compute global line numbers for warnings/errs
-      HashMap<String, Integer> fileChunkOffsets = new HashMap<>();
-      for (int i = 0; i < mfpt._fileChunkOffsets.length; ++i)
-        fileChunkOffsets.put(fkeys[i].toString(), mfpt._fileChunkOffsets[i]);
+      HashMap<String, Integer> files = new HashMap<>(); // Errors name files by key or by path
+      for (int i = 0; i < fkeys.length; ++i) {
+        files.put(fkeys[i].toString(), i);
+        files.put(FileVec.getPathForKey(fkeys[i]), i);
+      }
       long[] espc = fr.anyVec().espc();
       for (int i = 0; i < errs.length; ++i) {
-        if(fileChunkOffsets.containsKey(errs[i]._file)) {
-          int espcOff = fileChunkOffsets.get(errs[i]._file);
-          errs[i]._gLineNum = espc[espcOff + errs[i]._cidx] + errs[i]._lineNum;
-          errs[i]._lineNum = errs[i]._gLineNum - espc[espcOff];
-        }
+        Integer file = files.get(errs[i]._file);
+        if (file == null || errs[i]._cidx < 0 || errs[i]._lineNum < 0) continue;
+        int espcOff = mfpt.fileChunkOffset(file);
+        if (espcOff + errs[i]._cidx >= espc.length) continue;
+        errs[i]._gLineNum = espc[espcOff + errs[i]._cidx] + errs[i]._lineNum;
+        // Small files packed together follow each other in the chunk of their group
+        errs[i]._lineNum = errs[i]._gLineNum - espc[espcOff] - mfpt._fileLineOffsets[file];
       }
       SortedSet<ParseWriter.ParseErr> s = new TreeSet<>(new Comparator<ParseWriter.ParseErr>() {
         @Override
@@ -373,99 +370,50 @@ public final class ParseDataset {
   }
   private static class CreateParse2GlobalCategoricalMaps extends DTask<CreateParse2GlobalCategoricalMaps> {
     private final Key   _parseCatMapsKey;
-    private final Key   _frKey;
     private final int[] _ecol;
+    private final byte[][] _packedDomains; // Global domains, sorted
 
-    private CreateParse2GlobalCategoricalMaps(Key parseCatMapsKey, Key key, int[] ecol) {
+    private CreateParse2GlobalCategoricalMaps(Key parseCatMapsKey, int[] ecol, byte[][] packedDomains) {
       _parseCatMapsKey = parseCatMapsKey;
-      _frKey = key;
       _ecol = ecol;
+      _packedDomains = packedDomains;
     }
 
     @Override public void compute2() {
-      Frame _fr = DKV.getGet(_frKey);
       // get the node local category->ordinal maps for each column from initial parse pass
       if( !MultiFileParseTask._categoricals.containsKey(_parseCatMapsKey) ) {
         tryComplete();
         return;
       }
         final Categorical[] parseCatMaps = MultiFileParseTask._categoricals.get(_parseCatMapsKey);
-        int[][] _nodeOrdMaps = new int[_ecol.length][];
-
-        // create old_ordinal->new_ordinal map for each cat column
+        Futures fs = new Futures();
         for (int eColIdx = 0; eColIdx < _ecol.length; eColIdx++) {
           int colIdx = _ecol[eColIdx];
+          // create old_ordinal->new_ordinal map for the cat column
+          int[] map = null;
           if (parseCatMaps[colIdx].size() != 0) {
-            _nodeOrdMaps[eColIdx] = MemoryManager.malloc4(parseCatMaps[colIdx].maxId() + 1);
-            Arrays.fill(_nodeOrdMaps[eColIdx], -1);
-            //Bulk String->BufferedString conversion is slightly faster, but consumes memory
-            final BufferedString[] unifiedDomain = BufferedString.toBufferedString(_fr.vec(colIdx).domain());
-            //final String[] unifiedDomain = _fr.vec(colIdx).domain();
-            for (int i = 0; i < unifiedDomain.length; i++) {
-              //final BufferedString cat = new BufferedString(unifiedDomain[i]);
-              if (parseCatMaps[colIdx].containsKey(unifiedDomain[i])) {
-                _nodeOrdMaps[eColIdx][parseCatMaps[colIdx].getTokenId(unifiedDomain[i])] = i;
-              }
-            }
+            // Both the local levels and the global domain are sorted: one merge
+            map = parseCatMaps[colIdx].toGlobalIds(_packedDomains[eColIdx]);
           } else {
             Log.debug("Column " + colIdx + " was marked as categorical but categorical map is empty!");
           }
-        }
-        // Store the local->global ordinal maps in DKV by node parse categorical key and node index
-        DKV.put(Key.make(_parseCatMapsKey.toString() + "parseCatMapNode" + H2O.SELF.index()), new CategoricalUpdateMap(_nodeOrdMaps));
-      tryComplete();
-    }
-  }
-
-  // --------------------------------------------------------------------------
-  /** Task to update categorical (categorical) values to match the global numbering scheme.
-   *  Performs update in place so that values originally numbered using
-   *  node-local unordered numbering will be numbered using global numbering.
-   *  @author tomasnykodym
-   */
-  private static class UpdateCategoricalChunksTask extends MRTask<UpdateCategoricalChunksTask> {
-    private final Key _parseCatMapsKey;
-    private final int  [] _chunk2ParseNodeMap;
-
-    private UpdateCategoricalChunksTask(Key parseCatMapsKey, int[] chunk2ParseNodeMap) {
-      _parseCatMapsKey = parseCatMapsKey;
-      _chunk2ParseNodeMap = chunk2ParseNodeMap;
-    }
-
-    @Override public void map(Chunk [] chks){
-      CategoricalUpdateMap temp = DKV.getGet(Key.make(_parseCatMapsKey.toString() + "parseCatMapNode" + _chunk2ParseNodeMap[chks[0].cidx()]));
-      if ( temp == null || temp.map == null)
-        throw new H2OIllegalValueException("Missing categorical update map",this);
-      int[][] _parse2GlobalCatMaps = temp.map;
-
-      //update the chunk with the new map
-      final int cidx = chks[0].cidx();
-      for(int i = 0; i < chks.length; ++i) {
-        Chunk chk = chks[i];
-        if (!(chk instanceof CStrChunk)) {
-          for( int j = 0; j < chk._len; ++j){
-            if( chk.isNA(j) )continue;
-            final int old = (int) chk.at8(j);
-            if (old < 0 || (_parse2GlobalCatMaps[i] != null && old >= _parse2GlobalCatMaps[i].length))
-              chk.reportBrokenCategorical(i, j, old, _parse2GlobalCatMaps[i], _fr.vec(i).domain().length);
-            if(_parse2GlobalCatMaps[i] != null && _parse2GlobalCatMaps[i][old] < 0)
+          // Renumber the chunks parsed by this node, then compress and store them
+          for (NewChunk nc; (nc = parseCatMaps[colIdx].heldChunk()) != null; ) {
+            int row = map == null ? -1 : nc.mapCategoricals(map);
+            if (row >= 0)
               throw new H2OParseException("Error in unifying categorical values. This is typically "
                   +"caused by unrecognized characters in the data.\n The problem categorical value "
-                  +"occurred in the " + PrettyPrint.withOrdinalIndicator(i+1)+ " categorical col, "
-                  +PrettyPrint.withOrdinalIndicator(chk.start() + j) +" row.");
-            if (_parse2GlobalCatMaps[i] != null)
-              chk.set(j, _parse2GlobalCatMaps[i][old]);
+                  +"occurred in the " + PrettyPrint.withOrdinalIndicator(colIdx+1)+ " col, "
+                  +PrettyPrint.withOrdinalIndicator(row+1) +" row of chunk " + nc.cidx() + ".");
+            nc.close(fs);
           }
-          Log.trace("Updated domains for "+PrettyPrint.withOrdinalIndicator(i+1)+ " categorical column.");
+          Log.trace("Updated domains for "+PrettyPrint.withOrdinalIndicator(colIdx+1)+ " column.");
         }
-        chk.close(cidx, _fs);
-      }
-    }
-    @Override public void postGlobal() {
-      for (int i=0; i < H2O.CLOUD.size(); i++)
-        DKV.remove(Key.make(_parseCatMapsKey.toString() + "parseCatMapNode" + i));
+        fs.blockForPending();
+      tryComplete();
     }
   }
+
   private static class GatherCategoricalDomainsTask extends MRTask<GatherCategoricalDomainsTask> {
     private final Key _k;
     private final int[] _catColIdxs;
@@ -480,14 +428,11 @@ public final class ParseDataset {
     public void setupLocal() {
       if (!MultiFileParseTask._categoricals.containsKey(_k)) return;
       _packedDomains = new byte[_catColIdxs.length][];
-      final BufferedString[][] _perColDomains = new BufferedString[_catColIdxs.length][];
       final Categorical[] _colCats = MultiFileParseTask._categoricals.get(_k);
       int i = 0;
       for (int col : _catColIdxs) {
         _colCats[col].convertToUTF8(col + 1);
-        _perColDomains[i] = _colCats[col].getColumnDomain();
-        Arrays.sort(_perColDomains[i]);
-        _packedDomains[i] = PackedDomains.pack(_perColDomains[i]);
+        _packedDomains[i] = PackedDomains.pack(_colCats[col]);
         i++;
       }
       Log.trace("Done locally collecting domains on each node.");
@@ -569,6 +514,10 @@ public final class ParseDataset {
   // We want to do a standard MRTask with a collection of file-keys (so the
   // files are parsed in parallel across the cluster), but we want to throttle
   // the parallelism on each node.
+  /** Pack small files into target sized chunks when parsing several files */
+  static boolean COALESCE_SMALL_FILES = Boolean.parseBoolean(
+      System.getProperty(SYSTEM_PROP_PREFIX + "parse.coalesce.small.files", "true"));
+
   private static class MultiFileParseTask extends MRTask<MultiFileParseTask> {
 
     private final ParseSetup _parseSetup; // The expected column layout
@@ -586,8 +535,14 @@ public final class ParseDataset {
     private int[] _chunk2ParseNodeMap;
     // Job Key, to unlock & remove raw parsed data; to report progress
     private final Key<Job> _jobKey;
-    // A mapping of Key+ByteVec to rolling total Chunk counts.
+    // A mapping of group of files to rolling total Chunk counts.
     private final int[]  _fileChunkOffsets;
+    // Lines before each file in the chunk of its group, 0 for files not packed with others
+    private long[] _fileLineOffsets;
+    // Files parsed by one map call: group g is _fkeys[_groups[g]] to
+    // _fkeys[_groups[g+1]-1].  Runs of small files are parsed into one chunk.
+    private final Key[] _fkeys;
+    private final int[] _groups;
 
     // OUTPUT fields:
     FVecParseWriter[] _dout;
@@ -600,12 +555,15 @@ public final class ParseDataset {
       _vecIdStart = _vg.reserveKeys(_reservedKeys = _parseSetup._parse_type.equals(SVMLight_INFO) ? 100000000 : setup._number_columns);
       _deleteOnDone = deleteOnDone;
       _jobKey = jobKey;
-      // A mapping of Key+ByteVec to rolling total Chunk counts.
-      _fileChunkOffsets = new int[fkeys.length];
+      _fkeys = fkeys;
+      _groups = groupSmallFiles(fkeys, setup);
+      // A mapping of group of files to rolling total Chunk counts.
+      _fileChunkOffsets = new int[_groups.length - 1];
+      _fileLineOffsets = MemoryManager.malloc8(fkeys.length);
       int len = 0;
-      for( int i = 0; i < fkeys.length; ++i ) {
-        _fileChunkOffsets[i] = len;
-        len += getByteVec(fkeys[i]).nChunks();
+      for( int g = 0; g < _fileChunkOffsets.length; ++g ) {
+        _fileChunkOffsets[g] = len;
+        len += _groups[g + 1] - _groups[g] > 1 ? 1 : getByteVec(fkeys[_groups[g]]).nChunks();
       }
 
       // Mapping from Chunk# to cluster-node-number
@@ -613,6 +571,61 @@ public final class ParseDataset {
       Arrays.fill(_chunk2ParseNodeMap, -1);
     }
 
+    /**
+     * Pack runs of single-chunk files into groups of at most one (target
+     * sized) chunk of bytes, each parsed into one chunk.  Otherwise every
+     * small file makes at least one tiny chunk of the parsed frame.
+     * Compressed files count for their estimated decompressed size.
+     * @return start of each group in fkeys, and the end of the last one
+     */
+    private static int[] groupSmallFiles(Key[] fkeys, ParseSetup setup) {
+      final int[] groups = new int[fkeys.length + 1];
+      final boolean coalesce = COALESCE_SMALL_FILES && fkeys.length > 1 && isGroupParseSupported(setup._parse_type);
+      int n = 0;
+      long bytes = -1;          // Bytes in the current group, -1 if no file can be added
+      for( int i = 0; i < fkeys.length; ++i ) {
+        ByteVec vec = getByteVec(fkeys[i]);
+        long len = coalesce && vec.nChunks() == 1 && vec.length() <= setup._chunk_size ? parsedBytes(vec) : -1;
+        boolean small = len >= 0 && len <= setup._chunk_size;
+        if( small && bytes >= 0 && bytes + len <= setup._chunk_size ) {
+          bytes += len;
+          continue;             // Add to the current group
+        }
+        groups[n++] = i;
+        bytes = small ? len : -1;
+      }
+      groups[n++] = fkeys.length;
+      if( n < groups.length )
+        Log.info("Parse of " + fkeys.length + " files packed into " + (n - 1) + " groups of files");
+      return Arrays.copyOf(groups, n);
+    }
+
+    // Files of a group are parsed as streams of bytes into a shared chunk: only the
+    // text parsers do that.  Parquet, ORC and other file formats read their files
+    // through the file system, and SVMLight writes sparse chunks of its own.
+    private static boolean isGroupParseSupported(ParserInfo info) {
+      return info.isStreamParseSupported() && (info.equals(CSV_INFO) || info.equals(ARFF_INFO));
+    }
+
+    // Estimated bytes of a single-chunk file once decompressed
+    private static long parsedBytes(ByteVec vec) {
+      if( ZipUtil.guessCompressionMethod(vec.getFirstBytes()) == ZipUtil.Compression.NONE ) return vec.length();
+      return (long) (vec.length() * Math.max(1f, ZipUtil.decompressionRatio(vec)));
+    }
+
+    // Chunk of the first line of a file in the parsed frame
+    int fileChunkOffset(int file) {
+      int g = Arrays.binarySearch(_groups, file);
+      return _fileChunkOffsets[g >= 0 ? g : -g - 2];
+    }
+
+    // First file of each group, the Keys to map over
+    Key[] groupKeys() {
+      Key[] keys = new Key[_groups.length - 1];
+      for( int g = 0; g < keys.length; ++g ) keys[g] = _fkeys[_groups[g]];
+      return keys;
+    }
+
     private AppendableVec [] _vecs;
 
     @Override public void postGlobal(){
@@ -670,11 +683,13 @@ public final class ParseDataset {
     }
 
     // Fetch out the node-local Categorical[] using _cKey and _categoricals hashtable
-    private static Categorical[] categoricals(Key cKey, int ncols) {
+    // Unless the domains are provided, the categorical chunks are held until the domains are unified
+    private static Categorical[] categoricals(Key cKey, ParseSetup setup) {
       Categorical[] categoricals = _categoricals.get(cKey);
       if( categoricals != null ) return categoricals;
-      categoricals = new Categorical[ncols];
-      for( int i = 0; i < categoricals.length; ++i ) categoricals[i] = new Categorical();
+      categoricals = new Categorical[setup._number_columns];
+      final boolean holdChunks = !setup.getParseType().isDomainProvided;
+      for( int i = 0; i < categoricals.length; ++i ) categoricals[i] = new Categorical(holdChunks);
       _categoricals.putIfAbsent(cKey, categoricals);
       return _categoricals.get(cKey); // Re-get incase lost insertion race
     }
@@ -702,12 +717,16 @@ public final class ParseDataset {
         avs[i] = new AppendableVec(_vg.vecKey(i + _vecIdStart), espc, ctypes==null ? /*SVMLight*/Vec.T_NUM : ctypes[i], chunkOff);
       return localSetup._parse_type.equals(SVMLight_INFO)
         ? new SVMLightFVecParseWriter(_vg, _vecIdStart,chunkOff, _parseSetup._chunk_size, avs)
-        : new FVecParseWriter(_vg, chunkOff, categoricals(_cKey, localSetup._number_columns), localSetup._column_types, _parseSetup._chunk_size, avs);
+        : new FVecParseWriter(_vg, chunkOff, categoricals(_cKey, localSetup), localSetup._column_types, _parseSetup._chunk_size, avs);
     }
 
-    // Called once per file
+    // Called once per file, or group of small files
     @Override public void map( Key key ) {
       if( _jobKey.get().stop_requested() ) return;
+      if( _groups[_lo + 1] - _groups[_lo] > 1 ) {
+        parseGroup();
+        return;
+      }
       // FIXME: refactor parser setup to be configurable via parser object
       ParseSetup localSetup = (ParseSetup) _parseSetup.clone();
       ByteVec vec = getByteVec(key);
@@ -717,10 +736,7 @@ public final class ParseDataset {
       DecryptionTool decryptionTool = DecryptionTool.get(_parseSetup._decrypt_tool);
       byte[] zips = vec.getFirstBytes();
       ZipUtil.Compression cpr = ZipUtil.guessCompressionMethod(zips);
-      if (localSetup._check_header == ParseSetup.HAS_HEADER) { //check for header on local file
-        byte[] bits = decryptionTool.decryptFirstBytes(ZipUtil.unzipBytes(zips, cpr, localSetup._chunk_size));
-        localSetup._check_header = localSetup.parser(_jobKey).fileHasHeader(bits, localSetup);
-      }
+      checkHeader(localSetup, zips, cpr, decryptionTool);
       // Parse the file
       try {
         switch( cpr ) {
@@ -736,38 +752,46 @@ public final class ParseDataset {
             localSetup = ParserService.INSTANCE.getByInfo(localSetup._parse_type).setupLocal(vec,localSetup);
             InputStream bvs = vec.openStream(_jobKey);
             Parser p = localSetup.parser(_jobKey);
-            _dout[_lo] = ((FVecParseWriter) p.streamParse(decryptionTool.decryptInputStream(bvs),
+            _dout[_lo] = ((FVecParseWriter) p.streamParse(openFile(bvs, cpr, key, decryptionTool),
                     makeDout(localSetup,chunkStartIdx,vec.nChunks()))).close(_fs);
             _errors = _dout[_lo].removeErrors();
             chunksAreLocal(vec,chunkStartIdx,key);
           } else throw H2O.unimpl();
           break;
+        case GZIP: {
+          // BGZF: decompress the blocks where the compressed chunks are, then
+          // parse the decompressed chunks in parallel
+          if( ZipUtil.isBgzf(zips) && decryptionTool.isTransparent() &&
+              _parseSetup._parse_type.parseMethod(_keys.length, vec.nChunks()) == ParserInfo.ParseMethod.DistributedParse ) {
+            ByteVec raw = BgzfDecompressTask.decompress(vec);
+            if( raw != null && raw.nChunks() < vec.nChunks() && _keys.length > 1 ) {
+              raw.remove();     // Would leave a hole in the chunks of the files parsed together
+              raw = null;
+            }
+            if( raw != null ) {
+              try {
+                new DistributedParse(_vg, localSetup, _vecIdStart, chunkStartIdx, this, key, vec.nChunks()).dfork(raw).getResult(false);
+                for( int i = 0; i < raw.nChunks(); ++i )
+                  _chunk2ParseNodeMap[chunkStartIdx + i] = raw.chunkKey(i).home_node().index();
+              } finally {
+                raw.remove();
+              }
+              break;
+            }
+          }
+          // fall through: no parallel decompression
+        }
         case ZIP: {
           localSetup = ParserService.INSTANCE.getByInfo(localSetup._parse_type).setupLocal(vec,localSetup);
           // Zipped file; no parallel decompression;
           InputStream bvs = vec.openStream(_jobKey);
-          ZipInputStream zis = new ZipInputStream(bvs);
-
-          if (ZipUtil.isZipDirectory(key)) {  // file is a zip if multiple files
-            zis.getNextEntry();          // first ZipEntry describes the directory
-          }
-          ZipEntry ze = zis.getNextEntry(); // Get the *FIRST* entry
-          InputStream dec = decryptionTool.decryptInputStream(zis);
+          InputStream dec = openFile(bvs, cpr, key, decryptionTool);
           // There is at least one entry in zip file and it is not a directory.
-          if( ze != null && !ze.isDirectory() )
-            _dout[_lo] = streamParse(dec,localSetup, makeDout(localSetup,chunkStartIdx,vec.nChunks()), bvs);
+          if( dec != null ) {
+            _dout[_lo] = streamParse(dec, localSetup, makeDout(localSetup,chunkStartIdx,vec.nChunks()), bvs);
             _errors = _dout[_lo].removeErrors();
-          dec.close();       // Confused: which zipped file to decompress
-          chunksAreLocal(vec,chunkStartIdx,key);
-          break;
-        }
-        case GZIP: {
-          localSetup = ParserService.INSTANCE.getByInfo(localSetup._parse_type).setupLocal(vec,localSetup);
-          InputStream bvs = vec.openStream(_jobKey);
-          // Zipped file; no parallel decompression;
-          _dout[_lo] = streamParse(decryptionTool.decryptInputStream(new GZIPInputStream(bvs)),
-                  localSetup, makeDout(localSetup,chunkStartIdx,vec.nChunks()),bvs);
-          _errors = _dout[_lo].removeErrors();
+            dec.close();
+          } else bvs.close();
           // set this node as the one which processed all the chunks
           chunksAreLocal(vec,chunkStartIdx,key);
           break;
@@ -798,6 +822,10 @@ public final class ParseDataset {
           else assert mfpt._chunk2ParseNodeMap[i] == -1 : Arrays.toString(_chunk2ParseNodeMap) + " :: " + Arrays.toString(mfpt._chunk2ParseNodeMap);
         }
       }
+      if( _fileLineOffsets == null ) _fileLineOffsets = mfpt._fileLineOffsets;
+      else if( _fileLineOffsets != mfpt._fileLineOffsets ) // Each file is set by one map only
+        for( int i = 0; i < _fileLineOffsets.length; ++i )
+          _fileLineOffsets[i] = Math.max(_fileLineOffsets[i], mfpt._fileLineOffsets[i]);
       if(_errors == null)
         _errors = mfpt._errors;
       else if(_errors.length < 20) {
@@ -808,6 +836,80 @@ public final class ParseDataset {
       Log.trace("Finished a reduce stage of a file parse.");
     }
 
+    // Parse the files of a group, one after the other, into a single chunk
+    private void parseGroup() {
+      final int chunkIdx = _fileChunkOffsets[_lo];
+      DecryptionTool decryptionTool = DecryptionTool.get(_parseSetup._decrypt_tool);
+      FVecParseWriter dout = null;
+      for( int i = _groups[_lo]; i < _groups[_lo + 1]; ++i ) {
+        if( _jobKey.get().stop_requested() ) return;
+        Key key = _fkeys[i];
+        ParseSetup localSetup = (ParseSetup) _parseSetup.clone();
+        ByteVec vec = getByteVec(key);
+        byte[] zips = vec.getFirstBytes();
+        ZipUtil.Compression cpr = ZipUtil.guessCompressionMethod(zips);
+        checkHeader(localSetup, zips, cpr, decryptionTool);
+        localSetup = ParserService.INSTANCE.getByInfo(localSetup._parse_type).setupLocal(vec,localSetup);
+        if( dout == null ) dout = makeDout(localSetup, chunkIdx, 1);
+        _fileLineOffsets[i] = dout.lineNum();
+        final int nerrs = dout._errs.length;
+        try {
+          InputStream bvs = vec.openStream(_jobKey);
+          InputStream is = openFile(bvs, cpr, key, decryptionTool);
+          if( is != null ) {
+            Parser p = localSetup.parser(_jobKey);
+            // Parse all the stream into the same chunk, as in Parser.readOneFile
+            Parser.StreamData din = new Parser.StreamData(is);
+            int cidx = 0;
+            while( is.available() > 0 )
+              p.parseChunk(cidx++, din, dout);
+            p.parseChunk(cidx, din, dout);
+            is.close();
+          } else bvs.close();
+        } catch( IOException ioe ) {
+          throw new RuntimeException(ioe);
+        } catch (H2OParseException pe0) {
+          throw pe0.resetMsg(pe0.getMessage()+" for "+key);
+        }
+        // Errors of this file: their lines are lines of the chunk of the group
+        for( int e = nerrs; e < dout._errs.length; ++e ) {
+          dout._errs[e]._file = FileVec.getPathForKey(key);
+          if( dout._errs[e]._cidx >= 0 ) dout._errs[e]._cidx = 0;
+        }
+        chunksAreLocal(vec,chunkIdx,key);
+      }
+      _dout[_lo] = dout.close(_fs);
+      _errors = _dout[_lo].removeErrors();
+    }
+
+    // Check for a header on the local file
+    private void checkHeader(ParseSetup localSetup, byte[] zips, ZipUtil.Compression cpr, DecryptionTool decryptionTool) {
+      if (localSetup._check_header == ParseSetup.HAS_HEADER) {
+        byte[] bits = decryptionTool.decryptFirstBytes(ZipUtil.unzipBytes(zips, cpr, localSetup._chunk_size));
+        localSetup._check_header = localSetup.parser(_jobKey).fileHasHeader(bits, localSetup);
+      }
+    }
+
+    // Decrypted stream of the (first) file in a possibly compressed ByteVec,
+    // null if a zip file has no such file
+    private static InputStream openFile(InputStream bvs, ZipUtil.Compression cpr, Key key, DecryptionTool decryptionTool) throws IOException {
+      InputStream is = bvs;
+      switch( cpr ) {
+      case GZIP:
+        is = new GZIPInputStream(bvs);
+        break;
+      case ZIP:
+        ZipInputStream zis = new ZipInputStream(bvs);
+        if (ZipUtil.isZipDirectory(key))  // file is a zip if multiple files
+          zis.getNextEntry();           // first ZipEntry describes the directory
+        ZipEntry ze = zis.getNextEntry(); // Only the *FIRST* entry is parsed
+        if( ze == null || ze.isDirectory() ) return null;
+        is = zis;
+        break;
+      }
+      return decryptionTool.decryptInputStream(is);
+    }
+
     // ------------------------------------------------------------------------
     // Zipped file; no parallel decompression; decompress into local chunks,
     // parse local chunks; distribute chunks later.
@@ -876,7 +978,7 @@ public final class ParseDataset {
         case "ARFF":
         case "CSV":
         case "PARQUET":
-          Categorical [] categoricals = categoricals(_cKey, _setup._number_columns);
+          Categorical [] categoricals = categoricals(_cKey, _setup);
           dout = new FVecParseWriter(_vg,_startChunkIdx + in.cidx(), categoricals, _setup._column_types,
                   _setup._chunk_size, avs); //TODO: use _setup._domains instead of categoricals
           break;
@@ -884,7 +986,7 @@ public final class ParseDataset {
           dout = new SVMLightFVecParseWriter(_vg, _vecIdStart, in.cidx() + _startChunkIdx, _setup._chunk_size, avs);
           break;
         case "ORC":  // setup special case for ORC
-          Categorical [] orc_categoricals = categoricals(_cKey, _setup._number_columns);
+          Categorical [] orc_categoricals = categoricals(_cKey, _setup);
           dout = new FVecParseWriter(_vg, in.cidx() + _startChunkIdx, orc_categoricals, _setup._column_types,
                   _setup._chunk_size, avs);
           break;
@@ -12,6 +12,7 @@ import java.lang.reflect.Field;
 import java.util.Arrays;
 import java.util.HashSet;
 
+import static water.H2O.OptArgs.SYSTEM_PROP_PREFIX;
 import static water.parser.DefaultParserProviders.*;
 
 /**
@@ -23,6 +24,8 @@ public class ParseSetup extends Iced {
   public static final int GUESS_HEADER = 0;
   public static final int HAS_HEADER = 1;
   public static final int GUESS_COL_CNT = -1;
+  /** Max number of files examined to guess the setup of a multi-file parse */
+  static int GUESS_SAMPLE_FILES = Integer.getInteger(SYSTEM_PROP_PREFIX + "parse.setup.sample.files", 100);
 
   ParserInfo _parse_type;     // CSV, XLS, XSLX, SVMLight, Auto, ARFF, ORC
   byte _separator;            // Field separator, usually comma ',' or TAB or space ' '
@@ -278,9 +281,17 @@ public class ParseSetup extends Iced {
    */
   public static ParseSetup guessSetup( Key[] fkeys, ParseSetup userSetup ) {
 
-    //Guess setup of each file and collect results
+    //Guess setup of (a sample of) the files and collect results
+    Key[] sample = examinesEveryFile(userSetup._parse_type) ? fkeys : sampleFiles(fkeys, GUESS_SAMPLE_FILES);
     GuessSetupTsk t = new GuessSetupTsk(userSetup);
-    t.doAll(fkeys).getResult();
+    t.doAll(sample).getResult();
+    if( sample.length < fkeys.length && examinesEveryFile(t._gblSetup._parse_type) ) {
+      t = new GuessSetupTsk(userSetup);
+      t.doAll(fkeys).getResult();
+    } else if( sample.length < fkeys.length ) { // Take the other files to be of the average size
+      Log.info("Parse setup guessed from " + sample.length + " of " + fkeys.length + " files");
+      t._totalParseSize = Math.round((double) t._totalParseSize * fkeys.length / sample.length);
+    }
 
     //Calc chunk-size
     // FIXME: should be a parser specific - or at least parser should be able to override defaults
@@ -295,6 +306,27 @@ public class ParseSetup extends Iced {
     return t._gblSetup;
   }
 
+  // ORC maps the chunks of each file to its stripes when guessing the setup of
+  // the file: the setup of all the files must be guessed, not of a sample
+  private static boolean examinesEveryFile(ParserInfo parseType) {
+    return parseType != null && parseType.name().contains("ORC");
+  }
+
+  /**
+   * Evenly spaced sample of the files, in order, with the first and last ones.
+   * @param fkeys Keys to input vectors to be parsed
+   * @param n max number of files in the sample, at least 2
+   * @return fkeys if there are no more than n of them, else a sample of n keys
+   */
+  static Key[] sampleFiles(Key[] fkeys, int n) {
+    n = Math.max(n, 2);
+    if( fkeys.length <= n ) return fkeys;
+    Key[] sample = new Key[n];
+    for( int i = 0; i < n; i++ )
+      sample[i] = fkeys[(int) ((long) i * (fkeys.length - 1) / (n - 1))];
+    return sample;
+  }
+
   /**
    * Try to determine the ParseSetup on a file by file basis
    * and merge results.
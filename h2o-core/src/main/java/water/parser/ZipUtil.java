@@ -149,6 +149,37 @@ abstract class ZipUtil {
     return Compression.NONE;
   }
 
+  /**
+   * BGZF (blocked gzip, as written by bgzip) is a series of gzip members of at
+   * most 64KB each, every one with a 'BC' extra field holding its size.  Blocks
+   * can be found and inflated independently of each other.
+   * @return true if the file starts with a BGZF block
+   */
+  static boolean isBgzf(byte [] bits) {
+    return bgzfBlockSize(bits, 0, bits.length) > 0;
+  }
+
+  /**
+   * Size of the BGZF block starting at the given offset, read from its
+   * header: 1f 8b 08 04, mtime, xfl, os, XLEN=6, 'B' 'C', SLEN=2, BSIZE.
+   * @param end end of the valid bytes in bits
+   * @return block size in bytes, or -1 if there is no BGZF block header at off
+   */
+  static int bgzfBlockSize(byte [] bits, int off, int end) {
+    if( off < 0 || off + BGZF_HEADER_LEN > end ) return -1;
+    if( bits[off] != (byte)0x1f || bits[off+1] != (byte)0x8b || bits[off+2] != 8 || (bits[off+3] & 4) == 0 )
+      return -1;
+    if( get2LE(bits, off+10) != 6 || bits[off+12] != 'B' || bits[off+13] != 'C' || get2LE(bits, off+14) != 2 )
+      return -1;
+    return get2LE(bits, off+16) + 1;
+  }
+  static final int BGZF_HEADER_LEN = 18;   // gzip header with the BC extra field
+  static final int BGZF_TRAILER_LEN = 8;   // CRC32, ISIZE
+  static final int BGZF_MAX_BLOCK = 65536;
+
+  static int get2LE(byte [] bits, int off) { return (bits[off] & 0xff) | (bits[off+1] & 0xff) << 8; }
+  static int get4LE(byte [] bits, int off) { return get2LE(bits, off) | get2LE(bits, off+2) << 16; }
+
   static float decompressionRatio(ByteVec bv) {
     byte[] zips = bv.getFirstBytes();
     ZipUtil.Compression cpr = ZipUtil.guessCompressionMethod(zips);
@@ -2,6 +2,7 @@ package water.persist;
 
 import java.io.*;
 import java.net.URI;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 
 import water.*;
@@ -54,6 +55,11 @@ public final class PersistFS extends Persist {
       return null; // No value
     }
     try (FileInputStream s = new FileInputStream(f)) {
+        if( v._max >= AutoBuffer.TCP_BUF_SIZ ) { // Large value: straight from the page cache into the array
+          byte[] b = MemoryManager.malloc1(v._max);
+          s.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, v._max).get(b);
+          return b;
+        }
         AutoBuffer ab = new AutoBuffer(s.getChannel(), true, Value.ICE);
         byte[] b = ab.getA1(v._max);
         ab.close();
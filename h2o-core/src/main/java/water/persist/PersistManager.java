@@ -52,6 +52,12 @@ public class PersistManager {
       delete_count = new AtomicLong();
       load_count = new AtomicLong();
       load_bytes = new AtomicLong();
+      load_ns = new AtomicLong();
+      read_ns = new AtomicLong();
+      readahead_count = new AtomicLong();
+      readahead_bytes = new AtomicLong();
+      readahead_hits = new AtomicLong();
+      readahead_wasted_bytes = new AtomicLong();
     }
 
     public AtomicLong store_count;
@@ -59,9 +65,16 @@ public class PersistManager {
     public AtomicLong delete_count;
     public AtomicLong load_count;
     public AtomicLong load_bytes;
+    public AtomicLong load_ns;                // Time spent waiting for loads
+    public AtomicLong read_ns;                // Time spent reading, by the loads and the reads ahead
+    public AtomicLong readahead_count;
+    public AtomicLong readahead_bytes;
+    public AtomicLong readahead_hits;         // Loads served by a read ahead
+    public AtomicLong readahead_wasted_bytes; // Bytes read ahead and never loaded
   }
 
   private Persist[] I;
+  private ReadAhead[] readAhead;
   private PersistStatsEntry[] stats;
   public PersistStatsEntry[] getStats() { return stats; }
 
@@ -144,6 +157,15 @@ public class PersistManager {
     } catch (Throwable ignore) {
       Log.info("S3 subsystem not available");
     }
+
+    // Remote stores: read the chunks of files ahead of their loads
+    readAhead = new ReadAhead[MAX_BACKENDS];
+    if (ReadAhead.CHUNKS > 0) {
+      for (byte backend : new byte[]{Value.HDFS, Value.S3}) {
+        if (I[backend] != null)
+          readAhead[backend] = new ReadAhead(I[backend], backend, stats[backend], ReadAhead.CHUNKS, ReadAhead.BYTES);
+      }
+    }
   }
 
   public void store(int backend, Value v) throws IOException {
@@ -158,7 +180,9 @@ public class PersistManager {
 
   public byte[] load(int backend, Value v) throws IOException {
     stats[backend].load_count.incrementAndGet();
-    byte[] arr = I[backend].load(v);
+    long start = System.nanoTime();
+    byte[] arr = readAhead[backend] != null && v._key.isChunkKey() ? readAhead[backend].load(v) : I[backend].load(v);
+    stats[backend].load_ns.addAndGet(System.nanoTime() - start);
     stats[backend].load_bytes.addAndGet(arr.length);
     return arr;
   }
@@ -0,0 +1,212 @@
+package water.persist;
+
+import water.DKV;
+import water.Key;
+import water.TypeMap;
+import water.Value;
+import water.fvec.FileVec;
+import water.fvec.Vec;
+import water.util.Log;
+import water.util.UnsafeUtils;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static water.H2O.OptArgs.SYSTEM_PROP_PREFIX;
+
+/**
+ * Read-ahead of the chunks of files in remote stores (S3, HDFS).
+ *
+ * Loads of file chunks from these stores are latency bound: each chunk is one
+ * ranged read, issued only when the chunk is needed.  When a chunk of a
+ * {@link FileVec} is loaded, the next chunks of the file homed on this node
+ * (those this node will be asked to load) are read concurrently, on a small
+ * pool of I/O threads.  The bytes of the chunks read ahead and not yet loaded
+ * are bounded; a load of a chunk being read ahead waits for that read instead
+ * of issuing another one.  Chunks read ahead but not loaded in time are
+ * dropped, by the next load or by a sweep running while reads ahead are held.
+ */
+final class ReadAhead {
+  /** Chunks read ahead of the last loaded chunk of a file, 0 to disable */
+  static final int CHUNKS = Integer.getInteger(SYSTEM_PROP_PREFIX + "persist.readahead.chunks", 4);
+  /** Max bytes read ahead and not loaded yet, per backend */
+  static final long BYTES = Long.getLong(SYSTEM_PROP_PREFIX + "persist.readahead.bytes",
+      Math.min(256L << 20, Runtime.getRuntime().maxMemory() / 16));
+  /** Threads issuing the reads, shared by all the backends */
+  static final int THREADS = Integer.getInteger(SYSTEM_PROP_PREFIX + "persist.readahead.threads", 8);
+  /** Chunks read ahead are dropped if not loaded within this time */
+  static long EXPIRE_MS = 60 * 1000;
+
+  private static ThreadPoolExecutor POOL;
+
+  private static synchronized ThreadPoolExecutor pool() {
+    if( POOL == null ) {
+      final AtomicInteger n = new AtomicInteger();
+      POOL = new ThreadPoolExecutor(THREADS, THREADS, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+          new ThreadFactory() {
+            @Override public Thread newThread(Runnable r) {
+              Thread t = new Thread(r, "ReadAhead-" + n.incrementAndGet());
+              t.setDaemon(true);
+              return t;
+            }
+          });
+      POOL.allowCoreThreadTimeOut(true);
+    }
+    return POOL;
+  }
+
+  // Instances holding reads ahead, swept for expired reads even when no more chunks are loaded
+  private static final Set<ReadAhead> HOLDING = Collections.newSetFromMap(new ConcurrentHashMap<ReadAhead, Boolean>());
+  private static Thread SWEEPER;
+
+  private static synchronized void startSweeper() {
+    if( SWEEPER != null ) return;
+    SWEEPER = new Thread("ReadAhead-Expire") {
+      @Override public void run() {
+        while( true ) {
+          try {
+            Thread.sleep(Math.max(1, EXPIRE_MS / 4));
+          } catch( InterruptedException ignore ) { }
+          for( ReadAhead ra : HOLDING ) {
+            ra.expire();
+            if( ra._reads.isEmpty() ) {
+              HOLDING.remove(ra);
+              if( !ra._reads.isEmpty() ) HOLDING.add(ra); // Read ahead again meanwhile
+            }
+          }
+        }
+      }
+    };
+    SWEEPER.setDaemon(true);
+    SWEEPER.start();
+  }
+
+  private final Persist _persist;
+  private final byte _backend;
+  private final PersistManager.PersistStatsEntry _stats;
+  private final long _budget;
+  private final int _chunks;
+  private final AtomicLong _reserved = new AtomicLong(); // Bytes of pending reads, or read and not loaded
+  private final ConcurrentHashMap<Key, Read> _reads = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<Key, Integer> _ahead = new ConcurrentHashMap<>(); // Last chunk read ahead, by file
+
+  ReadAhead(Persist persist, byte backend, PersistManager.PersistStatsEntry stats, int chunks, long budget) {
+    _persist = persist;
+    _backend = backend;
+    _stats = stats;
+    _chunks = chunks;
+    _budget = budget;
+  }
+
+  /** A read of a chunk ahead of its load */
+  private final class Read extends FutureTask<byte[]> {
+    final Key _key;
+    final int _len;
+    volatile long _done;        // Time the read finished, 0 while pending
+
+    Read(final Value v) {
+      super(new Callable<byte[]>() {
+        @Override public byte[] call() throws IOException { return read(v); }
+      });
+      _key = v._key;
+      _len = v._max;
+    }
+
+    @Override protected void done() { _done = System.currentTimeMillis(); }
+  }
+
+  private byte[] read(Value v) throws IOException {
+    long start = System.nanoTime();
+    byte[] b = _persist.load(v);
+    _stats.read_ns.addAndGet(System.nanoTime() - start);
+    return b;
+  }
+
+  /** Load the bytes of a file chunk, and read the next chunks ahead */
+  byte[] load(Value v) throws IOException {
+    final Key k = v._key;
+    byte[] b = null;
+    Read r = _reads.remove(k);
+    if( r != null ) {
+      try {
+        b = r.get();
+        _stats.readahead_hits.incrementAndGet();
+      } catch( InterruptedException | ExecutionException e ) {
+        Log.debug("Read ahead of ", k, " failed, reading again: ", e.getCause());
+      } finally {
+        _reserved.addAndGet(-r._len);
+      }
+    }
+    readAhead(k);
+    return b != null && b.length == v._max ? b : read(v);
+  }
+
+  // Schedule reads of the chunks after this one homed on this node
+  private void readAhead(Key ckey) {
+    expire();
+    final Key vkey = Vec.getVecKey(ckey);
+    final Value vv = DKV.get(vkey);
+    if( vv == null || !(vv.get() instanceof FileVec) ) return;
+    final FileVec fv = vv.get();
+    final int nchks = fv.nChunks();
+    final int cidx = UnsafeUtils.get4(ckey._kb, 6);
+    Integer ahead = _ahead.get(vkey);
+    int last = ahead == null || ahead < cidx ? cidx : ahead;
+    for( int c = cidx + 1, n = 0; c < nchks && n < _chunks; c++ ) {
+      Key k = fv.chunkKey(c);
+      if( !k.home() ) continue;
+      n++;
+      if( c <= last ) continue; // Already read ahead, or loaded
+      long off = (long) c * fv._chunkSize;
+      int len = (int) (c < nchks - 1 ? fv._chunkSize : fv.length() - off);
+      if( _reserved.addAndGet(len) > _budget ) {
+        _reserved.addAndGet(-len);
+        break;
+      }
+      Value v = new Value(k, len, null, TypeMap.C1NCHUNK, _backend);
+      v.setDsk();
+      Read r = new Read(v);
+      if( _reads.putIfAbsent(k, r) != null ) {
+        _reserved.addAndGet(-len);
+      } else {
+        _stats.readahead_count.incrementAndGet();
+        _stats.readahead_bytes.addAndGet(len);
+        pool().execute(r);
+        if( HOLDING.add(this) ) startSweeper();
+      }
+      last = c;
+    }
+    if( last >= nchks - 1 ) _ahead.remove(vkey);
+    else _ahead.put(vkey, last);
+  }
+
+  // Drop the chunks read ahead and not loaded in time
+  private void expire() {
+    final long now = System.currentTimeMillis();
+    for( Iterator<Map.Entry<Key, Read>> it = _reads.entrySet().iterator(); it.hasNext(); ) {
+      Map.Entry<Key, Read> e = it.next();
+      Read r = e.getValue();
+      if( r._done != 0 && now - r._done > EXPIRE_MS && _reads.remove(e.getKey(), r) ) {
+        _reserved.addAndGet(-r._len);
+        _stats.readahead_wasted_bytes.addAndGet(r._len);
+        _ahead.remove(Vec.getVecKey(r._key)); // Read this file ahead again from the next load on
+      }
+    }
+  }
+
+  /** @return bytes read ahead and not loaded yet, or being read */
+  long reserved() { return _reserved.get(); }
+}
@@ -0,0 +1,110 @@
+package water.util;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Correctly rounded conversion of a decimal number, mantissa * 10^exponent as
+ * produced by the parsers, to the closest double.
+ *
+ * Small mantissas with small exponents are multiplied or divided by an exact
+ * power of ten (Clinger's fast path).  Other numbers go through the
+ * Eisel-Lemire algorithm: the mantissa is multiplied by a 128-bit
+ * approximation of the power of ten, and the result is exact unless it is too
+ * close to a halfway point between two doubles, or subnormal.  Those rare
+ * numbers are converted through BigDecimal.
+ */
+public final class DecimalUtils {
+  private static final int MIN_EXP10 = -342; // Below: 0 for any long mantissa
+  private static final int MAX_EXP10 = 308;  // Above: infinite for any non-zero mantissa
+  private static final long MAX_EXACT = 1L << 53;
+
+  private static final double[] POWERS10 = new double[23]; // All exact doubles
+  // 128-bit mantissas of 10^MIN_EXP10 .. 10^MAX_EXP10, rounded down
+  private static final long[] POW10_HI = new long[MAX_EXP10 - MIN_EXP10 + 1];
+  private static final long[] POW10_LO = new long[MAX_EXP10 - MIN_EXP10 + 1];
+  static {
+    double p = 1;
+    for( int i = 0; i < POWERS10.length; i++, p *= 10 ) POWERS10[i] = p;
+    final BigInteger five = BigInteger.valueOf(5);
+    for( int q = MIN_EXP10; q <= MAX_EXP10; q++ ) {
+      BigInteger m;
+      if( q >= 0 ) {
+        m = five.pow(q);
+        final int shift = m.bitLength() - 128;
+        m = shift > 0 ? m.shiftRight(shift) : m.shiftLeft(-shift);
+      } else {
+        final BigInteger d = five.pow(-q);
+        m = BigInteger.ONE.shiftLeft(d.bitLength() + 127).divide(d);
+      }
+      POW10_HI[q - MIN_EXP10] = m.shiftRight(64).longValue();
+      POW10_LO[q - MIN_EXP10] = m.longValue();
+    }
+  }
+
+  private DecimalUtils() {}
+
+  /** @return m * 10^e, correctly rounded to the nearest double */
+  public static double toDouble(long m, int e) {
+    if( m == 0 ) return 0;
+    if( e == 0 ) return m;
+    if( -MAX_EXACT <= m && m <= MAX_EXACT ) {
+      if( 0 < e && e < POWERS10.length ) return m * POWERS10[e];
+      if( -POWERS10.length < e && e < 0 ) return m / POWERS10[-e];
+    }
+    final boolean neg = m < 0;
+    if( e < MIN_EXP10 ) return neg ? -0.0 : 0.0;
+    if( e > MAX_EXP10 ) return neg ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+    if( m != Long.MIN_VALUE ) {
+      final long bits = eiselLemire(neg ? -m : m, e);
+      if( bits != -1 ) return Double.longBitsToDouble(neg ? bits | Long.MIN_VALUE : bits);
+    }
+    return new BigDecimal(BigInteger.valueOf(m), -e).doubleValue();
+  }
+
+  // Bits of the positive double closest to w * 10^q, or -1 if it cannot be
+  // decided from the 128-bit product
+  private static long eiselLemire(long w, int q) {
+    final int lz = Long.numberOfLeadingZeros(w);
+    w <<= lz;
+    long exp2 = (((217706 * q) >> 16) + 64 + 1023) - lz;
+    final int i = q - MIN_EXP10;
+    long hi = mulHigh(w, POW10_HI[i]);
+    long lo = w * POW10_HI[i];
+    // Not enough bits to round: take the lower half of the power in
+    if( (hi & 0x1FF) == 0x1FF && ult(lo + w, w) ) {
+      final long yHi = mulHigh(w, POW10_LO[i]);
+      final long yLo = w * POW10_LO[i];
+      long mergedHi = hi, mergedLo = lo + yHi;
+      if( ult(mergedLo, lo) ) mergedHi++;
+      if( (mergedHi & 0x1FF) == 0x1FF && mergedLo == -1 && ult(yLo + w, w) ) return -1;
+      hi = mergedHi;
+      lo = mergedLo;
+    }
+    // 54 bits of mantissa, then round to 53
+    final long msb = hi >>> 63;
+    long mantissa = hi >>> (msb + 9);
+    exp2 -= 1 ^ msb;
+    if( lo == 0 && (hi & 0x1FF) == 0 && (mantissa & 3) == 1 ) return -1; // Maybe halfway
+    mantissa += mantissa & 1;
+    mantissa >>>= 1;
+    if( (mantissa >>> 53) != 0 ) {
+      mantissa >>>= 1;
+      exp2++;
+    }
+    if( exp2 <= 0 || exp2 >= 0x7FF ) return -1; // Subnormal or infinite
+    return (exp2 << 52) | (mantissa & ((1L << 52) - 1));
+  }
+
+  // High 64 bits of the unsigned 128-bit product a * b
+  private static long mulHigh(long a, long b) {
+    final long aLo = a & 0xFFFFFFFFL, aHi = a >>> 32;
+    final long bLo = b & 0xFFFFFFFFL, bHi = b >>> 32;
+    final long hl = aHi * bLo + ((aLo * bLo) >>> 32);
+    final long lh = aLo * bHi + (hl & 0xFFFFFFFFL);
+    return aHi * bHi + (hl >>> 32) + (lh >>> 32);
+  }
+
+  // Unsigned a < b
+  private static boolean ult(long a, long b) { return (a ^ Long.MIN_VALUE) < (b ^ Long.MIN_VALUE); }
+}
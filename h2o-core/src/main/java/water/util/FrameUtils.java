@@ -18,9 +18,28 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.ServiceLoader;
 
 public class FrameUtils {
 
+  /** Export format built into H2O, other formats are provided by {@link FrameWriterProvider} services */
+  public static final String CSV_FORMAT = "csv";
+
+  private static final ServiceLoader<FrameWriterProvider> FRAME_WRITERS = ServiceLoader.load(FrameWriterProvider.class);
+
+  /**
+   * @param format name of a binary file format (eg. "parquet")
+   * @return writer of frames in this format, null if no module provides one
+   */
+  public static FrameWriterProvider frameWriter(String format) {
+    synchronized (FRAME_WRITERS) { // ServiceLoader is not thread-safe
+      for (FrameWriterProvider fwp : FRAME_WRITERS)
+        if (fwp.format().equalsIgnoreCase(format))
+          return fwp;
+    }
+    return null;
+  }
+
   /** Parse given file(s) into the form of single frame represented by the given key.
    *
    * @param okey  destination key for parsed frame
@@ -325,24 +344,42 @@ public class FrameUtils {
     final boolean _overwrite;
     final Job _j;
     int _nParts;
+    final String _format;
+    final String _compression;
 
     public ExportTaskDriver(Frame frame, String path, String frameName, boolean overwrite, Job j, int nParts) {
+      this(frame, path, frameName, overwrite, j, nParts, CSV_FORMAT, null);
+    }
+
+    /**
+     * @param format {@link #CSV_FORMAT}, or the format of a {@link FrameWriterProvider}
+     * @param compression compression codec of the format, null for none
+     */
+    public ExportTaskDriver(Frame frame, String path, String frameName, boolean overwrite, Job j, int nParts,
+                            String format, String compression) {
       _frame = frame;
       _path = path;
       _frameName = frameName;
       _overwrite = overwrite;
       _j = j;
       _nParts = nParts;
+      _format = format;
+      _compression = compression;
     }
 
+    private boolean isCSV() { return _format == null || CSV_FORMAT.equalsIgnoreCase(_format); }
+
     @Override
     public void compute2() {
       _frame.read_lock(_j._key);
       if (_nParts == 1) {
         // Single file export, the file should be created by the node that was asked to export the data
         // (this is for non-distributed filesystems, we want the file to go to the local filesystem of the node)
-        Frame.CSVStream is = new Frame.CSVStream(_frame, true, false);
-        exportCSVStream(is, _path, 0);
+        if (isCSV()) {
+          Frame.CSVStream is = new Frame.CSVStream(_frame, true, false);
+          exportCSVStream(is, _path, 0);
+        } else
+          exportChunks(_path, 0, _frame.anyVec().nChunks());
         tryComplete();
       } else {
         // Multi-part export
@@ -436,6 +473,20 @@ public class FrameUtils {
       return len;
     }
 
+    // Write chunks [firstChkIdx, firstChkIdx + nChunks) of the frame in the binary export format
+    private void exportChunks(String path, int firstChkIdx, int nChunks) {
+      FrameWriterProvider writer = frameWriter(_format);
+      if (writer == null)
+        throw new IllegalArgumentException("Unsupported export format: " + _format);
+      try {
+        writer.write(_frame, firstChkIdx, nChunks, H2O.getPM().create(path, _overwrite), _compression, _j);
+        Log.info("Written chunks " + firstChkIdx + " to " + (firstChkIdx + nChunks - 1) + " of key '" + _frameName + 
+                "' to " + path + " as " + writer.format() + ".");
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
     private void exportCSVStream(Frame.CSVStream is, String path, int firstChkIdx) {
       OutputStream os = null;
       long written = -1;
@@ -476,8 +527,11 @@ public class FrameUtils {
         }
         int partIdx = anyChunk.cidx() / _length;
         String partPath = _path + "/part-m-" + String.valueOf(100000 + partIdx).substring(1);
-        Frame.CSVStream is = new Frame.CSVStream(cs, _colNames, _length, false);
-        exportCSVStream(is, partPath, anyChunk.cidx());
+        if (isCSV()) {
+          Frame.CSVStream is = new Frame.CSVStream(cs, _colNames, _length, false);
+          exportCSVStream(is, partPath, anyChunk.cidx());
+        } else
+          exportChunks(partPath, anyChunk.cidx(), Math.min(_length, _fr.anyVec().nChunks() - anyChunk.cidx()));
       }
 
       @Override
@@ -0,0 +1,38 @@
+package water.util;
+
+import water.Job;
+import water.fvec.Frame;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writer of frames in a binary file format, implemented by optional modules
+ * (eg. the Parquet parser) and registered as a service.
+ *
+ * Frame exports (see {@link FrameUtils.ExportTaskDriver}) and downloads of
+ * frames use the writer registered for the requested format; CSV is built-in.
+ */
+public interface FrameWriterProvider {
+
+  /** @return name of the file format, as requested in exports (eg. "parquet") */
+  String format();
+
+  /**
+   * Check a compression codec before any file is written.
+   * @param compression compression codec of the format, null or "none" for none
+   * @throws IllegalArgumentException if the format does not support the codec
+   */
+  void validate(String compression);
+
+  /**
+   * Write a range of chunks of a frame as one file.
+   * @param fr frame to write
+   * @param firstChunk index of the first chunk to write
+   * @param nChunks number of chunks to write
+   * @param os output of the file, closed when done
+   * @param compression compression codec of the format, null or "none" for none
+   * @param job job to report the chunks written to, and to stop on request; can be null
+   */
+  void write(Frame fr, int firstChunk, int nChunks, OutputStream os, String compression, Job job) throws IOException;
+}
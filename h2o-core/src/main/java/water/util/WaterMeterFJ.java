@@ -0,0 +1,89 @@
+package water.util;
+
+import water.*;
+import water.api.API;
+import water.api.schemas3.SchemaV3;
+
+public class WaterMeterFJ extends Iced {
+
+  public static class FJPoolStatsEntry extends SchemaV3<Iced, FJPoolStatsEntry> {
+    @API(help="Priority of the tasks executed by the pool", direction = API.Direction.OUTPUT)
+    public int priority;
+
+    @API(help="Target number of running threads", direction = API.Direction.OUTPUT)
+    public int parallelism;
+
+    @API(help="Maximum number of threads, including threads replacing blocked ones", direction = API.Direction.OUTPUT)
+    public int thread_cap;
+
+    @API(help="Number of threads", direction = API.Direction.OUTPUT)
+    public int pool_size;
+
+    @API(help="Number of threads executing tasks (running or blocked)", direction = API.Direction.OUTPUT)
+    public int active_threads;
+
+    @API(help="Number of threads executing tasks and not blocked", direction = API.Direction.OUTPUT)
+    public int running_threads;
+
+    @API(help="Number of threads blocked waiting for other work", direction = API.Direction.OUTPUT)
+    public int blocked_threads;
+
+    @API(help="Number of tasks submitted to the pool and not started yet", direction = API.Direction.OUTPUT)
+    public long queued_submissions;
+
+    @API(help="Number of tasks forked by the threads of the pool and not started yet", direction = API.Direction.OUTPUT)
+    public long queued_tasks;
+
+    @API(help="Number of tasks stolen from other threads of the pool", direction = API.Direction.OUTPUT)
+    public long steal_count;
+
+    @API(help="Number of times the thread cap was raised by the adaptive controller", direction = API.Direction.OUTPUT)
+    public long cap_raised;
+
+    @API(help="Number of times the thread cap was lowered by the adaptive controller", direction = API.Direction.OUTPUT)
+    public long cap_lowered;
+  }
+
+  // Input
+  public int nodeidx;
+
+  // Output
+  public FJPoolStatsEntry pools[];
+
+  public void doIt() {
+    H2ONode node = H2O.CLOUD._memary[nodeidx];
+    GetTask t = new GetTask();
+    Log.trace("FJ GetTask starting to node " + nodeidx + "...");
+    // Synchronous RPC call to get the pools statistics from remote (possibly this) node.
+    new RPC<>(node, t).call().get();
+    Log.trace("FJ GetTask completed to node " + nodeidx);
+    pools = t._pools;
+  }
+
+  private static class GetTask extends DTask<GetTask> {
+    private FJPoolStatsEntry _pools[];
+
+    public GetTask() { super(H2O.GUI_PRIORITY); _pools = null; }
+
+    @Override public void compute2() {
+      long[][] s = FJPoolController.stats();
+      _pools = new FJPoolStatsEntry[s.length];
+      for (int i = 0; i < s.length; i++) {
+        FJPoolStatsEntry e = _pools[i] = new FJPoolStatsEntry();
+        e.priority = (int) s[i][0];
+        e.parallelism = (int) s[i][1];
+        e.thread_cap = (int) s[i][2];
+        e.pool_size = (int) s[i][3];
+        e.active_threads = (int) s[i][4];
+        e.running_threads = (int) s[i][5];
+        e.blocked_threads = (int) s[i][6];
+        e.queued_submissions = s[i][7];
+        e.queued_tasks = s[i][8];
+        e.steal_count = s[i][9];
+        e.cap_raised = s[i][10];
+        e.cap_lowered = s[i][11];
+      }
+      tryComplete();
+    }
+  }
+}
@@ -25,6 +25,75 @@ public class WaterMeterIo extends Iced {
 
     @API(help="Cumulative loaded bytes", direction = API.Direction.OUTPUT)
     public long load_bytes;
+
+    @API(help="Cumulative time spent waiting for loads (ms)", direction = API.Direction.OUTPUT)
+    public long load_ms;
+
+    @API(help="Cumulative time spent reading, by the loads and the reads ahead (ms)", direction = API.Direction.OUTPUT)
+    public long read_ms;
+
+    @API(help="Number of chunks read ahead of their load", direction = API.Direction.OUTPUT)
+    public long readahead_count;
+
+    @API(help="Cumulative bytes read ahead", direction = API.Direction.OUTPUT)
+    public long readahead_bytes;
+
+    @API(help="Number of loads served by a read ahead", direction = API.Direction.OUTPUT)
+    public long readahead_hits;
+
+    @API(help="Cumulative bytes read ahead and never loaded", direction = API.Direction.OUTPUT)
+    public long readahead_wasted_bytes;
+
+    void add(IoStatsEntry e) {
+      store_count += e.store_count;
+      store_bytes += e.store_bytes;
+      delete_count += e.delete_count;
+      load_count += e.load_count;
+      load_bytes += e.load_bytes;
+      load_ms += e.load_ms;
+      read_ms += e.read_ms;
+      readahead_count += e.readahead_count;
+      readahead_bytes += e.readahead_bytes;
+      readahead_hits += e.readahead_hits;
+      readahead_wasted_bytes += e.readahead_wasted_bytes;
+    }
+  }
+
+  public static class WireStatsEntry extends SchemaV3<Iced, WireStatsEntry> {
+    @API(help="Number of compressed RPC payloads sent", direction = API.Direction.OUTPUT)
+    public long compressed_count;
+
+    @API(help="Cumulative size of the compressed payloads before compression", direction = API.Direction.OUTPUT)
+    public long raw_bytes;
+
+    @API(help="Cumulative size of the compressed payloads on the wire", direction = API.Direction.OUTPUT)
+    public long wire_bytes;
+
+    @API(help="Cumulative time spent compressing (ms)", direction = API.Direction.OUTPUT)
+    public long compress_ms;
+
+    @API(help="Number of compressed RPC payloads received", direction = API.Direction.OUTPUT)
+    public long decompressed_count;
+
+    @API(help="Cumulative time spent decompressing (ms)", direction = API.Direction.OUTPUT)
+    public long decompress_ms;
+
+    @API(help="Number of batches of DKV puts sent", direction = API.Direction.OUTPUT)
+    public long put_batch_count;
+
+    @API(help="Number of DKV puts sent in batches", direction = API.Direction.OUTPUT)
+    public long put_batched_keys;
+
+    void add(WireStatsEntry e) {
+      compressed_count += e.compressed_count;
+      raw_bytes += e.raw_bytes;
+      wire_bytes += e.wire_bytes;
+      compress_ms += e.compress_ms;
+      decompressed_count += e.decompressed_count;
+      decompress_ms += e.decompress_ms;
+      put_batch_count += e.put_batch_count;
+      put_batched_keys += e.put_batched_keys;
+    }
   }
 
   // Input
@@ -32,6 +101,7 @@ public class WaterMeterIo extends Iced {
 
   // Output
   public IoStatsEntry persist_stats[];
+  public WireStatsEntry wire_stats;
 
   public void doIt(boolean aggregateAllNodes) {
     if (! aggregateAllNodes) {
@@ -48,15 +118,12 @@ public class WaterMeterIo extends Iced {
           persist_stats[j] = new IoStatsEntry();
           persist_stats[j].backend    = io.persist_stats[j].backend;
         }
+        wire_stats = new WireStatsEntry();
       }
+      wire_stats.add(io.wire_stats);
 
-      for (int j = 0; j < persist_stats.length; j++) {
-        persist_stats[j].store_count += io.persist_stats[j].store_count;
-        persist_stats[j].store_bytes += io.persist_stats[j].store_bytes;
-        persist_stats[j].delete_count += io.persist_stats[j].delete_count;
-        persist_stats[j].load_count += io.persist_stats[j].load_count;
-        persist_stats[j].load_bytes += io.persist_stats[j].load_bytes;
-      }
+      for (int j = 0; j < persist_stats.length; j++)
+        persist_stats[j].add(io.persist_stats[j]);
     }
   }
 
@@ -68,10 +135,12 @@ public class WaterMeterIo extends Iced {
     new RPC<>(node, t).call().get();
     Log.trace("IO GetTask completed to node " + idx);
     persist_stats = t._persist_stats;
+    wire_stats = t._wire_stats;
   }
 
   private static class GetTask extends DTask<GetTask> {
     private IoStatsEntry _persist_stats[];
+    private WireStatsEntry _wire_stats;
 
     public GetTask() { super(H2O.MIN_HI_PRIORITY); _persist_stats = null; }
 
@@ -106,6 +175,12 @@ public class WaterMeterIo extends Iced {
         dest_e.delete_count = src_e.delete_count.get();
         dest_e.load_count = src_e.load_count.get();
         dest_e.load_bytes = src_e.load_bytes.get();
+        dest_e.load_ms = src_e.load_ns.get() / 1000000;
+        dest_e.read_ms = src_e.read_ns.get() / 1000000;
+        dest_e.readahead_count = src_e.readahead_count.get();
+        dest_e.readahead_bytes = src_e.readahead_bytes.get();
+        dest_e.readahead_hits = src_e.readahead_hits.get();
+        dest_e.readahead_wasted_bytes = src_e.readahead_wasted_bytes.get();
       }
 
       int[] backendsToZeroCheck = new int[] {0, 5, 6, 7};
@@ -118,6 +193,18 @@ public class WaterMeterIo extends Iced {
         assert(src_e.load_bytes.get() == 0);
       }
 
+      long[] w = WireCompression.stats();
+      _wire_stats = new WireStatsEntry();
+      _wire_stats.compressed_count = w[0];
+      _wire_stats.raw_bytes = w[1];
+      _wire_stats.wire_bytes = w[2];
+      _wire_stats.compress_ms = w[3];
+      _wire_stats.decompressed_count = w[4];
+      _wire_stats.decompress_ms = w[5];
+      long[] b = TaskPutKeys.stats();
+      _wire_stats.put_batch_count = b[0];
+      _wire_stats.put_batched_keys = b[1];
+
       tryComplete();
     }
   }
@@ -5,7 +5,11 @@ import org.junit.Assume;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.Serializable;
+import java.util.Random;
 
 import static org.junit.Assert.*;
 
@@ -77,4 +81,35 @@ public class AutoBufferTest extends TestUtil {
     assertEquals("(no name)", AutoBuffer.nameOfClass(new byte[]{0,0,0,0,0}));
   }
 
-}
\ No newline at end of file
+  @Test
+  public void testSpilledValueTransfer() throws Exception {
+    byte[] bytes = new byte[3 * AutoBuffer.BBP_BIG._size + 17];
+    new Random(0xB17).nextBytes(bytes);
+    Value v = new Value(Key.make(), bytes);
+    v.storePersist();
+    v.freeMem(); // spilled to ice
+    File f = File.createTempFile("ab-transfer", ".bin");
+    try {
+      try (FileOutputStream os = new FileOutputStream(f)) {
+        AutoBuffer ab = new AutoBuffer(os.getChannel(), false, Value.ICE);
+        assertTrue(ab.transfersFrom(v._max));
+        v.write_impl(ab.put4(42));
+        ab.put4(43).close();
+      }
+      assertNull(v.rawMem()); // sent from the ice file, not loaded into the heap
+      try (FileInputStream is = new FileInputStream(f)) {
+        AutoBuffer ab = new AutoBuffer(is.getChannel(), true, Value.ICE);
+        assertEquals(42, ab.get4());
+        ab.get1(); ab.get2(); // persistence and type
+        assertArrayEquals(bytes, ab.getA1());
+        assertEquals(43, ab.get4());
+        ab.close();
+      }
+      assertArrayEquals(bytes, v.memOrLoad()); // loaded back from the mapped ice file
+    } finally {
+      v.removePersist();
+      assertTrue(f.delete());
+    }
+  }
+
+}
@@ -1,6 +1,7 @@
 package water;
 
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.BeforeClass;
 import org.junit.Ignore;
 import org.junit.Test;
@@ -13,6 +14,7 @@ import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Created by tomasnykodym on 10/5/15.
@@ -124,4 +126,20 @@ public class DKVTest extends TestUtil {
     }
   }
 
+
+  @Test
+  public void testCancelledPrefetchCompletes() throws Exception {
+    Assume.assumeTrue("Needs a remote node", H2O.CLOUD.size() > 1);
+    Key k = Key.make();
+    while (k.home()) k = Key.make(); // homed on another node, not cached here
+    H2OCountedCompleter cc = new H2OCountedCompleter() {
+      @Override public void compute2() {}
+    };
+    DKV.prefetch(k, cc);
+    // the same fetch, unless it is done already; cancelled as if its home left the cloud
+    TaskGetKey.start(k.home_node(), k).cancel(true);
+    cc.tryComplete();
+    cc.get(10, TimeUnit.SECONDS); // no answer completes the prefetch, the cancel does
+    assertTrue(cc.isDone());
+  }
 }
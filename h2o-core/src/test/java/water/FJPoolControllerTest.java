@@ -0,0 +1,107 @@
+package water;
+
+import jsr166y.ForkJoinPool;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.util.WaterMeterFJ;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+public class FJPoolControllerTest extends TestUtil {
+
+  @BeforeClass()
+  public static void setup() { stall_till_cloudsize(1); }
+
+  @Test
+  public void testStats() {
+    long[][] stats = FJPoolController.stats();
+    boolean sawPutKeyPool = false;
+    for (long[] s : stats) {
+      assertEquals(12, s.length);
+      assertTrue(s[2] >= 1);                  // cap
+      assertTrue(s[6] >= 0 && s[6] <= s[3]);  // blocked threads are part of the pool
+      sawPutKeyPool |= s[0] == H2O.PUT_KEY_PRIORITY;
+    }
+    assertTrue(sawPutKeyPool); // Hi-priority pools are created upfront
+  }
+
+  @Test
+  public void testWaterMeter() {
+    WaterMeterFJ wm = new WaterMeterFJ();
+    wm.nodeidx = 0;
+    wm.doIt();
+    assertNotNull(wm.pools);
+    assertTrue(wm.pools.length > 0);
+    for (WaterMeterFJ.FJPoolStatsEntry e : wm.pools)
+      assertTrue(e.pool_size <= e.thread_cap + 1);
+  }
+
+  @Test
+  public void testCapFollowsBlockedThreads() throws InterruptedException {
+    // A pool of a single thread, not used by anything else
+    H2O.PrioritizedForkJoinPool pool = new H2O.PrioritizedForkJoinPool(H2O.MAX_PRIORITY, 1);
+    FJPoolController controller = new FJPoolController();
+    CountDownLatch release = new CountDownLatch(1);
+    BlockedTask[] tasks = new BlockedTask[3];
+    try {
+      for (int i = 0; i < tasks.length; i++)
+        pool.submit(tasks[i] = new BlockedTask(release));
+      // The only thread is blocked, the other tasks are stuck in the queue
+      long deadline = System.currentTimeMillis() + 10000;
+      while (pool.getBlockedThreadCount() == 0 || queued(pool) == 0) {
+        assertTrue("pool did not block", System.currentTimeMillis() < deadline);
+        Thread.sleep(10);
+      }
+      // The cap grows until every task got a thread
+      while (queued(pool) > 0 || pool.getBlockedThreadCount() < tasks.length) {
+        assertTrue("cap did not grow", System.currentTimeMillis() < deadline);
+        controller.adjust(pool, System.currentTimeMillis());
+        Thread.sleep(10);
+      }
+      assertTrue(pool._fact._cap > pool._fact._baseCap);
+      assertTrue(pool.getPoolSize() >= tasks.length);
+
+      release.countDown();
+      for (BlockedTask t : tasks)
+        t.join();
+      while (queued(pool) > 0 || pool.getBlockedThreadCount() > 0) {
+        assertTrue("pool did not go quiet", System.currentTimeMillis() < deadline);
+        Thread.sleep(10);
+      }
+      // Quiet: the cap goes back down, one step per quiet period
+      long now = System.currentTimeMillis();
+      controller.adjust(pool, now);
+      assertTrue(pool._fact._cap > pool._fact._baseCap); // Not quiet long enough yet
+      for (int i = 0; i < 10 && pool._fact._cap > pool._fact._baseCap; i++)
+        controller.adjust(pool, now += FJPoolController.SHRINK_AFTER_MS);
+      assertEquals(pool._fact._baseCap, pool._fact._cap);
+    } finally {
+      release.countDown();
+      pool.shutdownNow();
+    }
+  }
+
+  private static long queued(H2O.PrioritizedForkJoinPool pool) {
+    return pool.getQueuedSubmissionCount() + pool.getQueuedTaskCount();
+  }
+
+  // Blocks its thread (the way tasks waiting for other work do) until released
+  private static class BlockedTask extends H2O.H2OCountedCompleter<BlockedTask> {
+    private final transient CountDownLatch _release;
+    BlockedTask(CountDownLatch release) { super(H2O.MAX_PRIORITY); _release = release; }
+    @Override public void compute2() {
+      try {
+        ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+          @Override public boolean block() throws InterruptedException { _release.await(); return true; }
+          @Override public boolean isReleasable() { return _release.getCount() == 0; }
+        });
+      } catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+      tryComplete();
+    }
+  }
+
+}
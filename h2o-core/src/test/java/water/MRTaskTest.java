@@ -1,13 +1,17 @@
 package water;
 
 import org.junit.*;
+import water.fvec.Frame;
 import water.fvec.Vec;
 import water.fvec.Chunk;
 import water.util.PrettyPrint;
 
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 public class MRTaskTest extends TestUtil {
@@ -55,6 +59,26 @@ public class MRTaskTest extends TestUtil {
       assertTrue("too many unreduced results, should be <= " + max_unreduced_elems + " but was " + max_cnt, max_cnt <= max_unreduced_elems);
     }
   }
+  @Test public void testSplitAtHostBoundaries() {
+    // One JVM per host: the even split
+    boolean[] everywhere = new boolean[8];
+    Arrays.fill(everywhere, 1, 8, true);
+    assertArrayEquals(new int[]{0, 4, 8}, MRTask.split(0, 8, 2, everywhere));
+    assertArrayEquals(new int[]{0, 2, 4, 6, 8}, MRTask.split(0, 8, 4, everywhere));
+    assertArrayEquals(new int[]{3, 3, 4}, MRTask.split(3, 4, 2, new boolean[1]));
+    // Hosts [0,3) [3,8) [8,12): the split moves to the nearest host boundary
+    boolean[] hosts = new boolean[12];
+    hosts[3] = hosts[8] = true;
+    assertArrayEquals(new int[]{0, 8, 12}, MRTask.split(0, 12, 2, hosts));
+    assertArrayEquals(new int[]{0, 3, 8, 12}, MRTask.split(0, 12, 3, hosts));
+    // No host boundary close enough: the even split
+    boolean[] twoHosts = new boolean[12];
+    twoHosts[1] = true;
+    assertArrayEquals(new int[]{0, 6, 12}, MRTask.split(0, 12, 2, twoHosts));
+    // Shifted ranges
+    assertArrayEquals(new int[]{5, 13, 17}, MRTask.split(5, 17, 2, hosts));
+  }
+
   // Test speed of calling 1M map calls
   @Test
   public void testMillionMaps() {
@@ -94,6 +118,231 @@ public class MRTaskTest extends TestUtil {
 
     zeros.remove();
   }
+  @Test
+  public void testMapReplicas() {
+    Vec vec = Vec.makeCon(1.0, 10000, 4, true); // 16 rows per chunk
+    try {
+      ChunkReplicas.replicate(new Frame(vec), 2);
+      SumTask slow = new SumTask();
+      slow._slowNode = H2O.CLOUD.size() - 1;    // Its replicas are held by node 0
+      SumTask t = slow.mapReplicas().profile().doAll(vec);
+      // Every chunk mapped exactly once, no matter which node mapped it
+      assertEquals(vec.length(), t._sum, 0);
+      assertEquals(vec.nChunks(), t._nmaps);
+      int mapped = 0, replicas = 0;
+      for( int i = 0; i < t._profile._nodes.length; i++ ) {
+        mapped += t._profile._nodeChunks[i] + t._profile._nodeReplicas[i];
+        replicas += t._profile._nodeReplicas[i];
+      }
+      assertEquals(vec.nChunks(), mapped);
+      if( H2O.CLOUD.size() > 1 )
+        assertTrue("No chunk of the slow node was mapped from its replica", replicas > 0);
+      // Replicas are reduced in no particular order
+      try {
+        new ChunkOrderTask().mapReplicas();
+        Assert.fail("Expected a reduce which is not declared commutative to be rejected");
+      } catch( IllegalArgumentException expected ) { }
+    } finally {
+      vec.remove();
+    }
+  }
+  @Test
+  public void testStealChunks() {
+    Vec vec = Vec.makeCon(1.0, 10000, 4, true); // 16 rows per chunk
+    try {
+      long chunkBytes = 0;                      // All the chunks have the same size
+      for( int cidx = 0; cidx < vec.nChunks(); cidx++ )
+        chunkBytes = Math.max(chunkBytes, DKV.get(vec.chunkKey(cidx))._max);
+      SumTask slow = new SumTask();
+      slow._slowNode = H2O.CLOUD.size() - 1;    // Straggler
+      SumTask t = slow.stealChunks(3 * chunkBytes).profile().doAll(vec);
+      assertEquals(vec.length(), t._sum, 0);
+      assertEquals(vec.nChunks(), t._nmaps);
+      // No replicas, the chunks mapped on another node than their home were fetched
+      int stolen = 0;
+      for( int i = 0; i < t._profile._nodes.length; i++ ) {
+        assertTrue("Node " + t._profile._nodes[i] + " fetched more chunks than its budget allows", t._profile._nodeReplicas[i] <= 3);
+        stolen += t._profile._nodeReplicas[i];
+      }
+      if( H2O.CLOUD.size() > 1 )
+        assertTrue("No chunk of the slow node was stolen", stolen > 0);
+    } finally {
+      vec.remove();
+    }
+  }
+  @Test
+  public void testPrefetchMisaligned() {
+    Vec vec = Vec.makeCon(1.0, 10000, 4, true); // 16 rows per chunk
+    Vec src = Vec.makeCon(2.0, 10000, 6, true); // Other VectorGroup, 64 rows per chunk
+    int window = MRTask.PREFETCH_WINDOW;
+    try {
+      for( int w : new int[]{0, 4} ) {
+        setPrefetchWindow(w);
+        RowSumTask t = new RowSumTask(src).prefetch(src).doAll(vec);
+        assertEquals(2 * src.length(), t._sum, 0);
+      }
+    } finally {
+      setPrefetchWindow(window);
+      vec.remove();
+      src.remove();
+    }
+  }
+  // The prefetch window fetches the remote chunks covering the rows of the
+  // local chunks, without any map reading them
+  @Test
+  public void testPrefetchWindowCachesRemoteChunks() throws InterruptedException {
+    Vec vec = Vec.makeCon(1.0, 10000, 6, true); // 64 rows per chunk
+    Vec src = Vec.makeCon(2.0, 10000, 4, true); // Other VectorGroup, 16 rows per chunk
+    try {
+      if( H2O.CLOUD.size() > 1 )
+        assertFalse("Remote chunks cached before prefetching", new RemoteChunksCached(vec, src).doAllNodes()._cached);
+      new StartPrefetch(vec, src).doAllNodes();
+      long deadline = System.currentTimeMillis() + 30000;
+      while( !new RemoteChunksCached(vec, src).doAllNodes()._cached ) {
+        assertTrue("Remote chunks not prefetched in time", System.currentTimeMillis() < deadline);
+        Thread.sleep(100);
+      }
+    } finally {
+      vec.remove();
+      src.remove();
+    }
+  }
+  private static void setPrefetchWindow(final int window) {
+    new MRTask() {
+      @Override public void setupLocal() { MRTask.PREFETCH_WINDOW = window; }
+    }.doAllNodes();
+  }
+  @Test
+  public void testPipelinedReduceOrder() {
+    Vec vec = Vec.makeCon(1.0, 10000, 4, true); // 16 rows per chunk, on all the nodes
+    try {
+      int[] order = null;
+      for( boolean pipelined : new boolean[]{false, true} ) {
+        ChunkOrderTask t = new ChunkOrderTask().pipelinedReduce(pipelined).doAll(vec);
+        // Every chunk reduced once
+        int[] sorted = t._cidxs.clone();
+        Arrays.sort(sorted);
+        for( int i = 0; i < sorted.length; i++ )
+          assertEquals("pipelined=" + pipelined, i, sorted[i]);
+        assertEquals(vec.length(), t._sum, 0);
+        // Reduced in the same order, no matter when the remote results arrived
+        if( order == null ) order = t._cidxs;
+        else assertArrayEquals(order, t._cidxs);
+      }
+    } finally {
+      vec.remove();
+    }
+  }
+  @Test
+  public void testPipelinedReduceErrors() {
+    Vec vec = Vec.makeCon(1.0, 10000, 4, true);
+    try {
+      int remoteCidx = vec.nChunks() - 1;  // Last chunk homed on another node
+      while( remoteCidx > 0 && vec.chunkKey(remoteCidx).home() ) remoteCidx--;
+      for( boolean pipelined : new boolean[]{false, true} ) {
+        // Failing map of a remote chunk: the run is cancelled, and the error raised
+        ChunkOrderTask t = new ChunkOrderTask();
+        t._failCidx = remoteCidx;
+        assertFails("map of chunk " + remoteCidx, t.pipelinedReduce(pipelined), vec);
+        // Failing reduce of the remote results
+        t = new ChunkOrderTask();
+        t._failReduceOn = H2O.SELF.index();
+        if( H2O.CLOUD.size() > 1 )
+          assertFails("reduce of remote results", t.pipelinedReduce(pipelined), vec);
+        // The same task runs fine afterwards
+        t = new ChunkOrderTask().pipelinedReduce(pipelined).doAll(vec);
+        assertEquals(vec.nChunks(), t._cidxs.length);
+      }
+    } finally {
+      vec.remove();
+    }
+  }
+  private static void assertFails(String msg, ChunkOrderTask t, Vec vec) {
+    try {
+      t.doAll(vec);
+    } catch( Throwable ex ) {
+      for( Throwable e = ex; e != null; e = e.getCause() )
+        if( e.getMessage() != null && e.getMessage().contains(msg) ) return;
+      throw new AssertionError("Unexpected error: " + ex, ex);
+    }
+    throw new AssertionError("Expected failing " + msg);
+  }
+  // Collects the indices of the mapped chunks, in reduce order
+  private static class ChunkOrderTask extends MRTask<ChunkOrderTask> {
+    int _failCidx = -1;
+    int _failReduceOn = -1;
+    int[] _cidxs;
+    int _mapNode = -1;
+    double _sum;
+    @Override public void map(Chunk c) {
+      if( c.cidx() == _failCidx ) throw new IllegalStateException("Failing map of chunk " + c.cidx());
+      _cidxs = new int[]{c.cidx()};
+      _mapNode = H2O.SELF.index();
+      for( int i = 0; i < c._len; i++ ) _sum += c.atd(i);
+    }
+    @Override public void reduce(ChunkOrderTask t) {
+      if( H2O.SELF.index() == _failReduceOn && t._mapNode != _failReduceOn )
+        throw new IllegalStateException("Failing reduce of remote results");
+      if( _cidxs == null ) _cidxs = t._cidxs;
+      else if( t._cidxs != null ) {
+        int n = _cidxs.length;
+        _cidxs = Arrays.copyOf(_cidxs, n + t._cidxs.length);
+        System.arraycopy(t._cidxs, 0, _cidxs, n, t._cidxs.length);
+      }
+      _sum += t._sum;
+    }
+  }
+  // Starts prefetching, on each node, the remote chunks of src covering the rows
+  // of the chunks of vec homed there, 4 chunks of vec at a time
+  private static class StartPrefetch extends MRTask<StartPrefetch> {
+    final Vec _vec, _src;
+    StartPrefetch(Vec vec, Vec src) { _vec = vec; _src = src; }
+    @Override public void setupLocal() { ChunkPrefetcher.start(new Frame(_vec), new Vec[]{_src}, false, 4, priority()); }
+  }
+  // Whether the chunks of src covering the rows of the chunks of vec homed on
+  // a node are cached there
+  private static class RemoteChunksCached extends MRTask<RemoteChunksCached> {
+    final Vec _vec, _src;
+    boolean _cached;
+    RemoteChunksCached(Vec vec, Vec src) { _vec = vec; _src = src; }
+    @Override public void setupLocal() {
+      _cached = true;
+      final long[] espc = _vec.espc();
+      for( int cidx = 0; cidx < _vec.nChunks(); cidx++ ) {
+        if( !_vec.chunkKey(cidx).home() ) continue;
+        for( int c = _src.elem2ChunkIdx(espc[cidx]); c <= _src.elem2ChunkIdx(espc[cidx + 1] - 1); c++ ) {
+          Key k = _src.chunkKey(c);
+          Value v = Value.STORE_get(k);
+          if( !k.home() && (v == null || (v.rawMem() == null && v.rawPOJO() == null)) ) _cached = false;
+        }
+      }
+    }
+    @Override public void reduce(RemoteChunksCached t) { _cached &= t._cached; }
+  }
+  private static class RowSumTask extends MRTask<RowSumTask> {
+    final Vec _src;
+    double _sum;
+    RowSumTask(Vec src) { _src = src; }
+    @Override public void map(Chunk c) {
+      for( int i = 0; i < c._len; i++ ) _sum += _src.at(c.start() + i);
+    }
+    @Override public void reduce(RowSumTask t) { _sum += t._sum; }
+  }
+  private static class SumTask extends MRTask<SumTask> {
+    int _slowNode = -1;
+    double _sum;
+    int _nmaps;
+    @Override public void map(Chunk c) {
+      // The slow node maps none of its chunks until another node took one over
+      if( H2O.SELF.index() == _slowNode && claims() != null )
+        try { claims().awaitGivenAway(10000); } catch( InterruptedException ignore ) { }
+      for( int i = 0; i < c._len; i++ ) _sum += c.atd(i);
+      _nmaps++;
+    }
+    @Override public void reduce(SumTask t) { _sum += t._sum; _nmaps += t._nmaps; }
+    @Override protected boolean commutativeReduce() { return true; }
+  }
+
   private static MRTask manyMaps(Vec vec) {
     return new MRTask() { 
       @Override public void map(Chunk cs[]) { }
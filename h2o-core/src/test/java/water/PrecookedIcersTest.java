@@ -0,0 +1,93 @@
+package water;
+
+import javassist.CtClass;
+import org.apache.commons.io.IOUtils;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.util.IcedInt;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class PrecookedIcersTest extends TestUtil {
+
+  @BeforeClass public static void setup() { stall_till_cloudsize(1); }
+
+  public enum Color { RED, GREEN }
+
+  public static class Base extends Iced<Base> {
+    int _i = 17;
+    private long _l = 1L << 40;   // Private: through Unsafe
+    String _s = "base";
+  }
+
+  public static class Derived extends Base {
+    double[] _ds = {1.5, -2.25};
+    final float _f = 3.5f;        // Final: read through Unsafe
+    Color _c = Color.GREEN;
+    Key _k = Key.make("precooked");
+    IcedInt _iced = new IcedInt(5);
+  }
+
+  // The Icers generated at build time do not depend on the type ids of this
+  // cloud: same bytes as the Icers woven at runtime, and same type id.
+  @Test public void testSameBytesAsWoven() throws Exception {
+    Derived woven = new Derived();
+    byte[] expected = woven.write(new AutoBuffer()).buf();
+
+    Map<Class, CtClass> icers = new HashMap<>();
+    Weaver.genPrecookedIcer(Weaver.precookedPool(), Derived.class, icers);
+    PrecookedLoader loader = new PrecookedLoader(icers, Base.class, Derived.class);
+    Class<?> derived = loader.loadClass(Derived.class.getName());
+    assertNotSame(Derived.class, derived);
+    Freezable ice = (Freezable) derived.newInstance();
+    Icer icer = (Icer) loader.loadClass(Weaver.implClazzName(Derived.class.getName())).getConstructors()[0].newInstance(ice);
+
+    assertEquals(woven.frozenType(), icer.frozenType());
+    assertArrayEquals(expected, icer.write(new AutoBuffer(), ice).buf());
+    assertEquals(woven.toJsonString(), new String(icer.writeJSON(new AutoBuffer(), ice).buf()));
+
+    // Round trip of other values: read with the pre-generated Icer what the
+    // woven one wrote, and write it again
+    woven._i = -3;
+    woven._s = null;
+    woven._ds = new double[]{Math.PI};
+    woven._c = Color.RED;
+    woven._iced = new IcedInt(-7);
+    expected = woven.write(new AutoBuffer()).buf();
+    Freezable read = (Freezable) icer.read(new AutoBuffer(expected), (Freezable) derived.newInstance());
+    assertArrayEquals(expected, icer.write(new AutoBuffer(), read).buf());
+  }
+
+  // Defines the given classes and their pre-generated Icers again, apart from
+  // the woven ones; everything else comes from the parent loader.
+  private static class PrecookedLoader extends ClassLoader {
+    private final Map<String, byte[]> _classes = new HashMap<>();
+
+    PrecookedLoader(Map<Class, CtClass> icers, Class... clazzes) throws Exception {
+      super(PrecookedIcersTest.class.getClassLoader());
+      for (Class c : clazzes) {
+        _classes.put(c.getName(), classBytes(c));
+        _classes.put(Weaver.implClazzName(c.getName()), icers.get(c).toBytecode());
+      }
+    }
+
+    @Override protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+      byte[] b = _classes.get(name);
+      if (b == null) return super.loadClass(name, resolve);
+      Class<?> c = findLoadedClass(name);
+      return c != null ? c : defineClass(name, b, 0, b.length);
+    }
+
+    private static byte[] classBytes(Class c) throws IOException {
+      try (InputStream is = c.getClassLoader().getResourceAsStream(c.getName().replace('.', '/') + ".class")) {
+        return IOUtils.toByteArray(is);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,106 @@
+package water;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.util.IcedInt;
+
+import static org.junit.Assert.*;
+
+public class TaskPutKeysTest extends TestUtil {
+
+  @BeforeClass()
+  public static void setup() { stall_till_cloudsize(3); }
+
+  @Test
+  public void testBatchRoundTrip() {
+    Key k1 = Key.make(), k2 = Key.make();
+    TaskPutKey[] puts = new TaskPutKey[]{
+            new TaskPutKey(k1, new Value(k1, new IcedInt(1))),
+            new TaskPutKey(k2, new Value(k2, new IcedInt(2))),
+            new TaskPutKey(k1, new Value(k1, new IcedInt(3)))
+    };
+    // What the home node gets over the wire: the puts in the order they were queued
+    AutoBuffer ab = new AutoBuffer().put(new TaskPutKeys(puts)).flipForReading();
+    TaskPutKeys tpks = ab.get();
+    assertEquals(3, tpks._puts.length);
+    int[] expected = new int[]{1, 2, 3};
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals(puts[i]._key, tpks._puts[i]._key);
+      assertEquals(expected[i], ((IcedInt) tpks._puts[i]._val.get())._val);
+    }
+  }
+
+  @Test
+  public void testPendingIsTheLastPut() {
+    Key k1 = Key.make(), k2 = Key.make();
+    TaskPutKey[] puts = new TaskPutKey[]{
+            new TaskPutKey(k1, new Value(k1, new IcedInt(1))),
+            new TaskPutKey(k2, new Value(k2, new IcedInt(2))),
+            new TaskPutKey(k1, new Value(k1, new IcedInt(3)))
+    };
+    TaskPutKeys tpks = new TaskPutKeys(puts);
+    assertSame(puts[2], tpks.pending(k1));
+    assertSame(puts[1], tpks.pending(k2));
+    assertNull(tpks.pending(Key.make()));
+  }
+
+  @Test
+  public void testBatchedRemotePuts() {
+    final int maxBytes = TaskPutKeys.MAX_BYTES;
+    final Key[] keys = new Key[H2O.CLOUD.size() * 10];
+    try {
+      TaskPutKeys.MAX_BYTES = 1 << 10;
+      long[] before = TaskPutKeys.stats();
+      Futures fs = new Futures();
+      int remotePuts = 0;
+      for (int i = 0; i < keys.length; i++) {
+        H2ONode home = H2O.CLOUD._memary[i % H2O.CLOUD.size()];
+        keys[i] = Key.make((byte) 1, Key.HIDDEN_USER_KEY, true, home);
+        if (home == H2O.SELF) {
+          DKV.put(keys[i], new IcedInt(i), fs);
+          continue;
+        }
+        remotePuts++;
+        synchronized (home) { // Holds back the scheduled flush
+          DKV.put(keys[i], new IcedInt(i), fs);
+          assertNotNull(home._putBatch);
+          TaskPutKey tpk = TaskPutKeys.queued(home, keys[i]);
+          assertNotNull(tpk);
+          assertEquals(i, ((IcedInt) tpk._xval.get())._val);
+          // Not sent yet, still seen by gets
+          assertEquals(i, ((IcedInt) DKV.getGet(keys[i]))._val);
+        }
+      }
+      DKV.write_barrier();
+      for (H2ONode h2o : H2O.CLOUD._memary)
+        assertNull(h2o._putBatch);
+      fs.blockForPending();
+      long[] after = TaskPutKeys.stats();
+      if (remotePuts > 0) assertTrue(after[0] > before[0]);
+      assertEquals(remotePuts, after[1] - before[1]);
+      // The puts reached their home nodes
+      for (int i = 0; i < keys.length; i++) {
+        H2ONode home = H2O.CLOUD._memary[i % H2O.CLOUD.size()];
+        if (home != H2O.SELF)
+          new RPC<>(home, new CheckValue(keys[i], i)).call().get();
+      }
+    } finally {
+      TaskPutKeys.MAX_BYTES = maxBytes;
+      for (Key k : keys)
+        if (k != null) DKV.remove(k);
+    }
+  }
+
+  private static class CheckValue extends DTask<CheckValue> {
+    private final Key _key;
+    private final int _expected;
+    CheckValue(Key key, int expected) { _key = key; _expected = expected; }
+    @Override public void compute2() {
+      IcedInt val = DKV.getGet(_key);
+      if (val == null || val._val != _expected)
+        throw new IllegalStateException("Expected " + _expected + " at home of " + _key + ", got " + (val == null ? null : val._val));
+      tryComplete();
+    }
+  }
+
+}
@@ -0,0 +1,169 @@
+package water;
+
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.util.ArrayUtils;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class WireCompressionTest extends TestUtil {
+
+  @BeforeClass()
+  public static void setup() { stall_till_cloudsize(3); }
+
+  public static class Payload extends Iced<Payload> {
+    double[] _vals;
+    String _name;
+  }
+
+  @Test
+  public void testRoundTrip() {
+    final int threshold = WireCompression.THRESHOLD;
+    try {
+      WireCompression.THRESHOLD = 0;
+      Payload p = new Payload();
+      p._vals = new double[100000];
+      for (int i = 0; i < p._vals.length; i++) p._vals[i] = i % 100;
+      p._name = "payload";
+
+      AutoBuffer ab = new AutoBuffer().put4(42);
+      WireCompression.Zipped zip = WireCompression.write(ab, RPC.CLIENT_UDP_SEND, RPC.CLIENT_ZIP_SEND, p, true);
+      assertNotNull(zip);
+      assertTrue(zip._zip.length < zip._rawLen / 10);
+      ab.flipForReading();
+      assertEquals(42, ab.get4());
+      assertEquals(RPC.CLIENT_ZIP_SEND, ab.get1());
+      Payload q = WireCompression.read(ab).get();
+      assertArrayEquals(p._vals, q._vals, 0);
+      assertEquals("payload", q._name);
+
+      // A re-send writes the same bytes, without serializing and compressing the payload again
+      ab = WireCompression.write(new AutoBuffer(), RPC.CLIENT_ZIP_SEND, zip).flipForReading();
+      assertEquals(RPC.CLIENT_ZIP_SEND, ab.get1());
+      assertArrayEquals(p._vals, WireCompression.read(ab).<Payload>get()._vals, 0);
+
+      // Below the threshold, the payload is written as is
+      WireCompression.THRESHOLD = zip._rawLen + 1;
+      ab = new AutoBuffer();
+      assertNull(WireCompression.write(ab, RPC.CLIENT_UDP_SEND, RPC.CLIENT_ZIP_SEND, p, true));
+      ab.flipForReading();
+      assertEquals(RPC.CLIENT_UDP_SEND, ab.get1());
+      Payload r = ab.get();
+      assertArrayEquals(p._vals, r._vals, 0);
+    } finally {
+      WireCompression.THRESHOLD = threshold;
+    }
+  }
+
+  @Test
+  public void testIncompressible() {
+    byte[] raw = new byte[10000];
+    new java.util.Random(0xC0FFEE).nextBytes(raw);
+    assertNull(WireCompression.compress(raw, 0, raw.length));
+  }
+
+  @Test
+  public void testCompressedRemoteTasks() throws InterruptedException {
+    final int threshold = WireCompression.THRESHOLD;
+    try {
+      enableCompression(1 << 10);
+      long[] before = WireCompression.stats();
+      BigRoundTrip mrt = new BigRoundTrip();
+      mrt._in = new double[100000];
+      for (int i = 0; i < mrt._in.length; i++) mrt._in[i] = i % 100;
+      mrt.doAllNodes();
+      for (int i = 0; i < mrt._in.length; i++)
+        assertEquals(H2O.CLOUD.size() * (i % 100 + 1), mrt._out[i], 0);
+      long[] after = WireCompression.stats();
+      if (H2O.CLOUD.size() > 1) {
+        assertTrue("Compressed requests", after[0] > before[0]);
+        assertTrue("Decompressed answers", after[4] > before[4]);
+        assertTrue("Compression ratio", after[2] - before[2] < (after[1] - before[1]) / 10);
+      }
+    } finally {
+      new SetThreshold(threshold).doAllNodes();
+    }
+  }
+
+  @Test
+  public void testCompressedSpilledValue() throws InterruptedException {
+    Assume.assumeTrue(H2O.CLOUD.size() > 1);
+    final int threshold = WireCompression.THRESHOLD, maxRawLen = WireCompression.MAX_RAW_LEN;
+    Key k = null;
+    try {
+      enableCompression(1 << 10);
+      H2ONode home = H2O.CLOUD._memary[0] != H2O.SELF ? H2O.CLOUD._memary[0] : H2O.CLOUD._memary[1];
+      byte[] bytes = new byte[3 * AutoBuffer.BBP_BIG._size + 17];
+      for (int i = 0; i < bytes.length; i++) bytes[i] = (byte) (i % 7);
+      // Compressed, then past the largest payload compressed: sent as is
+      for (int maxLen : new int[]{maxRawLen, AutoBuffer.BBP_BIG._size}) {
+        WireCompression.MAX_RAW_LEN = maxLen;
+        k = Key.make((byte) 1, Key.HIDDEN_USER_KEY, true, home);
+        Value v = new Value(k, bytes);
+        v.storePersist();
+        v.freeMem(); // spilled to ice, TaskPutKey reads it back into the held bytes
+        long[] before = WireCompression.stats();
+        DKV.put(k, v);
+        if (maxLen == maxRawLen)
+          assertTrue("Compressed TaskPutKey", WireCompression.stats()[0] > before[0]);
+        assertEquals(Arrays.hashCode(bytes), new HomeValueHash(k).doAllNodes()._hash);
+        DKV.remove(k);
+        k = null;
+      }
+    } finally {
+      WireCompression.MAX_RAW_LEN = maxRawLen;
+      if (k != null) DKV.remove(k);
+      new SetThreshold(threshold).doAllNodes();
+    }
+  }
+
+  // Compression is negotiated through the HeartBeats, wait until all nodes have seen each other's
+  private static void enableCompression(int threshold) throws InterruptedException {
+    new SetThreshold(threshold).doAllNodes();
+    long deadline = System.currentTimeMillis() + 30000;
+    while (!new CompressionReady().doAllNodes()._ready) {
+      assertTrue("Compression not enabled by the HeartBeats in time", System.currentTimeMillis() < deadline);
+      Thread.sleep(100);
+    }
+  }
+
+  private static class HomeValueHash extends MRTask<HomeValueHash> {
+    final Key _key;
+    int _hash;
+    HomeValueHash(Key key) { _key = key; }
+    @Override public void setupLocal() {
+      if (_key.home()) _hash = Arrays.hashCode(Value.STORE_get(_key).memOrLoad());
+    }
+    @Override public void reduce(HomeValueHash mrt) { _hash += mrt._hash; }
+  }
+
+  private static class SetThreshold extends MRTask<SetThreshold> {
+    final int _threshold;
+    SetThreshold(int threshold) { _threshold = threshold; }
+    @Override public void setupLocal() { WireCompression.THRESHOLD = _threshold; }
+  }
+
+  private static class CompressionReady extends MRTask<CompressionReady> {
+    boolean _ready;
+    @Override public void setupLocal() {
+      _ready = true;
+      for (H2ONode node : H2O.CLOUD._memary)
+        if (node != H2O.SELF && !WireCompression.enabledFor(node)) _ready = false;
+    }
+    @Override public void reduce(CompressionReady mrt) { _ready &= mrt._ready; }
+  }
+
+  private static class BigRoundTrip extends MRTask<BigRoundTrip> {
+    double[] _in;  // Compressible request
+    double[] _out; // Compressible answer, summed over the nodes
+    @Override public void setupLocal() {
+      _out = new double[_in.length];
+      for (int i = 0; i < _in.length; i++) _out[i] = _in[i] + 1;
+    }
+    @Override public void reduce(BigRoundTrip mrt) { ArrayUtils.add(_out, mrt._out); }
+  }
+
+}
@@ -0,0 +1,236 @@
+package water.jdbc;
+
+import org.hsqldb.server.Server;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.fvec.Vec;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.HashSet;
+
+import static org.junit.Assert.*;
+
+public class SQLManagerTest extends TestUtil {
+
+  private static final int NROWS = 5000;
+  private static Server server;
+  private static String url;
+
+  // Database server in this JVM, reachable from all the nodes of the test cloud
+  @BeforeClass
+  public static void setup() throws IOException, SQLException {
+    stall_till_cloudsize(1);
+    int port;
+    try (ServerSocket s = new ServerSocket(0)) {
+      port = s.getLocalPort();
+    }
+    server = new Server();
+    server.setDatabaseName(0, "ingest");
+    server.setDatabasePath(0, "mem:ingest");
+    server.setPort(port);
+    server.setSilent(true);
+    server.setNoSystemExit(true);
+    server.start();
+    url = "jdbc:hsqldb:hsql://localhost:" + port + "/ingest";
+    try (Connection conn = DriverManager.getConnection(url, "SA", "");
+         Statement stmt = conn.createStatement()) {
+      stmt.executeUpdate("CREATE TABLE keyed (id INTEGER PRIMARY KEY, x DOUBLE, s VARCHAR(16), t TIMESTAMP)");
+      stmt.executeUpdate("CREATE TABLE unkeyed (id INTEGER, x DOUBLE, s VARCHAR(16), t TIMESTAMP)");
+      stmt.executeUpdate("CREATE TABLE skewed (id INTEGER, x DOUBLE, s VARCHAR(16), t TIMESTAMP)");
+      for (String table : new String[]{"keyed", "unkeyed", "skewed"}) {
+        try (PreparedStatement ins = conn.prepareStatement("INSERT INTO " + table + " VALUES (?, ?, ?, ?)")) {
+          for (int i = 0; i < NROWS; i++) {
+            if (!table.equals("skewed")) ins.setInt(1, i);
+            else if (i < NROWS / 2) ins.setInt(1, 0);                     // A single frequent key
+            else if (i < NROWS * 3 / 4) ins.setNull(1, java.sql.Types.INTEGER); // Many null keys
+            else ins.setInt(1, i);
+            if (i % 7 == 0) ins.setNull(2, java.sql.Types.DOUBLE);
+            else ins.setDouble(2, i * 0.5);
+            if (i % 11 == 0) ins.setNull(3, java.sql.Types.VARCHAR);
+            else ins.setString(3, "s" + (i % 13));
+            ins.setTimestamp(4, new Timestamp(1500000000000L + i * 1000L));
+            ins.addBatch();
+          }
+          ins.executeBatch();
+        }
+      }
+    }
+  }
+
+  @AfterClass
+  public static void teardown() {
+    if (server != null) server.stop();
+  }
+
+  private static void assertImported(Frame fr) {
+    assertEquals(NROWS, fr.numRows());
+    assertEquals(4, fr.numCols());
+    Vec id = fr.vec(0), x = fr.vec(1), s = fr.vec(2), t = fr.vec(3);
+    assertEquals((NROWS - 1) / 2.0, id.mean(), 1e-9);
+    assertEquals((NROWS + 6) / 7, x.naCnt());
+    assertTrue(s.isString());
+    assertEquals((NROWS + 10) / 11, s.naCnt());
+    assertTrue(t.isTime());
+    assertEquals(1500000000000L, (long) t.min());
+    assertEquals(1500000000000L + (NROWS - 1) * 1000L, (long) t.max());
+  }
+
+  private static Frame importTable(String table, String partitionColumn) {
+    return SQLManager.importSqlTable(url, table, "", "SA", "", "*", false, partitionColumn).get();
+  }
+
+  @Test
+  public void testImportRangesOfPrimaryKey() {
+    Frame fr = importTable("keyed", null);
+    try {
+      assertImported(fr);
+    } finally {
+      fr.delete();
+    }
+  }
+
+  @Test
+  public void testImportRangesOfColumnWithNulls() {
+    Frame fr = importTable("unkeyed", "x");
+    try {
+      assertImported(fr);
+    } finally {
+      fr.delete();
+    }
+  }
+
+  @Test
+  public void testImportRangesOfTimestamps() {
+    Frame fr = importTable("unkeyed", "t");
+    try {
+      assertImported(fr);
+    } finally {
+      fr.delete();
+    }
+  }
+
+  @Test
+  public void testImportPagesOfRows() {
+    Frame fr = importTable("unkeyed", null);
+    try {
+      assertImported(fr);
+    } finally {
+      fr.delete();
+    }
+  }
+
+  @Test
+  public void testSplitKeyRanges() {
+    SQLManager.KeyRanges kr = new SQLManager.KeyRanges("id", java.sql.Types.INTEGER);
+    kr._bounds = new long[]{0, 10};
+    kr.split(4);
+    assertArrayEquals(new long[]{0, 2, 5, 7, 10}, kr._bounds);
+    assertEquals(" WHERE id < ?", kr.where(0));
+    assertEquals(" WHERE id >= ? AND id < ?", kr.where(1));
+    assertEquals(" WHERE id >= ?", kr.where(3));
+    assertEquals(4, kr.nranges());
+    kr._nulls = true; // Read as a range of their own
+    assertEquals(5, kr.nranges());
+    assertEquals(" WHERE id IS NULL", kr.where(4));
+    kr._bounds = new long[]{3, 5};
+    kr.split(8); // No empty ranges
+    assertArrayEquals(new long[]{3, 4, 5}, kr._bounds);
+    kr._bounds = new long[]{3, 3};
+    kr.split(8);
+    assertEquals(2, kr.nranges());
+    assertEquals(" WHERE id IS NOT NULL", kr.where(0));
+    kr._nulls = false;
+    assertEquals(1, kr.nranges());
+    assertEquals("", kr.where(0));
+  }
+
+  @Test
+  public void testBalanceSkewedKeyRanges() throws SQLException {
+    final int maxRows = NROWS / 10;
+    try (Connection conn = DriverManager.getConnection(url, "SA", "");
+         Statement stmt = conn.createStatement()) {
+      SQLManager.KeyRanges kr;
+      try (ResultSet rs = stmt.executeQuery("SELECT MIN(id), MAX(id), COUNT(id) FROM skewed")) {
+        rs.next();
+        kr = SQLManager.KeyRanges.make(rs, "id");
+        kr._nulls = rs.getLong(3) < NROWS;
+      }
+      assertTrue(kr._nulls);
+      kr.split(10);
+      kr.balance(conn, "skewed", maxRows);
+      // Half of the rows have the same key, a quarter have none: these ranges cannot be split
+      assertFalse(kr.fits(maxRows));
+      assertTrue(kr.nranges() > 10);
+      HashSet<Long> times = new HashSet<>();
+      long oversized = 0;
+      for (int r = 0; r < kr.nranges(); r++) {
+        try (PreparedStatement range = conn.prepareStatement("SELECT t FROM skewed" + kr.where(r))) {
+          kr.bind(range, r);
+          int rows = 0;
+          try (ResultSet rs = range.executeQuery()) {
+            while (rs.next()) {
+              assertTrue(times.add(rs.getTimestamp(1).getTime())); // Each row is read once
+              rows++;
+            }
+          }
+          assertEquals("rows counted in range " + r, kr._rows[r], rows);
+          if (rows > maxRows) oversized += rows;
+        }
+      }
+      assertEquals("Only the frequent key and the null keys", NROWS / 2 + NROWS / 4, oversized);
+      assertEquals(NROWS, times.size());
+    }
+  }
+
+  @Test
+  public void testCountKeyRangesInBatches() throws SQLException {
+    try (Connection conn = DriverManager.getConnection(url, "SA", "");
+         Statement stmt = conn.createStatement()) {
+      SQLManager.KeyRanges kr;
+      try (ResultSet rs = stmt.executeQuery("SELECT MIN(id), MAX(id), COUNT(id) FROM skewed")) {
+        rs.next();
+        kr = SQLManager.KeyRanges.make(rs, "id");
+        kr._nulls = rs.getLong(3) < NROWS;
+      }
+      kr.split(10);
+      kr.count(conn, "skewed", SQLManager.MAX_COUNT_RANGES);
+      long[] rows = kr._rows.clone();
+      for (int maxRanges : new int[]{1, 3, kr.nvalues() - 1}) {
+        kr.count(conn, "skewed", maxRanges);
+        assertArrayEquals("ranges counted " + maxRanges + " at a time", rows, kr._rows);
+      }
+      long total = 0;
+      for (long r : rows) total += r;
+      assertEquals(NROWS, total);
+    }
+  }
+
+  @Test
+  public void testImportRangesOfSkewedKey() {
+    Frame fr = importTable("skewed", "id");
+    try {
+      assertEquals(NROWS, fr.numRows());
+      Vec id = fr.vec(0), t = fr.vec(3);
+      assertEquals(NROWS / 4, id.naCnt());
+      assertEquals((NROWS + 6) / 7, fr.vec(1).naCnt());
+      assertEquals(1500000000000L + (NROWS - 1) * 500.0, t.mean(), 1e-3);
+      // The rows of the frequent key are not left in a single chunk
+      long[] espc = t.espc();
+      for (int c = 0; c < t.nChunks(); c++)
+        assertTrue(espc[c + 1] - espc[c] < NROWS / 2);
+    } finally {
+      fr.delete();
+    }
+  }
+}
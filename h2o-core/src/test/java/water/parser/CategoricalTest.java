@@ -0,0 +1,105 @@
+package water.parser;
+
+import org.junit.Test;
+import water.fvec.AppendableVec;
+import water.fvec.NewChunk;
+import water.fvec.Vec;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class CategoricalTest {
+
+  @Test
+  public void testAddKey() {
+    Categorical cat = new Categorical();
+    assertEquals(1, cat.addKey(new BufferedString("b")));
+    assertEquals(2, cat.addKey(new BufferedString("a")));
+    assertEquals(1, cat.addKey(new BufferedString("xbx".getBytes(), 1, 1)));
+    assertEquals(3, cat.addKey(new BufferedString("")));
+    assertEquals(3, cat.size());
+    assertEquals(2, cat.getTokenId(new BufferedString("a")));
+    assertEquals(-1, cat.getTokenId(new BufferedString("c")));
+    assertArrayEquals(new int[]{3, 2, 1}, cat.sortedIds());
+    assertArrayEquals(new String[]{"", "a", "b"}, PackedDomains.unpackToStrings(PackedDomains.pack(cat)));
+  }
+
+  @Test
+  public void testConcurrentAddKey() throws InterruptedException {
+    final Categorical cat = new Categorical();
+    final String[] levels = new String[20000];
+    for (int i = 0; i < levels.length; i++) levels[i] = "level" + i;
+    final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    final AtomicBoolean consistent = new AtomicBoolean(true);
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      final Random rnd = new Random(t);
+      threads[t] = new Thread() {
+        @Override public void run() {
+          BufferedString bs = new BufferedString();
+          for (int i = 0; i < 200000; i++) {
+            String level = levels[rnd.nextInt(levels.length)];
+            int id = cat.addKey(bs.set(level));
+            Integer prev = ids.putIfAbsent(level, id);
+            if (prev != null && prev != id) consistent.set(false);
+          }
+        }
+      };
+      threads[t].start();
+    }
+    for (Thread t : threads) t.join();
+    assertTrue(consistent.get());
+    assertEquals(ids.size(), cat.size());
+    assertEquals(ids.size(), new HashSet<>(ids.values()).size());
+  }
+
+  @Test
+  public void testToGlobalIds() {
+    Categorical cat = new Categorical();
+    for (String s : new String[]{"d", "b", "a"}) cat.addKey(new BufferedString(s));
+    Categorical other = new Categorical();
+    for (String s : new String[]{"c", "a", "e"}) other.addKey(new BufferedString(s));
+    byte[] domain = PackedDomains.merge(PackedDomains.pack(cat), PackedDomains.pack(other));
+    assertArrayEquals(new String[]{"a", "b", "c", "d", "e"}, PackedDomains.unpackToStrings(domain));
+    assertArrayEquals(new int[]{-1, 3, 1, 0}, cat.toGlobalIds(domain));
+    assertArrayEquals(new int[]{-1, 2, 0, 4}, other.toGlobalIds(domain));
+  }
+
+  @Test
+  public void testConvertToUTF8() {
+    Categorical cat = new Categorical();
+    cat.addKey(new BufferedString(new byte[]{'a', (byte) 0xFF, 'b'}, 0, 3));
+    cat.addKey(new BufferedString("a<0xFF>b"));
+    cat.addKey(new BufferedString("z"));
+    cat.convertToUTF8(1);
+    byte[] domain = PackedDomains.pack(cat);
+    assertArrayEquals(new String[]{"a<0xFF>b", "z"}, PackedDomains.unpackToStrings(domain));
+    assertArrayEquals(new int[]{-1, 0, 0, 1}, cat.toGlobalIds(domain));
+    assertEquals(3, cat.getTokenId(new BufferedString("z")));
+  }
+
+  @Test
+  public void testHeldChunks() {
+    Categorical cat = new Categorical(true);
+    AppendableVec av = new AppendableVec(Vec.newKey(), Vec.T_CAT);
+    NewChunk nc = av.chunkForChunkIdx(0);
+    for (String s : new String[]{"b", null, "a", "b"})
+      if (s == null) nc.addNA();
+      else nc.addNum(cat.addKey(new BufferedString(s)), 0);
+    assertTrue(cat.hold(nc));
+    assertEquals(4, av._tmp_espc[0]); // recorded before the chunk is closed
+    assertSame(nc, cat.heldChunk());
+    assertNull(cat.heldChunk());
+    // Compressed with the global ids
+    assertEquals(-1, nc.mapCategoricals(cat.toGlobalIds(PackedDomains.pack(cat))));
+    assertEquals(1, nc.at8(0));
+    assertTrue(nc.isNA(1));
+    assertEquals(0, nc.at8(2));
+    assertEquals(1, nc.at8(3));
+    assertEquals(2, nc.mapCategoricals(new int[]{-1, 0})); // no new id for 0, in row 2
+    assertFalse(new Categorical().hold(nc));
+  }
+}
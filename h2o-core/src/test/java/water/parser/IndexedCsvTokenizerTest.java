@@ -0,0 +1,103 @@
+package water.parser;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.Key;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class IndexedCsvTokenizerTest extends TestUtil {
+  @BeforeClass static public void setup() { stall_till_cloudsize(1); }
+
+  // Same bytes, cut into chunks of about chunkSize bytes
+  private static String[] chunks(String data, int chunkSize, Random rnd) {
+    ArrayList<String> res = new ArrayList<>();
+    for( int off = 0; off < data.length(); ) {
+      int end = Math.min(data.length(), off + chunkSize / 2 + rnd.nextInt(chunkSize));
+      res.add(data.substring(off, end));
+      off = end;
+    }
+    return res.toArray(new String[res.size()]);
+  }
+
+  private static Frame parse(String[] chunks, boolean indexed) {
+    boolean old = IndexedCsvTokenizer.ENABLED;
+    IndexedCsvTokenizer.ENABLED = indexed;
+    try {
+      return ParseDataset.parse(Key.make(), ParserTest.makeByteVec(chunks));
+    } finally {
+      IndexedCsvTokenizer.ENABLED = old;
+    }
+  }
+
+  private static void assertSameParse(String data, int chunkSize) {
+    String[] chunks = chunks(data, chunkSize, new Random(0xCAFE));
+    Frame expected = null, actual = null;
+    try {
+      expected = parse(chunks, false);
+      actual = parse(chunks, true);
+      assertArrayEquals(expected.names(), actual.names());
+      for( int i = 0; i < expected.numCols(); i++ ) {
+        assertEquals(expected.vec(i).get_type(), actual.vec(i).get_type());
+        assertArrayEquals(expected.vec(i).domain(), actual.vec(i).domain());
+      }
+      assertTrue(isBitIdentical(expected, actual));
+    } finally {
+      if( expected != null ) expected.delete();
+      if( actual != null ) actual.delete();
+    }
+  }
+
+  @Test public void testStructuralIndex() {
+    byte[] bits = StringUtils.bytesOf("a,b\r\n\"c\",'d'\n1234567890,x,\n");
+    long[] idx = IndexedCsvTokenizer.structuralIndex(bits, (byte) ',', true);
+    for( int i = 0; i < bits.length; i++ ) {
+      byte b = bits[i];
+      boolean expected = b == ',' || b == '\n' || b == '\r' || b == '"' || b == '\'';
+      assertEquals("byte " + i, expected, (idx[i >> 6] & (1L << (i & 63))) != 0);
+    }
+  }
+
+  @Test public void testNumbers() {
+    Random rnd = new Random(42);
+    StringBuilder sb = new StringBuilder("i,d,e,p\n");
+    for( int r = 0; r < 5000; r++ ) {
+      sb.append(rnd.nextInt() - 1000).append(',');
+      sb.append(rnd.nextBoolean() ? "-" : "").append(rnd.nextInt(100000)).append('.').append(rnd.nextInt(1000)).append(',');
+      sb.append(rnd.nextInt(1000)).append(rnd.nextBoolean() ? "e" : "E").append(rnd.nextBoolean() ? "-" : "+").append(rnd.nextInt(20)).append(',');
+      sb.append(' ').append(rnd.nextInt(100)).append("% ").append(r % 3 == 0 ? "\r\n" : "\n");
+    }
+    assertSameParse(sb.toString(), 2000);
+  }
+
+  @Test public void testMixed() {
+    Random rnd = new Random(7);
+    String[] cats = {"red", "green", "blue", "NA", "Blue", "2015-01-02", "1e", "1.2.3"};
+    StringBuilder sb = new StringBuilder("a,b,c,d\n");
+    for( int r = 0; r < 5000; r++ ) {
+      sb.append(rnd.nextInt(100)).append(',');
+      sb.append(cats[rnd.nextInt(cats.length)]).append(',');
+      switch( rnd.nextInt(12) ) {       // Lines the byte-at-a-time parser takes over
+      case 0: sb.append("\"quoted, string\""); break;
+      case 1: sb.append("$12"); break;
+      case 2: sb.append("-"); break;
+      case 3: sb.append("123456789012345678901234"); break;
+      default: sb.append(rnd.nextDouble());
+      }
+      switch( rnd.nextInt(10) ) {
+      case 0: sb.append("\n"); break;               // Missing column
+      case 1: sb.append(",,extra\n"); break;        // Too many columns
+      case 2: sb.append(",\n\n\r\n"); break;        // Empty lines
+      case 3: sb.append(",  \t\r"); break;          // Old Mac line end
+      default: sb.append(',').append(rnd.nextInt(5)).append('\n');
+      }
+    }
+    assertSameParse(sb.toString(), 1500);
+  }
+}
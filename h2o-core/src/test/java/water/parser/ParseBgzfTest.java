@@ -0,0 +1,147 @@
+package water.parser;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.*;
+import water.fvec.ByteVec;
+import water.fvec.C1NChunk;
+import water.fvec.Frame;
+import water.fvec.Vec;
+import water.util.StringUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+
+public class ParseBgzfTest extends TestUtil {
+  @BeforeClass static public void setup() { stall_till_cloudsize(1); }
+
+  private static String makeCsv(int rows) {
+    StringBuilder sb = new StringBuilder("a,b,c\n");
+    for( int i = 0; i < rows; i++ )
+      sb.append(i).append(',').append(i * 2.5).append(",cat").append(i % 7).append('\n');
+    return sb.toString();
+  }
+
+  // BGZF as written by bgzip: gzip members of blockSize bytes of data at most,
+  // with the BC extra field, followed by the empty EOF block
+  private static byte[] bgzf(byte[] data, int blockSize) {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    for( int off = 0; off < data.length; off += blockSize )
+      writeBlock(bos, data, off, Math.min(blockSize, data.length - off));
+    writeBlock(bos, data, 0, 0);
+    return bos.toByteArray();
+  }
+
+  private static void writeBlock(ByteArrayOutputStream bos, byte[] data, int off, int len) {
+    Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    deflater.setInput(data, off, len);
+    deflater.finish();
+    byte[] cdata = new byte[len + 1024];
+    int clen = deflater.deflate(cdata);
+    assertTrue(deflater.finished());
+    deflater.end();
+    CRC32 crc = new CRC32();
+    crc.update(data, off, len);
+    int bsize = 18 + clen + 8;
+    bos.write(new byte[]{0x1f, (byte) 0x8b, 8, 4, 0, 0, 0, 0, 0, (byte) 0xff, 6, 0, 'B', 'C', 2, 0}, 0, 16);
+    put2(bos, bsize - 1);
+    bos.write(cdata, 0, clen);
+    put2(bos, (int) crc.getValue());
+    put2(bos, (int) (crc.getValue() >>> 16));
+    put2(bos, len);
+    put2(bos, len >>> 16);
+  }
+
+  private static void put2(ByteArrayOutputStream bos, int x) {
+    bos.write(x & 0xff);
+    bos.write((x >>> 8) & 0xff);
+  }
+
+  // A ByteVec of the given bytes, in chunks of chunkSize bytes
+  private static ByteVec makeByteVec(byte[] bytes, int chunkSize) {
+    Futures fs = new Futures();
+    int nchunks = (bytes.length + chunkSize - 1) / chunkSize;
+    long[] espc = new long[nchunks + 1];
+    for( int i = 0; i < nchunks; ++i ) espc[i + 1] = Math.min(bytes.length, espc[i] + chunkSize);
+    Key k = Vec.newKey();
+    ByteVec bv = new ByteVec(k, Vec.ESPC.rowLayout(k, espc));
+    DKV.put(k, bv, fs);
+    for( int i = 0; i < nchunks; ++i ) {
+      Key ck = bv.chunkKey(i);
+      DKV.put(ck, new Value(ck, new C1NChunk(Arrays.copyOfRange(bytes, (int) espc[i], (int) espc[i + 1]))), fs);
+    }
+    fs.blockForPending();
+    return bv;
+  }
+
+  private static byte[] bytes(ByteVec bv) {
+    byte[] res = new byte[(int) bv.length()];
+    for( int i = 0; i < bv.nChunks(); i++ ) {
+      byte[] mem = bv.chunkForChunkIdx(i).getBytes();
+      System.arraycopy(mem, 0, res, (int) bv.espc()[i], mem.length);
+    }
+    return res;
+  }
+
+  @Test public void testDetect() throws IOException {
+    byte[] data = StringUtils.bytesOf(makeCsv(100));
+    assertTrue(ZipUtil.isBgzf(bgzf(data, 1000)));
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    GZIPOutputStream gzos = new GZIPOutputStream(bos);
+    gzos.write(data);
+    gzos.close();
+    assertFalse(ZipUtil.isBgzf(bos.toByteArray()));
+    assertFalse(ZipUtil.isBgzf(data));
+  }
+
+  @Test public void testDecompress() {
+    byte[] data = StringUtils.bytesOf(makeCsv(20000));
+    ByteVec bv = makeByteVec(bgzf(data, 4096), 7001); // Chunks not aligned with the blocks
+    ByteVec raw = null;
+    try {
+      raw = BgzfDecompressTask.decompress(bv);
+      assertNotNull(raw);
+      assertTrue(raw.nChunks() > 1);
+      assertArrayEquals(data, bytes(raw));
+    } finally {
+      bv.remove();
+      if( raw != null ) raw.remove();
+    }
+  }
+
+  @Test public void testNotSplittable() throws IOException {
+    // Plain gzip: the first chunk is not a BGZF block, parsed as a stream
+    byte[] data = StringUtils.bytesOf(makeCsv(20000));
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    GZIPOutputStream gzos = new GZIPOutputStream(bos);
+    gzos.write(data);
+    gzos.close();
+    ByteVec bv = makeByteVec(bos.toByteArray(), 7001);
+    try {
+      assertNull(BgzfDecompressTask.decompress(bv));
+    } finally {
+      bv.remove();
+    }
+  }
+
+  @Test public void testParse() {
+    String csv = makeCsv(20000);
+    Frame expected = null, actual = null;
+    try {
+      expected = ParseDataset.parse(Key.make("expected.hex"), ParserTest.makeByteVec(csv));
+      ByteVec bv = makeByteVec(bgzf(StringUtils.bytesOf(csv), 4096), 7001);
+      actual = ParseDataset.parse(Key.make("actual.hex"), bv._key);
+      assertTrue(actual.anyVec().nChunks() > 1); // Parsed in parallel
+      assertTrue(isBitIdentical(expected, actual));
+    } finally {
+      if( expected != null ) expected.delete();
+      if( actual != null ) actual.delete();
+    }
+  }
+}
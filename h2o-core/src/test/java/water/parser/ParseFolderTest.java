@@ -1,6 +1,12 @@
 package water.parser;
 
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
 import org.junit.*;
 
 import water.Key;
@@ -36,4 +42,81 @@ public class ParseFolderTest extends TestUtil {
       if( nfs1 != null ) nfs1.remove();
     }
   }
+
+  @Test public void testSmallFilesCoalesced() throws IOException {
+    File dir = new File(System.getProperty("java.io.tmpdir"), "smallfiles" + System.nanoTime());
+    Assert.assertTrue(dir.mkdirs());
+    Key[] keys = new Key[40];
+    Random rnd = new Random(42);
+    Frame coalesced = null, perFile = null;
+    boolean coalesce = ParseDataset.COALESCE_SMALL_FILES;
+    int sample = ParseSetup.GUESS_SAMPLE_FILES;
+    try {
+      for( int i = 0; i < keys.length; i++ ) {
+        File f = new File(dir, String.format("part-%03d.csv" + (i % 10 == 3 ? ".gz" : ""), i));
+        OutputStream os = new FileOutputStream(f);
+        if( i % 10 == 3 ) os = new GZIPOutputStream(os);
+        StringBuilder sb = new StringBuilder("id,x,cat\n");
+        for( int r = 0; r < 1 + rnd.nextInt(20); r++ )
+          sb.append(i).append(',').append(rnd.nextDouble()).append(",level").append(rnd.nextInt(5)).append('\n');
+        os.write(sb.toString().getBytes());
+        os.close();
+        keys[i] = NFSFileVec.make(f)._key;
+      }
+      ParseSetup.GUESS_SAMPLE_FILES = 5;
+      ParseDataset.COALESCE_SMALL_FILES = true;
+      coalesced = ParseDataset.parse(Key.make(), keys, false, false, ParseSetup.GUESS_HEADER);
+      ParseDataset.COALESCE_SMALL_FILES = false;
+      perFile = ParseDataset.parse(Key.make(), keys, false, false, ParseSetup.GUESS_HEADER);
+      Assert.assertEquals(keys.length, perFile.anyVec().nChunks());
+      Assert.assertTrue(coalesced.anyVec().nChunks() < keys.length);
+      Assert.assertEquals(3, coalesced.numCols());
+      Assert.assertTrue("parsed values do not match!", TestUtil.isBitIdentical(perFile, coalesced));
+    } finally {
+      ParseDataset.COALESCE_SMALL_FILES = coalesce;
+      ParseSetup.GUESS_SAMPLE_FILES = sample;
+      if( coalesced != null ) coalesced.delete();
+      if( perFile != null ) perFile.delete();
+      for( Key k : keys ) if( k != null ) k.remove();
+      FileUtils.delete(dir);
+    }
+  }
+
+  @Test public void testSmallFilesErrorLines() throws IOException {
+    File dir = new File(System.getProperty("java.io.tmpdir"), "smallfileserrs" + System.nanoTime());
+    Assert.assertTrue(dir.mkdirs());
+    Key[] keys = new Key[20];
+    Frame fr = null;
+    boolean coalesce = ParseDataset.COALESCE_SMALL_FILES;
+    try {
+      for( int i = 0; i < keys.length; i++ ) {
+        File f = new File(dir, String.format("part-%03d.csv", i));
+        StringBuilder sb = new StringBuilder("id,x,cat\n");
+        for( int r = 0; r < 5; r++ ) {
+          sb.append(i).append(',').append(r).append(',');
+          if( i == 12 && r == 2 ) sb.append("\"level").append(r).append('\n'); // Unmatched quote
+          else sb.append("level").append(r).append('\n');
+        }
+        OutputStream os = new FileOutputStream(f);
+        os.write(sb.toString().getBytes());
+        os.close();
+        keys[i] = NFSFileVec.make(f)._key;
+      }
+      ParseDataset.COALESCE_SMALL_FILES = true;
+      ParseSetup setup = ParseSetup.guessSetup(new Key[]{keys[0]}, false, ParseSetup.HAS_HEADER);
+      ParseDataset pds = ParseDataset.forkParseDataset(Key.<Frame>make(), keys, setup, false);
+      fr = pds._job.get();
+      Assert.assertEquals(100, fr.numRows());
+      Assert.assertTrue(fr.anyVec().nChunks() < keys.length);
+      String[] warns = pds._job.warns();
+      Assert.assertNotNull(warns);
+      Assert.assertEquals(1, warns.length);
+      Assert.assertTrue(warns[0], warns[0].contains("part-012.csv at line 2 ( destination line 62 )"));
+    } finally {
+      ParseDataset.COALESCE_SMALL_FILES = coalesce;
+      if( fr != null ) fr.delete();
+      for( Key k : keys ) if( k != null ) k.remove();
+      FileUtils.delete(dir);
+    }
+  }
 }
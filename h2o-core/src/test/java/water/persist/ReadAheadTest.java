@@ -0,0 +1,158 @@
+package water.persist;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.Key;
+import water.TestUtil;
+import water.TypeMap;
+import water.Value;
+import water.fvec.FileVec;
+import water.fvec.NFSFileVec;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class ReadAheadTest extends TestUtil {
+
+  private static final int CHUNK_SIZE = 1 << 16;
+
+  @BeforeClass()
+  public static void setup() { stall_till_cloudsize(1); }
+
+  /** Stand-in for a remote store: slow ranged reads of the file bytes */
+  private static class SlowStore extends Persist {
+    final byte[] _data;
+    final AtomicInteger _reads = new AtomicInteger();
+
+    SlowStore(byte[] data) { _data = data; }
+
+    @Override public byte[] load(Value v) throws IOException {
+      _reads.incrementAndGet();
+      try {
+        Thread.sleep(20);
+      } catch (InterruptedException e) {
+        throw new IOException(e);
+      }
+      int off = (int) FileVec.chunkOffset(v._key);
+      return Arrays.copyOfRange(_data, off, off + v._max);
+    }
+
+    @Override public void store(Value v) { throw new UnsupportedOperationException(); }
+    @Override public void delete(Value v) { throw new UnsupportedOperationException(); }
+    @Override public Key uriToKey(URI uri) { throw new UnsupportedOperationException(); }
+    @Override public void cleanUp() {}
+    @Override public List<String> calcTypeaheadMatches(String filter, int limit) { return null; }
+    @Override public void importFiles(String path, String pattern, ArrayList<String> files, ArrayList<String> keys,
+                                      ArrayList<String> fails, ArrayList<String> dels) {}
+  }
+
+  private static byte[] randomFile(File f, int len) throws IOException {
+    byte[] data = new byte[len];
+    new Random(0xAEADL).nextBytes(data);
+    try (FileOutputStream os = new FileOutputStream(f)) {
+      os.write(data);
+    }
+    return data;
+  }
+
+  private static Value chunkValue(FileVec fv, int cidx) {
+    long off = (long) cidx * fv._chunkSize;
+    int len = (int) Math.min(fv._chunkSize, fv.length() - off);
+    Value v = new Value(fv.chunkKey(cidx), len, null, TypeMap.C1NCHUNK, Value.S3);
+    v.setDsk();
+    return v;
+  }
+
+  @Test
+  public void testLoadsServedByReadsAhead() throws IOException {
+    File f = File.createTempFile("readahead", ".bin");
+    byte[] data = randomFile(f, 20 * CHUNK_SIZE + 1000);
+    NFSFileVec fv = NFSFileVec.make(f);
+    try {
+      fv.setChunkSize(CHUNK_SIZE);
+      SlowStore store = new SlowStore(data);
+      PersistManager.PersistStatsEntry stats = new PersistManager.PersistStatsEntry();
+      ReadAhead readAhead = new ReadAhead(store, Value.S3, stats, 4, 1 << 20);
+      int loads = 0;
+      for (int cidx = 0; cidx < fv.nChunks(); cidx++) {
+        if (!fv.chunkKey(cidx).home()) continue; // Loads of the others go to their home node
+        Value v = chunkValue(fv, cidx);
+        int off = (int) FileVec.chunkOffset(v._key);
+        assertArrayEquals(Arrays.copyOfRange(data, off, off + v._max), readAhead.load(v));
+        loads++;
+      }
+      assertTrue(loads > 0);
+      assertEquals("Each chunk read once", loads, store._reads.get());
+      assertEquals(loads - 1, stats.readahead_hits.get());
+      assertEquals(loads - 1, stats.readahead_count.get());
+      assertEquals(0, stats.readahead_wasted_bytes.get());
+      assertEquals(0, readAhead.reserved());
+    } finally {
+      fv.remove();
+      f.delete();
+    }
+  }
+
+  @Test
+  public void testBudget() throws IOException {
+    File f = File.createTempFile("readahead", ".bin");
+    byte[] data = randomFile(f, 20 * CHUNK_SIZE);
+    NFSFileVec fv = NFSFileVec.make(f);
+    try {
+      fv.setChunkSize(CHUNK_SIZE);
+      SlowStore store = new SlowStore(data);
+      PersistManager.PersistStatsEntry stats = new PersistManager.PersistStatsEntry();
+      long budget = CHUNK_SIZE + CHUNK_SIZE / 2;
+      ReadAhead readAhead = new ReadAhead(store, Value.S3, stats, 4, budget);
+      int cidx = 0, homed = 0;
+      for (int c = fv.nChunks() - 1; c >= 0; c--)
+        if (fv.chunkKey(c).home()) { cidx = c; homed++; }
+      assumeTrue(homed > 0);
+      readAhead.load(chunkValue(fv, cidx)); // First chunk homed here
+      assertTrue(readAhead.reserved() <= budget);
+      assertEquals("One chunk ahead at most", Math.min(1, homed - 1), stats.readahead_count.get());
+    } finally {
+      fv.remove();
+      f.delete();
+    }
+  }
+
+  @Test
+  public void testReadsAheadExpireWithoutLoads() throws Exception {
+    File f = File.createTempFile("readahead", ".bin");
+    byte[] data = randomFile(f, 20 * CHUNK_SIZE);
+    NFSFileVec fv = NFSFileVec.make(f);
+    final long expireMs = ReadAhead.EXPIRE_MS;
+    try {
+      ReadAhead.EXPIRE_MS = 50;
+      fv.setChunkSize(CHUNK_SIZE);
+      SlowStore store = new SlowStore(data);
+      PersistManager.PersistStatsEntry stats = new PersistManager.PersistStatsEntry();
+      ReadAhead readAhead = new ReadAhead(store, Value.S3, stats, 4, 1 << 20);
+      int cidx = -1;
+      for (int c = fv.nChunks() - 1; c >= 0; c--)
+        if (fv.chunkKey(c).home()) cidx = c;
+      assumeTrue(cidx >= 0);
+      readAhead.load(chunkValue(fv, cidx)); // No more loads: the reads ahead are dropped by the sweep
+      assumeTrue(stats.readahead_count.get() > 0);
+      for (int i = 0; i < 100 && readAhead.reserved() > 0; i++)
+        Thread.sleep(50);
+      assertEquals(0, readAhead.reserved());
+      assertEquals(stats.readahead_bytes.get(), stats.readahead_wasted_bytes.get());
+    } finally {
+      ReadAhead.EXPIRE_MS = expireMs;
+      fv.remove();
+      f.delete();
+    }
+  }
+}
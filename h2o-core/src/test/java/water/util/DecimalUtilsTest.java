@@ -0,0 +1,62 @@
+package water.util;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class DecimalUtilsTest {
+
+  private static void assertConverts(long m, int e) {
+    double expected = new BigDecimal(BigInteger.valueOf(m), -e).doubleValue();
+    assertEquals(m + "e" + e, Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(DecimalUtils.toDouble(m, e)));
+  }
+
+  private static void assertConverts(BigDecimal d) {
+    assertConverts(d.unscaledValue().longValue(), -d.scale());
+  }
+
+  @Test public void testSimple() {
+    assertEquals(0.0, DecimalUtils.toDouble(0, -5), 0);
+    assertEquals(1.5, DecimalUtils.toDouble(15, -1), 0);
+    assertEquals(-0.001, DecimalUtils.toDouble(-1, -3), 0);
+    assertEquals(1e23, DecimalUtils.toDouble(1, 23), 0);
+    assertEquals(Double.MAX_VALUE, DecimalUtils.toDouble(17976931348623157L, 292), 0);
+    assertEquals(Double.POSITIVE_INFINITY, DecimalUtils.toDouble(2, 308), 0);
+    assertEquals(Double.NEGATIVE_INFINITY, DecimalUtils.toDouble(-1, 400), 0);
+    assertEquals(Double.MIN_VALUE, DecimalUtils.toDouble(5, -324), 0);
+    assertEquals(-0.0, DecimalUtils.toDouble(-1, -400), 0);
+    assertEquals(9007199254740992.0, DecimalUtils.toDouble(9007199254740993L, 0), 0);
+    assertEquals(PrettyPrint.pow10(123456789, -4), 12345.6789, 0);
+  }
+
+  @Test public void testRandom() {
+    Random rnd = new Random(0xD0B1E);
+    for( int i = 0; i < 200000; i++ ) {
+      long m = rnd.nextLong() >> rnd.nextInt(64);
+      assertConverts(m, rnd.nextInt(700) - 360);
+      assertConverts(m, rnd.nextInt(60) - 30);
+    }
+    assertConverts(Long.MIN_VALUE, -5);
+    assertConverts(Long.MAX_VALUE, 300);
+  }
+
+  // Numbers next to the halfway points between two doubles, the hard cases
+  @Test public void testHalfway() {
+    Random rnd = new Random(0xAB5);
+    for( int i = 0; i < 50000; i++ ) {
+      double d = Double.longBitsToDouble(rnd.nextLong() & 0x7FEFFFFFFFFFFFFFL);
+      BigDecimal mid = new BigDecimal(d).add(new BigDecimal(Math.nextUp(d))).divide(BigDecimal.valueOf(2));
+      BigDecimal exact = mid.stripTrailingZeros();
+      if( exact.precision() <= 18 ) assertConverts(exact);
+      assertConverts(mid.round(new MathContext(18, RoundingMode.FLOOR)));
+      assertConverts(mid.round(new MathContext(18, RoundingMode.CEILING)));
+      assertConverts(new BigDecimal(d).round(new MathContext(17)));
+    }
+  }
+}
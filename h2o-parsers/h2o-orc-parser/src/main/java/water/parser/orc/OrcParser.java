@@ -9,6 +9,8 @@ import org.apache.hadoop.hive.serde2.io.HiveDecimalWritable;
 import org.apache.hadoop.hive.serde2.objectinspector.*;
 import org.joda.time.DateTime;
 import org.joda.time.MutableDateTime;
+import jsr166y.ForkJoinTask;
+import jsr166y.RecursiveAction;
 import water.Futures;
 import water.H2O;
 import water.Job;
@@ -25,6 +27,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 
+import static water.H2O.OptArgs.SYSTEM_PROP_PREFIX;
 import static water.parser.orc.OrcUtil.isSupportedSchema;
 import static water.parser.orc.OrcUtil.schemaToColumnType;
 
@@ -41,8 +44,10 @@ import static water.parser.orc.OrcUtil.schemaToColumnType;
  *  a. number of columns, column types and column names.  We only support parsing of primitive types;
  *  b. Lists of StripeInformation that describes how many stripes of data that we will need to read;
  *  c. For each stripe, get information like rows per stripe, data size in bytes
- * 3.  The plan is to read the file in parallel in whole numbers of stripes.
- * 4.  Inside each stripe, we will read data out in batches of VectorizedRowBatch (1024 rows or less).
+ * 3.  The plan is to read the file in parallel in whole numbers of stripes.  Stripes larger than
+ *     the split size are split, on row index boundaries, into several chunks.
+ * 4.  Inside each chunk, we will read data out in batches of VectorizedRowBatch (1024 rows or less).
+ *     The columns can be split in groups, each read by its own reader in parallel.
  *
  */
 public class OrcParser extends Parser {
@@ -70,15 +75,15 @@ public class OrcParser extends Parser {
 
 
   @Override protected ParseWriter streamParse(final InputStream is, final StreamParseWriter dout) throws IOException {
-    List<StripeInformation> stripesInfo = ((OrcParseSetup) this._setup).getStripes();
+    List<Split> splits = ((OrcParseSetup) this._setup).getSplits();
     StreamParseWriter nextChunk = dout;
     Futures fs = new Futures();
-    for(int i = 0; i < stripesInfo.size(); i++) {
+    for(int i = 0; i < splits.size(); i++) {
       parseChunk(i, null, nextChunk);
       nextChunk.close(fs);
       if(dout != nextChunk)
         dout.reduce(nextChunk);
-      if(i < stripesInfo.size()-1) nextChunk = nextChunk.nextChunk();
+      if(i < splits.size()-1) nextChunk = nextChunk.nextChunk();
     }
     return dout;
   }
@@ -89,69 +94,129 @@ public class OrcParser extends Parser {
 
 
   /**
-   * This method calculates the number of stripes that will be read for each chunk.  Since
-   * only single threading is supported in reading each stripe, we will never split one stripe
-   * over different chunks.
+   * This method reads the rows of one split of a stripe, see {@link OrcParseSetup#getSplits()}.
+   * Stripes are read from their row index, so large stripes can be split over different chunks.
+   * The columns of the chunk are read in groups, each with its own record reader, in parallel:
+   * as many groups as there are cores left by the other files parsed on this node.
    *
-   * @param chunkId: chunk index, calculated as file size/chunk size.  The file size is calculated
-   *            with data plus overhead in terms of headers and other info, number of chunks
-   *            calculated will be higher than the actual chunks needed.  If the chunk number
-   *            is too high, the method will return without writing to
-   *            dout.
+   * @param chunkId: chunk index, index of the split.  If the chunk number is too high,
+   *            the method will return without writing to dout.
    * @param din: ParseReader, not used for parsing orc files
    * @param dout: ParseWriter, used to add data to H2O frame.
    * @return: Parsewriter dout.
    */
   @Override
-  protected final ParseWriter parseChunk(int chunkId, ParseReader din, ParseWriter dout) {
+  protected final ParseWriter parseChunk(int chunkId, ParseReader din, final ParseWriter dout) {
     _cidx = chunkId;
     // only do something if within file size and the orc file is not empty
-    List<StripeInformation> stripesInfo = ((OrcParseSetup) this._setup).getStripes();
-    if(stripesInfo.size() == 0) {
+    final OrcParseSetup setup = (OrcParseSetup) this._setup;
+    List<Split> splits = setup.getSplits();
+    if(splits.size() == 0) {
       dout.addError(new ParseWriter.ParseErr("Orc Parser: Empty file.", chunkId, 0L, -2L));
       return dout; // empty file
     }
-    OrcParseSetup setup = (OrcParseSetup) this._setup;
-    StripeInformation thisStripe = stripesInfo.get(chunkId);  // get one stripe
-    // write one stripe of data to H2O frame
-    String [] orcTypes = setup.getColumnTypesString();
+    if(chunkId >= splits.size())
+      return dout;
+    final Split split = splits.get(chunkId);
     boolean[] toInclude = setup.getToInclude();
+    byte [] col_types = _setup.getColumnTypes();
+    // columns to read: index in the row batch, and in the H2O frame
+    int nfields = ((StructObjectInspector) orcFileReader.getObjectInspector()).getAllStructFieldRefs().size();
+    int[] batchCols = new int[col_types.length];
+    int[] frameCols = new int[col_types.length];
+    int ncols = 0;
+    int colIndex = 0;
+    for (int col = 0; col < nfields; ++col) {
+      if (toInclude[col + 1]) { // only write a column if we actually want it
+        if (col_types[colIndex] != Vec.T_BAD) {
+          batchCols[ncols] = col;
+          frameCols[ncols++] = colIndex;
+        }
+        colIndex++;
+      }
+    }
+    int ngroups = Math.min(ncols, columnGroups(setup));
     try {
-      RecordReader perStripe = orcFileReader.rows(thisStripe.getOffset(), thisStripe.getDataLength(),
-          setup.getToInclude(), null, setup.getColumnNames());
-      VectorizedRowBatch batch = null;
-      long rows = 0;
-      long rowCount = thisStripe.getNumberOfRows();
-      while (rows != rowCount) {
-        batch = perStripe.nextBatch(batch);  // read orc file stripes in vectorizedRowBatch
-        long currentBatchRow = batch.count();
-        int nrows = (int)currentBatchRow;
-        if(currentBatchRow != nrows)
-          throw new IllegalArgumentException("got batch with too many records, does not fit in int");
-        ColumnVector[] dataVectors = batch.cols;
-        int colIndex = 0;
-        for (int col = 0; col < batch.numCols; ++col) {  // read one column at a time;
-          if (toInclude[col + 1]) { // only write a column if we actually want it
-            if(_setup.getColumnTypes()[colIndex] != Vec.T_BAD)
-              write1column(dataVectors[col], orcTypes[colIndex], colIndex, nrows, dout);
-            else dout.addNAs(col,nrows);
-            colIndex++;
+      if (ngroups == 1) {
+        readColumns(split, Arrays.copyOf(batchCols, ncols), Arrays.copyOf(frameCols, ncols), dout);
+      } else if (ngroups > 1) {
+        RecursiveAction[] groups = new RecursiveAction[ngroups];
+        for (int g = 0; g < ngroups; g++) {
+          final int[] groupBatchCols = new int[(ncols - g + ngroups - 1) / ngroups];
+          final int[] groupFrameCols = new int[groupBatchCols.length];
+          for (int i = 0, c = g; c < ncols; i++, c += ngroups) {
+            groupBatchCols[i] = batchCols[c];
+            groupFrameCols[i] = frameCols[c];
           }
+          groups[g] = new RecursiveAction() {
+            @Override protected void compute() {
+              try {
+                readColumns(split, groupBatchCols, groupFrameCols, dout);
+              } catch (IOException ioe) {
+                throw new RuntimeException(ioe);
+              }
+            }
+          };
         }
-        rows  += currentBatchRow;    // record number of rows of data actually read
+        ForkJoinTask.invokeAll(groups);
       }
-      byte [] col_types = _setup.getColumnTypes();
       for(int i = 0; i < col_types.length; ++i){
         if(col_types[i] == Vec.T_BAD)
-          dout.addNAs(i,(int)rowCount);
+          dout.addNAs(i,(int)split.nrows);
       }
-      perStripe.close();
     } catch(IOException ioe) {
       throw new RuntimeException(ioe);
     }
     return dout;
   }
 
+  // Number of column groups read in parallel: the chunks of a file are parsed one after another,
+  // so the cores of the node are shared by the files it parses at the same time
+  private static int columnGroups(OrcParseSetup setup) {
+    if (setup.columnGroups > 0)
+      return setup.columnGroups;
+    return Math.max(1, H2O.NUMCPUS / setup.concurrentFiles);
+  }
+
+  /**
+   * Reads the rows of a split for the given columns, in batches of VectorizedRowBatch.
+   *
+   * @param split: rows to read
+   * @param batchCols: index of the columns to read in the row batch
+   * @param frameCols: index of the columns in the H2O frame
+   * @param dout: ParseWriter, used to add data to H2O frame.
+   */
+  private void readColumns(Split split, int[] batchCols, int[] frameCols, ParseWriter dout) throws IOException {
+    OrcParseSetup setup = (OrcParseSetup) this._setup;
+    String [] orcTypes = setup.getColumnTypesString();
+    boolean[] include = new boolean[setup.getToInclude().length];
+    for (int col : batchCols)
+      include[col + 1] = true;
+    StripeInformation stripe = split.stripe;
+    RecordReader perStripe = orcFileReader.rows(stripe.getOffset(), stripe.getDataLength(),
+        include, null, setup.getColumnNames());
+    try {
+      if (split.row > 0)
+        perStripe.seekToRow(split.firstRow + split.row); // rows are numbered from the start of the file
+      VectorizedRowBatch batch = null;
+      long rows = 0;
+      while (rows != split.nrows) {
+        batch = perStripe.nextBatch(batch);  // read orc file stripes in vectorizedRowBatch
+        long currentBatchRow = Math.min(batch.count(), split.nrows - rows); // the next split may start in the batch
+        if (currentBatchRow <= 0)
+          throw new IOException("Orc Parser: stripe at offset " + stripe.getOffset() + " ended after " +
+              (split.row + rows) + " rows instead of " + stripe.getNumberOfRows());
+        int nrows = (int)currentBatchRow;
+        ColumnVector[] dataVectors = batch.cols;
+        for (int i = 0; i < batchCols.length; ++i)  // read one column at a time;
+          write1column(dataVectors[batchCols[i]], orcTypes[frameCols[i]], frameCols[i], nrows, dout);
+        rows  += currentBatchRow;    // record number of rows of data actually read
+      }
+    } finally {
+      perStripe.close();
+    }
+  }
+
 
   /**
    * This method writes one column of H2O data frame at a time.
@@ -341,9 +406,7 @@ public class OrcParser extends Parser {
     byte t = _setup.getColumnTypes()[colId];
     switch(t) {
       case Vec.T_CAT:
-        if(_toStringMaps.get(colId) == null)
-          _toStringMaps.put(colId,new HashMap<Number, byte[]>());
-        HashMap<Number,byte[]> map = _toStringMaps.get(colId);
+        HashMap<Number,byte[]> map = toStringMap(colId);
         BufferedString bs = new BufferedString();
         if(vec.isRepeating) {
           bs.set(StringUtils.toBytes(oneColumn[0]));
@@ -388,6 +451,14 @@ public class OrcParser extends Parser {
     }
   }
 
+  // String values of the numbers of a column; columns may be read by different threads
+  private synchronized HashMap<Number,byte[]> toStringMap(int colId) {
+    HashMap<Number,byte[]> map = _toStringMaps.get(colId);
+    if(map == null)
+      _toStringMaps.put(colId, map = new HashMap<>());
+    return map;
+  }
+
   /**
    * This method writes a column of H2O frame for Orc File column type of boolean, bigint, int, smallint,
    * tinyint and date.
@@ -402,9 +473,7 @@ public class OrcParser extends Parser {
     byte t = _setup.getColumnTypes()[colId];
     switch(t) {
       case Vec.T_CAT:
-        if(_toStringMaps.get(colId) == null)
-          _toStringMaps.put(colId,new HashMap<Number, byte[]>());
-        HashMap<Number,byte[]> map = _toStringMaps.get(colId);
+        HashMap<Number,byte[]> map = toStringMap(colId);
         BufferedString bs = new BufferedString();
         if(vec.isRepeating) {
           bs.set(StringUtils.toBytes(oneColumn[0]));
@@ -468,7 +537,9 @@ public class OrcParser extends Parser {
     if (l <= Long.MIN_VALUE) {
       String warning = "Orc Parser: Long.MIN_VALUE: " + l + " is found in column "+cIdx+" row "+rowNumber +
           " of stripe "+_cidx +".  This value is used for sentinel and will not be parsed correctly.";
-      dout.addError(new ParseWriter.ParseErr(warning, _cidx, rowNumber, -2L));
+      synchronized (dout) { // columns may be read by different threads
+        dout.addError(new ParseWriter.ParseErr(warning, _cidx, rowNumber, -2L));
+      }
     }
   }
 
@@ -478,6 +549,12 @@ public class OrcParser extends Parser {
     String[] columnTypesString;
     boolean[] toInclude;
     String[] allColumnNames;
+    /** Stripes with more data are split, on row index boundaries, over several chunks; 0 to keep stripes whole */
+    long stripeSplitSize = Long.getLong(SYSTEM_PROP_PREFIX + "orc.stripe.split.size", 32 << 20);
+    /** Column groups read in parallel in a chunk; 0 to use the cores left by the other files */
+    int columnGroups = Integer.getInteger(SYSTEM_PROP_PREFIX + "orc.column.groups", 0);
+    /** Files parsed at the same time by a node, sharing its cores */
+    int concurrentFiles = 1;
 
     public OrcParseSetup(int ncols,
                          String[] columnNames,
@@ -528,9 +605,60 @@ public class OrcParser extends Parser {
     public void setOrcFileReader(Reader orcFileReader) {
       this.orcFileReader = orcFileReader;
       this.stripesInfo = orcFileReader.getStripes();
+      this.splits = split(orcFileReader, stripeSplitSize);
     }
     private transient List<StripeInformation> stripesInfo;
+    private transient List<Split> splits;
     public List<StripeInformation> getStripes() {return stripesInfo;}
+    /** Rows of the chunks, one chunk per split */
+    List<Split> getSplits() {return splits;}
+  }
+
+  /** Rows of a stripe parsed into one chunk. */
+  static final class Split {
+    final StripeInformation stripe;
+    final long firstRow;  // rows in the file before the stripe
+    final long row;       // first row of the split in the stripe
+    final long nrows;
+
+    Split(StripeInformation stripe, long firstRow, long row, long nrows) {
+      this.stripe = stripe;
+      this.firstRow = firstRow;
+      this.row = row;
+      this.nrows = nrows;
+    }
+  }
+
+  /**
+   * Splits the stripes with more than splitSize bytes of data into chunks of whole row index
+   * strides (row groups), so that the reader of each chunk can seek to its first row.  Files
+   * without a row index are split on stripes only.
+   *
+   * @param orcFileReader: reader of the file
+   * @param splitSize: max size of the stripe data of a chunk, 0 to keep stripes whole
+   * @return splits, in the order of the rows in the file
+   */
+  static List<Split> split(Reader orcFileReader, long splitSize) {
+    List<StripeInformation> stripes = orcFileReader.getStripes();
+    int stride = orcFileReader.getRowIndexStride();
+    List<Split> splits = new ArrayList<>(stripes.size());
+    long firstRow = 0;
+    for (StripeInformation stripe : stripes) {
+      long nrows = stripe.getNumberOfRows();
+      long splitRows = nrows;
+      if (splitSize > 0 && stride > 0 && stripe.getDataLength() > splitSize) {
+        long nsplits = (stripe.getDataLength() + splitSize - 1) / splitSize;
+        long strides = ((nrows + stride - 1) / stride + nsplits - 1) / nsplits;
+        splitRows = strides * stride;
+      }
+      long row = 0;
+      do {
+        splits.add(new Split(stripe, firstRow, row, Math.min(splitRows, nrows - row)));
+        row += splitRows;
+      } while (row < nrows);
+      firstRow += nrows;
+    }
+    return splits;
   }
 
   // types are flattened in pre-order tree walk, here we just count the number of fields for non-primitve types
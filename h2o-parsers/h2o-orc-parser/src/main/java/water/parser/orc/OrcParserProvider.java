@@ -28,12 +28,10 @@ public class OrcParserProvider extends ParserProvider {
     }
 
     public ParseMethod parseMethod(int nfiles, int nchunks){
-      int ncores_tot = H2O.NUMCPUS*H2O.CLOUD.size();
-      // prefer StreamParse if we have enough files to keep cluster busy
-      // ORC stream parse is more efficient
-      return
-          nfiles >= (ncores_tot >> 1)  // got enough files to keep cluster busy
-              ?ParseMethod.StreamParse:ParseMethod.StreamParse;//ParseMethod.DistributedParse;
+      // Always StreamParse: a distributed parse would load every chunk of the file only to
+      // read the stripes again through the file system.  The chunks (stripes, or splits of
+      // large stripes) of a file keep the cores busy by reading their columns in parallel.
+      return ParseMethod.StreamParse;
     }
   }
   /* Setup for this parser */
@@ -75,7 +73,10 @@ public class OrcParserProvider extends ParserProvider {
       f = (FileVec) ((Frame) frameOrVec).vec(0);
     else
       f = (FileVec) frameOrVec;
-    return readSetup(f, requiredSetup.getColumnNames(), requiredSetup.getColumnTypes());
+    OrcParser.OrcParseSetup stp = (OrcParser.OrcParseSetup) readSetup(f, requiredSetup.getColumnNames(), requiredSetup.getColumnTypes());
+    // Files are spread over the nodes, each node parses its files at the same time
+    stp.concurrentFiles = Math.max(1, (inputs.length + H2O.CLOUD.size() - 1) / H2O.CLOUD.size());
+    return stp;
   }
 
   private Reader getReader(FileVec f) throws IOException {
@@ -145,9 +146,10 @@ public class OrcParserProvider extends ParserProvider {
         f.setChunkSize(stp._chunk_size = (int)f.length());
         return stp;
       }
-      f.setNChunks(stripesInfo.size());
+      int nsplits = OrcParser.split(orcFileReader, stp.stripeSplitSize).size();
+      f.setNChunks(nsplits);
       stp._chunk_size = f._chunkSize;
-      assert f.nChunks() == stripesInfo.size(); // ORC parser needs one-to one mapping between chunk and strip (just ids, offsets do not matter)
+      assert f.nChunks() == nsplits; // ORC parser needs one-to one mapping between chunk and stripe split (just ids, offsets do not matter)
       return stp;
     } catch(IOException ioe) {
       throw new RuntimeException(ioe);
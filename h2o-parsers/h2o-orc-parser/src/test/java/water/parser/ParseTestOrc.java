@@ -1,5 +1,9 @@
 package water.parser;
 
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.io.orc.OrcFile;
+import org.apache.hadoop.hive.ql.io.orc.Reader;
 import org.junit.Assert;
 import org.junit.Assume;
 import org.junit.BeforeClass;
@@ -11,6 +15,7 @@ import java.util.Arrays;
 import java.util.Set;
 import java.util.TreeSet;
 
+import water.H2O;
 import water.Job;
 import water.Key;
 import water.TestUtil;
@@ -24,6 +29,7 @@ import water.util.FileUtils;
 import water.util.Log;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static water.parser.OrcTestUtils.compareOrcAndH2OFrame;
 import static water.util.FileUtils.*;
 
@@ -111,6 +117,43 @@ public class ParseTestOrc extends TestUtil {
         fr.delete();
     }
 
+    @Test public void testParseSplitStripesAndColumnGroups() throws IOException {
+        String splitSize = H2O.OptArgs.SYSTEM_PROP_PREFIX + "orc.stripe.split.size";
+        String columnGroups = H2O.OptArgs.SYSTEM_PROP_PREFIX + "orc.column.groups";
+        String[] files = {
+                "smalldata/parser/orc/demo-12-zlib.orc",
+                "smalldata/parser/orc/TestOrcFile.testMemoryManagementV12.orc",
+                "smalldata/parser/orc/TestOrcFile.testWithoutIndex.orc",
+        };
+        for (String fileName : files) {
+            Frame expected = null, actual = null;
+            try {
+                System.setProperty(splitSize, "0");
+                System.setProperty(columnGroups, "1");
+                expected = parse_test_file(fileName);
+                System.setProperty(splitSize, "1"); // a chunk per row index stride
+                System.setProperty(columnGroups, "3");
+                actual = parse_test_file(fileName);
+                Assert.assertArrayEquals(expected.names(), actual.names());
+                Assert.assertArrayEquals(expected.types(), actual.types());
+                assertTrue(fileName, isBitIdentical(expected, actual));
+                Reader orcFileReader = OrcFile.createReader(new Path(getFile(fileName).toString()),
+                        OrcFile.readerOptions(new Configuration()));
+                int nstripes = orcFileReader.getStripes().size();
+                assertEquals(fileName, nstripes, expected.anyVec().nChunks());
+                if (orcFileReader.getRowIndexStride() > 0) // stripes split on row index boundaries only
+                    assertTrue(fileName, actual.anyVec().nChunks() > nstripes);
+                else
+                    assertEquals(fileName, nstripes, actual.anyVec().nChunks());
+            } finally {
+                System.clearProperty(splitSize);
+                System.clearProperty(columnGroups);
+                if (expected != null) expected.delete();
+                if (actual != null) actual.delete();
+            }
+        }
+    }
+
     @Test
     public void testParseAllOrcs() {
         Set<String> failedFiles = new TreeSet<>();
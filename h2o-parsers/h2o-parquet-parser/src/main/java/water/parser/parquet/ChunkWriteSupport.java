@@ -0,0 +1,119 @@
+package water.parser.parquet;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.OriginalType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Types;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.Vec;
+import water.parser.BufferedString;
+import water.util.PrettyPrint;
+
+import java.util.HashMap;
+
+/**
+ * Writes the rows of the current chunks of a frame, a record is the index of a row in the chunks.
+ *
+ * Numeric columns are written as INT64 (integer columns) or DOUBLE, time columns as INT64 TIMESTAMP_MILLIS,
+ * categorical, string and UUID columns as UTF8 strings. All fields are optional, NAs are left out.
+ */
+public class ChunkWriteSupport extends WriteSupport<Integer> {
+
+  private final MessageType _schema;
+  private final String[] _names;
+  private final byte[] _types;
+  private final boolean[] _ints;
+  private final Binary[][] _domains;
+  private final BufferedString _bs = new BufferedString();
+
+  private RecordConsumer _consumer;
+  private Chunk[] _chunks;
+
+  public ChunkWriteSupport(Frame fr) {
+    final Vec[] vecs = fr.vecs();
+    _names = fr.names();
+    _types = new byte[vecs.length];
+    _ints = new boolean[vecs.length];
+    _domains = new Binary[vecs.length][];
+    Types.MessageTypeBuilder builder = Types.buildMessage();
+    for (int col = 0; col < vecs.length; col++) {
+      Vec v = vecs[col];
+      _types[col] = v.get_type();
+      switch (_types[col]) {
+        case Vec.T_CAT:
+          String[] domain = v.domain();
+          _domains[col] = new Binary[domain.length];
+          for (int i = 0; i < domain.length; i++)
+            _domains[col][i] = Binary.fromString(domain[i]);
+          // fall through
+        case Vec.T_STR:
+        case Vec.T_UUID:
+          builder.optional(PrimitiveTypeName.BINARY).as(OriginalType.UTF8).named(_names[col]);
+          break;
+        case Vec.T_TIME:
+          builder.optional(PrimitiveTypeName.INT64).as(OriginalType.TIMESTAMP_MILLIS).named(_names[col]);
+          break;
+        default:
+          _ints[col] = v.isInt();
+          builder.optional(_ints[col] ? PrimitiveTypeName.INT64 : PrimitiveTypeName.DOUBLE).named(_names[col]);
+      }
+    }
+    _schema = builder.named("h2o_frame");
+  }
+
+  public MessageType getSchema() {
+    return _schema;
+  }
+
+  /** Sets the chunks of the rows written next. */
+  public void setChunks(Chunk[] chunks) {
+    _chunks = chunks;
+  }
+
+  @Override
+  public WriteContext init(Configuration configuration) {
+    return new WriteContext(_schema, new HashMap<String, String>());
+  }
+
+  @Override
+  public void prepareForWrite(RecordConsumer recordConsumer) {
+    _consumer = recordConsumer;
+  }
+
+  @Override
+  public void write(Integer record) {
+    final int row = record;
+    _consumer.startMessage();
+    for (int col = 0; col < _chunks.length; col++) {
+      Chunk c = _chunks[col];
+      if (c.isNA(row)) continue;
+      _consumer.startField(_names[col], col);
+      switch (_types[col]) {
+        case Vec.T_CAT:
+          _consumer.addBinary(_domains[col][(int) c.at8(row)]);
+          break;
+        case Vec.T_STR:
+          c.atStr(_bs, row);
+          _consumer.addBinary(Binary.fromReusedByteArray(_bs.getBuffer(), _bs.getOffset(), _bs.length()));
+          break;
+        case Vec.T_UUID:
+          _consumer.addBinary(Binary.fromString(PrettyPrint.UUID(c.at16l(row), c.at16h(row))));
+          break;
+        case Vec.T_TIME:
+          _consumer.addLong(c.at8(row));
+          break;
+        default:
+          if (_ints[col]) _consumer.addLong(c.at8(row));
+          else _consumer.addDouble(c.atd(row));
+      }
+      _consumer.endField(_names[col], col);
+    }
+    _consumer.endMessage();
+  }
+
+}
@@ -0,0 +1,243 @@
+package water.parser.parquet;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.ColumnReader;
+import org.apache.parquet.column.Dictionary;
+import org.apache.parquet.column.impl.ColumnReadStoreImpl;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnPath;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.io.ParquetDecodingException;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.Converter;
+import org.apache.parquet.io.api.GroupConverter;
+import org.apache.parquet.io.api.PrimitiveConverter;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.OriginalType;
+import org.apache.parquet.schema.PrimitiveType;
+import water.fvec.Vec;
+import water.parser.BufferedString;
+import water.parser.FVecParseWriter;
+import water.persist.VecFileSystem;
+import water.util.Log;
+import water.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the row groups of a Chunk column by column.
+ *
+ * As opposed to {@link VecParquetReader}, there is no record assembly: all the values of a column
+ * of a row group are decoded and written to the column's NewChunk before the next column is read.
+ * Dictionaries of binary columns are decoded once, and dictionary encoded values are written
+ * straight from the decoded bytes. Pages of the columns which are null in a whole row group (as
+ * per the row group statistics) are not read at all.
+ */
+class ColumnarChunkReader {
+
+  private final Vec _vec;
+  private final ParquetMetadata _metadata;
+  private final FVecParseWriter _writer;
+  private final byte[] _chunkSchema;
+
+  ColumnarChunkReader(Vec vec, ParquetMetadata metadata, FVecParseWriter writer, byte[] chunkSchema) {
+    _vec = vec;
+    _metadata = metadata;
+    _writer = writer;
+    _chunkSchema = chunkSchema;
+  }
+
+  /**
+   * @return number of rows read
+   */
+  long read() throws IOException {
+    final MessageType schema = _metadata.getFileMetaData().getSchema();
+    final List<ColumnDescriptor> columns = schema.getColumns();
+    final Converter[] converters = new Converter[columns.size()];
+    for (int col = 0; col < converters.length; col++)
+      converters[col] = newConverter(col, _chunkSchema[col], schema.getType(col).asPrimitiveType());
+    final GroupConverter root = new GroupConverter() {
+      @Override public Converter getConverter(int fieldIndex) { return converters[fieldIndex]; }
+      @Override public void start() {}
+      @Override public void end() {}
+    };
+    final Configuration conf = VecFileSystem.makeConfiguration(_vec);
+    final String createdBy = _metadata.getFileMetaData().getCreatedBy();
+    long rows = 0;
+    for (BlockMetaData block : _metadata.getBlocks()) {
+      final int nrows = (int) block.getRowCount(); // block sizes are checked at setup
+      if (nrows == 0) continue;
+      boolean[] allNulls = allNulls(block, columns);
+      List<ColumnDescriptor> toRead = new ArrayList<>(columns.size());
+      for (int col = 0; col < columns.size(); col++)
+        if (!allNulls[col]) toRead.add(columns.get(col));
+      long t0 = System.currentTimeMillis();
+      PageReadStore pages = null;
+      ParquetFileReader reader = null;
+      try {
+        if (!toRead.isEmpty()) {
+          List<BlockMetaData> blocks = new ArrayList<>(1);
+          blocks.add(block);
+          reader = new ParquetFileReader(conf, _metadata.getFileMetaData(), VecFileSystem.VEC_PATH, blocks, toRead);
+          pages = reader.readNextRowGroup();
+          if (pages == null)
+            throw new IOException("Expected a row group at " + block.getStartingPos() + " but reached the end of the file");
+        }
+        ColumnReadStoreImpl store = pages != null ? new ColumnReadStoreImpl(pages, root, schema, createdBy) : null;
+        for (int col = 0; col < columns.size(); col++) {
+          if (allNulls[col]) {
+            for (int row = 0; row < nrows; row++) _writer.addInvalidCol(col);
+            continue;
+          }
+          final ColumnDescriptor desc = columns.get(col);
+          final ColumnReader cr = store.getColumnReader(desc);
+          final int maxDef = desc.getMaxDefinitionLevel();
+          for (int row = 0; row < nrows; row++) {
+            if (cr.getCurrentDefinitionLevel() == maxDef)
+              cr.writeCurrentValueToConverter();
+            else
+              _writer.addInvalidCol(col);
+            cr.consume();
+          }
+        }
+      } catch (RuntimeException e) {
+        throw new ParquetDecodingException("Can not read row group at " + block.getStartingPos(), e);
+      } finally {
+        if (reader != null) reader.close();
+      }
+      _writer.addLines(nrows);
+      rows += nrows;
+      Log.debug("Read row group of ", nrows, " rows (", toRead.size(), " of ", columns.size(),
+              " columns) in ", System.currentTimeMillis() - t0, " ms");
+    }
+    return rows;
+  }
+
+  // Columns with only nulls in the row group
+  private static boolean[] allNulls(BlockMetaData block, List<ColumnDescriptor> columns) {
+    Map<ColumnPath, ColumnChunkMetaData> chunks = new HashMap<>();
+    for (ColumnChunkMetaData ccmd : block.getColumns())
+      chunks.put(ccmd.getPath(), ccmd);
+    boolean[] allNulls = new boolean[columns.size()];
+    for (int col = 0; col < allNulls.length; col++) {
+      ColumnChunkMetaData ccmd = chunks.get(ColumnPath.get(columns.get(col).getPath()));
+      Statistics stats = ccmd != null ? ccmd.getStatistics() : null;
+      allNulls[col] = stats != null && stats.getNumNulls() == block.getRowCount();
+    }
+    return allNulls;
+  }
+
+  // Same mapping of Parquet types to H2O values as ChunkConverter
+  private PrimitiveConverter newConverter(int colIdx, byte vecType, PrimitiveType parquetType) {
+    switch (vecType) {
+      case Vec.T_BAD:
+      case Vec.T_CAT:
+      case Vec.T_STR:
+      case Vec.T_UUID:
+      case Vec.T_TIME:
+        if (parquetType.getOriginalType() == OriginalType.TIMESTAMP_MILLIS)
+          return new NumberColumn(colIdx);
+        return new StringColumn(colIdx);
+      case Vec.T_NUM:
+        return new NumberColumn(colIdx);
+      default:
+        throw new UnsupportedOperationException("Unsupported type " + vecType);
+    }
+  }
+
+  // The bytes of a valid UTF-8 value go to the writer as they are; invalid
+  // sequences are replaced (U+FFFD) by decoding the value, like the record reader
+  private void addStr(int colIdx, BufferedString bs, Binary value) {
+    final ByteBuffer bb = value.toByteBuffer(); // No copy of the bytes
+    if (bb.hasArray() && isValidUTF8(bb.array(), bb.arrayOffset() + bb.position(), bb.remaining()))
+      _writer.addStrCol(colIdx, bs.set(bb.array(), bb.arrayOffset() + bb.position(), bb.remaining()));
+    else
+      _writer.addStrCol(colIdx, bs.set(StringUtils.bytesOf(value.toStringUsingUTF8())));
+  }
+
+  // Well-formed UTF-8 as decoded by Java: no overlong forms, surrogates or code points past U+10FFFF
+  static boolean isValidUTF8(byte[] b, int off, int len) {
+    final int end = off + len;
+    int i = off;
+    while (i < end) {
+      final int c = b[i] & 0xFF;
+      if (c < 0x80) { i++; continue; }
+      int n, lo = 0x80, hi = 0xBF; // continuation bytes, and the range of the first one
+      if (c >= 0xC2 && c <= 0xDF) n = 1;
+      else if (c >= 0xE0 && c <= 0xEF) { n = 2; if (c == 0xE0) lo = 0xA0; else if (c == 0xED) hi = 0x9F; }
+      else if (c >= 0xF0 && c <= 0xF4) { n = 3; if (c == 0xF0) lo = 0x90; else if (c == 0xF4) hi = 0x8F; }
+      else return false;
+      if (i + n >= end) return false;
+      final int c1 = b[i + 1] & 0xFF;
+      if (c1 < lo || c1 > hi) return false;
+      for (int k = 2; k <= n; k++) {
+        final int ck = b[i + k] & 0xFF;
+        if (ck < 0x80 || ck > 0xBF) return false;
+      }
+      i += n + 1;
+    }
+    return true;
+  }
+
+  private class StringColumn extends PrimitiveConverter {
+    private final int _colIdx;
+    private final BufferedString _bs = new BufferedString();
+    private byte[][] _dict;
+
+    StringColumn(int colIdx) { _colIdx = colIdx; }
+
+    @Override
+    public void addBinary(Binary value) { addStr(_colIdx, _bs, value); }
+
+    @Override
+    public boolean hasDictionarySupport() { return true; }
+
+    @Override
+    public void setDictionary(Dictionary dictionary) {
+      _dict = new byte[dictionary.getMaxId() + 1][];
+      for (int i = 0; i < _dict.length; i++)
+        _dict[i] = StringUtils.bytesOf(dictionary.decodeToBinary(i).toStringUsingUTF8()); // Decoded once per entry
+    }
+
+    @Override
+    public void addValueFromDictionary(int dictionaryId) {
+      _writer.addStrCol(_colIdx, _bs.set(_dict[dictionaryId]));
+    }
+  }
+
+  private class NumberColumn extends PrimitiveConverter {
+    private final int _colIdx;
+    private final BufferedString _bs = new BufferedString();
+
+    NumberColumn(int colIdx) { _colIdx = colIdx; }
+
+    @Override
+    public void addBoolean(boolean value) { _writer.addNumCol(_colIdx, value ? 1 : 0); }
+
+    @Override
+    public void addDouble(double value) { _writer.addNumCol(_colIdx, value); }
+
+    @Override
+    public void addFloat(float value) { _writer.addNumCol(_colIdx, value); }
+
+    @Override
+    public void addInt(int value) { _writer.addNumCol(_colIdx, value, 0); }
+
+    @Override
+    public void addLong(long value) { _writer.addNumCol(_colIdx, value, 0); }
+
+    @Override
+    public void addBinary(Binary value) { addStr(_colIdx, _bs, value); }
+  }
+
+}
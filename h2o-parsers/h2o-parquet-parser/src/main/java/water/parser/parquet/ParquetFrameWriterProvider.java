@@ -0,0 +1,80 @@
+package water.parser.parquet;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.column.ParquetProperties;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import water.Job;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.Vec;
+import water.util.FrameWriterProvider;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static water.H2O.OptArgs.SYSTEM_PROP_PREFIX;
+
+/**
+ * Parquet writer of frames.
+ *
+ * Each part of an export is written by one task, chunk by chunk, into row groups of at most
+ * {@link #ROW_GROUP_SIZE} bytes (the row group being written is buffered in memory).
+ */
+public class ParquetFrameWriterProvider implements FrameWriterProvider {
+
+  /** Max size of the row groups of the written files */
+  static int ROW_GROUP_SIZE = Integer.getInteger(SYSTEM_PROP_PREFIX + "parquet.export.row.group.size", 32 << 20);
+
+  @Override
+  public String format() {
+    return "parquet";
+  }
+
+  @Override
+  public void validate(String compression) {
+    codec(compression);
+  }
+
+  @Override
+  public void write(Frame fr, int firstChunk, int nChunks, OutputStream os, String compression, Job job) throws IOException {
+    CompressionCodecName codec = codec(compression);
+    Configuration conf = StreamFileSystem.makeConfiguration(os);
+    boolean written = false;
+    try {
+      ChunkWriteSupport writeSupport = new ChunkWriteSupport(fr);
+      ParquetWriter<Integer> writer = new ParquetWriter<>(StreamFileSystem.STREAM_PATH, ParquetFileWriter.Mode.OVERWRITE, writeSupport, codec,
+              ROW_GROUP_SIZE, ParquetWriter.DEFAULT_PAGE_SIZE, ParquetWriter.DEFAULT_PAGE_SIZE, true, false,
+              ParquetProperties.WriterVersion.PARQUET_1_0, conf);
+      Vec[] vecs = fr.vecs();
+      Chunk[] cs = new Chunk[vecs.length];
+      for (int cidx = firstChunk; cidx < firstChunk + nChunks; cidx++) {
+        if (job != null && job.stop_requested()) throw new Job.JobCancelledException();
+        for (int col = 0; col < vecs.length; col++)
+          cs[col] = vecs[col].chunkForChunkIdx(cidx);
+        writeSupport.setChunks(cs);
+        int len = cs.length > 0 ? cs[0]._len : 0;
+        for (int row = 0; row < len; row++)
+          writer.write(row);
+        if (job != null) job.update(1);
+      }
+      writer.close(); // writes the footer, and closes the stream
+      written = true;
+    } finally {
+      StreamFileSystem.release(conf);
+      if (!written) os.close(); // failed, leave the file incomplete
+    }
+  }
+
+  private static CompressionCodecName codec(String compression) {
+    if (compression == null || compression.isEmpty() || "none".equalsIgnoreCase(compression))
+      return CompressionCodecName.UNCOMPRESSED;
+    try {
+      return CompressionCodecName.valueOf(compression.toUpperCase());
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Unsupported Parquet compression: " + compression);
+    }
+  }
+
+}
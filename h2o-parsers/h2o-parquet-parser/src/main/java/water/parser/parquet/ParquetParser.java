@@ -1,6 +1,7 @@
 package water.parser.parquet;
 
 import static org.apache.parquet.hadoop.ParquetFileWriter.MAGIC;
+import static water.H2O.OptArgs.SYSTEM_PROP_PREFIX;
 
 import org.apache.parquet.format.converter.ParquetMetadataConverter;
 import org.apache.parquet.hadoop.metadata.BlockMetaData;
@@ -30,6 +31,9 @@ public class ParquetParser extends Parser {
 
   private static final int MAX_PREVIEW_RECORDS = 1000;
 
+  /** Read the row groups column by column, see {@link ColumnarChunkReader} */
+  static boolean COLUMNAR = Boolean.parseBoolean(System.getProperty(SYSTEM_PROP_PREFIX + "parquet.columnar", "true"));
+
   private final byte[] _metadata;
 
   ParquetParser(ParseSetup setup, Key<Job> jobKey) {
@@ -54,6 +58,14 @@ public class ParquetParser extends Parser {
       return dout;
     }
     Log.info("Processing ", metadata.getBlocks().size(), " blocks of chunk #", cidx);
+    if (COLUMNAR && dout instanceof FVecParseWriter) {
+      try {
+        new ColumnarChunkReader(vec, metadata, (FVecParseWriter) dout, _setup.getColumnTypes()).read();
+      } catch (IOException e) {
+        throw new RuntimeException("Failed to parse records", e);
+      }
+      return dout;
+    }
     VecParquetReader reader = new VecParquetReader(vec, metadata, dout, _setup.getColumnTypes());
     try {
       Integer recordNumber;
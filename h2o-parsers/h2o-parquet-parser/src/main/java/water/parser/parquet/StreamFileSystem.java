@@ -0,0 +1,128 @@
+package water.parser.parquet;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.*;
+import org.apache.hadoop.fs.permission.FsPermission;
+import org.apache.hadoop.util.Progressable;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Virtual implementation of a Hadoop FileSystem backed by an OutputStream.
+ * Instances of this class provide write-only access to a single file, written to the provided stream
+ * (eg. a file created by H2O's PersistManager, or the response of a download).
+ * The stream is injected using the Configuration, like the Vec of a {@link water.persist.VecFileSystem}.
+ */
+public class StreamFileSystem extends FileSystem {
+
+  private static final String ID_PROP = "fs.h2ostream.id";
+
+  public static Path STREAM_PATH = new Path("h2ostream:/out");
+
+  private static final ConcurrentHashMap<String, OutputStream> STREAMS = new ConcurrentHashMap<>();
+  private static final AtomicLong IDS = new AtomicLong();
+
+  private OutputStream _os;
+
+  @Override
+  public void initialize(URI name, Configuration conf) throws IOException {
+    String id = conf.get(ID_PROP);
+    if (id == null) {
+      throw new IllegalArgumentException("Configuration needs to a reference to a stream (set property '" + ID_PROP + "').");
+    }
+    _os = STREAMS.remove(id);
+    if (_os == null) {
+      throw new IllegalArgumentException("Stream " + id + " was already used or released.");
+    }
+    super.initialize(name, conf);
+  }
+
+  @Override
+  public FileStatus getFileStatus(Path p) throws IOException {
+    throw new FileNotFoundException("This is a virtual file system backed by a single output stream, no file exists.");
+  }
+
+  @Override
+  public URI getUri() {
+    return URI.create("h2ostream:/");
+  }
+
+  @Override
+  public FSDataInputStream open(Path f, int bufferSize) throws IOException {
+    throw new UnsupportedOperationException("This is a virtual file system backed by a single output stream, 'open' not supported!");
+  }
+
+  @Override
+  public FSDataOutputStream create(Path f, FsPermission permission, boolean overwrite, int bufferSize, short replication, long blockSize, Progressable progress) throws IOException {
+    if (! f.equals(STREAM_PATH)) {
+      throw new IllegalArgumentException("Invalid path specified, expected " + STREAM_PATH);
+    }
+    if (_os == null) {
+      throw new IOException("The output stream was already created.");
+    }
+    FSDataOutputStream os = new FSDataOutputStream(_os, null);
+    _os = null;
+    return os;
+  }
+
+  @Override
+  public FSDataOutputStream append(Path f, int bufferSize, Progressable progress) throws IOException {
+    throw new UnsupportedOperationException("This is a virtual file system backed by a single output stream, 'append' not supported!");
+  }
+
+  @Override
+  public boolean rename(Path src, Path dst) throws IOException {
+    throw new UnsupportedOperationException("This is a virtual file system backed by a single output stream, 'rename' not supported!");
+  }
+
+  @Override
+  public boolean delete(Path f, boolean recursive) throws IOException {
+    throw new UnsupportedOperationException("This is a virtual file system backed by a single output stream, 'delete' not supported!");
+  }
+
+  @Override
+  public FileStatus[] listStatus(Path f) throws IOException {
+    return new FileStatus[0];
+  }
+
+  @Override
+  public boolean mkdirs(Path f, FsPermission permission) throws IOException {
+    throw new UnsupportedOperationException("This is a virtual file system backed by a single output stream, 'mkdirs' not supported!");
+  }
+
+  @Override
+  public void setWorkingDirectory(Path newDir) {
+
+  }
+
+  @Override
+  public Path getWorkingDirectory() {
+    return null;
+  }
+
+  /**
+   * Makes a configuration of a file system writing {@link #STREAM_PATH} to the given stream.
+   * The stream is held until the file is created, or until {@link #release(Configuration)}.
+   */
+  public static Configuration makeConfiguration(OutputStream os) {
+    String id = String.valueOf(IDS.incrementAndGet());
+    STREAMS.put(id, os);
+    Configuration conf = new Configuration(false);
+    conf.setBoolean("fs.h2ostream.impl.disable.cache", true);
+    conf.setClass("fs.h2ostream.impl", StreamFileSystem.class, FileSystem.class);
+    conf.set(ID_PROP, id);
+    return conf;
+  }
+
+  /** Drops the stream of a configuration, if no file was created with it. */
+  public static void release(Configuration conf) {
+    String id = conf.get(ID_PROP);
+    if (id != null) STREAMS.remove(id);
+  }
+
+}
@@ -1,8 +1,10 @@
 package water.parser.parquet;
 
+import com.google.common.base.Charsets;
 import com.google.common.io.Files;
 import com.google.common.io.Resources;
 import org.apache.avro.Schema;
+import org.apache.commons.io.FileUtils;
 import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.avro.generic.GenericRecordBuilder;
@@ -14,6 +16,7 @@ import org.apache.parquet.example.data.Group;
 import org.apache.parquet.example.data.simple.SimpleGroupFactory;
 import org.apache.parquet.hadoop.ParquetWriter;
 import org.apache.parquet.hadoop.example.GroupWriteSupport;
+import org.apache.parquet.io.api.Binary;
 import org.apache.parquet.schema.MessageType;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -28,10 +31,19 @@ import static org.apache.parquet.hadoop.metadata.CompressionCodecName.UNCOMPRESS
 import static org.apache.parquet.schema.MessageTypeParser.parseMessageType;
 import static org.junit.Assert.*;
 
+import water.DKV;
+import water.H2O;
 import water.Key;
+import water.MRTask;
+import water.Scope;
 import water.TestUtil;
+import water.exceptions.H2OIllegalArgumentException;
+import water.fvec.Chunk;
 import water.fvec.Frame;
 import water.fvec.NFSFileVec;
+import water.fvec.NewChunk;
+import water.fvec.RebalanceDataSet;
+import water.fvec.TestFrameBuilder;
 import water.fvec.Vec;
 import water.parser.BufferedString;
 import water.parser.ParseDataset;
@@ -235,6 +247,176 @@ public class ParseTestParquet extends TestUtil {
     assertFrameAssertion(assertion);
   }
 
+  @Test
+  public void testParseColumnarMatchesRecordReader() throws IOException {
+    File dir = Files.createTempDir();
+    try {
+      assertSameFrames("smalldata/parser/parquet/airlines-simple.snappy.parquet");
+      assertSameFrames(ParquetFileGenerator.generateSparseParquetFile(dir, "sparse.parquet", 10000).getPath());
+      assertSameFrames(ParquetFileGenerator.generateAvroPrimitiveTypes(dir, "avroPrimitive.parquet", 1000, new Date()).getPath());
+      assertSameFrames(ParquetFileGenerator.generateParquetFileWithInvalidUTF8(dir, "invalidUtf8.parquet", 1000).getPath());
+    } finally {
+      for (File f : dir.listFiles()) f.delete();
+      dir.delete();
+    }
+  }
+
+  @Test
+  public void testUTF8Validation() {
+    // the bytes are passed on as they are only if decoding them changes nothing
+    byte[][] cases = new byte[][]{
+            "h\u00e9llo \u20ac \ud834\udd1e".getBytes(Charsets.UTF_8),
+            {(byte) 0xC0, (byte) 0x80},               // overlong
+            {(byte) 0xED, (byte) 0xA0, (byte) 0x80},  // surrogate
+            {(byte) 0xF4, (byte) 0x90, (byte) 0x80, (byte) 0x80}, // past U+10FFFF
+            {(byte) 0xE2, (byte) 0x82}                // truncated
+    };
+    Random rnd = new Random(0xCAFE);
+    List<byte[]> all = new ArrayList<>(Arrays.asList(cases));
+    for (int i = 0; i < 100000; i++) {
+      byte[] b = new byte[rnd.nextInt(6)];
+      rnd.nextBytes(b);
+      all.add(b);
+    }
+    for (byte[] b : all) {
+      boolean roundTrip = Arrays.equals(b, new String(b, Charsets.UTF_8).getBytes(Charsets.UTF_8));
+      assertEquals(Arrays.toString(b), roundTrip, ColumnarChunkReader.isValidUTF8(b, 0, b.length));
+    }
+    assertTrue(ColumnarChunkReader.isValidUTF8(cases[0], 0, cases[0].length));
+  }
+
+  @Test
+  public void testExportRoundTrip() throws IOException {
+    File dir = Files.createTempDir();
+    Frame fr = null;
+    try {
+      File f = ParquetFileGenerator.generateAvroPrimitiveTypes(dir, "avroPrimitive.parquet", 5000, new Date());
+      fr = parse_test_file(f.getPath());
+      Frame rebalanced = rebalance(fr, 7);
+      try {
+        assertExported(rebalanced, new File(dir, "single.parquet"), 1, null);
+        assertExported(rebalanced, new File(dir, "single.snappy.parquet"), 1, "snappy");
+        assertExported(rebalanced, new File(dir, "parts"), 3, "gzip");
+      } finally {
+        rebalanced.delete();
+      }
+    } finally {
+      if (fr != null) fr.delete();
+      FileUtils.deleteQuietly(dir);
+    }
+  }
+
+  @Test
+  public void testExportRoundTripWithNAs() {
+    File dir = Files.createTempDir();
+    Scope.enter();
+    try {
+      final int nrows = 1000;
+      String[] cats = new String[nrows];
+      double[] times = new double[nrows];
+      String[] strs = new String[nrows];
+      double[] nums = new double[nrows];
+      for (int row = 0; row < nrows; row++) {
+        cats[row] = row % 7 == 6 ? null : String.valueOf((char) ('a' + row % 3));
+        times[row] = row % 13 == 0 ? Double.NaN : 1500000000000L + row * 1000L;
+        strs[row] = row % 5 == 0 ? null : "row " + row;
+        nums[row] = row % 11 == 0 ? Double.NaN : row / 4.0;
+      }
+      Frame fr = new TestFrameBuilder()
+              .withColNames("cat", "time", "str", "num")
+              .withVecTypes(Vec.T_CAT, Vec.T_TIME, Vec.T_STR, Vec.T_NUM)
+              .withDataForCol(0, cats)
+              .withDataForCol(1, times)
+              .withDataForCol(2, strs)
+              .withDataForCol(3, nums)
+              .withChunkLayout(300, 300, 200, 200)
+              .build();
+      // the builder has no UUID columns
+      fr.add("uuid", new MRTask() {
+        @Override public void map(Chunk c, NewChunk nc) {
+          for (int row = 0; row < c._len; row++) {
+            long r = c.start() + row;
+            if (r % 3 == 0) nc.addNA();
+            else nc.addUUID(new UUID(r, ~r));
+          }
+        }
+      }.doAll(Vec.T_UUID, fr.vec("num")).outputFrame().anyVec());
+      Scope.track(fr.vec("uuid"));
+      DKV.put(fr);
+
+      assertExported(fr, new File(dir, "nas.parquet"), 1, null);
+      assertExported(fr, new File(dir, "nas-parts"), 3, "gzip");
+    } finally {
+      Scope.exit();
+      FileUtils.deleteQuietly(dir);
+    }
+  }
+
+  @Test
+  public void testExportUnsupportedCompression() {
+    File dir = Files.createTempDir();
+    Scope.enter();
+    try {
+      Frame fr = new TestFrameBuilder()
+              .withColNames("num")
+              .withDataForCol(0, ard(1, 2, 3))
+              .build();
+      File target = new File(dir, "bad.parquet");
+      try {
+        Frame.export(fr, target.getPath(), "export", false, 1, "parquet", "zip");
+        fail("Unsupported compression codec should be rejected");
+      } catch (H2OIllegalArgumentException e) {
+        assertTrue(e.getMessage(), e.getMessage().contains("Unsupported Parquet compression: zip"));
+      }
+      assertFalse("No file is written for an unsupported codec", target.exists());
+    } finally {
+      Scope.exit();
+      FileUtils.deleteQuietly(dir);
+    }
+  }
+
+  private static Frame rebalance(Frame fr, int nChunks) {
+    Key<Frame> key = Key.make();
+    RebalanceDataSet rb = new RebalanceDataSet(fr, key, nChunks);
+    H2O.submitTask(rb);
+    rb.join();
+    return DKV.getGet(key);
+  }
+
+  private void assertExported(Frame fr, File target, int nParts, String compression) {
+    Frame exported = null;
+    try {
+      Frame.export(fr, target.getPath(), "export", false, nParts, "parquet", compression).get();
+      exported = nParts == 1 ? parse_test_file(target.getPath(), null, ParseSetup.GUESS_HEADER, fr.types())
+              : parse_test_folder(target.getPath(), null, ParseSetup.GUESS_HEADER, fr.types(), false);
+      assertArrayEquals(fr.names(), exported.names());
+      assertArrayEquals(fr.types(), exported.types());
+      for (int col = 0; col < fr.numCols(); col++)
+        assertArrayEquals(fr.name(col), fr.vec(col).domain(), exported.vec(col).domain());
+      assertTrue(isBitIdentical(fr, exported));
+    } finally {
+      if (exported != null) exported.delete();
+    }
+  }
+
+  private static void assertSameFrames(String fname) {
+    final boolean columnar = ParquetParser.COLUMNAR;
+    Frame records = null, columns = null;
+    try {
+      ParquetParser.COLUMNAR = false;
+      records = parse_test_file(fname);
+      ParquetParser.COLUMNAR = true;
+      columns = parse_test_file(fname);
+      assertArrayEquals(records.names(), columns.names());
+      assertArrayEquals(records.types(), columns.types());
+      assertTrue(isBitIdentical(records, columns));
+    } finally {
+      ParquetParser.COLUMNAR = columnar;
+      if (records != null) records.delete();
+      if (columns != null) columns.delete();
+    }
+  }
+
 }
 
 class ParquetFileGenerator {
@@ -344,4 +526,30 @@ class ParquetFileGenerator {
     return f;
   }
 
-}
\ No newline at end of file
+  // Strings with bytes that are not valid UTF-8: dictionary encoded (few levels) and plain (unique values)
+  static File generateParquetFileWithInvalidUTF8(File parentDir, String filename, int nrows) throws IOException {
+    File f = new File(parentDir, filename);
+
+    Configuration conf = new Configuration();
+    MessageType schema = parseMessageType(
+            "message test { optional binary cat_field (UTF8); optional binary str_field (UTF8); } ");
+    GroupWriteSupport.setSchema(schema, conf);
+    SimpleGroupFactory fact = new SimpleGroupFactory(schema);
+    ParquetWriter<Group> writer = new ParquetWriter<Group>(new Path(f.getPath()), new GroupWriteSupport(),
+            UNCOMPRESSED, 1024, 1024, 512, true, false, ParquetProperties.WriterVersion.PARQUET_2_0, conf);
+    try {
+      for (int i = 0; i < nrows; i++) {
+        byte[] cat = {'C', 'A', 'T', (byte) (i % 2 == 0 ? 0xC3 : 'A')};
+        byte[] str = ("STR_" + i + "_").getBytes();
+        str[str.length - 1] = (byte) 0xFF;
+        writer.write(fact.newGroup()
+                .append("cat_field", Binary.fromConstantByteArray(cat))
+                .append("str_field", Binary.fromConstantByteArray(str)));
+      }
+    } finally {
+      writer.close();
+    }
+    return f;
+  }
+
+}
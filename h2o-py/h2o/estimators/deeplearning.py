@@ -55,7 +55,8 @@ class H2ODeepLearningEstimator(H2OEstimator):
                       "missing_values_handling", "quiet_mode", "autoencoder", "sparse", "col_major",
                       "average_activation", "sparsity_beta", "max_categorical_features", "reproducible",
                       "export_weights_and_biases", "mini_batch_size", "categorical_encoding", "elastic_averaging",
-                      "elastic_averaging_moving_rate", "elastic_averaging_regularization"}
+                      "elastic_averaging_moving_rate", "elastic_averaging_regularization", "averaging_precision",
+                      "parameter_server", "parameter_server_sync_samples", "parameter_server_max_staleness"}
         if "Lambda" in kwargs: kwargs["lambda_"] = kwargs.pop("Lambda")
         for pname, pvalue in kwargs.items():
             if pname == 'model_id':
@@ -1376,6 +1377,71 @@ class H2ODeepLearningEstimator(H2OEstimator):
         self._parms["elastic_averaging_regularization"] = elastic_averaging_regularization
 
 
+    @property
+    def averaging_precision(self):
+        """
+        Precision of the model updates sent between compute nodes for model averaging (lower precision reduces network
+        traffic). #Experimental
+
+        One of: ``"float32"``, ``"float16"``, ``"int8"``  (default: ``"float32"``).
+        """
+        return self._parms.get("averaging_precision")
+
+    @averaging_precision.setter
+    def averaging_precision(self, averaging_precision):
+        assert_is_type(averaging_precision, None, Enum("float32", "float16", "int8"))
+        self._parms["averaging_precision"] = averaging_precision
+
+
+    @property
+    def parameter_server(self):
+        """
+        Parameter server mode: stripe the weights and biases across the nodes, which push their updates asynchronously
+        instead of averaging their models after every iteration (requires replicate_training_data disabled).
+        #Experimental
+
+        Type: ``bool``  (default: ``False``).
+        """
+        return self._parms.get("parameter_server")
+
+    @parameter_server.setter
+    def parameter_server(self, parameter_server):
+        assert_is_type(parameter_server, None, bool)
+        self._parms["parameter_server"] = parameter_server
+
+
+    @property
+    def parameter_server_sync_samples(self):
+        """
+        Number of training samples a node processes between two pushes of its updates to the parameter server (only if
+        parameter server mode is enabled).
+
+        Type: ``int``  (default: ``1000``).
+        """
+        return self._parms.get("parameter_server_sync_samples")
+
+    @parameter_server_sync_samples.setter
+    def parameter_server_sync_samples(self, parameter_server_sync_samples):
+        assert_is_type(parameter_server_sync_samples, None, int)
+        self._parms["parameter_server_sync_samples"] = parameter_server_sync_samples
+
+
+    @property
+    def parameter_server_max_staleness(self):
+        """
+        Max. number of pushes a node can be ahead of the slowest node before it waits for it (only if parameter server
+        mode is enabled).
+
+        Type: ``int``  (default: ``4``).
+        """
+        return self._parms.get("parameter_server_max_staleness")
+
+    @parameter_server_max_staleness.setter
+    def parameter_server_max_staleness(self, parameter_server_max_staleness):
+        assert_is_type(parameter_server_max_staleness, None, int)
+        self._parms["parameter_server_max_staleness"] = parameter_server_max_staleness
+
+
 
 class H2OAutoEncoderEstimator(H2ODeepLearningEstimator):
     """
@@ -23,9 +23,9 @@ class H2OWord2vecEstimator(H2OEstimator):
     def __init__(self, **kwargs):
         super(H2OWord2vecEstimator, self).__init__()
         self._parms = {}
-        names_list = {"model_id", "training_frame", "min_word_freq", "word_model", "norm_model", "vec_size",
-                      "window_size", "sent_sample_rate", "init_learning_rate", "epochs", "pre_trained",
-                      "max_runtime_secs"}
+        names_list = {"model_id", "training_frame", "min_word_freq", "word_model", "norm_model",
+                      "negative_samples", "vec_size", "window_size", "sent_sample_rate", "init_learning_rate", "epochs",
+                      "pre_trained", "max_runtime_secs"}
         if "Lambda" in kwargs: kwargs["lambda_"] = kwargs.pop("Lambda")
         for pname, pvalue in kwargs.items():
             if pname == 'model_id':
@@ -85,18 +85,33 @@ class H2OWord2vecEstimator(H2OEstimator):
     @property
     def norm_model(self):
         """
-        Use Hierarchical Softmax
+        Use Hierarchical Softmax or Negative Sampling
 
-        One of: ``"hsm"``  (default: ``"hsm"``).
+        One of: ``"hsm"``, ``"negative_sampling"``  (default: ``"hsm"``).
         """
         return self._parms.get("norm_model")
 
     @norm_model.setter
     def norm_model(self, norm_model):
-        assert_is_type(norm_model, None, Enum("hsm"))
+        assert_is_type(norm_model, None, Enum("hsm", "negative_sampling"))
         self._parms["norm_model"] = norm_model
 
 
+    @property
+    def negative_samples(self):
+        """
+        Number of negative examples drawn per training example (used only with Negative Sampling)
+
+        Type: ``int``  (default: ``5``).
+        """
+        return self._parms.get("negative_samples")
+
+    @negative_samples.setter
+    def negative_samples(self, negative_samples):
+        assert_is_type(negative_samples, None, int)
+        self._parms["negative_samples"] = negative_samples
+
+
     @property
     def vec_size(self):
         """
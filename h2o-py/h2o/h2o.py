@@ -415,7 +415,7 @@ def import_file(path=None, destination_frame=None, parse=True, header=0, sep=Non
         return H2OFrame()._import_parse(path, pattern, destination_frame, header, sep, col_names, col_types, na_strings)
 
 
-def import_sql_table(connection_url, table, username, password, columns=None, optimize=True):
+def import_sql_table(connection_url, table, username, password, columns=None, optimize=True, partition_column=None):
     """
     Import SQL table to H2OFrame in memory.
 
@@ -436,6 +436,8 @@ def import_sql_table(connection_url, table, username, password, columns=None, op
     :param username: username for SQL server
     :param password: password for SQL server
     :param optimize: optimize import of SQL table for faster imports. Experimental.
+    :param partition_column: numeric or date column whose ranges of values are read in parallel. Default is the
+        primary key of the table; without one, pages of rows are read.
 
     :returns: an :class:`H2OFrame` containing data of the specified SQL table.
 
@@ -452,9 +454,12 @@ def import_sql_table(connection_url, table, username, password, columns=None, op
     assert_is_type(password, str)
     assert_is_type(columns, [str], None)
     assert_is_type(optimize, bool)
+    assert_is_type(partition_column, str, None)
     p = {"connection_url": connection_url, "table": table, "username": username, "password": password, "optimize": optimize}
     if columns:
         p["columns"] = ", ".join(columns)
+    if partition_column:
+        p["partition_column"] = partition_column
     j = H2OJob(api("POST /99/ImportSQLTable", data=p), "Import SQL Table").poll()
     return get_frame(j.dest_key)
 
@@ -993,7 +998,7 @@ def load_model(path):
     return get_model(res["models"][0]["model_id"]["name"])
 
 
-def export_file(frame, path, force=False, parts=1):
+def export_file(frame, path, force=False, parts=1, format="csv", compression=None):
     """
     Export a given H2OFrame to a path on the machine this python session is currently connected to.
 
@@ -1006,12 +1011,18 @@ def export_file(frame, path, force=False, parts=1):
         specify your desired maximum number of part files. Path needs to be a directory
         when exporting to multiple files, also that directory must be empty.
         Default is ``parts = 1``, which is to export to a single file.
+    :param format: file format of the export, "csv" (default) or "parquet". Parts are written in parallel.
+    :param compression: compression codec of a "parquet" export ("snappy", "gzip"), default is ``None`` (uncompressed).
     """
     assert_is_type(frame, H2OFrame)
     assert_is_type(path, str)
     assert_is_type(force, bool)
     assert_is_type(parts, int)
-    H2OJob(api("POST /3/Frames/%s/export" % (frame.frame_id), data={"path": path, "num_parts": parts, "force": force}),
+    assert_is_type(format, "csv", "parquet")
+    assert_is_type(compression, str, None)
+    data = {"path": path, "num_parts": parts, "force": force, "format": format}
+    if compression is not None: data["compression"] = compression
+    H2OJob(api("POST /3/Frames/%s/export" % (frame.frame_id), data=data),
            "Export File").poll()
 
 
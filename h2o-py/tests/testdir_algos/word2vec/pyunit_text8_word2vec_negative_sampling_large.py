@@ -0,0 +1,50 @@
+from __future__ import print_function
+import sys, os
+sys.path.insert(1, os.path.join("..","..",".."))
+import h2o
+from tests import pyunit_utils
+from h2o.estimators.word2vec import H2OWord2vecEstimator
+
+
+# Words and a word closely related to each of them in text8
+RELATED = [("king", "queen"), ("man", "woman"), ("father", "mother"), ("brother", "sister"), ("son", "daughter"),
+           ("january", "february"), ("three", "four"), ("red", "blue"), ("north", "south"), ("east", "west"),
+           ("german", "french"), ("england", "scotland"), ("war", "battle"), ("city", "town"), ("dog", "cat"),
+           ("river", "lake"), ("army", "troops"), ("book", "novel"), ("church", "catholic"), ("music", "jazz")]
+
+
+def synonym_hits(w2v_model):
+    hits = 0
+    for word, related in RELATED:
+        synonyms = w2v_model.find_synonyms(word, 20)
+        if related in synonyms:
+            hits += 1
+    return hits
+
+
+def word2vec_negative_sampling():
+    print("Test the synonyms of a word2vec model trained with negative sampling against hierarchical softmax")
+
+    text8 = h2o.import_file(pyunit_utils.locate("bigdata/laptop/text8.gz"), header=1, col_types=["string"])
+    train = text8[0:5000000, :]
+
+    hsm_model = H2OWord2vecEstimator(norm_model="hsm", vec_size=100, epochs=1)
+    hsm_model.train(training_frame=train)
+
+    ns_model = H2OWord2vecEstimator(norm_model="negative_sampling", negative_samples=5, vec_size=100, epochs=1)
+    ns_model.train(training_frame=train)
+
+    assert ns_model.params["norm_model"]["actual"] == "NegativeSampling", "Model was trained with negative sampling"
+    assert ns_model.params["negative_samples"]["actual"] == 5, "Number of negative samples was passed to the model"
+
+    hsm_hits = synonym_hits(hsm_model)
+    ns_hits = synonym_hits(ns_model)
+    print("Related words among the top 20 synonyms: %d with hierarchical softmax, %d with negative sampling (of %d)"
+          % (hsm_hits, ns_hits, len(RELATED)))
+    assert hsm_hits >= len(RELATED) / 4, "Hierarchical softmax should find some of the related words"
+    assert ns_hits >= hsm_hits - 3, "Negative sampling should find about as many related words as hierarchical softmax"
+
+if __name__ == "__main__":
+    pyunit_utils.standalone_test(word2vec_negative_sampling)
+else:
+    word2vec_negative_sampling()